@@ -0,0 +1,248 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounds the number of in flight asynchronous operations.
+ *
+ * The limit follows an AIMD (additive increase, multiplicative decrease) policy: it grows by one every time a full
+ * window of operations completes faster than the latency threshold, and is multiplied by the backoff ratio when an
+ * operation is slower than the threshold or fails. Decreases happen at most once per latency threshold, so that a
+ * single congestion episode does not collapse the limit.
+ *
+ * Operations exceeding the limit are queued and started, in submission order, as soon as a slot is released. The
+ * count of queued operations and the time they waited for a slot are published through the {@link MetricFactory}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static class Builder {
+        private int initialLimit = 16;
+        private int minLimit = 1;
+        private int maxLimit = 256;
+        private Duration latencyThreshold = Duration.ofMillis(100);
+        private double backoffRatio = 0.9;
+        private MetricFactory metricFactory = new NoopMetricFactory();
+        private String metricPrefix = "concurrency-limiter";
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public Builder metricFactory(MetricFactory metricFactory) {
+            this.metricFactory = metricFactory;
+            return this;
+        }
+
+        public Builder metricPrefix(String metricPrefix) {
+            this.metricPrefix = metricPrefix;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() {
+            Preconditions.checkArgument(minLimit > 0, "minLimit needs to be strictly positive");
+            Preconditions.checkArgument(maxLimit >= minLimit, "maxLimit needs to be greater than minLimit");
+            Preconditions.checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit needs to be between minLimit and maxLimit");
+            Preconditions.checkArgument(!latencyThreshold.isNegative() && !latencyThreshold.isZero(), "latencyThreshold needs to be strictly positive");
+            Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1, "backoffRatio needs to be between 0 and 1");
+            Preconditions.checkNotNull(metricFactory, "metricFactory is compulsory");
+            Preconditions.checkNotNull(metricPrefix, "metricPrefix is compulsory");
+            return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio,
+                metricFactory, metricPrefix);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final MetricFactory metricFactory;
+    private final Metric queuedMetric;
+    private final String queueTimeMetricName;
+    private final Deque<Runnable> pendingOperations;
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+    private long queuedCount;
+    private long startedCount;
+
+    private AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio,
+                                       MetricFactory metricFactory, String metricPrefix) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.metricFactory = metricFactory;
+        this.queuedMetric = metricFactory.generate(metricPrefix + "-queued");
+        this.queueTimeMetricName = metricPrefix + "-queue-time";
+        this.pendingOperations = new ArrayDeque<>();
+        this.lastDecreaseNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < currentLimit() && pendingOperations.isEmpty();
+            if (startNow) {
+                inFlight++;
+                startedCount++;
+            } else {
+                TimeMetric queueTime = metricFactory.timer(queueTimeMetricName);
+                pendingOperations.add(() -> {
+                    queueTime.stopAndPublish();
+                    start(operation, result);
+                });
+                queuedCount++;
+            }
+        }
+        if (startNow) {
+            start(operation, result);
+        } else {
+            queuedMetric.increment();
+        }
+        return result;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> operation, CompletableFuture<T> result) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            release(startNanos, true);
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((value, error) -> {
+            release(startNanos, error != null);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void release(long startNanos, boolean failed) {
+        long now = System.nanoTime();
+        List<Runnable> toStart = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            adjustLimit(now - startNanos, failed, now);
+            while (inFlight < currentLimit() && !pendingOperations.isEmpty()) {
+                inFlight++;
+                startedCount++;
+                toStart.add(pendingOperations.poll());
+            }
+        }
+        toStart.forEach(Runnable::run);
+    }
+
+    private void adjustLimit(long latencyNanos, boolean failed, long now) {
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getLimit() {
+        return currentLimit();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueSize() {
+        return pendingOperations.size();
+    }
+
+    /**
+     * Number of operations that had to wait for a slot since this limiter was created.
+     */
+    public synchronized long getQueuedCount() {
+        return queuedCount;
+    }
+
+    public synchronized long getStartedCount() {
+        return startedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("limit", currentLimit())
+            .add("inFlight", inFlight)
+            .add("queueSize", pendingOperations.size())
+            .add("queuedCount", queuedCount)
+            .add("startedCount", startedCount)
+            .toString();
+    }
+}
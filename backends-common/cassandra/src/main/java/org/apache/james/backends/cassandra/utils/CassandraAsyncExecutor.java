@@ -24,6 +24,8 @@ import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
+import org.apache.james.util.Workload;
+
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -34,25 +36,42 @@ import net.javacrumbs.futureconverter.java8guava.FutureConverter;
 public class CassandraAsyncExecutor {
 
     private final Session session;
+    private final CassandraConcurrencyLimiters concurrencyLimiters;
+    private final Workload workload;
 
     @Inject
-    public CassandraAsyncExecutor(Session session) {
+    public CassandraAsyncExecutor(Session session, CassandraConcurrencyLimiters concurrencyLimiters) {
+        this(session, concurrencyLimiters, Workload.INTERACTIVE);
+    }
+
+    private CassandraAsyncExecutor(Session session, CassandraConcurrencyLimiters concurrencyLimiters, Workload workload) {
         this.session = session;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.workload = workload;
+    }
+
+    /**
+     * Returns an executor sharing the limiters of this one, but accounting all its statements, including the ones
+     * chained from asynchronous callbacks, to the given {@link Workload}.
+     */
+    public CassandraAsyncExecutor withWorkload(Workload workload) {
+        return new CassandraAsyncExecutor(session, concurrencyLimiters, workload);
     }
 
     public CompletableFuture<ResultSet> execute(Statement statement) {
-        return FutureConverter.toCompletableFuture(session.executeAsync(statement));
+        return concurrencyLimiters.forWorkload(workload)
+            .execute(() -> FutureConverter.toCompletableFuture(session.executeAsync(statement)));
     }
 
 
     public CompletableFuture<Boolean> executeReturnApplied(Statement statement) {
-        return FutureConverter.toCompletableFuture(session.executeAsync(statement))
+        return execute(statement)
             .thenApply(ResultSet::one)
             .thenApply(row -> row.getBool(CassandraConstants.LIGHTWEIGHT_TRANSACTION_APPLIED));
     }
 
     public CompletableFuture<Void> executeVoid(Statement statement) {
-        return FutureConverter.toCompletableFuture(session.executeAsync(statement))
+        return execute(statement)
             .thenAccept(result -> { });
     }
 
@@ -0,0 +1,89 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.james.util.Workload;
+
+/**
+ * Concurrency limiters of the {@link CassandraAsyncExecutor}, one per {@link Workload}. A single instance is meant
+ * to be shared by all the executors of a server.
+ *
+ * Interactive statements have a fixed cap, only protecting the cluster against floods, while batch statements
+ * (migrations, re-indexing checkpoints...) adapt their concurrency to the observed latency, so that they back off when the
+ * cluster is loaded.
+ *
+ * The limit, the in flight and the queued statements of each limiter are published as gauges, and the queueing of
+ * statements through the {@link MetricFactory}.
+ */
+public class CassandraConcurrencyLimiters {
+
+    public static final int INTERACTIVE_LIMIT = 1024;
+
+    public static CassandraConcurrencyLimiters withoutMetrics() {
+        return new CassandraConcurrencyLimiters(new NoopMetricFactory(), new NoopGaugeRegistry());
+    }
+
+    private final Map<Workload, AdaptiveConcurrencyLimiter> limiters;
+
+    @Inject
+    public CassandraConcurrencyLimiters(MetricFactory metricFactory, GaugeRegistry gaugeRegistry) {
+        this.limiters = new EnumMap<>(Workload.class);
+        limiters.put(Workload.INTERACTIVE, AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(INTERACTIVE_LIMIT)
+            .minLimit(INTERACTIVE_LIMIT)
+            .maxLimit(INTERACTIVE_LIMIT)
+            .latencyThreshold(Duration.ofSeconds(1))
+            .metricFactory(metricFactory)
+            .metricPrefix(metricPrefix(Workload.INTERACTIVE))
+            .build());
+        limiters.put(Workload.BATCH, AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(8)
+            .minLimit(1)
+            .maxLimit(64)
+            .latencyThreshold(Duration.ofMillis(50))
+            .metricFactory(metricFactory)
+            .metricPrefix(metricPrefix(Workload.BATCH))
+            .build());
+
+        limiters.forEach((workload, limiter) -> gaugeRegistry
+            .register(metricPrefix(workload) + "-limit", limiter::getLimit)
+            .register(metricPrefix(workload) + "-in-flight", limiter::getInFlight)
+            .register(metricPrefix(workload) + "-queue-size", limiter::getQueueSize));
+    }
+
+    private static String metricPrefix(Workload workload) {
+        return "cassandra-" + workload.name().toLowerCase(Locale.US) + "-statements";
+    }
+
+    public AdaptiveConcurrencyLimiter forWorkload(Workload workload) {
+        return limiters.get(workload);
+    }
+}
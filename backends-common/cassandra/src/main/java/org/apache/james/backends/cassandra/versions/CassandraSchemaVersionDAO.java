@@ -46,8 +46,8 @@ public class CassandraSchemaVersionDAO {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
 
     @Inject
-    public CassandraSchemaVersionDAO(Session session, CassandraUtils cassandraUtils) {
-        cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraSchemaVersionDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils) {
+        cassandraAsyncExecutor = cassandraAsyncExecutor;
         readVersionStatement = prepareReadVersionStatement(session);
         writeVersionStatement = prepareWriteVersionStatement(session);
         this.cassandraUtils = cassandraUtils;
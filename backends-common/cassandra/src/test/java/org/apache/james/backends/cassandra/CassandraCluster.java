@@ -32,6 +32,8 @@ import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
 import org.apache.james.backends.cassandra.init.ClusterBuilder;
 import org.apache.james.backends.cassandra.init.ClusterWithKeyspaceCreatedFactory;
 import org.apache.james.backends.cassandra.init.SessionWithInitializedTablesFactory;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraConcurrencyLimiters;
 import org.apache.james.backends.cassandra.utils.FunctionRunnerWithRetry;
 import org.apache.james.util.Host;
 
@@ -49,6 +51,7 @@ public final class CassandraCluster implements AutoCloseable {
     private final CassandraModule module;
     private Session session;
     private CassandraTypesProvider typesProvider;
+    private CassandraAsyncExecutor executor;
     private Cluster cluster;
     private String keyspace;
     private CassandraSessionConfiguration cassandraSessionConfiguration;
@@ -81,6 +84,7 @@ public final class CassandraCluster implements AutoCloseable {
             };
             session = new FunctionRunnerWithRetry(MAX_RETRY).executeAndRetrieveObject(CassandraCluster.this::tryInitializeSession);
             typesProvider = new CassandraTypesProvider(module, session);
+            executor = new CassandraAsyncExecutor(session, CassandraConcurrencyLimiters.withoutMetrics());
         } catch (Exception exception) {
             throw new RuntimeException(exception);
         }
@@ -122,6 +126,10 @@ public final class CassandraCluster implements AutoCloseable {
         return typesProvider;
     }
 
+    public CassandraAsyncExecutor getExecutor() {
+        return executor;
+    }
+
     @Override
     public void close() {
         cluster.closeAsync();
@@ -36,6 +36,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.apache.commons.lang.NotImplementedException;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionDAO;
 import org.apache.james.backends.cassandra.versions.SchemaVersion;
 import org.apache.james.task.Task;
@@ -207,7 +208,7 @@ public class CassandraMigrationServiceTest {
         private SchemaVersion currentVersion;
 
         public InMemorySchemaDAO(SchemaVersion currentVersion) {
-            super(mock(Session.class), null);
+            super(mock(Session.class), mock(CassandraAsyncExecutor.class), null);
             this.currentVersion = currentVersion;
         }
 
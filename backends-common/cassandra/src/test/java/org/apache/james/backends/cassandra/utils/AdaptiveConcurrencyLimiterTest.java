@@ -0,0 +1,208 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.cassandra.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+
+    @Test
+    public void buildShouldThrowWhenInitialLimitIsAboveMaxLimit() {
+        assertThatThrownBy(() -> AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(3)
+                .maxLimit(2)
+                .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void buildShouldThrowWhenMinLimitIsZero() {
+        assertThatThrownBy(() -> AdaptiveConcurrencyLimiter.builder()
+                .minLimit(0)
+                .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void executeShouldReturnOperationResult() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder().build();
+
+        assertThat(testee.execute(() -> CompletableFuture.completedFuture(42)).join())
+            .isEqualTo(42);
+    }
+
+    @Test
+    public void executeShouldPropagateOperationFailure() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder().build();
+        CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+
+        assertThatThrownBy(() -> testee.execute(() -> failed).join())
+            .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void executeShouldReleaseSlotWhenSupplierThrows() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(1)
+            .build();
+
+        CompletableFuture<Integer> result = testee.execute(() -> {
+            throw new IllegalStateException();
+        });
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(testee.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void executeShouldQueueOperationsAboveLimit() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(2)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+
+        testee.execute(CompletableFuture::new);
+        testee.execute(CompletableFuture::new);
+        CompletableFuture<Integer> queued = testee.execute(() -> CompletableFuture.completedFuture(42));
+
+        assertThat(queued).isNotDone();
+        assertThat(testee.getInFlight()).isEqualTo(2);
+        assertThat(testee.getQueueSize()).isEqualTo(1);
+        assertThat(testee.getQueuedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void queuedOperationsShouldStartInOrderWhenSlotsAreReleased() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(1)
+            .maxLimit(1)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        List<Integer> startOrder = new ArrayList<>();
+
+        testee.execute(() -> first);
+        CompletableFuture<Void> second = testee.execute(() -> {
+            startOrder.add(2);
+            return CompletableFuture.completedFuture(null);
+        });
+        CompletableFuture<Void> third = testee.execute(() -> {
+            startOrder.add(3);
+            return CompletableFuture.completedFuture(null);
+        });
+        first.complete(null);
+
+        assertThat(second).isCompleted();
+        assertThat(third).isCompleted();
+        assertThat(startOrder).containsExactly(2, 3);
+        assertThat(testee.getInFlight()).isEqualTo(0);
+        assertThat(testee.getQueueSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void fastOperationsShouldIncreaseLimit() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(1)
+            .maxLimit(2)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+
+        testee.execute(() -> CompletableFuture.completedFuture(null)).join();
+
+        assertThat(testee.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void limitShouldNotExceedMaxLimit() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(1)
+            .maxLimit(2)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+
+        for (int i = 0; i < 10; i++) {
+            testee.execute(() -> CompletableFuture.completedFuture(null)).join();
+        }
+
+        assertThat(testee.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void failedOperationsShouldDecreaseLimit() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(10)
+            .backoffRatio(0.5)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+
+        testee.execute(() -> failed);
+
+        assertThat(testee.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void limitShouldBeDecreasedOnlyOncePerLatencyThreshold() {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(10)
+            .backoffRatio(0.5)
+            .latencyThreshold(ONE_HOUR)
+            .build();
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+
+        testee.execute(() -> failed);
+        testee.execute(() -> failed);
+
+        assertThat(testee.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void slowOperationsShouldNotDecreaseLimitBelowMinLimit() throws Exception {
+        AdaptiveConcurrencyLimiter testee = AdaptiveConcurrencyLimiter.builder()
+            .initialLimit(2)
+            .minLimit(2)
+            .backoffRatio(0.5)
+            .latencyThreshold(Duration.ofNanos(1))
+            .build();
+
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<Void> operation = new CompletableFuture<>();
+            CompletableFuture<Void> result = testee.execute(() -> operation);
+            Thread.sleep(1);
+            operation.complete(null);
+            result.join();
+        }
+
+        assertThat(testee.getLimit()).isEqualTo(2);
+    }
+}
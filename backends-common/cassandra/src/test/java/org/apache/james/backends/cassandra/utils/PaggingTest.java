@@ -74,7 +74,7 @@ public class PaggingTest {
             }
         };
         cassandra = CassandraCluster.create(modules, cassandraServer.getIp(), cassandraServer.getBindingPort());
-        executor = new CassandraAsyncExecutor(cassandra.getConf());
+        executor = cassandra.getExecutor();
     }
 
     @After
@@ -43,7 +43,7 @@ public class CassandraSchemaVersionDAOTest {
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraSchemaVersionModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
 
-        testee = new CassandraSchemaVersionDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        testee = new CassandraSchemaVersionDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     @After
@@ -19,6 +19,7 @@
 package org.apache.james.backends.es;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -74,6 +75,20 @@ public class ElasticSearchIndexer {
             .get();
     }
 
+    public Optional<BulkResponse> index(Map<String, String> contentsById) {
+        try {
+            contentsById.values().forEach(this::checkArgument);
+            BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
+            contentsById.forEach((id, content) -> bulkRequestBuilder.add(
+                client.prepareIndex(aliasName.getValue(), typeName.getValue(), id)
+                    .setSource(content)));
+            return Optional.of(bulkRequestBuilder.get());
+        } catch (ValidationException e) {
+            LOGGER.warn("Error while indexing", e);
+            return Optional.empty();
+        }
+    }
+
     public Optional<BulkResponse> update(List<UpdatedRepresentation> updatedDocumentParts) {
         try {
             Preconditions.checkNotNull(updatedDocumentParts);
@@ -57,9 +57,9 @@ public class EventStoreDao {
     private final JsonEventSerializer jsonEventSerializer;
 
     @Inject
-    public EventStoreDao(Session session, CassandraUtils cassandraUtils, JsonEventSerializer jsonEventSerializer) {
+    public EventStoreDao(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils, JsonEventSerializer jsonEventSerializer) {
         this.cassandraUtils = cassandraUtils;
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.jsonEventSerializer = jsonEventSerializer;
         this.insert = prepareInsert(session);
         this.select = prepareSelect(session);
@@ -66,7 +66,7 @@ public class CassandraGenericEventStoreExtension implements BeforeAllCallback, A
 
         JsonEventSerializer jsonEventSerializer = new JsonEventSerializer(modules);
 
-        eventStoreDao = new EventStoreDao(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION,
+        eventStoreDao = new EventStoreDao(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION,
             jsonEventSerializer);
     }
 
@@ -51,12 +51,25 @@ public interface MailboxListener {
         ASYNCHRONOUS
     }
 
+    enum DeliveryMode {
+        EACH_EVENT,
+        COALESCED
+    }
+
     ListenerType getType();
 
     default ExecutionMode getExecutionMode() {
         return ExecutionMode.SYNCHRONOUS;
     }
 
+    /**
+     * Listeners returning {@link DeliveryMode#COALESCED} accept that consecutive Added, FlagsUpdated and Expunged
+     * events of a same mailbox are delayed for a short window and delivered merged into a single event.
+     */
+    default DeliveryMode getDeliveryMode() {
+        return DeliveryMode.EACH_EVENT;
+    }
+
     /**
      * Informs this listener about the given event.
      * 
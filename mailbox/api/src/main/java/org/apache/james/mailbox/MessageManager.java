@@ -45,6 +45,8 @@ import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mime4j.dom.Message;
 import org.apache.james.mime4j.message.DefaultMessageWriter;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Interface which represent a Mailbox
  * 
@@ -251,6 +253,25 @@ public interface MessageManager {
 
     ComposedMessageId appendMessage(AppendCommand appendCommand, MailboxSession session) throws MailboxException;
 
+    /**
+     * Appends several messages to this mailbox. Implementations may choose to store them in a single operation.
+     *
+     * @param appendCommands
+     *            the messages to append
+     * @param session
+     *            the context for this call, not null
+     * @return the ids of the appended messages, in the order of the given commands
+     * @throws MailboxException
+     *             when the messages cannot be appended
+     */
+    default List<ComposedMessageId> appendMessages(List<AppendCommand> appendCommands, MailboxSession session) throws MailboxException {
+        ImmutableList.Builder<ComposedMessageId> ids = ImmutableList.builder();
+        for (AppendCommand appendCommand : appendCommands) {
+            ids.add(appendMessage(appendCommand, session));
+        }
+        return ids.build();
+    }
+
     /**
      * Gets messages in the given range. The messages may get fetched under
      * the-hood in batches so the caller should check if
@@ -33,6 +33,7 @@ import org.apache.james.mailbox.MessageManager.AppendCommand;
 import org.apache.james.mailbox.exception.AnnotationException;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.mock.MockMailboxManager;
+import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxAnnotation;
 import org.apache.james.mailbox.model.MailboxAnnotationKey;
@@ -254,6 +255,23 @@ public abstract class MailboxManagerTest {
             .appendMessage(AppendCommand.from(message), session);
     }
 
+    @Test
+    public void appendMessagesShouldReturnIncreasingUidsInTheOrderOfTheCommands() throws Exception {
+        session = mailboxManager.createSystemSession(USER_1);
+        MailboxPath inbox = MailboxPath.inbox(session);
+        mailboxManager.createMailbox(inbox, session);
+        MessageManager messageManager = mailboxManager.getMailbox(inbox, session);
+
+        List<ComposedMessageId> ids = messageManager.appendMessages(
+            ImmutableList.of(AppendCommand.from(message), AppendCommand.from(message), AppendCommand.from(message)),
+            session);
+
+        assertThat(ids).extracting(ComposedMessageId::getUid)
+            .doesNotHaveDuplicates()
+            .isSorted();
+        assertThat(messageManager.getMessageCount(session)).isEqualTo(3);
+    }
+
     @Test
     public void searchShouldNotReturnResultsFromOtherNamespaces() throws Exception {
         Assume.assumeTrue(mailboxManager.hasCapability(MailboxCapabilities.Namespace));
@@ -26,15 +26,18 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
 import org.apache.james.mailbox.cassandra.table.CassandraMailboxPathRegisterTable;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.event.distributed.DistantMailboxPathRegisterMapper;
 import org.apache.james.mailbox.store.publisher.Topic;
+import org.apache.james.util.CompletableFutureUtil;
 
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
@@ -43,6 +46,7 @@ import com.datastax.driver.core.UDTValue;
 public class CassandraMailboxPathRegisterMapper implements DistantMailboxPathRegisterMapper {
 
     private final Session session;
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final CassandraTypesProvider typesProvider;
     private final int cassandraTimeOutInS;
     private final CassandraUtils cassandraUtils;
@@ -50,8 +54,9 @@ public class CassandraMailboxPathRegisterMapper implements DistantMailboxPathReg
     private final PreparedStatement deleteStatement;
     private final PreparedStatement selectStatement;
 
-    public CassandraMailboxPathRegisterMapper(Session session, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils, int cassandraTimeOutInS) {
+    public CassandraMailboxPathRegisterMapper(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils, int cassandraTimeOutInS) {
         this.session = session;
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.typesProvider = typesProvider;
         this.cassandraTimeOutInS = cassandraTimeOutInS;
         this.insertStatement = session.prepare(insertInto(CassandraMailboxPathRegisterTable.TABLE_NAME)
@@ -78,6 +83,14 @@ public class CassandraMailboxPathRegisterMapper implements DistantMailboxPathReg
         session.execute(insertStatement.bind(buildUDTFromMailboxPath(mailboxPath), topic.getValue(), cassandraTimeOutInS));
     }
 
+    @Override
+    public void doRegister(Collection<MailboxPath> mailboxPaths, Topic topic) {
+        // Insertions go through the executor, so that the concurrency limiter bounds the in flight statements
+        CompletableFutureUtil.allOf(mailboxPaths.stream()
+                .map(mailboxPath -> cassandraAsyncExecutor.executeVoid(insertStatement.bind(buildUDTFromMailboxPath(mailboxPath), topic.getValue(), cassandraTimeOutInS))))
+            .join();
+    }
+
     @Override
     public void doUnRegister(MailboxPath mailboxPath, Topic topic) {
         session.execute(deleteStatement.bind(buildUDTFromMailboxPath(mailboxPath), topic.getValue()));
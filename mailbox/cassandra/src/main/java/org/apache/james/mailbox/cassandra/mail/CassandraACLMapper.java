@@ -21,12 +21,15 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -53,6 +56,8 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableMap;
 
 public class CassandraACLMapper {
     public static final int INITIAL_VALUE = 0;
@@ -71,19 +76,21 @@ public class CassandraACLMapper {
     private final PreparedStatement conditionalInsertStatement;
     private final PreparedStatement conditionalUpdateStatement;
     private final PreparedStatement readStatement;
+    private final PreparedStatement readManyStatement;
 
     @Inject
-    public CassandraACLMapper(Session session, CassandraUserMailboxRightsDAO userMailboxRightsDAO, CassandraConfiguration cassandraConfiguration) {
-        this(session, userMailboxRightsDAO, cassandraConfiguration, () -> { });
+    public CassandraACLMapper(Session session, CassandraAsyncExecutor executor, CassandraUserMailboxRightsDAO userMailboxRightsDAO, CassandraConfiguration cassandraConfiguration) {
+        this(session, executor, userMailboxRightsDAO, cassandraConfiguration, () -> { });
     }
 
-    public CassandraACLMapper(Session session, CassandraUserMailboxRightsDAO userMailboxRightsDAO, CassandraConfiguration cassandraConfiguration, CodeInjector codeInjector) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraACLMapper(Session session, CassandraAsyncExecutor executor, CassandraUserMailboxRightsDAO userMailboxRightsDAO, CassandraConfiguration cassandraConfiguration, CodeInjector codeInjector) {
+        this.executor = executor;
         this.maxRetry = cassandraConfiguration.getAclMaxRetry();
         this.codeInjector = codeInjector;
         this.conditionalInsertStatement = prepareConditionalInsert(session);
         this.conditionalUpdateStatement = prepareConditionalUpdate(session);
         this.readStatement = prepareReadStatement(session);
+        this.readManyStatement = prepareReadManyStatement(session);
         this.userMailboxRightsDAO = userMailboxRightsDAO;
     }
 
@@ -112,6 +119,13 @@ public class CassandraACLMapper {
                 .where(eq(CassandraMailboxTable.ID, bindMarker(CassandraACLTable.ID))));
     }
 
+    private PreparedStatement prepareReadManyStatement(Session session) {
+        return session.prepare(
+            select(CassandraACLTable.ID, CassandraACLTable.ACL)
+                .from(CassandraACLTable.TABLE_NAME)
+                .where(in(CassandraACLTable.ID, bindMarker(CassandraACLTable.ID))));
+    }
+
     public CompletableFuture<MailboxACL> getACL(CassandraId cassandraId) {
         return getStoredACLRow(cassandraId)
             .thenApply(resultSet -> getAcl(cassandraId, resultSet));
@@ -125,6 +139,29 @@ public class CassandraACLMapper {
         return deserializeACL(cassandraId, serializedACL);
     }
 
+    /**
+     * Reads the ACLs of the given mailboxes with a single query.
+     *
+     * Mailboxes without stored ACL are not part of the returned map.
+     */
+    public CompletableFuture<Map<CassandraId, MailboxACL>> getACLs(Collection<CassandraId> cassandraIds) {
+        return executor.execute(
+            readManyStatement.bind()
+                .setList(CassandraACLTable.ID, cassandraIds.stream()
+                    .map(CassandraId::asUuid)
+                    .collect(Guavate.toImmutableList())))
+            .thenApply(this::getAcls);
+    }
+
+    private Map<CassandraId, MailboxACL> getAcls(ResultSet resultSet) {
+        ImmutableMap.Builder<CassandraId, MailboxACL> acls = ImmutableMap.builder();
+        for (Row row : resultSet) {
+            CassandraId cassandraId = CassandraId.of(row.getUUID(CassandraACLTable.ID));
+            acls.put(cassandraId, deserializeACL(cassandraId, row.getString(CassandraACLTable.ACL)));
+        }
+        return acls.build();
+    }
+
     public ACLDiff updateACL(CassandraId cassandraId, MailboxACL.ACLCommand command) throws MailboxException {
         MailboxACL replacement = MailboxACL.EMPTY.apply(command);
 
@@ -50,8 +50,8 @@ public class CassandraApplicableFlagDAO {
     private final PreparedStatement select;
 
     @Inject
-    public CassandraApplicableFlagDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraApplicableFlagDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.select = prepareSelect(session);
     }
 
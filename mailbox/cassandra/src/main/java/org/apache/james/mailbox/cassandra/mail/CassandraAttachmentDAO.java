@@ -61,8 +61,8 @@ public class CassandraAttachmentDAO {
     private final PreparedStatement selectAllStatement;
 
     @Inject
-    public CassandraAttachmentDAO(Session session, CassandraUtils cassandraUtils, CassandraConfiguration configuration) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraAttachmentDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils, CassandraConfiguration configuration) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         this.selectStatement = prepareSelect(session);
         this.selectAllStatement = prepareSelectAll(session);
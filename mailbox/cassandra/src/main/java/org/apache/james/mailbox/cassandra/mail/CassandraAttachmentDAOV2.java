@@ -126,9 +126,9 @@ public class CassandraAttachmentDAOV2 {
     private final PreparedStatement selectStatement;
 
     @Inject
-    public CassandraAttachmentDAOV2(BlobId.Factory blobIdFactory, Session session) {
+    public CassandraAttachmentDAOV2(BlobId.Factory blobIdFactory, Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
         this.blobIdFactory = blobIdFactory;
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         this.selectStatement = prepareSelect(session);
         this.insertStatement = prepareInsert(session);
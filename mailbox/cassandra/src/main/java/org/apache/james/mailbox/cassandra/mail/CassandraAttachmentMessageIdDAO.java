@@ -54,10 +54,10 @@ public class CassandraAttachmentMessageIdDAO {
     private final CassandraUtils cassandraUtils;
 
     @Inject
-    public CassandraAttachmentMessageIdDAO(Session session, MessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
+    public CassandraAttachmentMessageIdDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, MessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
         this.messageIdFactory = messageIdFactory;
         this.cassandraUtils = cassandraUtils;
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         this.selectStatement = prepareSelect(session);
         this.insertStatement = prepareInsert(session);
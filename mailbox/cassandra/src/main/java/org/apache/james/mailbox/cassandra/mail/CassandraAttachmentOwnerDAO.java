@@ -50,8 +50,8 @@ public class CassandraAttachmentOwnerDAO {
     private final PreparedStatement selectStatement;
 
     @Inject
-    public CassandraAttachmentOwnerDAO(Session session, CassandraUtils cassandraUtils) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraAttachmentOwnerDAO(Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils) {
+        this.executor = executor;
 
         this.selectStatement = prepareSelect(session);
         this.addStatement = prepareAdd(session);
@@ -61,8 +61,8 @@ public class CassandraDeletedMessageDAO {
     private final CassandraUtils cassandraUtils;
 
     @Inject
-    public CassandraDeletedMessageDAO(Session session, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraDeletedMessageDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.addStatement = prepareAddStatement(session);
         this.deleteStatement = prepareDeleteStatement(session);
         this.selectAllUidStatement = prepareAllUidStatement(session);
@@ -73,8 +73,8 @@ public class CassandraDeletedMessageDAO {
     }
 
     @VisibleForTesting
-    public CassandraDeletedMessageDAO(Session session) {
-        this(session, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraDeletedMessageDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this(session, cassandraAsyncExecutor, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareAllUidStatement(Session session) {
@@ -48,8 +48,8 @@ public class CassandraFirstUnseenDAO {
     private final PreparedStatement readStatement;
 
     @Inject
-    public CassandraFirstUnseenDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraFirstUnseenDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.addStatement = prepareAddStatement(session);
         this.deleteStatement = prepareDeleteStatement(session);
         this.readStatement = prepareReadStatement(session);
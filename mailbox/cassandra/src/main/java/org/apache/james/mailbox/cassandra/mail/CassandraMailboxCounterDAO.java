@@ -53,8 +53,8 @@ public class CassandraMailboxCounterDAO {
     private final PreparedStatement decrementMessageCountStatement;
 
     @Inject
-    public CassandraMailboxCounterDAO(Session session) {
-        cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMailboxCounterDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        cassandraAsyncExecutor = cassandraAsyncExecutor;
         readStatement = createReadStatement(session);
         incrementMessageCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.COUNT));
         incrementUnseenCountStatement = updateMailboxStatement(session, incr(CassandraMailboxCountersTable.UNSEEN));
@@ -21,6 +21,7 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
@@ -32,8 +33,10 @@ import static org.apache.james.mailbox.cassandra.table.CassandraMailboxTable.NAM
 import static org.apache.james.mailbox.cassandra.table.CassandraMailboxTable.TABLE_NAME;
 import static org.apache.james.mailbox.cassandra.table.CassandraMailboxTable.UIDVALIDITY;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -52,6 +55,7 @@ import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 
 public class CassandraMailboxDAO {
@@ -60,26 +64,28 @@ public class CassandraMailboxDAO {
     private final MailboxBaseTupleUtil mailboxBaseTupleUtil;
     private final CassandraUtils cassandraUtils;
     private final PreparedStatement readStatement;
+    private final PreparedStatement readManyStatement;
     private final PreparedStatement listStatement;
     private final PreparedStatement deleteStatement;
     private final PreparedStatement insertStatement;
     private final PreparedStatement updateStatement;
 
     @Inject
-    public CassandraMailboxDAO(Session session, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraMailboxDAO(Session session, CassandraAsyncExecutor executor, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils) {
+        this.executor = executor;
         this.mailboxBaseTupleUtil = new MailboxBaseTupleUtil(typesProvider);
         this.insertStatement = prepareInsert(session);
         this.updateStatement = prepareUpdate(session);
         this.deleteStatement = prepareDelete(session);
         this.listStatement = prepareList(session);
         this.readStatement = prepareRead(session);
+        this.readManyStatement = prepareReadMany(session);
         this.cassandraUtils = cassandraUtils;
     }
 
     @VisibleForTesting
-    public CassandraMailboxDAO(Session session, CassandraTypesProvider typesProvider) {
-        this(session, typesProvider, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraMailboxDAO(Session session, CassandraAsyncExecutor executor, CassandraTypesProvider typesProvider) {
+        this(session, executor, typesProvider, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -112,6 +118,11 @@ public class CassandraMailboxDAO {
             .where(eq(ID, bindMarker(ID))));
     }
 
+    private PreparedStatement prepareReadMany(Session session) {
+        return session.prepare(select(FIELDS).from(TABLE_NAME)
+            .where(in(ID, bindMarker(ID))));
+    }
+
     public CompletableFuture<Void> save(Mailbox mailbox) {
         CassandraId cassandraId = (CassandraId) mailbox.getMailboxId();
         return executor.executeVoid(insertStatement.bind()
@@ -140,6 +151,21 @@ public class CassandraMailboxDAO {
             .thenApply(mailbox -> addMailboxId(mailboxId, mailbox));
     }
 
+    /**
+     * Reads the given mailboxes with a single query. Callers are expected to bound the number of ids,
+     * as the coordinator has to contact the replicas of every requested partition.
+     *
+     * Ids without matching mailbox are silently skipped.
+     */
+    public CompletableFuture<Stream<SimpleMailbox>> retrieveMailboxes(Collection<CassandraId> mailboxIds) {
+        return executor.execute(readManyStatement.bind()
+            .setList(ID, mailboxIds.stream()
+                .map(CassandraId::asUuid)
+                .collect(Guavate.toImmutableList())))
+            .thenApply(cassandraUtils::convertToStream)
+            .thenApply(rows -> rows.map(this::toMailboxWithId));
+    }
+
     private Optional<SimpleMailbox> addMailboxId(CassandraId cassandraId, Optional<SimpleMailbox> mailboxOptional) {
         mailboxOptional.ifPresent(mailbox -> mailbox.setMailboxId(cassandraId));
         return mailboxOptional;
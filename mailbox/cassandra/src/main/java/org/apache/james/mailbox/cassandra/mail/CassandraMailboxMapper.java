@@ -19,10 +19,12 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -49,7 +51,7 @@ import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
 import org.apache.james.util.CompletableFutureUtil;
 import org.apache.james.util.FluentFutureStream;
-import org.apache.james.util.OptionalUtils;
+import org.apache.james.util.streams.JamesCollectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +63,8 @@ import com.google.common.collect.ImmutableList;
 public class CassandraMailboxMapper implements MailboxMapper {
 
     public static final String WILDCARD = "%";
+    public static final int MAILBOX_READ_CHUNK_SIZE = 100;
+    public static final int MAX_CONCURRENT_CHUNK_READS = 4;
     public static final Logger LOGGER = LoggerFactory.getLogger(CassandraMailboxMapper.class);
 
     private final CassandraMailboxDAO mailboxDAO;
@@ -176,18 +180,68 @@ public class CassandraMailboxMapper implements MailboxMapper {
 
     private List<Mailbox> toMailboxes(MailboxPath path, CompletableFuture<Stream<CassandraIdAndPath>> listUserMailboxes) {
         Pattern regex = Pattern.compile(constructEscapedRegexForMailboxNameMatching(path));
-        
-        return FluentFutureStream.of(listUserMailboxes)
-                .filter(idAndPath -> regex.matcher(idAndPath.getMailboxPath().getName()).matches())
-                .thenFlatComposeOnOptional(this::retrieveMailbox)
-                .join()
-                .collect(Guavate.toImmutableList());
+
+        List<CassandraIdAndPath> idsAndPaths = listUserMailboxes.join()
+            .filter(idAndPath -> regex.matcher(idAndPath.getMailboxPath().getName()).matches())
+            .collect(Guavate.toImmutableList());
+        List<Mailbox> mailboxes = retrieveMailboxes(idsAndPaths.stream().map(CassandraIdAndPath::getCassandraId))
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        warnAboutMissingMailboxes(idsAndPaths, mailboxes);
+        return mailboxes;
     }
 
-    private CompletableFuture<Optional<SimpleMailbox>> retrieveMailbox(CassandraIdAndPath idAndPath) {
-        return retrieveMailbox(idAndPath.getCassandraId())
-            .thenApply(optional -> OptionalUtils.executeIfEmpty(optional,
-                () -> LOGGER.warn("Could not retrieve mailbox {} with path {} in mailbox table.", idAndPath.getCassandraId(), idAndPath.getMailboxPath())));
+    private void warnAboutMissingMailboxes(List<CassandraIdAndPath> idsAndPaths, List<Mailbox> mailboxes) {
+        if (idsAndPaths.size() == mailboxes.size()) {
+            return;
+        }
+        Set<MailboxId> retrievedIds = mailboxes.stream()
+            .map(Mailbox::getMailboxId)
+            .collect(Guavate.toImmutableSet());
+        idsAndPaths.stream()
+            .filter(idAndPath -> !retrievedIds.contains(idAndPath.getCassandraId()))
+            .forEach(idAndPath -> LOGGER.warn("Could not retrieve mailbox {} with path {} in mailbox table.", idAndPath.getCassandraId(), idAndPath.getMailboxPath()));
+    }
+
+    /**
+     * Mailboxes and their ACLs are read by chunks of {@link #MAILBOX_READ_CHUNK_SIZE} ids, using one query per table
+     * and per chunk. At most {@link #MAX_CONCURRENT_CHUNK_READS} chunks are read concurrently, so that listing the
+     * mailboxes of a user owning thousands of them do not flood the cluster with single partition reads.
+     */
+    private CompletableFuture<Stream<SimpleMailbox>> retrieveMailboxes(Stream<CassandraId> mailboxIds) {
+        return readByChunks(mailboxIds, this::retrieveMailboxChunk);
+    }
+
+    private CompletableFuture<Stream<SimpleMailbox>> retrieveMailboxChunk(Collection<CassandraId> mailboxIds) {
+        return CompletableFutureUtil.combine(
+            cassandraACLMapper.getACLs(mailboxIds),
+            mailboxDAO.retrieveMailboxes(mailboxIds),
+            this::addAcls);
+    }
+
+    private CompletableFuture<Stream<SimpleMailbox>> addAclChunk(Collection<SimpleMailbox> mailboxes) {
+        return cassandraACLMapper.getACLs(mailboxes.stream()
+                .map(mailbox -> (CassandraId) mailbox.getMailboxId())
+                .collect(Guavate.toImmutableList()))
+            .thenApply(acls -> addAcls(acls, mailboxes.stream()));
+    }
+
+    private Stream<SimpleMailbox> addAcls(Map<CassandraId, MailboxACL> acls, Stream<SimpleMailbox> mailboxes) {
+        return mailboxes.map(mailbox -> {
+            mailbox.setACL(acls.getOrDefault((CassandraId) mailbox.getMailboxId(), MailboxACL.EMPTY));
+            return mailbox;
+        });
+    }
+
+    private <T> CompletableFuture<Stream<SimpleMailbox>> readByChunks(Stream<T> values, Function<Collection<T>, CompletableFuture<Stream<SimpleMailbox>>> chunkReader) {
+        return CompletableFutureUtil.chainAll(
+                values.collect(JamesCollectors.chunker(MAILBOX_READ_CHUNK_SIZE))
+                    .collect(JamesCollectors.chunker(MAX_CONCURRENT_CHUNK_READS)),
+                concurrentChunks -> CompletableFutureUtil.allOf(concurrentChunks.stream().map(chunkReader)))
+            .thenApply(results -> results
+                .flatMap(Function.identity())
+                .flatMap(Function.identity()));
     }
 
     @Override
@@ -241,7 +295,8 @@ public class CassandraMailboxMapper implements MailboxMapper {
     @Override
     public List<Mailbox> list() {
         return mailboxDAO.retrieveAllMailboxes()
-            .thenComposeOnAll(this::toMailboxWithAclFuture)
+            .completableFuture()
+            .thenCompose(mailboxes -> readByChunks(mailboxes, this::addAclChunk))
             .join()
             .collect(Guavate.toImmutableList());
     }
@@ -284,20 +339,11 @@ public class CassandraMailboxMapper implements MailboxMapper {
         }
     }
 
-    private CompletableFuture<SimpleMailbox> toMailboxWithAclFuture(SimpleMailbox mailbox) {
-        CassandraId cassandraId = (CassandraId) mailbox.getMailboxId();
-        return cassandraACLMapper.getACL(cassandraId)
-            .thenApply(acl -> {
-                mailbox.setACL(acl);
-                return mailbox;
-            });
-    }
-
     @Override
     public List<Mailbox> findNonPersonalMailboxes(String userName, Right right) {
-        return FluentFutureStream.of(userMailboxRightsDAO.listRightsForUser(userName)
-            .thenApply(map -> toAuthorizedMailboxIds(map, right)))
-            .thenFlatComposeOnOptional(this::retrieveMailbox)
+        return userMailboxRightsDAO.listRightsForUser(userName)
+            .thenApply(map -> toAuthorizedMailboxIds(map, right))
+            .thenCompose(this::retrieveMailboxes)
             .join()
             .collect(Guavate.toImmutableList());
     }
@@ -67,8 +67,8 @@ public class CassandraMailboxPathDAOImpl implements CassandraMailboxPathDAO {
     private final PreparedStatement countAll;
 
     @Inject
-    public CassandraMailboxPathDAOImpl(Session session, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMailboxPathDAOImpl(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.mailboxBaseTupleUtil = new MailboxBaseTupleUtil(typesProvider);
         this.cassandraUtils = cassandraUtils;
         this.insert = prepareInsert(session);
@@ -80,8 +80,8 @@ public class CassandraMailboxPathDAOImpl implements CassandraMailboxPathDAO {
     }
 
     @VisibleForTesting
-    public CassandraMailboxPathDAOImpl(Session session, CassandraTypesProvider typesProvider) {
-        this(session, typesProvider, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraMailboxPathDAOImpl(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider typesProvider) {
+        this(session, cassandraAsyncExecutor, typesProvider, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareDelete(Session session) {
@@ -59,8 +59,8 @@ public class CassandraMailboxPathV2DAO implements CassandraMailboxPathDAO {
     private final PreparedStatement selectAll;
 
     @Inject
-    public CassandraMailboxPathV2DAO(Session session, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMailboxPathV2DAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.cassandraUtils = cassandraUtils;
         this.insert = prepareInsert(session);
         this.delete = prepareDelete(session);
@@ -50,8 +50,8 @@ public class CassandraMailboxRecentsDAO {
     private CassandraUtils cassandraUtils;
 
     @Inject
-    public CassandraMailboxRecentsDAO(Session session, CassandraUtils cassandraUtils) {
-        cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMailboxRecentsDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils) {
+        cassandraAsyncExecutor = cassandraAsyncExecutor;
         readStatement = createReadStatement(session);
         deleteStatement = createDeleteStatement(session);
         addStatement = createAddStatement(session);
@@ -59,8 +59,8 @@ public class CassandraMailboxRecentsDAO {
     }
 
     @VisibleForTesting
-    public CassandraMailboxRecentsDAO(Session session) {
-        this(session, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraMailboxRecentsDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this(session, cassandraAsyncExecutor, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement createReadStatement(Session session) {
@@ -117,10 +117,10 @@ public class CassandraMessageDAO {
     private final Cid.CidParser cidParser;
 
     @Inject
-    public CassandraMessageDAO(Session session, CassandraTypesProvider typesProvider, ObjectStore objectStore,
+    public CassandraMessageDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider typesProvider, ObjectStore objectStore,
                                BlobId.Factory blobIdFactory, CassandraConfiguration cassandraConfiguration,
             CassandraUtils cassandraUtils, CassandraMessageId.Factory messageIdFactory) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.typesProvider = typesProvider;
         this.objectStore = objectStore;
         this.blobIdFactory = blobIdFactory;
@@ -139,9 +139,9 @@ public class CassandraMessageDAO {
     }
 
     @VisibleForTesting
-    public CassandraMessageDAO(Session session, CassandraTypesProvider typesProvider, ObjectStore objectStore,
+    public CassandraMessageDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider typesProvider, ObjectStore objectStore,
                                BlobId.Factory blobIdFactory, CassandraUtils cassandraUtils, CassandraMessageId.Factory messageIdFactory) {
-        this(session, typesProvider, objectStore,  blobIdFactory, CassandraConfiguration.DEFAULT_CONFIGURATION, cassandraUtils, messageIdFactory);
+        this(session, cassandraAsyncExecutor, typesProvider, objectStore,  blobIdFactory, CassandraConfiguration.DEFAULT_CONFIGURATION, cassandraUtils, messageIdFactory);
     }
 
     private PreparedStatement prepareSelect(Session session, String[] fields) {
@@ -85,8 +85,8 @@ public class CassandraMessageIdDAO {
     private final PreparedStatement update;
 
     @Inject
-    public CassandraMessageIdDAO(Session session, CassandraMessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMessageIdDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraMessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.messageIdFactory = messageIdFactory;
         this.delete = prepareDelete(session);
         this.insert = prepareInsert(session);
@@ -99,8 +99,8 @@ public class CassandraMessageIdDAO {
     }
 
     @VisibleForTesting
-    public CassandraMessageIdDAO(Session session, CassandraMessageId.Factory messageIdFactory) {
-        this(session, messageIdFactory, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraMessageIdDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraMessageId.Factory messageIdFactory) {
+        this(session, cassandraAsyncExecutor, messageIdFactory, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareDelete(Session session) {
@@ -79,8 +79,8 @@ public class CassandraMessageIdToImapUidDAO {
     private CassandraUtils cassandraUtils;
 
     @Inject
-    public CassandraMessageIdToImapUidDAO(Session session, CassandraMessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraMessageIdToImapUidDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraMessageId.Factory messageIdFactory, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.messageIdFactory = messageIdFactory;
         this.delete = prepareDelete(session);
         this.insert = prepareInsert(session);
@@ -91,8 +91,8 @@ public class CassandraMessageIdToImapUidDAO {
     }
 
     @VisibleForTesting
-    public CassandraMessageIdToImapUidDAO(Session session, CassandraMessageId.Factory messageIdFactory) {
-        this(session, messageIdFactory, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    public CassandraMessageIdToImapUidDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraMessageId.Factory messageIdFactory) {
+        this(session, cassandraAsyncExecutor, messageIdFactory, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareDelete(Session session) {
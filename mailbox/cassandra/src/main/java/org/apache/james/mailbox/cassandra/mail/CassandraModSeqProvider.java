@@ -87,8 +87,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     private final PreparedStatement insert;
 
     @Inject
-    public CassandraModSeqProvider(Session session, CassandraConfiguration cassandraConfiguration) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraModSeqProvider(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraConfiguration cassandraConfiguration) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.runner = new FunctionRunnerWithRetry(cassandraConfiguration.getModSeqMaxRetry());
         this.insert = prepareInsert(session);
         this.update = prepareUpdate(session);
@@ -96,8 +96,8 @@ public class CassandraModSeqProvider implements ModSeqProvider {
     }
 
     @VisibleForTesting
-    public CassandraModSeqProvider(Session session) {
-        this(session, CassandraConfiguration.DEFAULT_CONFIGURATION);
+    public CassandraModSeqProvider(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this(session, cassandraAsyncExecutor, CassandraConfiguration.DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.truncate;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.mailbox.cassandra.table.CassandraReIndexingCheckpointTable.COMPLETED;
+import static org.apache.james.mailbox.cassandra.table.CassandraReIndexingCheckpointTable.LAST_INDEXED_UID;
+import static org.apache.james.mailbox.cassandra.table.CassandraReIndexingCheckpointTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraReIndexingCheckpointTable.TABLE_NAME;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.store.search.ReIndexingCheckpoint;
+import org.apache.james.util.Workload;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+/**
+ * Stores the progress of full re-indexations in Cassandra, so that they can be resumed after a restart of the server.
+ *
+ * Its statements are accounted to the {@link Workload#BATCH} workload.
+ */
+public class CassandraReIndexingCheckpoint implements ReIndexingCheckpoint {
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement selectStatement;
+    private final PreparedStatement checkpointStatement;
+    private final PreparedStatement completeStatement;
+
+    @Inject
+    public CassandraReIndexingCheckpoint(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor.withWorkload(Workload.BATCH);
+        this.selectStatement = prepareSelectStatement(session);
+        this.checkpointStatement = prepareCheckpointStatement(session);
+        this.completeStatement = prepareCompleteStatement(session);
+    }
+
+    private PreparedStatement prepareSelectStatement(Session session) {
+        return session.prepare(select(LAST_INDEXED_UID, COMPLETED)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareCheckpointStatement(Session session) {
+        return session.prepare(update(TABLE_NAME)
+            .with(set(LAST_INDEXED_UID, bindMarker(LAST_INDEXED_UID)))
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareCompleteStatement(Session session) {
+        return session.prepare(update(TABLE_NAME)
+            .with(set(COMPLETED, true))
+            .and(set(LAST_INDEXED_UID, bindMarker(LAST_INDEXED_UID)))
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    @Override
+    public Optional<MessageUid> lastIndexedUid(MailboxId mailboxId) {
+        return retrieve(mailboxId)
+            .filter(row -> !row.isNull(LAST_INDEXED_UID))
+            .map(row -> MessageUid.of(row.getLong(LAST_INDEXED_UID)));
+    }
+
+    @Override
+    public boolean isCompleted(MailboxId mailboxId) {
+        return retrieve(mailboxId)
+            .map(row -> row.getBool(COMPLETED))
+            .orElse(false);
+    }
+
+    private Optional<Row> retrieve(MailboxId mailboxId) {
+        return cassandraAsyncExecutor.executeSingleRow(
+            selectStatement.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid()))
+            .join();
+    }
+
+    @Override
+    public void checkpoint(MailboxId mailboxId, MessageUid lastIndexedUid) {
+        cassandraAsyncExecutor.executeVoid(
+            checkpointStatement.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setLong(LAST_INDEXED_UID, lastIndexedUid.asLong()))
+            .join();
+    }
+
+    @Override
+    public void complete(MailboxId mailboxId) {
+        cassandraAsyncExecutor.executeVoid(
+            completeStatement.bind()
+                .setUUID(MAILBOX_ID, ((CassandraId) mailboxId).asUuid())
+                .setToNull(LAST_INDEXED_UID))
+            .join();
+    }
+
+    @Override
+    public void clear() {
+        cassandraAsyncExecutor.executeVoid(truncate(TABLE_NAME))
+            .join();
+    }
+}
@@ -59,8 +59,8 @@ public class CassandraUidProvider implements UidProvider {
     private final PreparedStatement selectStatement;
 
     @Inject
-    public CassandraUidProvider(Session session, CassandraConfiguration cassandraConfiguration) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraUidProvider(Session session, CassandraAsyncExecutor executor, CassandraConfiguration cassandraConfiguration) {
+        this.executor = executor;
         this.runner = new FunctionRunnerWithRetry(cassandraConfiguration.getUidMaxRetry());
         this.selectStatement = prepareSelect(session);
         this.updateStatement = prepareUpdate(session);
@@ -68,8 +68,8 @@ public class CassandraUidProvider implements UidProvider {
     }
 
     @VisibleForTesting
-    public CassandraUidProvider(Session session) {
-        this(session, CassandraConfiguration.DEFAULT_CONFIGURATION);
+    public CassandraUidProvider(Session session, CassandraAsyncExecutor executor) {
+        this(session, executor, CassandraConfiguration.DEFAULT_CONFIGURATION);
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -62,8 +62,8 @@ public class CassandraUserMailboxRightsDAO {
     private final PreparedStatement selectUser;
 
     @Inject
-    public CassandraUserMailboxRightsDAO(Session session, CassandraUtils cassandraUtils) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraUserMailboxRightsDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.cassandraUtils = cassandraUtils;
         this.delete = prepareDelete(session);
         this.insert = prepareInsert(session);
@@ -21,20 +21,38 @@ package org.apache.james.mailbox.cassandra.mail.migration;
 
 import javax.inject.Inject;
 
+import org.apache.james.backends.cassandra.init.CassandraConfiguration;
+import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
 import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.ObjectStore;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentMessageIdDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraMessageDAO.MessageIdAttachmentIds;
 import org.apache.james.task.Task;
+import org.apache.james.util.Workload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.Session;
+
 public class AttachmentMessageIdCreation implements Migration {
     private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentMessageIdCreation.class);
     private final CassandraMessageDAO cassandraMessageDAO;
     private final CassandraAttachmentMessageIdDAO attachmentMessageIdDAO;
 
     @Inject
+    public AttachmentMessageIdCreation(Session session, CassandraAsyncExecutor executor, CassandraTypesProvider typesProvider,
+                                       ObjectStore objectStore, BlobId.Factory blobIdFactory, CassandraConfiguration cassandraConfiguration,
+                                       CassandraUtils cassandraUtils, CassandraMessageId.Factory messageIdFactory) {
+        this(new CassandraMessageDAO(session, executor.withWorkload(Workload.BATCH), typesProvider, objectStore, blobIdFactory,
+                cassandraConfiguration, cassandraUtils, messageIdFactory),
+            new CassandraAttachmentMessageIdDAO(session, executor.withWorkload(Workload.BATCH), messageIdFactory, cassandraUtils));
+    }
+
     public AttachmentMessageIdCreation(CassandraMessageDAO cassandraMessageDAO,
                                  CassandraAttachmentMessageIdDAO attachmentMessageIdDAO) {
         this.cassandraMessageDAO = cassandraMessageDAO;
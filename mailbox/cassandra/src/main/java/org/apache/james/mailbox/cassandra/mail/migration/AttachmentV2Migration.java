@@ -21,15 +21,22 @@ package org.apache.james.mailbox.cassandra.mail.migration;
 
 import javax.inject.Inject;
 
+import org.apache.james.backends.cassandra.init.CassandraConfiguration;
 import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.ObjectStore;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentDAO;
 import org.apache.james.mailbox.cassandra.mail.CassandraAttachmentDAOV2;
 import org.apache.james.mailbox.model.Attachment;
 import org.apache.james.task.Task;
+import org.apache.james.util.Workload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.Session;
+
 public class AttachmentV2Migration implements Migration {
     private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentV2Migration.class);
     private final CassandraAttachmentDAO attachmentDAOV1;
@@ -37,6 +44,14 @@ public class AttachmentV2Migration implements Migration {
     private final ObjectStore objectStore;
 
     @Inject
+    public AttachmentV2Migration(Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils,
+                                 CassandraConfiguration cassandraConfiguration, BlobId.Factory blobIdFactory,
+                                 ObjectStore objectStore) {
+        this(new CassandraAttachmentDAO(session, executor.withWorkload(Workload.BATCH), cassandraUtils, cassandraConfiguration),
+            new CassandraAttachmentDAOV2(blobIdFactory, session, executor.withWorkload(Workload.BATCH)),
+            objectStore);
+    }
+
     public AttachmentV2Migration(CassandraAttachmentDAO attachmentDAOV1,
                                  CassandraAttachmentDAOV2 attachmentDAOV2,
                                  ObjectStore objectStore) {
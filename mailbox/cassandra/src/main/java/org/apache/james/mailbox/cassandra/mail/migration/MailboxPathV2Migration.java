@@ -24,15 +24,21 @@ import java.util.function.Supplier;
 
 import javax.inject.Inject;
 
+import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
 import org.apache.james.backends.cassandra.migration.Migration;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraUtils;
 import org.apache.james.mailbox.cassandra.mail.CassandraIdAndPath;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathDAOImpl;
 import org.apache.james.mailbox.cassandra.mail.CassandraMailboxPathV2DAO;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.util.Workload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.Session;
+
 public class MailboxPathV2Migration implements Migration {
 
     public static class AdditionalInformation implements TaskExecutionDetails.AdditionalInformation {
@@ -59,6 +65,11 @@ public class MailboxPathV2Migration implements Migration {
     private final AdditionalInformation additionalInformation;
 
     @Inject
+    public MailboxPathV2Migration(Session session, CassandraAsyncExecutor executor, CassandraTypesProvider typesProvider, CassandraUtils cassandraUtils) {
+        this(new CassandraMailboxPathDAOImpl(session, executor.withWorkload(Workload.BATCH), typesProvider, cassandraUtils),
+            new CassandraMailboxPathV2DAO(session, executor.withWorkload(Workload.BATCH), cassandraUtils));
+    }
+
     public MailboxPathV2Migration(CassandraMailboxPathDAOImpl daoV1, CassandraMailboxPathV2DAO daoV2) {
         this.daoV1 = daoV1;
         this.daoV2 = daoV2;
@@ -103,8 +103,8 @@ public class CassandraSubscriptionManagerTest extends AbstractSubscriptionManage
         ObjectStore objectStore = null;
         return new CassandraSubscriptionManager(
             new CassandraMailboxSessionMapperFactory(
-                new CassandraUidProvider(cassandra.getConf()),
-                new CassandraModSeqProvider(cassandra.getConf()),
+                new CassandraUidProvider(cassandra.getConf(), cassandra.getExecutor()),
+                new CassandraModSeqProvider(cassandra.getConf(), cassandra.getExecutor()),
                 cassandra.getConf(),
                 messageDAO,
                 messageIdDAO,
@@ -21,6 +21,8 @@ package org.apache.james.mailbox.cassandra;
 
 import org.apache.james.backends.cassandra.init.CassandraConfiguration;
 import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraConcurrencyLimiters;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
 import org.apache.james.blob.cassandra.CassandraBlobId;
 import org.apache.james.blob.cassandra.CassandraBlobsDAO;
@@ -58,32 +60,33 @@ public class TestCassandraMailboxSessionMapperFactory {
                                                                 CassandraMessageId.Factory factory, CassandraConfiguration cassandraConfiguration) {
 
         CassandraUtils utils = new CassandraUtils(cassandraConfiguration);
-        CassandraBlobsDAO cassandraBlobsDAO = new CassandraBlobsDAO(session);
+        CassandraAsyncExecutor executor = new CassandraAsyncExecutor(session, CassandraConcurrencyLimiters.withoutMetrics());
+        CassandraBlobsDAO cassandraBlobsDAO = new CassandraBlobsDAO(session, executor);
         CassandraBlobId.Factory blobIdFactory = new CassandraBlobId.Factory();
 
         return new CassandraMailboxSessionMapperFactory(
-            new CassandraUidProvider(session),
-            new CassandraModSeqProvider(session),
+            new CassandraUidProvider(session, executor),
+            new CassandraModSeqProvider(session, executor),
             session,
-            new CassandraMessageDAO(session, typesProvider, cassandraBlobsDAO, blobIdFactory, utils, factory),
-            new CassandraMessageIdDAO(session, factory),
-            new CassandraMessageIdToImapUidDAO(session, factory),
-            new CassandraMailboxCounterDAO(session),
-            new CassandraMailboxRecentsDAO(session),
-            new CassandraMailboxDAO(session, typesProvider),
-            new CassandraMailboxPathDAOImpl(session, typesProvider),
-            new CassandraMailboxPathV2DAO(session, CassandraUtils.WITH_DEFAULT_CONFIGURATION),
-            new CassandraFirstUnseenDAO(session),
-            new CassandraApplicableFlagDAO(session),
-            new CassandraAttachmentDAO(session, utils, cassandraConfiguration),
-            new CassandraAttachmentDAOV2(blobIdFactory, session),
-            new CassandraDeletedMessageDAO(session),
-            cassandraBlobsDAO, new CassandraAttachmentMessageIdDAO(session, factory, utils),
-            new CassandraAttachmentOwnerDAO(session, utils),
-            new CassandraACLMapper(session,
-                new CassandraUserMailboxRightsDAO(session, utils),
+            new CassandraMessageDAO(session, executor, typesProvider, cassandraBlobsDAO, blobIdFactory, utils, factory),
+            new CassandraMessageIdDAO(session, executor, factory),
+            new CassandraMessageIdToImapUidDAO(session, executor, factory),
+            new CassandraMailboxCounterDAO(session, executor),
+            new CassandraMailboxRecentsDAO(session, executor),
+            new CassandraMailboxDAO(session, executor, typesProvider),
+            new CassandraMailboxPathDAOImpl(session, executor, typesProvider),
+            new CassandraMailboxPathV2DAO(session, executor, CassandraUtils.WITH_DEFAULT_CONFIGURATION),
+            new CassandraFirstUnseenDAO(session, executor),
+            new CassandraApplicableFlagDAO(session, executor),
+            new CassandraAttachmentDAO(session, executor, utils, cassandraConfiguration),
+            new CassandraAttachmentDAOV2(blobIdFactory, session, executor),
+            new CassandraDeletedMessageDAO(session, executor),
+            cassandraBlobsDAO, new CassandraAttachmentMessageIdDAO(session, executor, factory, utils),
+            new CassandraAttachmentOwnerDAO(session, executor, utils),
+            new CassandraACLMapper(session, executor,
+                new CassandraUserMailboxRightsDAO(session, executor, utils),
                 cassandraConfiguration),
-            new CassandraUserMailboxRightsDAO(session, utils),
+            new CassandraUserMailboxRightsDAO(session, executor, utils),
             utils,
             cassandraConfiguration);
     }
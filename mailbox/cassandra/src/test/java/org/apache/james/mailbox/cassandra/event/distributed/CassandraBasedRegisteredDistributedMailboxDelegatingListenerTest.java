@@ -86,6 +86,7 @@ public class CassandraBasedRegisteredDistributedMailboxDelegatingListenerTest {
         DistantMailboxPathRegister mailboxPathRegister1 = new DistantMailboxPathRegister(
             new CassandraMailboxPathRegisterMapper(
                 cassandra.getConf(),
+                cassandra.getExecutor(),
                 cassandra.getTypesProvider(),
                 CassandraUtils.WITH_DEFAULT_CONFIGURATION,
                 CASSANDRA_TIME_OUT_IN_S),
@@ -101,6 +102,7 @@ public class CassandraBasedRegisteredDistributedMailboxDelegatingListenerTest {
         DistantMailboxPathRegister mailboxPathRegister2 = new DistantMailboxPathRegister(
             new CassandraMailboxPathRegisterMapper(
                 cassandra.getConf(),
+                cassandra.getExecutor(),
                 cassandra.getTypesProvider(),
                 CassandraUtils.WITH_DEFAULT_CONFIGURATION,
                 CASSANDRA_TIME_OUT_IN_S),
@@ -116,6 +118,7 @@ public class CassandraBasedRegisteredDistributedMailboxDelegatingListenerTest {
         DistantMailboxPathRegister mailboxPathRegister3 = new DistantMailboxPathRegister(
             new CassandraMailboxPathRegisterMapper(
                 cassandra.getConf(),
+                cassandra.getExecutor(),
                 cassandra.getTypesProvider(),
                 CassandraUtils.WITH_DEFAULT_CONFIGURATION,
                 CASSANDRA_TIME_OUT_IN_S),
@@ -49,7 +49,7 @@ public class CassandraMailboxPathRegistrerMapperTest {
 
     @Before
     public void setUp() {
-        mapper = new CassandraMailboxPathRegisterMapper(cassandra.getConf(),
+        mapper = new CassandraMailboxPathRegisterMapper(cassandra.getConf(), cassandra.getExecutor(),
             cassandra.getTypesProvider(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION,
             CASSANDRA_TIME_OUT_IN_S);
@@ -108,7 +108,7 @@ public class CassandraMailboxPathRegistrerMapperTest {
     @Test
     public void entriesShouldExpire() throws Exception {
         int verySmallTimeoutInSecond = 1;
-        mapper = new CassandraMailboxPathRegisterMapper(cassandra.getConf(),
+        mapper = new CassandraMailboxPathRegisterMapper(cassandra.getConf(), cassandra.getExecutor(),
             cassandra.getTypesProvider(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION,
             verySmallTimeoutInSecond);
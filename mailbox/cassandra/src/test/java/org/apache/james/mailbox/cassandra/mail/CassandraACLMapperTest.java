@@ -44,9 +44,12 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 public class CassandraACLMapperTest {
 
     public static final CassandraId MAILBOX_ID = CassandraId.of(UUID.fromString("464765a0-e4e7-11e4-aba4-710c1de3782b"));
+    public static final CassandraId MAILBOX_ID_2 = CassandraId.of(UUID.fromString("5a2c1d30-e4e7-11e4-aba4-710c1de3782b"));
     private CassandraACLMapper cassandraACLMapper;
     private CassandraCluster cassandra;
     private ExecutorService executor;
@@ -56,8 +59,8 @@ public class CassandraACLMapperTest {
     @Before
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraAclModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        cassandraACLMapper = new CassandraACLMapper(cassandra.getConf(),
-            new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
+        cassandraACLMapper = new CassandraACLMapper(cassandra.getConf(), cassandra.getExecutor(),
+            new CassandraUserMailboxRightsDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
             CassandraConfiguration.DEFAULT_CONFIGURATION);
         executor = Executors.newFixedThreadPool(2);
     }
@@ -84,6 +87,24 @@ public class CassandraACLMapperTest {
         assertThat(cassandraACLMapper.getACL(MAILBOX_ID).join()).isEqualTo(MailboxACL.EMPTY);
     }
 
+    @Test
+    public void retrieveACLsWhenNoACLStoredShouldReturnEmptyMap() {
+        assertThat(cassandraACLMapper.getACLs(ImmutableList.of(MAILBOX_ID, MAILBOX_ID_2)).join()).isEmpty();
+    }
+
+    @Test
+    public void retrieveACLsShouldReturnStoredACLs() throws Exception {
+        MailboxACL.EntryKey key = new MailboxACL.EntryKey("bob", MailboxACL.NameType.user, false);
+        MailboxACL.Rfc4314Rights rights = new MailboxACL.Rfc4314Rights(MailboxACL.Right.Read);
+
+        cassandraACLMapper.updateACL(MAILBOX_ID,
+            MailboxACL.command().key(key).rights(rights).asAddition());
+
+        assertThat(cassandraACLMapper.getACLs(ImmutableList.of(MAILBOX_ID, MAILBOX_ID_2)).join())
+            .containsOnlyKeys(MAILBOX_ID)
+            .containsEntry(MAILBOX_ID, new MailboxACL().union(key, rights));
+    }
+
     @Test
     public void addACLWhenNoneStoredShouldReturnUpdatedACL() throws Exception {
         MailboxACL.EntryKey key = new MailboxACL.EntryKey("bob", MailboxACL.NameType.user, false);
@@ -198,7 +219,8 @@ public class CassandraACLMapperTest {
         return executor.submit(() -> {
             CassandraACLMapper aclMapper = new CassandraACLMapper(
                 cassandra.getConf(),
-                new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
+                cassandra.getExecutor(),
+                new CassandraUserMailboxRightsDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
                 CassandraConfiguration.DEFAULT_CONFIGURATION,
                 runnable);
             try {
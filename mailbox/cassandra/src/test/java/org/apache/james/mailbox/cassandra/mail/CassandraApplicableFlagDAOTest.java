@@ -50,7 +50,7 @@ public class CassandraApplicableFlagDAOTest {
     @Before
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraApplicableFlagsModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraApplicableFlagDAO(cassandra.getConf());
+        testee = new CassandraApplicableFlagDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
@@ -53,7 +53,7 @@ public class CassandraAttachmentDAOTest {
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraAttachmentModule(),
             cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraAttachmentDAO(cassandra.getConf(),
+        testee = new CassandraAttachmentDAO(cassandra.getConf(), cassandra.getExecutor(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION,
             CassandraConfiguration.DEFAULT_CONFIGURATION);
     }
@@ -55,7 +55,7 @@ public class CassandraAttachmentDAOV2Test {
             cassandraServer.getIp(),
             cassandraServer.getBindingPort());
 
-        testee = new CassandraAttachmentDAOV2(BLOB_ID_FACTORY, cassandra.getConf());
+        testee = new CassandraAttachmentDAOV2(BLOB_ID_FACTORY, cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
@@ -49,7 +49,7 @@ public class CassandraAttachmentOwnerDAOTest {
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraAttachmentModule(),
             cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraAttachmentOwnerDAO(cassandra.getConf(),
+        testee = new CassandraAttachmentOwnerDAO(cassandra.getConf(), cassandra.getExecutor(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
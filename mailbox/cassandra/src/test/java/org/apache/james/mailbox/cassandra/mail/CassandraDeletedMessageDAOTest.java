@@ -56,7 +56,7 @@ public class CassandraDeletedMessageDAOTest {
     public void setUp() {
         cassandra = CassandraCluster.create(
             new CassandraDeletedMessageModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraDeletedMessageDAO(cassandra.getConf());
+        testee = new CassandraDeletedMessageDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
@@ -46,7 +46,7 @@ public class CassandraFirstUnseenDAOTest {
     public void setUp() {
         cassandra = CassandraCluster.create(
             new CassandraFirstUnseenModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraFirstUnseenDAO(cassandra.getConf());
+        testee = new CassandraFirstUnseenDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
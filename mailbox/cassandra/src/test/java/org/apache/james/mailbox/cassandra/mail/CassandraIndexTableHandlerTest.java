@@ -82,11 +82,11 @@ public class CassandraIndexTableHandlerTest {
                 new CassandraFirstUnseenModule(),
                 new CassandraApplicableFlagsModule(),
                 new CassandraDeletedMessageModule()), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        mailboxCounterDAO = new CassandraMailboxCounterDAO(cassandra.getConf());
-        mailboxRecentsDAO = new CassandraMailboxRecentsDAO(cassandra.getConf());
-        firstUnseenDAO = new CassandraFirstUnseenDAO(cassandra.getConf());
-        applicableFlagDAO = new CassandraApplicableFlagDAO(cassandra.getConf());
-        deletedMessageDAO = new CassandraDeletedMessageDAO(cassandra.getConf());
+        mailboxCounterDAO = new CassandraMailboxCounterDAO(cassandra.getConf(), cassandra.getExecutor());
+        mailboxRecentsDAO = new CassandraMailboxRecentsDAO(cassandra.getConf(), cassandra.getExecutor());
+        firstUnseenDAO = new CassandraFirstUnseenDAO(cassandra.getConf(), cassandra.getExecutor());
+        applicableFlagDAO = new CassandraApplicableFlagDAO(cassandra.getConf(), cassandra.getExecutor());
+        deletedMessageDAO = new CassandraDeletedMessageDAO(cassandra.getConf(), cassandra.getExecutor());
 
         testee = new CassandraIndexTableHandler(mailboxRecentsDAO,
                                                 mailboxCounterDAO,
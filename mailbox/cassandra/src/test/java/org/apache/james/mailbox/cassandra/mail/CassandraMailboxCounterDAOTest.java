@@ -46,7 +46,7 @@ public class CassandraMailboxCounterDAOTest {
     @Before
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraMailboxCounterModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraMailboxCounterDAO(cassandra.getConf());
+        testee = new CassandraMailboxCounterDAO(cassandra.getConf(), cassandra.getExecutor());
 
         mailbox = new SimpleMailbox(MailboxPath.forUser("user", "name"), UID_VALIDITY, MAILBOX_ID);
     }
@@ -38,6 +38,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 public class CassandraMailboxDAOTest {
 
@@ -59,7 +60,7 @@ public class CassandraMailboxDAOTest {
         CassandraModuleComposite modules = new CassandraModuleComposite(new CassandraMailboxModule(), new CassandraAclModule());
         cassandra = CassandraCluster.create(modules, cassandraServer.getIp(), cassandraServer.getBindingPort());
 
-        testee = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
+        testee = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider());
 
         mailbox1 = new SimpleMailbox(MailboxPath.forUser("user", "abcd"),
             UID_VALIDITY_1,
@@ -136,6 +137,29 @@ public class CassandraMailboxDAOTest {
         assertThat(mailboxes).containsOnly(mailbox1, mailbox2);
     }
 
+    @Test
+    public void retrieveMailboxesShouldReturnRequestedMailboxes() {
+        testee.save(mailbox1).join();
+        testee.save(mailbox2).join();
+
+        List<SimpleMailbox> mailboxes = testee.retrieveMailboxes(ImmutableList.of(CASSANDRA_ID_1, CASSANDRA_ID_2))
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(mailboxes).containsOnly(mailbox1, mailbox2);
+    }
+
+    @Test
+    public void retrieveMailboxesShouldIgnoreMissingMailboxes() {
+        testee.save(mailbox1).join();
+
+        List<SimpleMailbox> mailboxes = testee.retrieveMailboxes(ImmutableList.of(CASSANDRA_ID_1, CASSANDRA_ID_2))
+            .join()
+            .collect(Guavate.toImmutableList());
+
+        assertThat(mailboxes).containsOnly(mailbox1);
+    }
+
     @Test
     public void deleteShouldNotFailWhenMailboxIsAbsent() {
         testee.delete(CASSANDRA_ID_1).join();
@@ -70,17 +70,17 @@ public class CassandraMailboxMapperTest {
     public void setUp() {
         CassandraModuleComposite modules = new CassandraModuleComposite(new CassandraMailboxModule(), new CassandraAclModule());
         cassandra = CassandraCluster.create(modules, cassandraServer.getIp(), cassandraServer.getBindingPort());
-        mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
-        mailboxPathDAO = new CassandraMailboxPathDAOImpl(cassandra.getConf(), cassandra.getTypesProvider());
-        mailboxPathV2DAO = new CassandraMailboxPathV2DAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
-        CassandraUserMailboxRightsDAO userMailboxRightsDAO = new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider());
+        mailboxPathDAO = new CassandraMailboxPathDAOImpl(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider());
+        mailboxPathV2DAO = new CassandraMailboxPathV2DAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        CassandraUserMailboxRightsDAO userMailboxRightsDAO = new CassandraUserMailboxRightsDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
         testee = new CassandraMailboxMapper(
             mailboxDAO,
             mailboxPathDAO,
             mailboxPathV2DAO,
             userMailboxRightsDAO,
-            new CassandraACLMapper(cassandra.getConf(),
-                new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
+            new CassandraACLMapper(cassandra.getConf(), cassandra.getExecutor(),
+                new CassandraUserMailboxRightsDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
                 CassandraConfiguration.DEFAULT_CONFIGURATION));
     }
 
@@ -107,6 +107,42 @@ public class CassandraMailboxMapperTest {
         return new MailboxPath(fromMailboxPath, StringUtils.repeat("b", 65537));
     }
 
+    @Test
+    public void findMailboxWithPathLikeShouldReturnMailboxesSpanningSeveralChunks() throws Exception {
+        int mailboxCount = CassandraMailboxMapper.MAILBOX_READ_CHUNK_SIZE * CassandraMailboxMapper.MAX_CONCURRENT_CHUNK_READS + 1;
+        for (int i = 0; i < mailboxCount; i++) {
+            testee.save(new SimpleMailbox(MailboxPath.forUser(USER, "name" + i), UID_VALIDITY));
+        }
+
+        List<Mailbox> mailboxes = testee.findMailboxWithPathLike(new MailboxPath(MailboxConstants.USER_NAMESPACE, USER, WILDCARD));
+
+        assertThat(mailboxes).hasSize(mailboxCount);
+    }
+
+    @Test
+    public void findMailboxWithPathLikeShouldIgnoreMailboxesMissingFromMailboxTable() throws Exception {
+        mailboxDAO.save(MAILBOX)
+            .join();
+        mailboxPathV2DAO.save(MAILBOX_PATH, MAILBOX_ID)
+            .join();
+        mailboxPathV2DAO.save(MailboxPath.forUser(USER, "other"), MAILBOX_ID_2)
+            .join();
+
+        List<Mailbox> mailboxes = testee.findMailboxWithPathLike(new MailboxPath(MailboxConstants.USER_NAMESPACE, USER, WILDCARD));
+
+        assertThat(mailboxes).extracting(Mailbox::getMailboxId).containsOnly(MAILBOX_ID);
+    }
+
+    @Test
+    public void listShouldReturnMailboxesSpanningSeveralChunks() throws Exception {
+        int mailboxCount = CassandraMailboxMapper.MAILBOX_READ_CHUNK_SIZE + 1;
+        for (int i = 0; i < mailboxCount; i++) {
+            testee.save(new SimpleMailbox(MailboxPath.forUser(USER, "name" + i), UID_VALIDITY));
+        }
+
+        assertThat(testee.list()).hasSize(mailboxCount);
+    }
+
     @Test
     public void deleteShouldDeleteMailboxAndMailboxPathFromV1Table() {
         mailboxDAO.save(MAILBOX)
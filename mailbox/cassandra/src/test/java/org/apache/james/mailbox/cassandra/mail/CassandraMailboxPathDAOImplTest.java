@@ -29,7 +29,7 @@ public class CassandraMailboxPathDAOImplTest extends CassandraMailboxPathDAOTest
 
     @Override
     CassandraMailboxPathDAO testee() {
-        return new CassandraMailboxPathDAOImpl(cassandra.getConf(), cassandra.getTypesProvider());
+        return new CassandraMailboxPathDAOImpl(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider());
     }
 
     @Test
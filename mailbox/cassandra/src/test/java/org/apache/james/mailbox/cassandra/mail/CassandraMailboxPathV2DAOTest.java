@@ -25,6 +25,6 @@ public class CassandraMailboxPathV2DAOTest extends CassandraMailboxPathDAOTest {
 
     @Override
     CassandraMailboxPathDAO testee() {
-        return new CassandraMailboxPathV2DAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        return new CassandraMailboxPathV2DAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 }
\ No newline at end of file
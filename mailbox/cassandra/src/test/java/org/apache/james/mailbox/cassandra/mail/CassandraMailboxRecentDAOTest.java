@@ -48,7 +48,7 @@ public class CassandraMailboxRecentDAOTest {
     @Before
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraMailboxRecentsModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        testee = new CassandraMailboxRecentsDAO(cassandra.getConf());
+        testee = new CassandraMailboxRecentsDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
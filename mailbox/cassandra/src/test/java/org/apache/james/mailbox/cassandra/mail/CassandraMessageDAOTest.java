@@ -89,9 +89,9 @@ public class CassandraMessageDAOTest {
         cassandra = CassandraCluster.create(new CassandraModuleComposite(new CassandraMessageModule(), new CassandraBlobModule()), cassandraServer.getIp(), cassandraServer.getBindingPort());
         messageIdFactory = new CassandraMessageId.Factory();
         messageId = messageIdFactory.generate();
-        CassandraBlobsDAO blobsDAO = new CassandraBlobsDAO(cassandra.getConf());
+        CassandraBlobsDAO blobsDAO = new CassandraBlobsDAO(cassandra.getConf(), cassandra.getExecutor());
         CassandraBlobId.Factory blobIdFactory = new CassandraBlobId.Factory();
-        testee = new CassandraMessageDAO(cassandra.getConf(), cassandra.getTypesProvider(), blobsDAO, blobIdFactory,
+        testee = new CassandraMessageDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider(), blobsDAO, blobIdFactory,
             CassandraUtils.WITH_DEFAULT_CONFIGURATION, new CassandraMessageId.Factory());
 
         messageIds = ImmutableList.of(ComposedMessageIdWithMetaData.builder()
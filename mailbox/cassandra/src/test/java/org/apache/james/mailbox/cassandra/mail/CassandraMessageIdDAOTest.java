@@ -56,7 +56,7 @@ public class CassandraMessageIdDAOTest {
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraMessageModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
         messageIdFactory = new CassandraMessageId.Factory();
-        testee = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        testee = new CassandraMessageIdDAO(cassandra.getConf(), cassandra.getExecutor(), messageIdFactory);
     }
 
     @After
@@ -56,7 +56,7 @@ public class CassandraMessageIdToImapUidDAOTest {
     public void setUp() {
         cassandra = CassandraCluster.create(new CassandraMessageModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
         messageIdFactory = new CassandraMessageId.Factory();
-        testee = new CassandraMessageIdToImapUidDAO(cassandra.getConf(), messageIdFactory);
+        testee = new CassandraMessageIdToImapUidDAO(cassandra.getConf(), cassandra.getExecutor(), messageIdFactory);
     }
 
     @After
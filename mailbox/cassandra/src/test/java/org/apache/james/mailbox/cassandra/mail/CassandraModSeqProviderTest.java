@@ -52,7 +52,7 @@ public class CassandraModSeqProviderTest {
             new CassandraModSeqModule(),
             cassandraServer.getIp(),
             cassandraServer.getBindingPort());
-        modSeqProvider = new CassandraModSeqProvider(cassandra.getConf());
+        modSeqProvider = new CassandraModSeqProvider(cassandra.getConf(), cassandra.getExecutor());
         MailboxPath path = new MailboxPath("gsoc", "ieugen", "Trash");
         mailbox = new SimpleMailbox(path, 1234);
         mailbox.setMailboxId(CASSANDRA_ID);
@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.DockerCassandraRule;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraReIndexingCheckpointModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CassandraReIndexingCheckpointTest {
+
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+
+    @ClassRule public static DockerCassandraRule cassandraServer = new DockerCassandraRule();
+
+    private CassandraCluster cassandra;
+    private CassandraReIndexingCheckpoint testee;
+
+    @Before
+    public void setUp() {
+        cassandra = CassandraCluster.create(
+            new CassandraReIndexingCheckpointModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
+        testee = new CassandraReIndexingCheckpoint(cassandra.getConf(), cassandra.getExecutor());
+    }
+
+    @After
+    public void tearDown() {
+        cassandra.close();
+    }
+
+    @Test
+    public void lastIndexedUidShouldReturnEmptyByDefault() {
+        assertThat(testee.lastIndexedUid(MAILBOX_ID)).isEmpty();
+    }
+
+    @Test
+    public void isCompletedShouldReturnFalseByDefault() {
+        assertThat(testee.isCompleted(MAILBOX_ID)).isFalse();
+    }
+
+    @Test
+    public void lastIndexedUidShouldReturnTheLastCheckpoint() {
+        testee.checkpoint(MAILBOX_ID, UID_1);
+        testee.checkpoint(MAILBOX_ID, UID_2);
+
+        assertThat(testee.lastIndexedUid(MAILBOX_ID)).contains(UID_2);
+    }
+
+    @Test
+    public void completeShouldMarkTheMailboxAsCompleted() {
+        testee.checkpoint(MAILBOX_ID, UID_1);
+
+        testee.complete(MAILBOX_ID);
+
+        assertThat(testee.isCompleted(MAILBOX_ID)).isTrue();
+        assertThat(testee.lastIndexedUid(MAILBOX_ID)).isEmpty();
+    }
+
+    @Test
+    public void checkpointShouldNotMarkTheMailboxAsCompleted() {
+        testee.checkpoint(MAILBOX_ID, UID_1);
+
+        assertThat(testee.isCompleted(MAILBOX_ID)).isFalse();
+    }
+
+    @Test
+    public void clearShouldForgetAllProgress() {
+        CassandraId otherMailboxId = CassandraId.timeBased();
+        testee.checkpoint(MAILBOX_ID, UID_1);
+        testee.complete(otherMailboxId);
+
+        testee.clear();
+
+        assertThat(testee.lastIndexedUid(MAILBOX_ID)).isEmpty();
+        assertThat(testee.isCompleted(otherMailboxId)).isFalse();
+    }
+}
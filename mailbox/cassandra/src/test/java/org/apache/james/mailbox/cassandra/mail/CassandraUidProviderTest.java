@@ -49,7 +49,7 @@ public class CassandraUidProviderTest {
 
     @Before
     public void setUpClass() throws Exception {
-        uidProvider = new CassandraUidProvider(cassandra.getConf());
+        uidProvider = new CassandraUidProvider(cassandra.getConf(), cassandra.getExecutor());
         MailboxPath path = new MailboxPath("gsoc", "ieugen", "Trash");
         mailbox = new SimpleMailbox(path, 1234);
         mailbox.setMailboxId(CASSANDRA_ID);
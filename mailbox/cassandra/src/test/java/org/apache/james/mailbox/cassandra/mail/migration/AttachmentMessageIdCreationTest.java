@@ -86,11 +86,11 @@ public class AttachmentMessageIdCreationTest {
             cassandraServer.getBindingPort());
         CassandraMessageId.Factory messageIdFactory = new CassandraMessageId.Factory();
 
-        blobsDAO = new CassandraBlobsDAO(cassandra.getConf());
-        cassandraMessageDAO = new CassandraMessageDAO(cassandra.getConf(), cassandra.getTypesProvider(),
+        blobsDAO = new CassandraBlobsDAO(cassandra.getConf(), cassandra.getExecutor());
+        cassandraMessageDAO = new CassandraMessageDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider(),
             blobsDAO, new CassandraBlobId.Factory(), CassandraUtils.WITH_DEFAULT_CONFIGURATION, messageIdFactory);
 
-        attachmentMessageIdDAO = new CassandraAttachmentMessageIdDAO(cassandra.getConf(),
+        attachmentMessageIdDAO = new CassandraAttachmentMessageIdDAO(cassandra.getConf(), cassandra.getExecutor(),
             new CassandraMessageId.Factory(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
 
         migration = new AttachmentMessageIdCreation(cassandraMessageDAO, attachmentMessageIdDAO);
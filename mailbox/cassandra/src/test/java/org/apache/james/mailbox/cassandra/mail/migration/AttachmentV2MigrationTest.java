@@ -70,11 +70,11 @@ public class AttachmentV2MigrationTest {
             cassandraServer.getIp(),
             cassandraServer.getBindingPort());
 
-        attachmentDAO = new CassandraAttachmentDAO(cassandra.getConf(),
+        attachmentDAO = new CassandraAttachmentDAO(cassandra.getConf(), cassandra.getExecutor(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION,
             CassandraConfiguration.DEFAULT_CONFIGURATION);
-        attachmentDAOV2 = new CassandraAttachmentDAOV2(BLOB_ID_FACTORY, cassandra.getConf());
-        blobsDAO = new CassandraBlobsDAO(cassandra.getConf());
+        attachmentDAOV2 = new CassandraAttachmentDAOV2(BLOB_ID_FACTORY, cassandra.getConf(), cassandra.getExecutor());
+        blobsDAO = new CassandraBlobsDAO(cassandra.getConf(), cassandra.getExecutor());
         migration = new AttachmentV2Migration(attachmentDAO, attachmentDAOV2, blobsDAO);
 
         attachment1 = Attachment.builder()
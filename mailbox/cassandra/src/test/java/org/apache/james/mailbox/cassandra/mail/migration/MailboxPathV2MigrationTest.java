@@ -75,20 +75,22 @@ public class MailboxPathV2MigrationTest {
 
         daoV1 = new CassandraMailboxPathDAOImpl(
             cassandra.getConf(),
+            cassandra.getExecutor(),
             cassandra.getTypesProvider(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION);
         daoV2 = new CassandraMailboxPathV2DAO(
             cassandra.getConf(),
+            cassandra.getExecutor(),
             CassandraUtils.WITH_DEFAULT_CONFIGURATION);
 
-        CassandraUserMailboxRightsDAO userMailboxRightsDAO = new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
-        mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getTypesProvider());
+        CassandraUserMailboxRightsDAO userMailboxRightsDAO = new CassandraUserMailboxRightsDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        mailboxDAO = new CassandraMailboxDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider());
         mailboxMapper = new CassandraMailboxMapper(
             mailboxDAO,
             daoV1,
             daoV2,
             userMailboxRightsDAO,
-            new CassandraACLMapper(cassandra.getConf(), userMailboxRightsDAO, CassandraConfiguration.DEFAULT_CONFIGURATION));
+            new CassandraACLMapper(cassandra.getConf(), cassandra.getExecutor(), userMailboxRightsDAO, CassandraConfiguration.DEFAULT_CONFIGURATION));
     }
 
     @Test
@@ -20,10 +20,13 @@ package org.apache.james.mailbox.elasticsearch.events;
 
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -49,6 +52,8 @@ import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +61,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSearchIndex {
 
@@ -81,6 +87,11 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
         return ListenerType.ONCE;
     }
 
+    @Override
+    public DeliveryMode getDeliveryMode() {
+        return DeliveryMode.COALESCED;
+    }
+
     @Override
     public EnumSet<SearchCapabilities> getSupportedCapabilities(EnumSet<MessageCapabilities> messageCapabilities) {
         return EnumSet.of(
@@ -149,6 +160,78 @@ public class ElasticSearchListeningMessageSearchIndex extends ListeningMessageSe
         }
     }
     
+    @Override
+    public List<MessageUid> add(MailboxSession session, Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        if (messages.isEmpty()) {
+            return ImmutableList.of();
+        }
+        LOGGER.info("Indexing {} messages of mailbox {}-{} of user {}",
+                messages.size(),
+                mailbox.getName(),
+                mailbox.getMailboxId(),
+                session.getUser().getUserName());
+        ImmutableList.Builder<MessageUid> failedUids = ImmutableList.builder();
+        Map<String, MessageUid> uidsById = new HashMap<>();
+        ImmutableMap.Builder<String, String> contentsById = ImmutableMap.builder();
+        for (MailboxMessage message : messages) {
+            Optional<String> json = toJson(session, mailbox, message);
+            if (json.isPresent()) {
+                String id = indexIdFor(mailbox, message.getUid());
+                uidsById.put(id, message.getUid());
+                contentsById.put(id, json.get());
+            } else {
+                failedUids.add(message.getUid());
+            }
+        }
+        if (uidsById.isEmpty()) {
+            return failedUids.build();
+        }
+        Optional<BulkResponse> response;
+        try {
+            response = elasticSearchIndexer.index(contentsById.build());
+        } catch (Exception e) {
+            throw new MailboxException("Error when indexing messages of mailbox " + mailbox.getMailboxId().serialize(), e);
+        }
+        if (!response.isPresent()) {
+            return failedUids.addAll(uidsById.values()).build();
+        }
+        if (response.get().hasFailures()) {
+            LOGGER.error("Error when indexing messages of mailbox {}-{}: {}",
+                mailbox.getName(),
+                mailbox.getMailboxId().serialize(),
+                response.get().buildFailureMessage());
+            Arrays.stream(response.get().getItems())
+                .filter(BulkItemResponse::isFailed)
+                .map(item -> uidsById.get(item.getId()))
+                .forEach(failedUids::add);
+        }
+        return failedUids.build();
+    }
+
+    private Optional<String> toJson(MailboxSession session, Mailbox mailbox, MailboxMessage message) {
+        try {
+            return Optional.of(messageToElasticSearchJson.convertToJson(message, ImmutableList.of(session.getUser())));
+        } catch (Exception e) {
+            try {
+                LOGGER.warn("Indexing mailbox {}-{} of user {} on message {} without attachments ",
+                        mailbox.getName(),
+                        mailbox.getMailboxId().serialize(),
+                        session.getUser().getUserName(),
+                        message.getUid(),
+                        e);
+                return Optional.of(messageToElasticSearchJson.convertToJsonWithoutAttachment(message, ImmutableList.of(session.getUser())));
+            } catch (JsonProcessingException e1) {
+                LOGGER.error("Error when indexing mailbox {}-{} of user {} on message {} without its attachment",
+                        mailbox.getName(),
+                        mailbox.getMailboxId().serialize(),
+                        session.getUser().getUserName(),
+                        message.getUid(),
+                        e1);
+                return Optional.empty();
+            }
+        }
+    }
+
     @Override
     public void delete(MailboxSession session, Mailbox mailbox, List<MessageUid> expungedUids) throws MailboxException {
         try {
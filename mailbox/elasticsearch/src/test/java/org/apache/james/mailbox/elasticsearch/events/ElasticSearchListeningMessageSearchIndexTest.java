@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.james.mailbox.elasticsearch.events;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
@@ -28,6 +29,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.mail.Flags;
@@ -46,6 +48,7 @@ import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -55,6 +58,7 @@ import org.junit.Test;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 public class ElasticSearchListeningMessageSearchIndexTest {
@@ -128,6 +132,65 @@ public class ElasticSearchListeningMessageSearchIndexTest {
         verify(elasticSearchIndexer).index(eq(ELASTIC_SEARCH_ID), eq(EXPECTED_JSON_CONTENT));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void addBatchShouldReportMessagesWhichCouldNotBeConverted() throws Exception {
+        //Given
+        Mailbox mailbox = mock(Mailbox.class);
+        when(mailbox.getMailboxId())
+            .thenReturn(MAILBOX_ID);
+        MailboxMessage message = mockedMessage(MESSAGE_UID);
+        MessageUid uid2 = MessageUid.of(2);
+        MailboxMessage message2 = mockedMessage(uid2);
+
+        when(messageToElasticSearchJson.convertToJson(eq(message), eq(users)))
+            .thenReturn(EXPECTED_JSON_CONTENT);
+        when(messageToElasticSearchJson.convertToJson(eq(message2), eq(users)))
+            .thenThrow(JsonProcessingException.class);
+        when(messageToElasticSearchJson.convertToJsonWithoutAttachment(eq(message2), eq(users)))
+            .thenThrow(new JsonGenerationException("expected error"));
+        when(elasticSearchIndexer.index(any(Map.class)))
+            .thenReturn(Optional.of(mock(BulkResponse.class)));
+
+        //When
+        List<MessageUid> failedUids = testee.add(session, mailbox, ImmutableList.of(message, message2));
+
+        //Then
+        assertThat(failedUids).containsOnly(uid2);
+        verify(elasticSearchIndexer).index(eq(ImmutableMap.of(ELASTIC_SEARCH_ID, EXPECTED_JSON_CONTENT)));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void addBatchShouldReportFailedBulkItems() throws Exception {
+        //Given
+        Mailbox mailbox = mock(Mailbox.class);
+        when(mailbox.getMailboxId())
+            .thenReturn(MAILBOX_ID);
+        MailboxMessage message = mockedMessage(MESSAGE_UID);
+        MessageUid uid2 = MessageUid.of(2);
+        MailboxMessage message2 = mockedMessage(uid2);
+
+        when(messageToElasticSearchJson.convertToJson(any(MailboxMessage.class), eq(users)))
+            .thenReturn(EXPECTED_JSON_CONTENT);
+        BulkItemResponse succeededItem = mock(BulkItemResponse.class);
+        when(succeededItem.getId()).thenReturn(ELASTIC_SEARCH_ID);
+        BulkItemResponse failedItem = mock(BulkItemResponse.class);
+        when(failedItem.getId()).thenReturn("12:2");
+        when(failedItem.isFailed()).thenReturn(true);
+        BulkResponse bulkResponse = mock(BulkResponse.class);
+        when(bulkResponse.hasFailures()).thenReturn(true);
+        when(bulkResponse.getItems()).thenReturn(new BulkItemResponse[] {succeededItem, failedItem});
+        when(elasticSearchIndexer.index(any(Map.class)))
+            .thenReturn(Optional.of(bulkResponse));
+
+        //When
+        List<MessageUid> failedUids = testee.add(session, mailbox, ImmutableList.of(message, message2));
+
+        //Then
+        assertThat(failedUids).containsOnly(uid2);
+    }
+
     private MailboxMessage mockedMessage(MessageUid messageId) throws IOException {
         MailboxMessage message = mock(MailboxMessage.class);
         when(message.getUid())
@@ -18,18 +18,24 @@
  ****************************************************************/
 package org.apache.james.mailbox.jpa.mail;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.mail.Flags;
+import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 
 import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager.FlagsUpdateMode;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.jpa.JPAId;
@@ -55,9 +61,13 @@ import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.utils.ApplicableFlagCalculator;
 import org.apache.openjpa.persistence.ArgumentException;
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Multimap;
 
 /**
  * JPA implementation of a {@link MessageMapper}. This class is not thread-safe!
@@ -65,6 +75,17 @@ import com.google.common.collect.Iterators;
 public class JPAMessageMapper extends JPATransactionalMapper implements MessageMapper {
     private static final int UNLIMIT_MAX_SIZE = -1;
     private static final int UNLIMITED = -1;
+    /** System flags, in the order of the columns returned by the findFlagsInMailboxBetweenUIDs query, after the uid and the mod-sequence */
+    private static final List<Flags.Flag> FLAGS_PROJECTION = ImmutableList.of(Flags.Flag.ANSWERED, Flags.Flag.DELETED,
+        Flags.Flag.DRAFT, Flags.Flag.FLAGGED, Flags.Flag.RECENT, Flags.Flag.SEEN);
+    private static final Map<Flags.Flag, String> SYSTEM_FLAG_UPDATE_QUERIES = ImmutableMap.<Flags.Flag, String>builder()
+        .put(Flags.Flag.ANSWERED, "updateAnsweredInMailboxBetweenUIDs")
+        .put(Flags.Flag.DELETED, "updateDeletedInMailboxBetweenUIDs")
+        .put(Flags.Flag.DRAFT, "updateDraftInMailboxBetweenUIDs")
+        .put(Flags.Flag.FLAGGED, "updateFlaggedInMailboxBetweenUIDs")
+        .put(Flags.Flag.RECENT, "updateRecentInMailboxBetweenUIDs")
+        .put(Flags.Flag.SEEN, "updateSeenInMailboxBetweenUIDs")
+        .build();
 
     private final MessageUtils messageMetadataMapper;
 
@@ -249,11 +270,30 @@ public class JPAMessageMapper extends JPATransactionalMapper implements MessageM
         return save(mailbox, message);
     }
 
+    /**
+     * Reserves the uids of all messages at once, and persists them in the current transaction, so that
+     * they are written together on commit.
+     */
+    @Override
+    public List<MessageMetaData> addAll(Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        messageMetadataMapper.enrichMessages(mailbox, messages);
+
+        JPAMailbox currentMailbox = loadAttachedMailbox(mailbox);
+        ImmutableList.Builder<MessageMetaData> metaData = ImmutableList.builder();
+        for (MailboxMessage message : messages) {
+            metaData.add(save(mailbox, currentMailbox, message));
+        }
+        return metaData.build();
+    }
+
     @Override
     public Iterator<UpdatedFlags> updateFlags(Mailbox mailbox, FlagsUpdateCalculator flagsUpdateCalculator,
             MessageRange set) throws MailboxException {
-        Iterator<MailboxMessage> messages = findInMailbox(mailbox, set, FetchType.Metadata, UNLIMIT_MAX_SIZE);
+        if (isSystemFlagsUpdate(flagsUpdateCalculator)) {
+            return updateSystemFlags(mailbox, flagsUpdateCalculator, set);
+        }
 
+        Iterator<MailboxMessage> messages = findInMailbox(mailbox, set, FetchType.Metadata, UNLIMIT_MAX_SIZE);
         MessageChangedFlags messageChangedFlags = messageMetadataMapper.updateFlags(mailbox, flagsUpdateCalculator, messages);
 
         for (MailboxMessage mailboxMessage : messageChangedFlags.getChangedFlags()) {
@@ -263,6 +303,101 @@ public class JPAMessageMapper extends JPATransactionalMapper implements MessageM
         return messageChangedFlags.getUpdatedFlags();
     }
 
+    /**
+     * Adding or removing system flags does not depend on the other flags of the messages, and can be
+     * done with one UPDATE statement per flag over the range.
+     */
+    private boolean isSystemFlagsUpdate(FlagsUpdateCalculator flagsUpdateCalculator) {
+        Flags providedFlags = flagsUpdateCalculator.getProvidedFlags();
+        return flagsUpdateCalculator.getMode() != FlagsUpdateMode.REPLACE
+            && providedFlags.getUserFlags().length == 0
+            && Stream.of(providedFlags.getSystemFlags()).allMatch(SYSTEM_FLAG_UPDATE_QUERIES::containsKey);
+    }
+
+    private Iterator<UpdatedFlags> updateSystemFlags(Mailbox mailbox, FlagsUpdateCalculator flagsUpdateCalculator,
+            MessageRange set) throws MailboxException {
+        JPAId mailboxId = (JPAId) mailbox.getMailboxId();
+        try {
+            // Only the flags and the mod-sequences of the range are read: the messages are not loaded
+            List<UpdatedFlags> updatedFlags = computeUpdatedFlags(mailboxId, flagsUpdateCalculator, set);
+            Set<MessageUid> changedUids = updatedFlags.stream()
+                .filter(UpdatedFlags::flagsChanged)
+                .map(UpdatedFlags::getUid)
+                .collect(Collectors.toSet());
+
+            if (changedUids.isEmpty()) {
+                return updatedFlags.iterator();
+            }
+
+            long modSeq = messageMetadataMapper.nextModSeq(mailbox);
+            getEntityManager().flush();
+            for (Flags.Flag flag : flagsUpdateCalculator.getProvidedFlags().getSystemFlags()) {
+                getEntityManager().createNamedQuery(SYSTEM_FLAG_UPDATE_QUERIES.get(flag))
+                    .setParameter("valueParam", flagsUpdateCalculator.getMode() == FlagsUpdateMode.ADD)
+                    .setParameter("modSeqParam", modSeq)
+                    .setParameter("idParam", mailboxId.getRawId())
+                    .setParameter("fromParam", set.getUidFrom().asLong())
+                    .setParameter("toParam", set.getUidTo().asLong())
+                    .executeUpdate();
+            }
+            refreshManagedMessages(mailboxId, changedUids);
+
+            return updatedFlags.stream()
+                .map(flags -> withModSeq(flags, changedUids.contains(flags.getUid()) ? modSeq : flags.getModSeq()))
+                .iterator();
+        } catch (PersistenceException e) {
+            throw new MailboxException("Update of flags of MessageRange " + set + " failed in mailbox " + mailbox, e);
+        }
+    }
+
+    private List<UpdatedFlags> computeUpdatedFlags(JPAId mailboxId, FlagsUpdateCalculator flagsUpdateCalculator, MessageRange set) {
+        Multimap<Long, String> userFlags = findUserFlagsInMailboxBetweenUIDs(mailboxId, set.getUidFrom(), set.getUidTo());
+
+        return findFlagsInMailboxBetweenUIDs(mailboxId, set.getUidFrom(), set.getUidTo())
+            .stream()
+            .map(row -> {
+                long uid = (Long) row[0];
+                Flags originalFlags = new Flags();
+                for (int i = 0; i < FLAGS_PROJECTION.size(); i++) {
+                    if ((Boolean) row[i + 2]) {
+                        originalFlags.add(FLAGS_PROJECTION.get(i));
+                    }
+                }
+                userFlags.get(uid).forEach(originalFlags::add);
+                return UpdatedFlags.builder()
+                    .uid(MessageUid.of(uid))
+                    .modSeq((Long) row[1])
+                    .oldFlags(originalFlags)
+                    .newFlags(flagsUpdateCalculator.buildNewFlags(originalFlags))
+                    .build();
+            })
+            .collect(Collectors.toList());
+    }
+
+    private UpdatedFlags withModSeq(UpdatedFlags updatedFlags, long modSeq) {
+        return UpdatedFlags.builder()
+            .uid(updatedFlags.getUid())
+            .modSeq(modSeq)
+            .oldFlags(updatedFlags.getOldFlags())
+            .newFlags(updatedFlags.getNewFlags())
+            .build();
+    }
+
+    /**
+     * Bulk updates bypass the persistence context: messages of this mailbox it already manages are
+     * refreshed so that they do not expose, nor write back, the previous flags.
+     */
+    private void refreshManagedMessages(JPAId mailboxId, Set<MessageUid> uids) {
+        EntityManager entityManager = getEntityManager();
+        Collection<?> managedObjects = entityManager.unwrap(OpenJPAEntityManager.class).getManagedObjects();
+        managedObjects.stream()
+            .filter(AbstractJPAMailboxMessage.class::isInstance)
+            .map(AbstractJPAMailboxMessage.class::cast)
+            .filter(message -> mailboxId.equals(message.getMailboxId()) && uids.contains(message.getUid()))
+            .collect(Collectors.toList())
+            .forEach(entityManager::refresh);
+    }
+
     @Override
     public MessageMetaData copy(Mailbox mailbox, MailboxMessage original) throws MailboxException {
         return copy(mailbox, messageMetadataMapper.nextUid(mailbox), messageMetadataMapper.nextModSeq(mailbox), original);  
@@ -305,13 +440,24 @@ public class JPAMessageMapper extends JPATransactionalMapper implements MessageM
      *      MailboxMessage)
      */
     protected MessageMetaData save(Mailbox mailbox, MailboxMessage message) throws MailboxException {
+        return save(mailbox, loadAttachedMailbox(mailbox), message);
+    }
+
+    private JPAMailbox loadAttachedMailbox(Mailbox mailbox) throws MailboxException {
         try {
             // We need to reload a "JPA attached" mailbox, because the provide
             // mailbox is already "JPA detached"
             // If we don't this, we will get an
             // org.apache.openjpa.persistence.ArgumentException.
             JPAId mailboxId = (JPAId) mailbox.getMailboxId();
-            JPAMailbox currentMailbox = getEntityManager().find(JPAMailbox.class, mailboxId.getRawId());
+            return getEntityManager().find(JPAMailbox.class, mailboxId.getRawId());
+        } catch (PersistenceException | ArgumentException e) {
+            throw new MailboxException("Loading of mailbox " + mailbox + " failed", e);
+        }
+    }
+
+    private MessageMetaData save(Mailbox mailbox, JPAMailbox currentMailbox, MailboxMessage message) throws MailboxException {
+        try {
             if (message instanceof AbstractJPAMailboxMessage) {
                 ((AbstractJPAMailboxMessage) message).setMailbox(currentMailbox);
 
@@ -362,6 +508,27 @@ public class JPAMessageMapper extends JPATransactionalMapper implements MessageM
         return query.getResultList();
     }
 
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findFlagsInMailboxBetweenUIDs(JPAId mailboxId, MessageUid from, MessageUid to) {
+        return getEntityManager().createNamedQuery("findFlagsInMailboxBetweenUIDs")
+                .setParameter("idParam", mailboxId.getRawId()).setParameter("fromParam", from.asLong())
+                .setParameter("toParam", to.asLong())
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Multimap<Long, String> findUserFlagsInMailboxBetweenUIDs(JPAId mailboxId, MessageUid from, MessageUid to) {
+        List<Object[]> rows = getEntityManager().createNamedQuery("findUserFlagsInMailboxBetweenUIDs")
+                .setParameter("idParam", mailboxId.getRawId()).setParameter("fromParam", from.asLong())
+                .setParameter("toParam", to.asLong())
+                .getResultList();
+        Multimap<Long, String> userFlags = ArrayListMultimap.create();
+        for (Object[] row : rows) {
+            userFlags.put((Long) row[0], (String) row[1]);
+        }
+        return userFlags;
+    }
+
     @SuppressWarnings("unchecked")
     private List<MailboxMessage> findMessagesInMailbox(JPAId mailboxId, int batchSize) {
         Query query = getEntityManager().createNamedQuery("findMessagesInMailbox").setParameter("idParam",
@@ -18,7 +18,11 @@
  ****************************************************************/
 package org.apache.james.mailbox.jpa.mail;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -93,4 +97,30 @@ public class JPAUidProvider extends AbstractLockingUidProvider {
         }
     }
 
+    @Override
+    protected List<MessageUid> lockedNextUids(MailboxSession session, Mailbox mailbox, int count) throws MailboxException {
+        EntityManager manager = null;
+        try {
+            manager = factory.createEntityManager();
+            manager.getTransaction().begin();
+            JPAId mailboxId = (JPAId) mailbox.getMailboxId();
+            JPAMailbox m = manager.find(JPAMailbox.class, mailboxId.getRawId());
+            long firstUid = m.consumeUids(count);
+            manager.persist(m);
+            manager.getTransaction().commit();
+            return LongStream.range(firstUid, firstUid + count)
+                .mapToObj(MessageUid::of)
+                .collect(Collectors.toList());
+        } catch (PersistenceException e) {
+            if (manager != null && manager.getTransaction().isActive()) {
+                manager.getTransaction().rollback();
+            }
+            throw new MailboxException("Unable to save next uids for mailbox " + mailbox, e);
+        } finally {
+            if (manager != null) {
+                manager.close();
+            }
+        }
+    }
+
 }
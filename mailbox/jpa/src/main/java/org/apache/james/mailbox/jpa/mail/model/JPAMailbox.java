@@ -219,6 +219,17 @@ public class JPAMailbox implements Mailbox {
     public long consumeUid() {
         return ++lastUid;
     }
+
+    /**
+     * Reserves the given count of uids
+     *
+     * @return the first reserved uid
+     */
+    public long consumeUids(int count) {
+        long firstUid = lastUid + 1;
+        lastUid += count;
+        return firstUid;
+    }
     
     public long consumeModSeq() {
         return ++highestModSeq;
@@ -88,6 +88,15 @@ import com.google.common.base.Objects;
         @NamedQuery(name = "deleteDeletedMessagesInMailboxWithUID", query = "DELETE FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam AND message.uid=:uidParam AND message.deleted=TRUE"),
         @NamedQuery(name = "deleteDeletedMessagesInMailboxAfterUID", query = "DELETE FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam AND message.uid>=:uidParam AND message.deleted=TRUE"),
 
+        @NamedQuery(name = "findFlagsInMailboxBetweenUIDs", query = "SELECT message.uid, message.modSeq, message.answered, message.deleted, message.draft, message.flagged, message.recent, message.seen FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam ORDER BY message.uid ASC"),
+        @NamedQuery(name = "findUserFlagsInMailboxBetweenUIDs", query = "SELECT message.uid, userFlag.name FROM MailboxMessage message JOIN message.userFlags userFlag WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam"),
+        @NamedQuery(name = "updateAnsweredInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.answered = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.answered <> :valueParam"),
+        @NamedQuery(name = "updateDeletedInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.deleted = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.deleted <> :valueParam"),
+        @NamedQuery(name = "updateDraftInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.draft = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.draft <> :valueParam"),
+        @NamedQuery(name = "updateFlaggedInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.flagged = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.flagged <> :valueParam"),
+        @NamedQuery(name = "updateRecentInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.recent = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.recent <> :valueParam"),
+        @NamedQuery(name = "updateSeenInMailboxBetweenUIDs", query = "UPDATE MailboxMessage message SET message.seen = :valueParam, message.modSeq = :modSeqParam WHERE message.mailbox.mailboxId = :idParam AND message.uid BETWEEN :fromParam AND :toParam AND message.seen <> :valueParam"),
+
         @NamedQuery(name = "countUnseenMessagesInMailbox", query = "SELECT COUNT(message) FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam AND message.seen=FALSE"),
         @NamedQuery(name = "countMessagesInMailbox", query = "SELECT COUNT(message) FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam"),
         @NamedQuery(name = "deleteMessages", query = "DELETE FROM MailboxMessage message WHERE message.mailbox.mailboxId = :idParam"),
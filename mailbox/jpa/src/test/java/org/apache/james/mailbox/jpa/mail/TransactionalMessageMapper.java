@@ -115,6 +115,13 @@ public class TransactionalMessageMapper implements MessageMapper {
         return data;
     }
 
+    @Override
+    public List<MessageMetaData> addAll(final Mailbox mailbox, final List<MailboxMessage> messages) throws MailboxException {
+        List<MessageMetaData> data = messageMapper.execute(
+            () -> messageMapper.addAll(mailbox, messages));
+        return data;
+    }
+
     @Override
     public Iterator<UpdatedFlags> updateFlags(final Mailbox mailbox, final FlagsUpdateCalculator flagsUpdateCalculator,
             final MessageRange set) throws MailboxException {
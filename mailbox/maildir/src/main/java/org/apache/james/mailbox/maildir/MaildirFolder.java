@@ -18,25 +18,23 @@
  ****************************************************************/
 package org.apache.james.mailbox.maildir;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.NoSuchElementException;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -71,6 +69,7 @@ public class MaildirFolder {
     private final File tmpFolder;
     private final File uidFile;
     private final File aclFile;
+    private final MaildirUidList uidList;
     
     private Optional<MessageUid> lastUid;
     private int messageCount = 0;
@@ -88,12 +87,23 @@ public class MaildirFolder {
      * @param absPath The absolute path of the mailbox folder
      */
     public MaildirFolder(String absPath, MailboxPath path, MailboxPathLocker locker) {
+        this(absPath, path, locker, new MaildirUidList(new File(new File(absPath), UIDLIST_FILE)));
+    }
+
+    /**
+     * Representation of a maildir folder containing the message folders
+     * and some special files
+     * @param absPath The absolute path of the mailbox folder
+     * @param uidList The uid list of this folder, that can be shared by several instances representing the same folder
+     */
+    public MaildirFolder(String absPath, MailboxPath path, MailboxPathLocker locker, MaildirUidList uidList) {
         this.rootFolder = new File(absPath);
         this.curFolder = new File(rootFolder, CUR);
         this.newFolder = new File(rootFolder, NEW);
         this.tmpFolder = new File(rootFolder, TMP);
-        this.uidFile = new File(rootFolder, UIDLIST_FILE);
+        this.uidFile = uidList.getSnapshotFile();
         this.aclFile = new File(rootFolder, ACL_FILE);
+        this.uidList = uidList;
         this.locker = locker;
         this.path = path;
         this.lastUid = Optional.empty();
@@ -145,18 +155,24 @@ public class MaildirFolder {
     
     /**
      * Checks whether the folder's contents have been changed after
-     * the uidfile has been created.
+     * the uid list has been last written.
      * @return true if the contents have been changed.
      */
-    private boolean isModified() {
-        long uidListModified = uidFile.lastModified();
+    private boolean isModified() throws MailboxException {
+        try {
+            uidList.refresh();
+        } catch (IOException e) {
+            throw new MailboxException("Unable to read uid file", e);
+        }
         long curModified = curFolder.lastModified();
         long newModified = newFolder.lastModified();
-        // because of bad time resolution of file systems we also check "equals"
-        if (curModified >= uidListModified || newModified >= uidListModified) {
-            return true;
-        }
-        return false;
+        return uidList.matchesFolderState(curModified, newModified)
+            .map(matches -> !matches)
+            .orElseGet(() -> {
+                long uidListModified = uidFile.lastModified();
+                // because of bad time resolution of file systems we also check "equals"
+                return curModified >= uidListModified || newModified >= uidListModified;
+            });
     }
     
     /**
@@ -220,31 +236,20 @@ public class MaildirFolder {
     private void readLastUid(MailboxSession session) throws MailboxException {
         locker.executeWithLock(session, path,
             (LockAwareExecution<Void>) () -> {
-            File uidList = uidFile;
-            FileReader fileReader = null;
-            BufferedReader reader = null;
             try {
                 if (!uidList.exists()) {
                     createUidFile();
                 }
-                fileReader = new FileReader(uidList);
-                reader = new BufferedReader(fileReader);
-                String line = reader.readLine();
-                if (line != null) {
-                    readUidListHeader(line);
-                }
+                uidList.refresh();
+                lastUid = uidList.getLastUid();
                 return null;
             } catch (IOException e) {
                 throw new MailboxException("Unable to read last uid", e);
-            } finally {
-                IOUtils.closeQuietly(reader);
-                IOUtils.closeQuietly(fileReader);
             }
         }, true);
         
         
     }
-
     /**
      * Returns the uidValidity of this mailbox
      * @return The uidValidity
@@ -334,38 +339,13 @@ public class MaildirFolder {
     public MaildirMessageName getMessageNameByUid(final MailboxSession session, final MessageUid uid) throws MailboxException {
        
         return locker.executeWithLock(session, path, () -> {
-            FileReader fileReader = null;
-            BufferedReader reader = null;
-            File uidList = uidFile;
             try {
-                fileReader = new FileReader(uidList);
-                reader = new BufferedReader(fileReader);
-                String uidString = String.valueOf(uid.asLong());
-                String line = reader.readLine(); // the header
-                int lineNumber = 1; // already read the first line
-                while ((line = reader.readLine()) != null) {
-                    lineNumber++;
-                    if (!line.equals("")) {
-                        int gap = line.indexOf(" ");
-                        if (gap == -1) {
-                            // there must be some issues in the file if no gap can be found
-                            LOGGER.info("Corrupted entry in uid-file {} line {}", uidList, lineNumber);
-                            continue;
-                        }
-
-                        if (line.substring(0, gap).equals(uidString)) {
-                            return newMaildirMessageName(MaildirFolder.this, line.substring(gap + 1));
-                        }
-                    }
-                }
-
-                // TODO: Is this right!?
-                return null;
+                uidList.refresh();
+                return uidList.getName(uid)
+                    .map(name -> newMaildirMessageName(MaildirFolder.this, name))
+                    .orElse(null);
             } catch (IOException e) {
                 throw new MailboxException("Unable to read messagename for uid " + uid, e);
-            } finally {
-                IOUtils.closeQuietly(reader);
-                IOUtils.closeQuietly(fileReader);
             }
         }, true);
     }
@@ -385,9 +365,7 @@ public class MaildirFolder {
         return locker.executeWithLock(session, path, () -> {
             final SortedMap<MessageUid, MaildirMessageName> uidMap = new TreeMap<>();
 
-            File uidList = uidFile;
-
-            if (uidList.isFile()) {
+            if (uidList.exists()) {
                 if (isModified()) {
                     try {
                         uidMap.putAll(truncateMap(updateUidFile(), from, to));
@@ -463,82 +441,28 @@ public class MaildirFolder {
      */
     public SortedMap<MessageUid, MaildirMessageName> getRecentMessages(final MailboxSession session) throws MailboxException {
         final String[] recentFiles = getNewFolder().list();
-        final LinkedList<String> lines = new LinkedList<>();
+        final Set<String> recentFileNames = new HashSet<>(Arrays.asList(recentFiles));
         final int theLimit = recentFiles.length;
         return locker.executeWithLock(session, path, () -> {
             final SortedMap<MessageUid, MaildirMessageName> recentMessages = new TreeMap<>();
 
-            File uidList = uidFile;
-
             try {
-                if (!uidList.isFile()) {
-                    if (!uidList.createNewFile()) {
-                        throw new IOException("Could not create file " + uidList);
-                    }
-                    String[] curFiles = curFolder.list();
-                    String[] newFiles = newFolder.list();
-                    messageCount = curFiles.length + newFiles.length;
-                    String[] allFiles = ArrayUtils.addAll(curFiles, newFiles);
-                    for (String file : allFiles) {
-                        lines.add(String.valueOf(getNextUid().asLong()) + " " + file);
-                    }
-                    PrintWriter pw = new PrintWriter(uidList);
-                    try {
-                        pw.println(createUidListHeader());
-                        for (String line : lines) {
-                            pw.println(line);
-                        }
-                    } finally {
-                        IOUtils.closeQuietly(pw);
-                    }
-                } else {
-                    FileReader fileReader = null;
-                    BufferedReader reader = null;
-                try {
-                        fileReader = new FileReader(uidList);
-                        reader = new BufferedReader(fileReader);
-                        String line = reader.readLine();
-                        // the first line in the file contains the next uid and message count
-                        while ((line = reader.readLine()) != null) {
-                            lines.add(line);
-                        }
-                    } finally {
-                        IOUtils.closeQuietly(reader);
-                        IOUtils.closeQuietly(fileReader);
-                    }
-                }
-                int counter = 0;
-                String line;
-                while (counter < theLimit) {
-                    // walk backwards as recent files are supposedly recent
-                    try {
-                        line = lines.removeLast();
-                    } catch (NoSuchElementException e) {
-                        break; // the list is empty
-                    }
-                    if (!line.equals("")) {
-                        int gap = line.indexOf(" ");
-                        if (gap == -1) {
-                            // there must be some issues in the file if no gap can be found
-                            // there must be some issues in the file if no gap can be found
-                            LOGGER.info("Corrupted entry in uid-file {} line {}", uidList, lines.size());
-                            continue;
-                        }
-
-                        MessageUid uid = MessageUid.of(Long.valueOf(line.substring(0, gap)));
-                        String name = line.substring(gap + 1, line.length());
-                        for (String recentFile : recentFiles) {
-                            if (recentFile.equals(name)) {
-                                recentMessages.put(uid, newMaildirMessageName(MaildirFolder.this, recentFile));
-                                counter++;
-                                break;
-                            }
-                        }
-                    }
+                if (!uidList.exists()) {
+                    createUidFile();
                 }
+                uidList.refresh();
             } catch (IOException e) {
                 throw new MailboxException("Unable to read recent messages", e);
             }
+            // walk backwards as recent files are supposedly recent
+            for (Entry<MessageUid, String> entry : uidList.getNames().descendingMap().entrySet()) {
+                if (recentMessages.size() >= theLimit) {
+                    break;
+                }
+                if (recentFileNames.contains(entry.getValue())) {
+                    recentMessages.put(entry.getKey(), newMaildirMessageName(MaildirFolder.this, entry.getValue()));
+                }
+            }
             return recentMessages;
         }, true);
     }
@@ -550,13 +474,11 @@ public class MaildirFolder {
      */
     private Map<MessageUid, MaildirMessageName> createUidFile() throws MailboxException {
         final Map<MessageUid, MaildirMessageName> uidMap = new TreeMap<>();
-        File uidList = uidFile;
-        PrintWriter pw = null;
         try {
-            if (!uidList.createNewFile()) {
-                throw new IOException("Could not create file " + uidList);
-            }
             lastUid = Optional.empty();
+            // folder states are read before listing, so that changes made while listing are detected later
+            long curModified = curFolder.lastModified();
+            long newModified = newFolder.lastModified();
             String[] curFiles = curFolder.list();
             String[] newFiles = newFolder.list();
             messageCount = curFiles.length + newFiles.length;
@@ -564,51 +486,27 @@ public class MaildirFolder {
             for (String file : allFiles) {
                 uidMap.put(getNextUid(), newMaildirMessageName(MaildirFolder.this, file));
             }
-            pw = new PrintWriter(uidList);
-            pw.println(createUidListHeader());
-            for (Entry<MessageUid, MaildirMessageName> entry : uidMap.entrySet()) {
-                pw.println(String.valueOf(entry.getKey().asLong()) + " " + entry.getValue().getFullName());
-            }
+            writeUidFile(uidMap, curModified, newModified);
         } catch (IOException e) {
             throw new MailboxException("Unable to create uid file", e);
-        } finally {
-            IOUtils.closeQuietly(pw);
-        }     
+        }
 
         return uidMap;
     }
     
     private Map<MessageUid, MaildirMessageName> updateUidFile() throws MailboxException {
         final Map<MessageUid, MaildirMessageName> uidMap = new TreeMap<>();
-        File uidList = uidFile;
+        long curModified = curFolder.lastModified();
+        long newModified = newFolder.lastModified();
         String[] curFiles = curFolder.list();
         String[] newFiles = newFolder.list();
         messageCount = curFiles.length + newFiles.length;
         HashMap<String, MessageUid> reverseUidMap = new HashMap<>(messageCount);
-        FileReader fileReader = null;
-        BufferedReader reader = null;
-        PrintWriter pw = null;
         try {
-            fileReader = new FileReader(uidList);
-            reader = new BufferedReader(fileReader);
-            String line = reader.readLine();
-            // the first line in the file contains the next uid and message count
-            if (line != null) {
-                readUidListHeader(line);
-            }
-            int lineNumber = 1; // already read the first line
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (!line.equals("")) {
-                    int gap = line.indexOf(" ");
-                    if (gap == -1) {
-                        // there must be some issues in the file if no gap can be found
-                        throw new MailboxException("Corrupted entry in uid-file " + uidList + " line " + lineNumber);
-                    }
-                    MessageUid uid = MessageUid.of(Long.valueOf(line.substring(0, gap)));
-                    String name = line.substring(gap + 1, line.length());
-                    reverseUidMap.put(stripMetaFromName(name), uid);
-                }
+            uidList.refresh();
+            lastUid = uidList.getLastUid();
+            for (Entry<MessageUid, String> entry : uidList.getNames().entrySet()) {
+                reverseUidMap.put(stripMetaFromName(entry.getValue()), entry.getKey());
             }
             String[] allFiles = (String[]) ArrayUtils.addAll(curFiles, newFiles);
             for (String file : allFiles) {
@@ -619,65 +517,39 @@ public class MaildirFolder {
                 }
                 uidMap.put(uid, messageName);
             }
-            pw = new PrintWriter(uidList);
-            pw.println(createUidListHeader());
-            for (Entry<MessageUid, MaildirMessageName> entry : uidMap.entrySet()) {
-                pw.println(String.valueOf(entry.getKey().asLong()) + " " + entry.getValue().getFullName());
-            }
+            writeUidFile(uidMap, curModified, newModified);
         } catch (IOException e) {
             throw new MailboxException("Unable to update uid file", e);
-        } finally {
-            IOUtils.closeQuietly(pw);
-            IOUtils.closeQuietly(fileReader);
-            IOUtils.closeQuietly(reader);
-        }               
+        }
         return uidMap;
     }
 
+    private void writeUidFile(Map<MessageUid, MaildirMessageName> uidMap, long curModified, long newModified) throws IOException {
+        Map<MessageUid, String> names = new TreeMap<>();
+        for (Entry<MessageUid, MaildirMessageName> entry : uidMap.entrySet()) {
+            names.put(entry.getKey(), entry.getValue().getFullName());
+        }
+        uidList.rewrite(names, lastUid, curModified, newModified);
+    }
+
     private Map<MessageUid, MaildirMessageName> readUidFile(MailboxSession session, MessageUid from, MessageUid to) throws MailboxException {
         final Map<MessageUid, MaildirMessageName> uidMap = new HashMap<>();
 
-        File uidList = uidFile;
-        FileReader fileReader = null;
-        BufferedReader reader = null;
         try {
-            fileReader = new FileReader(uidList);
-            reader = new BufferedReader(fileReader);
-            String line = reader.readLine();
-            // the first line in the file contains the next uid and message
-            // count
-            if (line != null) {
-                readUidListHeader(line);
-            }
-            int lineNumber = 1; // already read the first line
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (!line.equals("")) {
-                    int gap = line.indexOf(" ");
-
-                    if (gap == -1) {
-                        // there must be some issues in the file if no gap can be found
-                        LOGGER.info("Corrupted entry in uid-file {} line {}", uidList, lineNumber);
-                        continue;
-                    }
-                    
-                    MessageUid uid = MessageUid.of(Long.valueOf(line.substring(0, gap)));
-                    if (uid.compareTo(from) >= 0) {
-                        if (to != null && uid.compareTo(to) > 0) {
-                            break;
-                        }
-                        String name = line.substring(gap + 1, line.length());
-                        uidMap.put(uid, newMaildirMessageName(MaildirFolder.this, name));
-                    }
-                }
-            }
+            uidList.refresh();
         } catch (IOException e) {
             throw new MailboxException("Unable to read uid file", e);
-        } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(fileReader);
         }
-        messageCount = uidMap.size();
+        NavigableMap<MessageUid, String> names = uidList.getNames();
+        SortedMap<MessageUid, String> range = names.tailMap(from, true);
+        if (to != null) {
+            range = names.subMap(from, true, to, true);
+        }
+        for (Entry<MessageUid, String> entry : range.entrySet()) {
+            uidMap.put(entry.getKey(), newMaildirMessageName(MaildirFolder.this, entry.getValue()));
+        }
+        lastUid = uidList.getLastUid();
+        messageCount = uidList.getMessageCount();
 
         return uidMap;
     }
@@ -702,40 +574,6 @@ public class MaildirFolder {
         return sortedMap.tailMap(from);
     }
     
-    /**
-     * Parses the header line in uid list files.
-     * The format is: version lastUid messageCount (e.g. 1 615 273)
-     * @param line The raw header line
-     * @throws IOException
-     */
-    private void readUidListHeader(String line) throws IOException {
-        if (line == null) {
-            throw new IOException("Header entry in uid-file is null");
-        }
-        int gap1 = line.indexOf(" ");
-        if (gap1 == -1) {
-            // there must be some issues in the file if no gap can be found
-            throw new IOException("Corrupted header entry in uid-file");
-            
-        }
-        int version = Integer.valueOf(line.substring(0, gap1));
-        if (version != 1) {
-            throw new IOException("Cannot read uidlists with versions other than 1.");
-        }
-        int gap2 = line.indexOf(" ", gap1 + 1);
-        lastUid = Optional.of(MessageUid.of(Long.valueOf(line.substring(gap1 + 1, gap2))));
-        messageCount = Integer.valueOf(line.substring(gap2 + 1, line.length()));
-    }
-    
-    /**
-     * Creates a line to put as a header in the uid list file.
-     * @return the line which ought to be the header
-     */
-    private String createUidListHeader() {
-        Long last = lastUid.map(MessageUid::asLong).orElse(0L);
-        return "1 " + String.valueOf(last) + " " + String.valueOf(messageCount);
-    }
-    
     /**
      * Takes the name of a message file and returns only the base name.
      * @param fileName The name of the message file
@@ -760,67 +598,39 @@ public class MaildirFolder {
      */
     public MessageUid appendMessage(MailboxSession session, final String name) throws MailboxException {
         return locker.executeWithLock(session, path, () -> {
-            File uidList = uidFile;
-            MessageUid uid = null;
-            FileReader fileReader = null;
-            BufferedReader reader = null;
-            PrintWriter pw = null;
             try {
-                if (uidList.isFile()) {
-                    fileReader = new FileReader(uidList);
-                    reader = new BufferedReader(fileReader);
-                    String line = reader.readLine();
-                    // the first line in the file contains the next uid and message count
-                    if (line != null) {
-                        readUidListHeader(line);
-                    }
-                    ArrayList<String> lines = new ArrayList<>();
-                    while ((line = reader.readLine()) != null) {
-                        lines.add(line);
-                    }
-                    uid = getNextUid();
-                    lines.add(String.valueOf(uid.asLong()) + " " + name);
-                    messageCount++;
-                    pw = new PrintWriter(uidList);
-                    pw.println(createUidListHeader());
-                    for (String entry : lines) {
-                        pw.println(entry);
-                    }
-                } else {
-                    // create the file
-                    if (!uidList.createNewFile()) {
-                        throw new IOException("Could not create file " + uidList);
-                    }
-                    String[] curFiles = curFolder.list();
-                    String[] newFiles = newFolder.list();
-                    messageCount = curFiles.length + newFiles.length;
-                    ArrayList<String> lines = new ArrayList<>();
-                    String[] allFiles = (String[]) ArrayUtils.addAll(curFiles, newFiles);
-                    for (String file : allFiles) {
-                        MessageUid theUid = getNextUid();
-                        lines.add(String.valueOf(theUid.asLong()) + " " + file);
-                        // the listed names already include the message to append
-                        if (file.equals(name)) {
-                            uid = theUid;
-                        }
-                    }
-                    pw = new PrintWriter(uidList);
-                    pw.println(createUidListHeader());
-                    for (String line : lines) {
-                        pw.println(line);
+                if (uidList.exists()) {
+                    uidList.refresh();
+                    lastUid = uidList.getLastUid();
+                    MessageUid uid = getNextUid();
+                    uidList.append(uid, name, curFolder.lastModified(), newFolder.lastModified());
+                    messageCount = uidList.getMessageCount();
+                    return uid;
+                }
+                // create the file
+                long curModified = curFolder.lastModified();
+                long newModified = newFolder.lastModified();
+                String[] curFiles = curFolder.list();
+                String[] newFiles = newFolder.list();
+                messageCount = curFiles.length + newFiles.length;
+                Map<MessageUid, MaildirMessageName> uidMap = new TreeMap<>();
+                MessageUid uid = null;
+                String[] allFiles = (String[]) ArrayUtils.addAll(curFiles, newFiles);
+                for (String file : allFiles) {
+                    MessageUid theUid = getNextUid();
+                    uidMap.put(theUid, newMaildirMessageName(MaildirFolder.this, file));
+                    // the listed names already include the message to append
+                    if (file.equals(name)) {
+                        uid = theUid;
                     }
                 }
+                writeUidFile(uidMap, curModified, newModified);
+                if (uid == null) {
+                    throw new MailboxException("Unable to append msg");
+                }
+                return uid;
             } catch (IOException e) {
                 throw new MailboxException("Unable to append msg", e);
-            } finally {
-                IOUtils.closeQuietly(pw);
-                IOUtils.closeQuietly(reader);
-                IOUtils.closeQuietly(fileReader);
-            }
-            if (uid == null) {
-                throw new MailboxException("Unable to append msg");
-            } else {
-               return uid;
             }
         }, true);
 
@@ -835,33 +645,13 @@ public class MaildirFolder {
      */
     public void update(MailboxSession session, final MessageUid uid, final String messageName) throws MailboxException {
         locker.executeWithLock(session, path, (LockAwareExecution<Void>) () -> {
-            File uidList = uidFile;
-            FileReader fileReader = null;
-            BufferedReader reader = null;
-            PrintWriter writer = null;
             try {
-                fileReader = new FileReader(uidList);
-                reader = new BufferedReader(fileReader);
-                String line = reader.readLine();
-                readUidListHeader(line);
-                ArrayList<String> lines = new ArrayList<>();
-                while ((line = reader.readLine()) != null) {
-                    if (uid.equals(MessageUid.of(Long.valueOf(line.substring(0, line.indexOf(" ")))))) {
-                        line = String.valueOf(uid.asLong()) + " " + messageName;
-                    }
-                    lines.add(line);
-                }
-                writer = new PrintWriter(uidList);
-                writer.println(createUidListHeader());
-                for (String entry : lines) {
-                    writer.println(entry);
+                uidList.refresh();
+                if (uidList.getName(uid).isPresent()) {
+                    uidList.update(uid, messageName, curFolder.lastModified(), newFolder.lastModified());
                 }
             } catch (IOException e) {
                 throw new MailboxException("Unable to update msg with uid " + uid, e);
-            } finally {
-                IOUtils.closeQuietly(writer);
-                IOUtils.closeQuietly(reader);
-                IOUtils.closeQuietly(fileReader);
             }
             return null;
         }, true);
@@ -877,52 +667,19 @@ public class MaildirFolder {
      */
     public MaildirMessageName delete(final MailboxSession session, final MessageUid uid) throws MailboxException {        
         return locker.executeWithLock(session, path, () -> {
-            File uidList = uidFile;
-            FileReader fileReader = null;
-            BufferedReader reader = null;
-            PrintWriter writer = null;
-            MaildirMessageName deletedMessage = null;
             try {
-                fileReader = new FileReader(uidList);
-                reader = new BufferedReader(fileReader);
-                readUidListHeader(reader.readLine());
-
-                // It may be possible that message count is 0 so we should better not try to calculate the size of the ArrayList
-                ArrayList<String> lines = new ArrayList<>();
-                String line;
-                int lineNumber = 0;
-                while ((line = reader.readLine()) != null) {
-                    lineNumber++;
-                    int gap = line.indexOf(" ");
-                    if (gap == -1) {
-                        // there must be some issues in the file if no gap can be found
-                        LOGGER.info("Corrupted entry in uid-file {} line {}", uidList, lineNumber);
-                        continue;
-                    }
-
-                    if (uid.equals(MessageUid.of(Long.valueOf(line.substring(0, line.indexOf(" ")))))) {
-                        deletedMessage = newMaildirMessageName(MaildirFolder.this, line.substring(gap + 1, line.length()));
-                        messageCount--;
-                    } else {
-                        lines.add(line);
-                    }
-                }
-                if (deletedMessage != null) {
-                    FileUtils.forceDelete(deletedMessage.getFile());
-                    writer = new PrintWriter(uidList);
-                    writer.println(createUidListHeader());
-                    for (String entry : lines) {
-                        writer.println(entry);
-                    }
+                uidList.refresh();
+                Optional<String> name = uidList.getName(uid);
+                if (!name.isPresent()) {
+                    return null;
                 }
+                MaildirMessageName deletedMessage = newMaildirMessageName(MaildirFolder.this, name.get());
+                FileUtils.forceDelete(deletedMessage.getFile());
+                uidList.remove(uid, curFolder.lastModified(), newFolder.lastModified());
+                messageCount = uidList.getMessageCount();
                 return deletedMessage;
-
             } catch (IOException e) {
                 throw new MailboxException("Unable to delete msg with uid " + uid, e);
-            } finally {
-                IOUtils.closeQuietly(writer);
-                IOUtils.closeQuietly(reader);
-                IOUtils.closeQuietly(fileReader);
             }
         }, true);
         
@@ -20,7 +20,10 @@ package org.apache.james.mailbox.maildir;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.lang3.NotImplementedException;
@@ -46,8 +49,21 @@ public class MaildirStore implements UidProvider, ModSeqProvider {
     public static final String WILDCARD = "%";
     
     public static final String maildirDelimiter = ".";
+
+    /**
+     * Maximum number of folder uid lists kept in memory
+     */
+    public static final int UID_LIST_CACHE_SIZE = 1000;
     
     private final String maildirLocation;
+
+    private final Map<String, MaildirUidList> uidLists = Collections.synchronizedMap(
+        new LinkedHashMap<String, MaildirUidList>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MaildirUidList> eldest) {
+                return size() > UID_LIST_CACHE_SIZE;
+            }
+        });
     
     private File maildirRootFile;
     private final MailboxPathLocker locker;
@@ -84,9 +100,19 @@ public class MaildirStore implements UidProvider, ModSeqProvider {
      * @return The MaildirFolder
      */
     public MaildirFolder createMaildirFolder(Mailbox mailbox) {
-        MaildirFolder mf = new MaildirFolder(getFolderName(mailbox), mailbox.generateAssociatedPath(), locker);
-        mf.setMessageNameStrictParse(isMessageNameStrictParse());
-        return mf;
+        return newMaildirFolder(getFolderName(mailbox), mailbox.generateAssociatedPath());
+    }
+
+    /**
+     * Create a {@link MaildirFolder} sharing the in memory uid list of the other instances
+     * representing the same folder
+     */
+    private MaildirFolder newMaildirFolder(String absPath, MailboxPath mailboxPath) {
+        File uidListFile = new File(new File(absPath), MaildirFolder.UIDLIST_FILE).getAbsoluteFile();
+        MaildirUidList uidList = uidLists.computeIfAbsent(uidListFile.getPath(), key -> new MaildirUidList(uidListFile));
+        MaildirFolder folder = new MaildirFolder(absPath, mailboxPath, locker, uidList);
+        folder.setMessageNameStrictParse(isMessageNameStrictParse());
+        return folder;
     }
 
     /**
@@ -112,8 +138,7 @@ public class MaildirStore implements UidProvider, ModSeqProvider {
      */
     public Mailbox loadMailbox(MailboxSession session, MailboxPath mailboxPath)
     throws MailboxNotFoundException, MailboxException {
-        MaildirFolder folder = new MaildirFolder(getFolderName(mailboxPath), mailboxPath, locker);
-        folder.setMessageNameStrictParse(isMessageNameStrictParse());
+        MaildirFolder folder = newMaildirFolder(getFolderName(mailboxPath), mailboxPath);
         if (!folder.exists()) {
             throw new MailboxNotFoundException(mailboxPath);
         }
@@ -128,8 +153,7 @@ public class MaildirStore implements UidProvider, ModSeqProvider {
      * @throws MailboxException If the mailbox folder doesn't exist or can't be read
      */
     private Mailbox loadMailbox(MailboxSession session, File mailboxFile, MailboxPath mailboxPath) throws MailboxException {
-        MaildirFolder folder = new MaildirFolder(mailboxFile.getAbsolutePath(), mailboxPath, locker);
-        folder.setMessageNameStrictParse(isMessageNameStrictParse());
+        MaildirFolder folder = newMaildirFolder(mailboxFile.getAbsolutePath(), mailboxPath);
         try {
             Mailbox loadedMailbox = new SimpleMailbox(mailboxPath, folder.getUidValidity());
             loadedMailbox.setACL(folder.getACL(session));
@@ -0,0 +1,370 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.maildir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.mailbox.MessageUid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Storage of the uid list of a {@link MaildirFolder}.
+ *
+ * The uid list is made of a snapshot file, using the historical <code>james-uidlist</code> format, and of an
+ * append-only journal recording the changes made since the snapshot was written. The journal contains lines of the
+ * following forms:
+ *
+ * <ul>
+ *     <li><code>+ uid name</code>: a message was appended</li>
+ *     <li><code>= uid name</code>: the file of a message was renamed</li>
+ *     <li><code>- uid</code>: a message was deleted</li>
+ *     <li><code>@ curLastModified newLastModified</code>: state of the <code>cur</code> and <code>new</code>
+ *     folders once the uid list was last written</li>
+ * </ul>
+ *
+ * The journal is merged into a new snapshot once it holds more than {@link #COMPACTION_THRESHOLD} entries.
+ *
+ * The content is kept in memory, and only the journal tail written by others is read again when the files did not
+ * otherwise change. Callers are expected to hold the lock of the mailbox path.
+ */
+public class MaildirUidList {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaildirUidList.class);
+
+    public static final String JOURNAL_SUFFIX = "-journal";
+    public static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final long UNKNOWN = -1L;
+    private static final char APPENDED = '+';
+    private static final char UPDATED = '=';
+    private static final char DELETED = '-';
+    private static final char FOLDER_STATE = '@';
+
+    private final File snapshotFile;
+    private final File journalFile;
+
+    private TreeMap<MessageUid, String> names;
+    private Optional<MessageUid> lastUid;
+    private boolean loaded;
+    private long snapshotLastModified;
+    private long snapshotLength;
+    private long journalLength;
+    private int journalEntries;
+    private long curLastModified;
+    private long newLastModified;
+
+    public MaildirUidList(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + JOURNAL_SUFFIX);
+        reset();
+    }
+
+    private void reset() {
+        this.names = new TreeMap<>();
+        this.lastUid = Optional.empty();
+        this.loaded = false;
+        this.snapshotLastModified = UNKNOWN;
+        this.snapshotLength = UNKNOWN;
+        this.journalLength = 0;
+        this.journalEntries = 0;
+        this.curLastModified = UNKNOWN;
+        this.newLastModified = UNKNOWN;
+    }
+
+    public synchronized boolean exists() {
+        return snapshotFile.isFile();
+    }
+
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Makes sure the in memory content reflects the files, reading only the parts that changed.
+     */
+    public synchronized void refresh() throws IOException {
+        if (!loaded || snapshotChanged()) {
+            load();
+            return;
+        }
+        long currentJournalLength = journalFile.length();
+        if (currentJournalLength < journalLength) {
+            load();
+        } else if (currentJournalLength > journalLength) {
+            replayJournal();
+        }
+    }
+
+    private boolean snapshotChanged() {
+        return snapshotFile.lastModified() != snapshotLastModified
+            || snapshotFile.length() != snapshotLength;
+    }
+
+    private void load() throws IOException {
+        reset();
+        snapshotLastModified = snapshotFile.lastModified();
+        snapshotLength = snapshotFile.length();
+        FileReader fileReader = null;
+        BufferedReader reader = null;
+        try {
+            fileReader = new FileReader(snapshotFile);
+            reader = new BufferedReader(fileReader);
+            String line = reader.readLine();
+            // the first line in the file contains the last uid and message count
+            if (line != null) {
+                readHeader(line);
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.equals("")) {
+                    int gap = line.indexOf(" ");
+                    if (gap == -1) {
+                        // there must be some issues in the file if no gap can be found
+                        LOGGER.info("Corrupted entry in uid-file {} line {}", snapshotFile, lineNumber);
+                        continue;
+                    }
+                    names.put(MessageUid.of(Long.valueOf(line.substring(0, gap))), line.substring(gap + 1));
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(reader);
+            IOUtils.closeQuietly(fileReader);
+        }
+        loaded = true;
+        replayJournal();
+    }
+
+    /**
+     * Parses the header line of the snapshot.
+     * The format is: version lastUid messageCount (e.g. 1 615 273)
+     */
+    private void readHeader(String line) throws IOException {
+        int gap1 = line.indexOf(" ");
+        if (gap1 == -1) {
+            // there must be some issues in the file if no gap can be found
+            throw new IOException("Corrupted header entry in uid-file");
+        }
+        int version = Integer.valueOf(line.substring(0, gap1));
+        if (version != 1) {
+            throw new IOException("Cannot read uidlists with versions other than 1.");
+        }
+        int gap2 = line.indexOf(" ", gap1 + 1);
+        long last = Long.valueOf(line.substring(gap1 + 1, gap2));
+        if (last > 0) {
+            lastUid = Optional.of(MessageUid.of(last));
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        if (!journalFile.isFile()) {
+            journalLength = 0;
+            return;
+        }
+        RandomAccessFile journal = new RandomAccessFile(journalFile, "r");
+        try {
+            long length = journal.length();
+            if (length <= journalLength) {
+                return;
+            }
+            byte[] tail = new byte[(int) (length - journalLength)];
+            journal.seek(journalLength);
+            journal.readFully(tail);
+            int lineStart = 0;
+            for (int i = 0; i < tail.length; i++) {
+                if (tail[i] == '\n') {
+                    applyJournalEntry(new String(tail, lineStart, i - lineStart, Charset.defaultCharset()).trim());
+                    lineStart = i + 1;
+                }
+            }
+            // an incomplete trailing line is being written: it will be read on next refresh
+            journalLength += lineStart;
+        } finally {
+            IOUtils.closeQuietly(journal);
+        }
+    }
+
+    private void applyJournalEntry(String entry) {
+        if (entry.length() < 3) {
+            return;
+        }
+        String[] parts = entry.substring(2).split(" ", 2);
+        try {
+            switch (entry.charAt(0)) {
+                case APPENDED:
+                case UPDATED:
+                    MessageUid uid = MessageUid.of(Long.valueOf(parts[0]));
+                    names.put(uid, parts[1]);
+                    if (!lastUid.isPresent() || lastUid.get().compareTo(uid) < 0) {
+                        lastUid = Optional.of(uid);
+                    }
+                    break;
+                case DELETED:
+                    names.remove(MessageUid.of(Long.valueOf(parts[0])));
+                    break;
+                case FOLDER_STATE:
+                    curLastModified = Long.valueOf(parts[0]);
+                    newLastModified = Long.valueOf(parts[1]);
+                    break;
+                default:
+                    LOGGER.info("Unknown entry in uid journal {}: {}", journalFile, entry);
+                    return;
+            }
+            journalEntries++;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            LOGGER.info("Corrupted entry in uid journal {}: {}", journalFile, entry);
+        }
+    }
+
+    public synchronized Optional<MessageUid> getLastUid() {
+        return lastUid;
+    }
+
+    public synchronized int getMessageCount() {
+        return names.size();
+    }
+
+    /**
+     * Returns a read-only view of the uid to message file name mapping.
+     */
+    public synchronized NavigableMap<MessageUid, String> getNames() {
+        return Collections.unmodifiableNavigableMap(names);
+    }
+
+    public synchronized Optional<String> getName(MessageUid uid) {
+        return Optional.ofNullable(names.get(uid));
+    }
+
+    /**
+     * Tells whether the state of the <code>cur</code> and <code>new</code> folders recorded when this uid list
+     * was last written is known, and matches the given one.
+     *
+     * Because of bad time resolution of file systems, a state that was recorded in the same time unit as the
+     * last write of the journal is not considered as matching.
+     *
+     * @return an empty optional when no state was recorded
+     */
+    public synchronized Optional<Boolean> matchesFolderState(long curLastModified, long newLastModified) {
+        if (this.curLastModified == UNKNOWN || this.newLastModified == UNKNOWN) {
+            return Optional.empty();
+        }
+        return Optional.of(this.curLastModified == curLastModified
+            && this.newLastModified == newLastModified
+            && Math.max(curLastModified, newLastModified) < journalFile.lastModified());
+    }
+
+    public synchronized void append(MessageUid uid, String name, long curLastModified, long newLastModified) throws IOException {
+        names.put(uid, name);
+        if (!lastUid.isPresent() || lastUid.get().compareTo(uid) < 0) {
+            lastUid = Optional.of(uid);
+        }
+        writeJournal(APPENDED + " " + uid.asLong() + " " + name, curLastModified, newLastModified);
+    }
+
+    public synchronized void update(MessageUid uid, String name, long curLastModified, long newLastModified) throws IOException {
+        names.put(uid, name);
+        writeJournal(UPDATED + " " + uid.asLong() + " " + name, curLastModified, newLastModified);
+    }
+
+    public synchronized void remove(MessageUid uid, long curLastModified, long newLastModified) throws IOException {
+        names.remove(uid);
+        writeJournal(DELETED + " " + uid.asLong(), curLastModified, newLastModified);
+    }
+
+    private void writeJournal(String entry, long curLastModified, long newLastModified) throws IOException {
+        journalLength += appendToJournalFile(entry + "\n" + folderStateEntry(curLastModified, newLastModified));
+        journalEntries += 2;
+        this.curLastModified = curLastModified;
+        this.newLastModified = newLastModified;
+        if (journalEntries > COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Merges the journal into a new snapshot.
+     */
+    public synchronized void compact() throws IOException {
+        rewrite(names, lastUid, curLastModified, newLastModified);
+    }
+
+    /**
+     * Replaces the whole content of the uid list.
+     */
+    public synchronized void rewrite(Map<MessageUid, String> newNames, Optional<MessageUid> newLastUid, long curLastModified, long newLastModified) throws IOException {
+        TreeMap<MessageUid, String> content = new TreeMap<>(newNames);
+        File temporaryFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        PrintWriter writer = new PrintWriter(temporaryFile);
+        try {
+            writer.println("1 " + newLastUid.map(MessageUid::asLong).orElse(0L) + " " + content.size());
+            for (Map.Entry<MessageUid, String> entry : content.entrySet()) {
+                writer.println(String.valueOf(entry.getKey().asLong()) + " " + entry.getValue());
+            }
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+        Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(journalFile.toPath());
+
+        reset();
+        names = content;
+        lastUid = newLastUid;
+        loaded = true;
+        snapshotLastModified = snapshotFile.lastModified();
+        snapshotLength = snapshotFile.length();
+        if (curLastModified != UNKNOWN && newLastModified != UNKNOWN) {
+            journalLength = appendToJournalFile(folderStateEntry(curLastModified, newLastModified));
+            journalEntries = 1;
+            this.curLastModified = curLastModified;
+            this.newLastModified = newLastModified;
+        }
+    }
+
+    private String folderStateEntry(long curLastModified, long newLastModified) {
+        return FOLDER_STATE + " " + curLastModified + " " + newLastModified + "\n";
+    }
+
+    private int appendToJournalFile(String content) throws IOException {
+        byte[] bytes = content.getBytes(Charset.defaultCharset());
+        OutputStream outputStream = new FileOutputStream(journalFile, true);
+        try {
+            outputStream.write(bytes);
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+        }
+        return bytes.length;
+    }
+}
@@ -0,0 +1,176 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailbox.maildir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.mailbox.MessageUid;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MaildirUidListTest {
+
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final MessageUid UID_3 = MessageUid.of(3);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File snapshotFile;
+    private MaildirUidList testee;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshotFile = new File(temporaryFolder.getRoot(), MaildirFolder.UIDLIST_FILE);
+        testee = new MaildirUidList(snapshotFile);
+    }
+
+    @Test
+    public void existsShouldReturnFalseWhenNoSnapshot() {
+        assertThat(testee.exists()).isFalse();
+    }
+
+    @Test
+    public void rewriteShouldWriteHistoricalFormat() throws Exception {
+        TreeMap<MessageUid, String> names = new TreeMap<>();
+        names.put(UID_1, "first");
+        names.put(UID_2, "second");
+
+        testee.rewrite(names, Optional.of(UID_2), 1, 2);
+
+        assertThat(FileUtils.readLines(snapshotFile, StandardCharsets.UTF_8))
+            .containsExactly("1 2 2", "1 first", "2 second");
+    }
+
+    @Test
+    public void refreshShouldReadHistoricalFormat() throws Exception {
+        FileUtils.writeLines(snapshotFile, Arrays.asList("1 5 2", "1 first", "4 fourth"));
+
+        testee.refresh();
+
+        assertThat(testee.getLastUid()).contains(MessageUid.of(5));
+        assertThat(testee.getNames()).containsOnlyKeys(UID_1, MessageUid.of(4));
+        assertThat(testee.matchesFolderState(1, 2)).isEmpty();
+    }
+
+    @Test
+    public void appendShouldNotRewriteSnapshot() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        long snapshotLength = snapshotFile.length();
+
+        testee.append(UID_1, "first", 3, 4);
+
+        assertThat(snapshotFile.length()).isEqualTo(snapshotLength);
+        assertThat(testee.getName(UID_1)).contains("first");
+        assertThat(testee.getLastUid()).contains(UID_1);
+    }
+
+    @Test
+    public void changesShouldBeVisibleFromAnotherInstance() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        testee.append(UID_1, "first", 1, 2);
+        testee.append(UID_2, "second", 1, 2);
+        testee.append(UID_3, "third", 1, 2);
+        testee.update(UID_2, "second:2,S", 1, 2);
+        testee.remove(UID_1, 5, 6);
+
+        MaildirUidList other = new MaildirUidList(snapshotFile);
+        other.refresh();
+
+        assertThat(other.getNames()).containsExactly(
+            entry(UID_2, "second:2,S"),
+            entry(UID_3, "third"));
+        assertThat(other.getLastUid()).contains(UID_3);
+        assertThat(other.matchesFolderState(5, 6)).contains(true);
+    }
+
+    @Test
+    public void refreshShouldReplayOnlyNewJournalEntries() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        MaildirUidList other = new MaildirUidList(snapshotFile);
+        other.refresh();
+
+        testee.append(UID_1, "first", 1, 2);
+        other.refresh();
+        testee.append(UID_2, "second", 3, 4);
+        other.refresh();
+
+        assertThat(other.getNames()).containsOnlyKeys(UID_1, UID_2);
+        assertThat(other.getMessageCount()).isEqualTo(2);
+        assertThat(other.matchesFolderState(3, 4)).contains(true);
+    }
+
+    @Test
+    public void refreshShouldReloadWhenSnapshotIsRewrittenByAnotherInstance() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        testee.append(UID_1, "first", 1, 2);
+        MaildirUidList other = new MaildirUidList(snapshotFile);
+        other.refresh();
+
+        TreeMap<MessageUid, String> names = new TreeMap<>();
+        names.put(UID_2, "second");
+        names.put(UID_3, "third");
+        testee.rewrite(names, Optional.of(UID_3), 3, 4);
+        other.refresh();
+
+        assertThat(other.getNames()).containsOnlyKeys(UID_2, UID_3);
+        assertThat(other.matchesFolderState(3, 4)).contains(true);
+    }
+
+    @Test
+    public void journalShouldBeCompactedWhenExceedingThreshold() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        File journalFile = new File(temporaryFolder.getRoot(), MaildirFolder.UIDLIST_FILE + MaildirUidList.JOURNAL_SUFFIX);
+
+        for (int i = 1; i <= MaildirUidList.COMPACTION_THRESHOLD; i++) {
+            testee.append(MessageUid.of(i), "message" + i, 1, 2);
+        }
+
+        assertThat(journalFile.length()).isLessThan(100);
+        MaildirUidList other = new MaildirUidList(snapshotFile);
+        other.refresh();
+        assertThat(other.getMessageCount()).isEqualTo(MaildirUidList.COMPACTION_THRESHOLD);
+        assertThat(other.getLastUid()).contains(MessageUid.of(MaildirUidList.COMPACTION_THRESHOLD));
+    }
+
+    @Test
+    public void refreshShouldIgnoreIncompleteJournalLine() throws Exception {
+        testee.rewrite(new TreeMap<>(), Optional.empty(), 1, 2);
+        File journalFile = new File(temporaryFolder.getRoot(), MaildirFolder.UIDLIST_FILE + MaildirUidList.JOURNAL_SUFFIX);
+        FileUtils.writeStringToFile(journalFile, "+ 1 first\n+ 2 sec", StandardCharsets.UTF_8, true);
+
+        testee.refresh();
+        assertThat(testee.getNames()).containsOnlyKeys(UID_1);
+
+        FileUtils.writeStringToFile(journalFile, "ond\n", StandardCharsets.UTF_8, true);
+        testee.refresh();
+        assertThat(testee.getName(UID_2)).contains("second");
+    }
+}
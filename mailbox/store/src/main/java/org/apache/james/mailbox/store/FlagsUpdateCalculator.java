@@ -33,6 +33,14 @@ public class FlagsUpdateCalculator {
         this.mode = mode;
     }
 
+    public Flags getProvidedFlags() {
+        return new Flags(providedFlags);
+    }
+
+    public MessageManager.FlagsUpdateMode getMode() {
+        return mode;
+    }
+
     public Flags buildNewFlags(Flags oldFlags) {
         Flags updatedFlags = new Flags(oldFlags);
         switch (mode) {
@@ -87,6 +87,7 @@ import org.apache.james.util.IteratorWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -289,21 +290,83 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
     @Override
     public ComposedMessageId appendMessage(InputStream msgIn, Date internalDate, final MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet) throws MailboxException {
 
-        File file = null;
-        TeeInputStream tmpMsgIn = null;
-        BodyOffsetInputStream bIn = null;
-        FileOutputStream out = null;
-        SharedFileInputStream contentIn = null;
+        if (!isWriteable(mailboxSession)) {
+            throw new ReadOnlyException(getMailboxPath(), mailboxSession.getPathDelimiter());
+        }
+
+        try (TemporaryMessageFiles temporaryFiles = new TemporaryMessageFiles()) {
+            final PreparedMessage preparedMessage = prepareMessage(msgIn, internalDate, mailboxSession, isRecent, flagsToBeSet, temporaryFiles);
+            final MailboxMessage message = preparedMessage.message;
+
+            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, message.getFullContentOctets());
+
+            return locker.executeWithLock(mailboxSession, getMailboxPath(), () -> {
+                MessageMetaData data = appendMessageToStore(message, preparedMessage.attachments, mailboxSession);
+
+                Mailbox mailbox = getMailboxEntity();
+                dispatcher.added(mailboxSession, mailbox, message);
+                return new ComposedMessageId(mailbox.getMailboxId(), data.getMessageId(), data.getUid());
+            }, true);
+        }
+    }
+
+    /**
+     * Appends the messages under a single lock. Their uids are reserved at once, they are stored through
+     * {@link MessageMapper#addAll(Mailbox, List)} and a single event is dispatched for all of them.
+     */
+    @Override
+    public List<ComposedMessageId> appendMessages(List<AppendCommand> appendCommands, final MailboxSession mailboxSession) throws MailboxException {
 
         if (!isWriteable(mailboxSession)) {
             throw new ReadOnlyException(getMailboxPath(), mailboxSession.getPathDelimiter());
         }
+        if (appendCommands.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        try (TemporaryMessageFiles temporaryFiles = new TemporaryMessageFiles()) {
+            ImmutableList.Builder<PreparedMessage> preparedMessagesBuilder = ImmutableList.builder();
+            for (AppendCommand appendCommand : appendCommands) {
+                preparedMessagesBuilder.add(prepareMessage(appendCommand.getMsgIn(), appendCommand.getInternalDate(), mailboxSession,
+                    appendCommand.isRecent(), appendCommand.getFlags(), temporaryFiles));
+            }
+            final List<PreparedMessage> preparedMessages = preparedMessagesBuilder.build();
+            long size = preparedMessages.stream()
+                .mapToLong(preparedMessage -> preparedMessage.message.getFullContentOctets())
+                .sum();
+
+            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(preparedMessages.size(), size);
+
+            return locker.executeWithLock(mailboxSession, getMailboxPath(), () -> {
+                List<MessageMetaData> data = appendMessagesToStore(preparedMessages, mailboxSession);
+
+                Mailbox mailbox = getMailboxEntity();
+                ImmutableMap.Builder<MessageUid, MailboxMessage> messagesMap = ImmutableMap.builder();
+                for (PreparedMessage preparedMessage : preparedMessages) {
+                    messagesMap.put(preparedMessage.message.getUid(), preparedMessage.message);
+                }
+                dispatcher.added(mailboxSession, collectMetadata(data.iterator()), mailbox, messagesMap.build());
+                return data.stream()
+                    .map(metaData -> new ComposedMessageId(mailbox.getMailboxId(), metaData.getMessageId(), metaData.getUid()))
+                    .collect(Guavate.toImmutableList());
+            }, true);
+        }
+    }
+
+    /**
+     * Copies the message to a temporary file, parses it, and creates the {@link MailboxMessage} to append
+     */
+    private PreparedMessage prepareMessage(InputStream msgIn, Date internalDate, MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet, TemporaryMessageFiles temporaryFiles) throws MailboxException {
+
+        TeeInputStream tmpMsgIn = null;
+        BodyOffsetInputStream bIn = null;
+        FileOutputStream out = null;
 
         try {
             // Create a temporary file and copy the message to it. We will work
             // with the file as
             // source for the InputStream
-            file = File.createTempFile("imap", ".msg");
+            File file = temporaryFiles.create();
             out = new FileOutputStream(file);
 
             tmpMsgIn = new TeeInputStream(msgIn, out);
@@ -405,23 +468,14 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             if (bodyStartOctet == -1) {
                 bodyStartOctet = 0;
             }
-            contentIn = new SharedFileInputStream(file);
+            final SharedFileInputStream contentIn = temporaryFiles.open(file);
             final int size = (int) file.length();
 
             final List<MessageAttachment> attachments = extractAttachments(contentIn);
             propertyBuilder.setHasAttachment(hasNonInlinedAttachment(attachments));
 
             final MailboxMessage message = createMessage(internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, attachments);
-
-            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, size);
-
-            return locker.executeWithLock(mailboxSession, getMailboxPath(), () -> {
-                MessageMetaData data = appendMessageToStore(message, attachments, mailboxSession);
-
-                Mailbox mailbox = getMailboxEntity();
-                dispatcher.added(mailboxSession, mailbox, message);
-                return new ComposedMessageId(mailbox.getMailboxId(), data.getMessageId(), data.getUid());
-            }, true);
+            return new PreparedMessage(message, attachments);
 
         } catch (IOException | MimeException e) {
             throw new MailboxException("Unable to parse message", e);
@@ -429,10 +483,44 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
             IOUtils.closeQuietly(bIn);
             IOUtils.closeQuietly(tmpMsgIn);
             IOUtils.closeQuietly(out);
-            IOUtils.closeQuietly(contentIn);
+        }
+    }
 
-            // delete the temporary file if one was specified
-            if (file != null) {
+    private static class PreparedMessage {
+        private final MailboxMessage message;
+        private final List<MessageAttachment> attachments;
+
+        private PreparedMessage(MailboxMessage message, List<MessageAttachment> attachments) {
+            this.message = message;
+            this.attachments = attachments;
+        }
+    }
+
+    /**
+     * Holds the temporary files backing the content of the messages being appended, until they are stored
+     */
+    private static class TemporaryMessageFiles implements AutoCloseable {
+        private final List<File> files = new ArrayList<>();
+        private final List<SharedFileInputStream> contents = new ArrayList<>();
+
+        private File create() throws IOException {
+            File file = File.createTempFile("imap", ".msg");
+            files.add(file);
+            return file;
+        }
+
+        private SharedFileInputStream open(File file) throws IOException {
+            SharedFileInputStream content = new SharedFileInputStream(file);
+            contents.add(content);
+            return content;
+        }
+
+        @Override
+        public void close() {
+            for (SharedFileInputStream content : contents) {
+                IOUtils.closeQuietly(content);
+            }
+            for (File file : files) {
                 if (!file.delete()) {
                     // Don't throw an IOException. The message could be appended
                     // and the temporary file
@@ -440,7 +528,6 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
                 }
             }
         }
-
     }
 
     private boolean hasNonInlinedAttachment(List<MessageAttachment> attachments) {
@@ -635,6 +722,19 @@ public class StoreMessageManager implements org.apache.james.mailbox.MessageMana
         });
     }
 
+    private List<MessageMetaData> appendMessagesToStore(final List<PreparedMessage> preparedMessages, MailboxSession session) throws MailboxException {
+        final MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
+
+        return messageMapper.execute(() -> {
+            for (PreparedMessage preparedMessage : preparedMessages) {
+                storeAttachment(preparedMessage.message, preparedMessage.attachments, session);
+            }
+            return messageMapper.addAll(getMailboxEntity(), preparedMessages.stream()
+                .map(preparedMessage -> preparedMessage.message)
+                .collect(Guavate.toImmutableList()));
+        });
+    }
+
     protected void storeAttachment(final MailboxMessage message, final List<MessageAttachment> messageAttachments, final MailboxSession session) throws MailboxException {
 
     }
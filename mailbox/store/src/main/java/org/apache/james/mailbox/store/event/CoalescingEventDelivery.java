@@ -0,0 +1,159 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.james.mailbox.Event;
+import org.apache.james.mailbox.MailboxListener;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * {@link EventDelivery} buffering, for listeners declaring {@link MailboxListener.DeliveryMode#COALESCED}, the events
+ * received within a short window, and delivering them merged by an {@link EventCoalescer} to the underlying
+ * {@link EventDelivery}.
+ *
+ * Events that can not be coalesced flush the pending events of the listener, so that ordering is preserved.
+ * Listeners using {@link MailboxListener.DeliveryMode#EACH_EVENT} are directly handled by the underlying delivery.
+ */
+public class CoalescingEventDelivery implements EventDelivery {
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(100);
+    public static final int DEFAULT_MAX_PENDING_EVENTS = 1000;
+
+    private class PendingEvents {
+        private final MailboxListener listener;
+        // Held while a batch is taken and delivered, so that batches reach the listener in order
+        private final Object deliveryLock;
+        private List<Event> events;
+
+        PendingEvents(MailboxListener listener) {
+            this.listener = listener;
+            this.deliveryLock = new Object();
+            this.events = new ArrayList<>();
+        }
+
+        void add(Event event) {
+            if (append(event)) {
+                flush();
+            }
+        }
+
+        /**
+         * @return true if the pending events should be flushed right away
+         */
+        private synchronized boolean append(Event event) {
+            events.add(event);
+            if (!EventCoalescer.isCoalescable(event) || events.size() >= maxPendingEvents) {
+                return true;
+            }
+            if (events.size() == 1) {
+                try {
+                    scheduler.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Stopped: nothing would flush these events later
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void flush() {
+            synchronized (deliveryLock) {
+                List<Event> toDeliver = takeEvents();
+                if (toDeliver.isEmpty()) {
+                    return;
+                }
+                for (Event event : coalescer.coalesce(toDeliver)) {
+                    delegate.deliver(listener, event);
+                }
+            }
+        }
+
+        private synchronized List<Event> takeEvents() {
+            List<Event> toDeliver = events;
+            events = new ArrayList<>();
+            return toDeliver;
+        }
+    }
+
+    private final EventDelivery delegate;
+    private final EventCoalescer coalescer;
+    private final Duration window;
+    private final int maxPendingEvents;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<MailboxListener, PendingEvents> pendingEvents;
+
+    public CoalescingEventDelivery(EventDelivery delegate) {
+        this(delegate, DEFAULT_WINDOW, DEFAULT_MAX_PENDING_EVENTS);
+    }
+
+    public CoalescingEventDelivery(EventDelivery delegate, Duration window, int maxPendingEvents) {
+        Preconditions.checkArgument(!window.isNegative() && !window.isZero(), "Coalescing window should be strictly positive");
+        Preconditions.checkArgument(maxPendingEvents > 0, "Maximum count of pending events should be strictly positive");
+        this.delegate = delegate;
+        this.coalescer = new EventCoalescer();
+        this.window = window;
+        this.maxPendingEvents = maxPendingEvents;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("coalescing-event-delivery-%d")
+            .setDaemon(true)
+            .build());
+        this.pendingEvents = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void deliver(MailboxListener mailboxListener, Event event) {
+        if (mailboxListener.getDeliveryMode() != MailboxListener.DeliveryMode.COALESCED) {
+            delegate.deliver(mailboxListener, event);
+            return;
+        }
+        pendingEvents.computeIfAbsent(mailboxListener, PendingEvents::new)
+            .add(event);
+    }
+
+    @VisibleForTesting
+    void flushAll() {
+        ImmutableList.copyOf(pendingEvents.values())
+            .forEach(PendingEvents::flush);
+    }
+
+    /**
+     * Stops the flushing thread and delivers the pending events. Events received afterwards are delivered right away.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        flushAll();
+    }
+}
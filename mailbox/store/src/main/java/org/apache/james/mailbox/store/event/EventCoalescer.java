@@ -0,0 +1,197 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.james.mailbox.Event;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * Merges consecutive message events of a same mailbox, emitted within a same session:
+ *
+ *  - consecutive Added events are merged into a single Added event
+ *  - consecutive FlagsUpdated events are merged into a single FlagsUpdated event, keeping for each message the
+ *  flags it had before the first update and the flags it has after the last update
+ *  - consecutive Expunged events are merged into a single Expunged event
+ *  - messages Added then directly Expunged are removed from both events
+ *
+ * Other events are left untouched and act as barriers: events are never reordered.
+ */
+public class EventCoalescer {
+
+    private final EventFactory eventFactory;
+
+    public EventCoalescer() {
+        this(new EventFactory());
+    }
+
+    public EventCoalescer(EventFactory eventFactory) {
+        this.eventFactory = eventFactory;
+    }
+
+    public static boolean isCoalescable(Event event) {
+        return event instanceof EventFactory.AddedImpl
+            || event instanceof EventFactory.FlagsUpdatedImpl
+            || event instanceof EventFactory.ExpungedImpl;
+    }
+
+    public List<Event> coalesce(List<Event> events) {
+        List<Event> coalesced = new ArrayList<>(events.size());
+        for (Event event : events) {
+            append(coalesced, event);
+        }
+        return coalesced;
+    }
+
+    private void append(List<Event> coalesced, Event event) {
+        if (coalesced.isEmpty()) {
+            coalesced.add(event);
+            return;
+        }
+        int lastIndex = coalesced.size() - 1;
+        Event last = coalesced.get(lastIndex);
+        if (!isCoalescable(last) || !isCoalescable(event) || !sameMailboxAndSession(last, event)) {
+            coalesced.add(event);
+        } else if (last instanceof EventFactory.AddedImpl && event instanceof EventFactory.AddedImpl) {
+            coalesced.set(lastIndex, mergeAdded((EventFactory.AddedImpl) last, (EventFactory.AddedImpl) event));
+        } else if (last instanceof EventFactory.FlagsUpdatedImpl && event instanceof EventFactory.FlagsUpdatedImpl) {
+            coalesced.set(lastIndex, mergeFlagsUpdated((EventFactory.FlagsUpdatedImpl) last, (EventFactory.FlagsUpdatedImpl) event));
+        } else if (last instanceof EventFactory.ExpungedImpl && event instanceof EventFactory.ExpungedImpl) {
+            coalesced.set(lastIndex, mergeExpunged((EventFactory.ExpungedImpl) last, (EventFactory.ExpungedImpl) event));
+        } else if (last instanceof EventFactory.AddedImpl && event instanceof EventFactory.ExpungedImpl) {
+            cancelAddedThenExpunged(coalesced, (EventFactory.AddedImpl) last, (EventFactory.ExpungedImpl) event);
+        } else {
+            coalesced.add(event);
+        }
+    }
+
+    private void cancelAddedThenExpunged(List<Event> coalesced, EventFactory.AddedImpl added, EventFactory.ExpungedImpl expunged) {
+        Set<MessageUid> cancelledUids = Sets.intersection(
+            ImmutableSet.copyOf(added.getUids()),
+            ImmutableSet.copyOf(expunged.getUids()));
+        if (cancelledUids.isEmpty()) {
+            coalesced.add(expunged);
+            return;
+        }
+        coalesced.remove(coalesced.size() - 1);
+
+        TreeMap<MessageUid, MessageMetaData> remainingAdded = new TreeMap<>();
+        Map<MessageUid, MailboxMessage> remainingAvailableMessages = new HashMap<>();
+        for (MessageUid uid : added.getUids()) {
+            if (!cancelledUids.contains(uid)) {
+                remainingAdded.put(uid, added.getMetaData(uid));
+                if (added.getAvailableMessages().containsKey(uid)) {
+                    remainingAvailableMessages.put(uid, added.getAvailableMessages().get(uid));
+                }
+            }
+        }
+        Map<MessageUid, MessageMetaData> remainingExpunged = new TreeMap<>();
+        for (MessageUid uid : expunged.getUids()) {
+            if (!cancelledUids.contains(uid)) {
+                remainingExpunged.put(uid, expunged.getMetaData(uid));
+            }
+        }
+
+        if (!remainingAdded.isEmpty()) {
+            coalesced.add(eventFactory.added(added.getSession(), remainingAdded, added.getMailbox(), remainingAvailableMessages));
+            if (!remainingExpunged.isEmpty()) {
+                coalesced.add(eventFactory.expunged(expunged.getSession(), remainingExpunged, expunged.getMailbox()));
+            }
+        } else if (!remainingExpunged.isEmpty()) {
+            append(coalesced, eventFactory.expunged(expunged.getSession(), remainingExpunged, expunged.getMailbox()));
+        }
+    }
+
+    private Event mergeAdded(EventFactory.AddedImpl first, EventFactory.AddedImpl second) {
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        Map<MessageUid, MailboxMessage> availableMessages = new HashMap<>();
+        for (EventFactory.AddedImpl added : ImmutableList.of(first, second)) {
+            for (MessageUid uid : added.getUids()) {
+                metaData.put(uid, added.getMetaData(uid));
+            }
+            availableMessages.putAll(added.getAvailableMessages());
+        }
+        return eventFactory.added(second.getSession(), metaData, second.getMailbox(), availableMessages);
+    }
+
+    private Event mergeExpunged(EventFactory.ExpungedImpl first, EventFactory.ExpungedImpl second) {
+        Map<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        for (EventFactory.ExpungedImpl expunged : ImmutableList.of(first, second)) {
+            for (MessageUid uid : expunged.getUids()) {
+                metaData.put(uid, expunged.getMetaData(uid));
+            }
+        }
+        return eventFactory.expunged(second.getSession(), metaData, second.getMailbox());
+    }
+
+    private Event mergeFlagsUpdated(EventFactory.FlagsUpdatedImpl first, EventFactory.FlagsUpdatedImpl second) {
+        Map<MessageUid, UpdatedFlags> updatedFlags = new LinkedHashMap<>();
+        for (EventFactory.FlagsUpdatedImpl flagsUpdated : ImmutableList.of(first, second)) {
+            for (UpdatedFlags update : flagsUpdated.getUpdatedFlags()) {
+                updatedFlags.merge(update.getUid(), update, this::chainUpdates);
+            }
+        }
+        List<MessageUid> uids = new ArrayList<>(first.getUids());
+        for (MessageUid uid : second.getUids()) {
+            if (!uids.contains(uid)) {
+                uids.add(uid);
+            }
+        }
+        return eventFactory.flagsUpdated(second.getSession(), uids, second.getMailbox(), ImmutableList.copyOf(updatedFlags.values()));
+    }
+
+    private UpdatedFlags chainUpdates(UpdatedFlags previous, UpdatedFlags next) {
+        return UpdatedFlags.builder()
+            .uid(next.getUid())
+            .oldFlags(previous.getOldFlags())
+            .newFlags(next.getNewFlags())
+            .modSeq(next.getModSeq())
+            .build();
+    }
+
+    private boolean sameMailboxAndSession(Event first, Event second) {
+        EventFactory.MailboxAware firstMailboxAware = (EventFactory.MailboxAware) first;
+        EventFactory.MailboxAware secondMailboxAware = (EventFactory.MailboxAware) second;
+        return Objects.equals(firstMailboxAware.getMailbox().getMailboxId(), secondMailboxAware.getMailbox().getMailboxId())
+            && sameSession(first, second);
+    }
+
+    private boolean sameSession(Event first, Event second) {
+        if (first.getSession() == null || second.getSession() == null) {
+            return first.getSession() == second.getSession();
+        }
+        return first.getSession().getSessionId() == second.getSession().getSessionId();
+    }
+}
@@ -19,12 +19,14 @@
 
 package org.apache.james.mailbox.store.event.distributed;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -33,29 +35,52 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.publisher.Topic;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
-
+import com.google.common.collect.Sets;
+
+/**
+ * Registers, in a {@link DistantMailboxPathRegisterMapper}, the {@link MailboxPath} this James instance has listeners
+ * for. Registrations are leases: they get renewed every <code>schedulerPeriodInS</code> seconds, all at once.
+ *
+ * Topics looked up for a {@link MailboxPath} can be cached for <code>topicsCacheTtlInMs</code> milliseconds: a
+ * registration made by another James instance is then only taken into account once the entry expired. Local
+ * registration changes invalidate the cached entry.
+ */
 public class DistantMailboxPathRegister implements MailboxPathRegister {
     private static final int DEFAULT_MAX_RETRY = 1000;
+    private static final long NO_TOPICS_CACHE = 0L;
     private final ConcurrentHashMap<MailboxPath, Long> registeredMailboxPathCount;
     private final DistantMailboxPathRegisterMapper mapper;
     private final Topic topic;
     private final Timer timer;
     private final int maxRetry;
     private final long schedulerPeriodInS;
+    private final Cache<MailboxPath, Set<Topic>> topicsCache;
+    private final boolean topicsCacheEnabled;
 
     public DistantMailboxPathRegister(DistantMailboxPathRegisterMapper mapper, long schedulerPeriodInS) {
         this(mapper, DEFAULT_MAX_RETRY, schedulerPeriodInS);
     }
 
     public DistantMailboxPathRegister(DistantMailboxPathRegisterMapper mapper, int maxRetry, long schedulerPeriodInS) {
+        this(mapper, maxRetry, schedulerPeriodInS, NO_TOPICS_CACHE);
+    }
+
+    public DistantMailboxPathRegister(DistantMailboxPathRegisterMapper mapper, int maxRetry, long schedulerPeriodInS, long topicsCacheTtlInMs) {
         this.maxRetry = maxRetry;
         this.mapper = mapper;
         this.registeredMailboxPathCount = new ConcurrentHashMap<>();
         this.topic = new Topic(UUID.randomUUID().toString());
         this.timer = new Timer();
         this.schedulerPeriodInS = schedulerPeriodInS;
+        this.topicsCacheEnabled = topicsCacheTtlInMs > NO_TOPICS_CACHE;
+        this.topicsCache = CacheBuilder.newBuilder()
+            .expireAfterWrite(Math.max(topicsCacheTtlInMs, 1L), TimeUnit.MILLISECONDS)
+            .build();
     }
 
     @PostConstruct
@@ -63,16 +88,23 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
         timer.schedule(new TimerTask() {
             @Override
             public void run() {
-                Set<Map.Entry<MailboxPath, Long>> snapshot = ImmutableSet.copyOf(registeredMailboxPathCount.entrySet());
-                for (Map.Entry<MailboxPath, Long> entry : snapshot) {
-                    if (entry.getValue() > 0) {
-                        mapper.doRegister(entry.getKey(), topic);
-                    }
-                }
+                renewRegistrations();
             }
         }, 0L, schedulerPeriodInS * 1000);
     }
 
+    @VisibleForTesting
+    void renewRegistrations() {
+        Set<Map.Entry<MailboxPath, Long>> snapshot = ImmutableSet.copyOf(registeredMailboxPathCount.entrySet());
+        List<MailboxPath> registeredPaths = snapshot.stream()
+            .filter(entry -> entry.getValue() > 0)
+            .map(Map.Entry::getKey)
+            .collect(Guavate.toImmutableList());
+        if (!registeredPaths.isEmpty()) {
+            mapper.doRegister(registeredPaths, topic);
+        }
+    }
+
     @PreDestroy
     public void destroy() {
         timer.cancel();
@@ -81,7 +113,15 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
 
     @Override
     public Set<Topic> getTopics(MailboxPath mailboxPath) {
-        return mapper.getTopics(mailboxPath);
+        if (!topicsCacheEnabled) {
+            return mapper.getTopics(mailboxPath);
+        }
+        Set<Topic> cachedTopics = topicsCache.getIfPresent(mailboxPath);
+        if (cachedTopics == null) {
+            cachedTopics = ImmutableSet.copyOf(mapper.getTopics(mailboxPath));
+            topicsCache.put(mailboxPath, cachedTopics);
+        }
+        return Sets.newHashSet(cachedTopics);
     }
 
     @Override
@@ -119,6 +159,7 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
     public void doCompleteUnRegister(MailboxPath mailboxPath) {
         registeredMailboxPathCount.remove(mailboxPath);
         mapper.doUnRegister(mailboxPath, topic);
+        topicsCache.invalidate(mailboxPath);
     }
 
     @Override
@@ -148,6 +189,7 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
         } else {
             if (registeredMailboxPathCount.putIfAbsent(newPath, oldEntry) == null) {
                 mapper.doRegister(newPath, topic);
+                topicsCache.invalidate(newPath);
                 return true;
             }
             return false;
@@ -166,6 +208,7 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
         } else {
             if (registeredMailboxPathCount.putIfAbsent(path, newEntry) == null) {
                 mapper.doRegister(path, topic);
+                topicsCache.invalidate(path);
                 return true;
             }
             return false;
@@ -184,6 +227,7 @@ public class DistantMailboxPathRegister implements MailboxPathRegister {
         } else {
             if (registeredMailboxPathCount.remove(path, entry)) {
                 mapper.doUnRegister(path, topic);
+                topicsCache.invalidate(path);
                 return true;
             }
             return false;
@@ -19,6 +19,7 @@
 
 package org.apache.james.mailbox.store.event.distributed;
 
+import java.util.Collection;
 import java.util.Set;
 
 import org.apache.james.mailbox.model.MailboxPath;
@@ -30,6 +31,16 @@ public interface DistantMailboxPathRegisterMapper {
 
     void doRegister(MailboxPath mailboxPath, Topic topic);
 
+    /**
+     * Renew the registrations of several {@link MailboxPath} at once. Implementations are encouraged to
+     * group the underlying writes.
+     */
+    default void doRegister(Collection<MailboxPath> mailboxPaths, Topic topic) {
+        for (MailboxPath mailboxPath : mailboxPaths) {
+            doRegister(mailboxPath, topic);
+        }
+    }
+
     void doUnRegister(MailboxPath mailboxPath, Topic topic);
 
 }
@@ -0,0 +1,388 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.MailboxListener;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.SimpleMailboxSession;
+import org.apache.james.mailbox.store.SimpleMessageMetaData;
+import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.event.EventSerializer;
+import org.apache.james.mailbox.store.json.event.MailboxConverter;
+import org.apache.james.mailbox.store.json.event.dto.EventType;
+import org.apache.james.mailbox.store.json.event.dto.MailboxDataTransferObject;
+import org.apache.james.mailbox.store.mail.model.Mailbox;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Compact binary {@link EventSerializer}, writing fields in a fixed order without field names nor reflection.
+ *
+ * Payloads start with a format version. Evolutions of this format must only append fields at the end of the
+ * payload: readers accept payloads of newer versions and ignore the trailing bytes they do not know about, so
+ * that nodes can be upgraded one at a time.
+ *
+ * Selected with <code>serialization</code> set to <code>binary</code> in events.xml.
+ */
+public class BinaryEventSerializer implements EventSerializer {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final byte ANSWERED = 0x01;
+    private static final byte DELETED = 0x02;
+    private static final byte DRAFT = 0x04;
+    private static final byte FLAGGED = 0x08;
+    private static final byte RECENT = 0x10;
+    private static final byte SEEN = 0x20;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        ReusableByteArrayOutputStream() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+
+    private static final ThreadLocal<ReusableByteArrayOutputStream> BUFFERS = ThreadLocal.withInitial(ReusableByteArrayOutputStream::new);
+
+    private final MailboxConverter mailboxConverter;
+    private final MessageId.Factory messageIdFactory;
+    private final EventFactory eventFactory;
+
+    public BinaryEventSerializer(MailboxConverter mailboxConverter, MessageId.Factory messageIdFactory) {
+        this.mailboxConverter = mailboxConverter;
+        this.messageIdFactory = messageIdFactory;
+        this.eventFactory = new EventFactory();
+    }
+
+    @Override
+    public byte[] serializeEvent(MailboxListener.MailboxEvent event) throws Exception {
+        ReusableByteArrayOutputStream buffer = BUFFERS.get();
+        buffer.reset();
+        try {
+            DataOutputStream output = new DataOutputStream(buffer);
+            output.writeByte(FORMAT_VERSION);
+            output.writeByte(eventType(event).ordinal());
+            writeSession(output, event.getSession());
+            writeMailbox(output, mailboxConverter.extractMailboxDataTransferObject(event));
+            writeEventContent(output, event);
+            output.flush();
+            return buffer.toByteArray();
+        } finally {
+            if (buffer.capacity() > MAX_POOLED_BUFFER_SIZE) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    @Override
+    public MailboxListener.MailboxEvent deSerializeEvent(byte[] serializedEvent) throws Exception {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(serializedEvent));
+        byte version = input.readByte();
+        if (version < 1) {
+            throw new Exception("Unsupported binary event format version " + version);
+        }
+        EventType eventType = readEventType(input.readByte());
+        MailboxSession session = readSession(input);
+        Mailbox mailbox = mailboxConverter.retrieveMailbox(readMailbox(input));
+        switch (eventType) {
+            case ADDED:
+                return eventFactory.added(session, readMetaData(input), mailbox, ImmutableMap.<MessageUid, MailboxMessage>of());
+            case DELETED:
+                return eventFactory.expunged(session, readMetaData(input), mailbox);
+            case FLAGS:
+                return eventFactory.flagsUpdated(session, readUids(input), mailbox, readUpdatedFlags(input));
+            case MAILBOX_ADDED:
+                return eventFactory.mailboxAdded(session, mailbox);
+            case MAILBOX_DELETED:
+                return eventFactory.mailboxDeleted(session, mailbox);
+            case MAILBOX_RENAMED:
+                return eventFactory.mailboxRenamed(session, readPath(input), mailbox);
+            default:
+                throw new Exception("Can not deserialize unknown event");
+        }
+    }
+
+    private EventType eventType(MailboxListener.MailboxEvent event) throws Exception {
+        if (event instanceof MailboxListener.Added) {
+            return EventType.ADDED;
+        } else if (event instanceof MailboxListener.Expunged) {
+            return EventType.DELETED;
+        } else if (event instanceof MailboxListener.FlagsUpdated) {
+            return EventType.FLAGS;
+        } else if (event instanceof MailboxListener.MailboxRenamed) {
+            return EventType.MAILBOX_RENAMED;
+        } else if (event instanceof MailboxListener.MailboxDeletion) {
+            return EventType.MAILBOX_DELETED;
+        } else if (event instanceof MailboxListener.MailboxAdded) {
+            return EventType.MAILBOX_ADDED;
+        }
+        throw new Exception("You are trying to serialize an event that can't be serialized");
+    }
+
+    private EventType readEventType(byte code) throws Exception {
+        EventType[] eventTypes = EventType.values();
+        if (code < 0 || code >= eventTypes.length) {
+            throw new Exception("Can not deserialize unknown event type " + code);
+        }
+        return eventTypes[code];
+    }
+
+    private void writeEventContent(DataOutputStream output, MailboxListener.MailboxEvent event) throws IOException {
+        if (event instanceof MailboxListener.MetaDataHoldingEvent) {
+            writeMetaData(output, (MailboxListener.MetaDataHoldingEvent) event);
+        } else if (event instanceof MailboxListener.FlagsUpdated) {
+            MailboxListener.FlagsUpdated flagsUpdated = (MailboxListener.FlagsUpdated) event;
+            writeUids(output, flagsUpdated.getUids());
+            writeUpdatedFlags(output, flagsUpdated.getUpdatedFlags());
+        } else if (event instanceof MailboxListener.MailboxRenamed) {
+            writePath(output, event.getMailboxPath());
+        }
+    }
+
+    private void writeSession(DataOutputStream output, MailboxSession session) throws IOException {
+        output.writeLong(session.getSessionId());
+        writeString(output, session.getUser().getUserName());
+        output.writeInt(session.getSharedSpaces().size());
+        for (String sharedSpace : session.getSharedSpaces()) {
+            writeString(output, sharedSpace);
+        }
+        writeString(output, session.getOtherUsersSpace());
+        output.writeChar(session.getPathDelimiter());
+        List<Locale> locales = session.getUser().getLocalePreferences();
+        output.writeInt(locales.size());
+        for (Locale locale : locales) {
+            writeString(output, locale.getLanguage());
+            writeString(output, locale.getCountry());
+            writeString(output, locale.getVariant());
+        }
+        output.writeBoolean(session.getType() == MailboxSession.SessionType.System);
+    }
+
+    private MailboxSession readSession(DataInputStream input) throws IOException {
+        long sessionId = input.readLong();
+        String username = readString(input);
+        int sharedSpaceCount = input.readInt();
+        List<String> sharedSpaces = new ArrayList<>(sharedSpaceCount);
+        for (int i = 0; i < sharedSpaceCount; i++) {
+            sharedSpaces.add(readString(input));
+        }
+        String otherUsersSpace = readString(input);
+        char separator = input.readChar();
+        int localeCount = input.readInt();
+        List<Locale> locales = new ArrayList<>(localeCount);
+        for (int i = 0; i < localeCount; i++) {
+            locales.add(new Locale(readString(input), readString(input), readString(input)));
+        }
+        MailboxSession.SessionType sessionType = input.readBoolean() ? MailboxSession.SessionType.System : MailboxSession.SessionType.User;
+        return new SimpleMailboxSession(sessionId, username, "", locales, sharedSpaces, otherUsersSpace, separator, sessionType);
+    }
+
+    private void writeMailbox(DataOutputStream output, MailboxDataTransferObject mailbox) throws IOException {
+        writeString(output, mailbox.getSerializedMailboxId());
+        writeString(output, mailbox.getNamespace());
+        writeString(output, mailbox.getUser());
+        writeString(output, mailbox.getName());
+        output.writeLong(mailbox.getUidValidity());
+        writeString(output, mailbox.getSerializedACL());
+    }
+
+    private MailboxDataTransferObject readMailbox(DataInputStream input) throws IOException {
+        return MailboxDataTransferObject.builder()
+            .serializedMailboxId(readString(input))
+            .namespace(readString(input))
+            .user(readString(input))
+            .name(readString(input))
+            .uidValidity(input.readLong())
+            .serializedACL(readString(input))
+            .build();
+    }
+
+    private void writePath(DataOutputStream output, MailboxPath path) throws IOException {
+        writeString(output, path.getNamespace());
+        writeString(output, path.getUser());
+        writeString(output, path.getName());
+    }
+
+    private MailboxPath readPath(DataInputStream input) throws IOException {
+        return new MailboxPath(readString(input), readString(input), readString(input));
+    }
+
+    private void writeMetaData(DataOutputStream output, MailboxListener.MetaDataHoldingEvent event) throws IOException {
+        List<MessageUid> uids = event.getUids();
+        output.writeInt(uids.size());
+        for (MessageUid uid : uids) {
+            MessageMetaData metaData = event.getMetaData(uid);
+            output.writeLong(uid.asLong());
+            output.writeLong(metaData.getModSeq());
+            writeFlags(output, metaData.getFlags());
+            output.writeLong(metaData.getSize());
+            output.writeLong(toLong(metaData.getInternalDate()));
+            writeString(output, metaData.getMessageId() == null ? null : metaData.getMessageId().serialize());
+        }
+    }
+
+    private SortedMap<MessageUid, MessageMetaData> readMetaData(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        TreeMap<MessageUid, MessageMetaData> result = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            MessageUid uid = MessageUid.of(input.readLong());
+            long modSeq = input.readLong();
+            Flags flags = readFlags(input);
+            long size = input.readLong();
+            Date internalDate = toDate(input.readLong());
+            String serializedMessageId = readString(input);
+            MessageId messageId = serializedMessageId == null ? null : messageIdFactory.fromString(serializedMessageId);
+            result.put(uid, new SimpleMessageMetaData(uid, modSeq, flags, size, internalDate, messageId));
+        }
+        return result;
+    }
+
+    private void writeUids(DataOutputStream output, List<MessageUid> uids) throws IOException {
+        output.writeInt(uids.size());
+        for (MessageUid uid : uids) {
+            output.writeLong(uid.asLong());
+        }
+    }
+
+    private List<MessageUid> readUids(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<MessageUid> uids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uids.add(MessageUid.of(input.readLong()));
+        }
+        return uids;
+    }
+
+    private void writeUpdatedFlags(DataOutputStream output, List<UpdatedFlags> updatedFlagsList) throws IOException {
+        output.writeInt(updatedFlagsList.size());
+        for (UpdatedFlags updatedFlags : updatedFlagsList) {
+            output.writeLong(updatedFlags.getUid().asLong());
+            output.writeLong(updatedFlags.getModSeq());
+            writeFlags(output, updatedFlags.getOldFlags());
+            writeFlags(output, updatedFlags.getNewFlags());
+        }
+    }
+
+    private List<UpdatedFlags> readUpdatedFlags(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<UpdatedFlags> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(UpdatedFlags.builder()
+                .uid(MessageUid.of(input.readLong()))
+                .modSeq(input.readLong())
+                .oldFlags(readFlags(input))
+                .newFlags(readFlags(input))
+                .build());
+        }
+        return result;
+    }
+
+    private void writeFlags(DataOutputStream output, Flags flags) throws IOException {
+        byte systemFlags = 0;
+        systemFlags |= flags.contains(Flags.Flag.ANSWERED) ? ANSWERED : 0;
+        systemFlags |= flags.contains(Flags.Flag.DELETED) ? DELETED : 0;
+        systemFlags |= flags.contains(Flags.Flag.DRAFT) ? DRAFT : 0;
+        systemFlags |= flags.contains(Flags.Flag.FLAGGED) ? FLAGGED : 0;
+        systemFlags |= flags.contains(Flags.Flag.RECENT) ? RECENT : 0;
+        systemFlags |= flags.contains(Flags.Flag.SEEN) ? SEEN : 0;
+        output.writeByte(systemFlags);
+        String[] userFlags = flags.getUserFlags();
+        output.writeInt(userFlags.length);
+        for (String userFlag : userFlags) {
+            writeString(output, userFlag);
+        }
+    }
+
+    private Flags readFlags(DataInputStream input) throws IOException {
+        byte systemFlags = input.readByte();
+        Flags flags = new Flags();
+        addIfSet(flags, systemFlags, ANSWERED, Flags.Flag.ANSWERED);
+        addIfSet(flags, systemFlags, DELETED, Flags.Flag.DELETED);
+        addIfSet(flags, systemFlags, DRAFT, Flags.Flag.DRAFT);
+        addIfSet(flags, systemFlags, FLAGGED, Flags.Flag.FLAGGED);
+        addIfSet(flags, systemFlags, RECENT, Flags.Flag.RECENT);
+        addIfSet(flags, systemFlags, SEEN, Flags.Flag.SEEN);
+        int userFlagCount = input.readInt();
+        for (int i = 0; i < userFlagCount; i++) {
+            flags.add(readString(input));
+        }
+        return flags;
+    }
+
+    private void addIfSet(Flags flags, byte systemFlags, byte mask, Flags.Flag flag) {
+        if ((systemFlags & mask) != 0) {
+            flags.add(flag);
+        }
+    }
+
+    private void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private String readString(DataInputStream input) throws IOException {
+        if (input.readBoolean()) {
+            return input.readUTF();
+        }
+        return null;
+    }
+
+    private long toLong(Date date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        return date.getTime();
+    }
+
+    private Date toDate(long value) {
+        if (value == NO_DATE) {
+            return null;
+        }
+        return new Date(value);
+    }
+}
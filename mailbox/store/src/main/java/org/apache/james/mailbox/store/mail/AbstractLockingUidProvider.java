@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.james.mailbox.store.mail;
 
+import java.util.List;
+
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.james.mailbox.MailboxPathLocker;
 import org.apache.james.mailbox.MailboxSession;
@@ -27,6 +29,8 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.store.StoreMailboxPath;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 
+import com.google.common.collect.ImmutableList;
+
 
 /**
  * Abstract base implementation of {@link UidProvider} which used the given {@link MailboxPathLocker} to 
@@ -50,11 +54,31 @@ public abstract class AbstractLockingUidProvider implements UidProvider {
             writeLock);
     }
     
+    @Override
+    public List<MessageUid> nextUids(final MailboxSession session, final Mailbox mailbox, final int count) throws MailboxException {
+        boolean writeLock = true;
+        return locker.executeWithLock(session, new StoreMailboxPath(mailbox),
+            () -> lockedNextUids(session, mailbox, count),
+            writeLock);
+    }
+    
     /**
      * Generate the next uid to use while the {@link Mailbox} is locked
      */
     protected abstract MessageUid lockedNextUid(MailboxSession session, Mailbox mailbox) throws MailboxException;
 
+    /**
+     * Generate the given count of uids while the {@link Mailbox} is locked. Implementations can override it
+     * to reserve them in a single operation.
+     */
+    protected List<MessageUid> lockedNextUids(MailboxSession session, Mailbox mailbox, int count) throws MailboxException {
+        ImmutableList.Builder<MessageUid> uids = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            uids.add(lockedNextUid(session, mailbox));
+        }
+        return uids.build();
+    }
+
     @Override
     public MessageUid nextUid(MailboxSession session, MailboxId mailboxId) throws MailboxException {
         throw new NotImplementedException("Not implemented");
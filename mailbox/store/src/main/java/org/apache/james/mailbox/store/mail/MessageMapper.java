@@ -36,6 +36,8 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Property;
 import org.apache.james.mailbox.store.transaction.Mapper;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Maps {@link MailboxMessage} in a {@link org.apache.james.mailbox.MessageManager}. A {@link MessageMapper} has a lifecycle from the start of a request
  * to the end of the request.
@@ -123,6 +125,23 @@ public interface MessageMapper extends Mapper {
      * @throws StorageException
      */
     MessageMetaData add(Mailbox mailbox, MailboxMessage message) throws MailboxException;
+
+    /**
+     * Add the given {@link MailboxMessage}s to the underlying storage. Implementations may choose to store them
+     * in a single operation.
+     *
+     * @param mailbox
+     * @param messages
+     * @return the {@link MessageMetaData} of the added messages, in the order of the given messages
+     * @throws MailboxException
+     */
+    default List<MessageMetaData> addAll(Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        ImmutableList.Builder<MessageMetaData> metaData = ImmutableList.builder();
+        for (MailboxMessage message : messages) {
+            metaData.add(add(mailbox, message));
+        }
+        return metaData.build();
+    }
     
     /**
      * Update flags for the given {@link MessageRange}. Only the flags may be modified after a message was saved to a mailbox.
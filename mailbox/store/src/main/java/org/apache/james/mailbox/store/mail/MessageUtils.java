@@ -70,6 +70,23 @@ public class MessageUtils {
         message.setModSeq(nextModSeq(mailbox));
     }
 
+    /**
+     * Sets the uids and the mod-sequence of messages appended at once. The uids are reserved
+     * together, and the messages share the same mod-sequence.
+     */
+    public void enrichMessages(Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<MessageUid> uids = uidProvider.nextUids(mailboxSession, mailbox, messages.size());
+        long modSeq = nextModSeq(mailbox);
+        for (int i = 0; i < messages.size(); i++) {
+            MailboxMessage message = messages.get(i);
+            message.setUid(uids.get(i));
+            message.setModSeq(modSeq);
+        }
+    }
+
     public MessageChangedFlags updateFlags(Mailbox mailbox, FlagsUpdateCalculator flagsUpdateCalculator, 
             Iterator<MailboxMessage> messages) throws MailboxException {
         ImmutableList.Builder<UpdatedFlags> updatedFlags = ImmutableList.builder();
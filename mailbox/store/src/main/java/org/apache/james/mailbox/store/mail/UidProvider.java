@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.james.mailbox.store.mail;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.james.mailbox.MailboxSession;
@@ -26,6 +27,8 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Take care of provide uids for a given {@link Mailbox}. Be aware that implementations
  * need to be thread-safe!
@@ -40,6 +43,18 @@ public interface UidProvider {
      * one
      */
     MessageUid nextUid(MailboxSession session, Mailbox mailbox) throws MailboxException;
+
+    /**
+     * Return the given count of uids, in ascending order, which can be used while appending several MailboxMessages
+     * to the {@link Mailbox}. Implementations are encouraged to reserve them at once.
+     */
+    default List<MessageUid> nextUids(MailboxSession session, Mailbox mailbox, int count) throws MailboxException {
+        ImmutableList.Builder<MessageUid> uids = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            uids.add(nextUid(session, mailbox));
+        }
+        return uids.build();
+    }
     
     /**
      * Return the last uid which were used for storing a MailboxMessage in the {@link Mailbox}
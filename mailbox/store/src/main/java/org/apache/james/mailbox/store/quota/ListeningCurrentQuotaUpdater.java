@@ -55,6 +55,11 @@ public class ListeningCurrentQuotaUpdater implements MailboxListener, QuotaUpdat
         return currentQuotaManager.getAssociatedListenerType();
     }
 
+    @Override
+    public DeliveryMode getDeliveryMode() {
+        return DeliveryMode.COALESCED;
+    }
+
     @Override
     public void event(Event event) {
         try {
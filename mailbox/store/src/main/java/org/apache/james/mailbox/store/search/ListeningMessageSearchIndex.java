@@ -36,6 +36,8 @@ import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * {@link MessageSearchIndex} which needs to get registered as global {@link MailboxListener} and so get
  * notified about message changes. This will then allow to update the underlying index.
@@ -141,6 +143,31 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
      */
     public abstract void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws MailboxException;
 
+    /**
+     * Add the given {@link MailboxMessage}s of the given {@link Mailbox} to the index
+     *
+     * Implementations supporting bulk requests should override this method. The default implementation adds the
+     * messages one at a time.
+     *
+     * @param session The mailbox session performing the message addition
+     * @param mailbox mailbox on which the message addition was performed
+     * @param messages The added messages
+     * @return the UIDs of the messages which could not be indexed
+     * @throws MailboxException
+     */
+    public List<MessageUid> add(MailboxSession session, Mailbox mailbox, List<MailboxMessage> messages) throws MailboxException {
+        ImmutableList.Builder<MessageUid> failedUids = ImmutableList.builder();
+        for (MailboxMessage message : messages) {
+            try {
+                add(session, mailbox, message);
+            } catch (MailboxException e) {
+                LOGGER.error("Unable to index message {} for mailbox {}", message.getUid(), mailbox, e);
+                failedUids.add(message.getUid());
+            }
+        }
+        return failedUids.build();
+    }
+
     /**
      * Delete the concerned UIDs for the given {@link Mailbox} from the index
      *
@@ -0,0 +1,65 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MailboxId;
+
+public class MemoryReIndexingCheckpoint implements ReIndexingCheckpoint {
+
+    private final ConcurrentHashMap<MailboxId, MessageUid> lastIndexedUids;
+    private final Set<MailboxId> completedMailboxes;
+
+    public MemoryReIndexingCheckpoint() {
+        this.lastIndexedUids = new ConcurrentHashMap<>();
+        this.completedMailboxes = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public Optional<MessageUid> lastIndexedUid(MailboxId mailboxId) {
+        return Optional.ofNullable(lastIndexedUids.get(mailboxId));
+    }
+
+    @Override
+    public boolean isCompleted(MailboxId mailboxId) {
+        return completedMailboxes.contains(mailboxId);
+    }
+
+    @Override
+    public void checkpoint(MailboxId mailboxId, MessageUid lastIndexedUid) {
+        lastIndexedUids.put(mailboxId, lastIndexedUid);
+    }
+
+    @Override
+    public void complete(MailboxId mailboxId) {
+        completedMailboxes.add(mailboxId);
+        lastIndexedUids.remove(mailboxId);
+    }
+
+    @Override
+    public void clear() {
+        lastIndexedUids.clear();
+        completedMailboxes.clear();
+    }
+}
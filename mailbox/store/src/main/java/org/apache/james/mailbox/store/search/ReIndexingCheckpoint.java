@@ -0,0 +1,48 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import java.util.Optional;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.MailboxId;
+
+/**
+ * Records the progress of a full re-indexation, so that it can be resumed after a failure instead of being restarted
+ * from scratch.
+ */
+public interface ReIndexingCheckpoint {
+
+    /**
+     * @return the uid of the last message indexed in this mailbox, if the mailbox re-indexation started
+     */
+    Optional<MessageUid> lastIndexedUid(MailboxId mailboxId);
+
+    boolean isCompleted(MailboxId mailboxId);
+
+    void checkpoint(MailboxId mailboxId, MessageUid lastIndexedUid);
+
+    void complete(MailboxId mailboxId);
+
+    /**
+     * Forgets all recorded progress. Called once a full re-indexation succeeded.
+     */
+    void clear();
+}
@@ -0,0 +1,205 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.Event;
+import org.apache.james.mailbox.MailboxListener;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.store.SimpleMessageMetaData;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableMap;
+
+public class CoalescingEventDeliveryTest {
+
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+    private static final int MAX_PENDING_EVENTS = 3;
+
+    private EventDelivery delegate;
+    private MailboxListener listener;
+    private CoalescingEventDelivery coalescingEventDelivery;
+    private EventFactory eventFactory;
+    private SimpleMailbox mailbox;
+
+    @Before
+    public void setUp() {
+        delegate = mock(EventDelivery.class);
+        listener = mock(MailboxListener.class);
+        coalescingEventDelivery = new CoalescingEventDelivery(delegate, ONE_HOUR, MAX_PENDING_EVENTS);
+        eventFactory = new EventFactory();
+        mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "name"), 42);
+        mailbox.setMailboxId(TestId.of(28L));
+    }
+
+    @After
+    public void tearDown() {
+        coalescingEventDelivery.stop();
+    }
+
+    @Test
+    public void deliverShouldNotBufferEventsOfListenersNotSupportingCoalescing() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.EACH_EVENT);
+        Event event = added(MessageUid.of(1));
+
+        coalescingEventDelivery.deliver(listener, event);
+
+        verify(delegate).deliver(listener, event);
+    }
+
+    @Test
+    public void deliverShouldBufferEventsOfListenersSupportingCoalescing() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+
+        coalescingEventDelivery.deliver(listener, added(MessageUid.of(1)));
+
+        verifyZeroInteractions(delegate);
+    }
+
+    @Test
+    public void flushShouldDeliverMergedEvents() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        coalescingEventDelivery.deliver(listener, added(MessageUid.of(1)));
+        coalescingEventDelivery.deliver(listener, added(MessageUid.of(2)));
+
+        coalescingEventDelivery.flushAll();
+
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(delegate).deliver(eq(listener), captor.capture());
+        assertThat(((MailboxListener.Added) captor.getValue()).getUids()).containsExactly(MessageUid.of(1), MessageUid.of(2));
+    }
+
+    @Test
+    public void deliverShouldFlushWhenMaxPendingEventsIsReached() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        for (int i = 1; i <= MAX_PENDING_EVENTS; i++) {
+            coalescingEventDelivery.deliver(listener, added(MessageUid.of(i)));
+        }
+
+        verify(delegate).deliver(eq(listener), any(MailboxListener.Added.class));
+    }
+
+    @Test
+    public void deliverShouldFlushPendingEventsBeforeNonCoalescableEvents() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        Event added = added(MessageUid.of(1));
+        Event deletion = eventFactory.mailboxDeleted(new MockMailboxSession("benwa"), mailbox);
+
+        coalescingEventDelivery.deliver(listener, added);
+        coalescingEventDelivery.deliver(listener, deletion);
+
+        verify(delegate).deliver(listener, added);
+        verify(delegate).deliver(listener, deletion);
+    }
+
+    @Test
+    public void deliverShouldEventuallyFlushAfterTheWindow() {
+        CoalescingEventDelivery shortWindowDelivery = new CoalescingEventDelivery(delegate, Duration.ofMillis(10), MAX_PENDING_EVENTS);
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        Event added = added(MessageUid.of(1));
+
+        try {
+            shortWindowDelivery.deliver(listener, added);
+
+            verify(delegate, timeout(1000)).deliver(listener, added);
+        } finally {
+            shortWindowDelivery.stop();
+        }
+    }
+
+    @Test
+    public void deliverShouldNotWaitForTheDeliveryOfPreviousEvents() throws Exception {
+        CountDownLatch deliveryStarted = new CountDownLatch(1);
+        CountDownLatch releaseDelivery = new CountDownLatch(1);
+        EventDelivery blockingDelegate = (mailboxListener, event) -> {
+            deliveryStarted.countDown();
+            awaitUninterruptibly(releaseDelivery);
+        };
+        CoalescingEventDelivery testee = new CoalescingEventDelivery(blockingDelegate, ONE_HOUR, MAX_PENDING_EVENTS);
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            testee.deliver(listener, added(MessageUid.of(1)));
+            executor.submit(testee::flushAll);
+            assertThat(deliveryStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<Void> addition = CompletableFuture.runAsync(() -> testee.deliver(listener, added(MessageUid.of(2))));
+
+            addition.get(1, TimeUnit.SECONDS);
+        } finally {
+            releaseDelivery.countDown();
+            executor.shutdownNow();
+            testee.stop();
+        }
+    }
+
+    @Test
+    public void deliverShouldDeliverRightAwayWhenStopped() {
+        when(listener.getDeliveryMode()).thenReturn(MailboxListener.DeliveryMode.COALESCED);
+        Event added = added(MessageUid.of(1));
+        coalescingEventDelivery.stop();
+
+        coalescingEventDelivery.deliver(listener, added);
+
+        verify(delegate).deliver(listener, added);
+    }
+
+    private void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Event added(MessageUid uid) {
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        metaData.put(uid, new SimpleMessageMetaData(uid, 0, new Flags(), 45L, null, new TestMessageId.Factory().generate()));
+        return eventFactory.added(new MockMailboxSession("benwa", 36), metaData, mailbox, ImmutableMap.<MessageUid, MailboxMessage>of());
+    }
+}
@@ -0,0 +1,208 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.Event;
+import org.apache.james.mailbox.MailboxListener;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.SimpleMessageMetaData;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class EventCoalescerTest {
+
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final MessageUid UID_3 = MessageUid.of(3);
+
+    private EventFactory eventFactory;
+    private EventCoalescer coalescer;
+    private MailboxSession session;
+    private SimpleMailbox mailbox;
+    private SimpleMailbox otherMailbox;
+
+    @Before
+    public void setUp() {
+        eventFactory = new EventFactory();
+        coalescer = new EventCoalescer(eventFactory);
+        session = new MockMailboxSession("benwa", 36);
+        mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "name"), 42);
+        mailbox.setMailboxId(TestId.of(28L));
+        otherMailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "other"), 43);
+        otherMailbox.setMailboxId(TestId.of(29L));
+    }
+
+    @Test
+    public void coalesceShouldMergeConsecutiveAddedEvents() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            added(mailbox, UID_2),
+            added(mailbox, UID_3)));
+
+        assertThat(coalesced).hasSize(1);
+        assertThat(coalesced.get(0)).isInstanceOf(MailboxListener.Added.class);
+        assertThat(((MailboxListener.Added) coalesced.get(0)).getUids()).containsExactly(UID_1, UID_2, UID_3);
+    }
+
+    @Test
+    public void coalesceShouldNotMergeEventsOfDifferentMailboxes() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            added(otherMailbox, UID_2)));
+
+        assertThat(coalesced).hasSize(2);
+    }
+
+    @Test
+    public void coalesceShouldNotMergeEventsOfDifferentSessions() {
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        metaData.put(UID_2, metaData(UID_2));
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            eventFactory.added(new MockMailboxSession("benwa", 37), metaData, mailbox, ImmutableMap.<MessageUid, MailboxMessage>of())));
+
+        assertThat(coalesced).hasSize(2);
+    }
+
+    @Test
+    public void coalesceShouldNotReorderEventsAroundBarriers() {
+        Event barrier = eventFactory.mailboxAdded(session, otherMailbox);
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            barrier,
+            added(mailbox, UID_2)));
+
+        assertThat(coalesced).hasSize(3);
+        assertThat(coalesced.get(1)).isSameAs(barrier);
+    }
+
+    @Test
+    public void coalesceShouldKeepFirstOldFlagsAndLastNewFlagsWhenMergingFlagsUpdated() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            flagsUpdated(UID_1, new Flags(), new Flags(Flags.Flag.SEEN), 1),
+            flagsUpdated(UID_2, new Flags(), new Flags(Flags.Flag.SEEN), 2),
+            flagsUpdated(UID_1, new Flags(Flags.Flag.SEEN), new Flags(Flags.Flag.DELETED), 3)));
+
+        assertThat(coalesced).hasSize(1);
+        MailboxListener.FlagsUpdated flagsUpdated = (MailboxListener.FlagsUpdated) coalesced.get(0);
+        assertThat(flagsUpdated.getUids()).containsExactly(UID_1, UID_2);
+        assertThat(flagsUpdated.getUpdatedFlags()).containsExactly(
+            UpdatedFlags.builder()
+                .uid(UID_1)
+                .oldFlags(new Flags())
+                .newFlags(new Flags(Flags.Flag.DELETED))
+                .modSeq(3)
+                .build(),
+            UpdatedFlags.builder()
+                .uid(UID_2)
+                .oldFlags(new Flags())
+                .newFlags(new Flags(Flags.Flag.SEEN))
+                .modSeq(2)
+                .build());
+    }
+
+    @Test
+    public void coalesceShouldMergeConsecutiveExpungedEvents() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            expunged(UID_1),
+            expunged(UID_2)));
+
+        assertThat(coalesced).hasSize(1);
+        assertThat(((MailboxListener.Expunged) coalesced.get(0)).getUids()).containsExactly(UID_1, UID_2);
+    }
+
+    @Test
+    public void coalesceShouldCancelMessagesAddedThenExpunged() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            added(mailbox, UID_2),
+            expunged(UID_1)));
+
+        assertThat(coalesced).hasSize(1);
+        assertThat(((MailboxListener.Added) coalesced.get(0)).getUids()).containsExactly(UID_2);
+    }
+
+    @Test
+    public void coalesceShouldDropFullyCancelledEvents() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            added(mailbox, UID_1),
+            expunged(UID_1)));
+
+        assertThat(coalesced).isEmpty();
+    }
+
+    @Test
+    public void coalesceShouldMergeRemainingExpungedWithPreviousExpunged() {
+        List<Event> coalesced = coalescer.coalesce(ImmutableList.of(
+            expunged(UID_1),
+            added(mailbox, UID_3),
+            expunged(UID_2, UID_3)));
+
+        assertThat(coalesced).hasSize(1);
+        assertThat(((MailboxListener.Expunged) coalesced.get(0)).getUids()).containsExactly(UID_1, UID_2);
+    }
+
+    private Event added(SimpleMailbox mailbox, MessageUid uid) {
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        metaData.put(uid, metaData(uid));
+        return eventFactory.added(session, metaData, mailbox, ImmutableMap.<MessageUid, MailboxMessage>of());
+    }
+
+    private Event expunged(MessageUid... uids) {
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        for (MessageUid uid : uids) {
+            metaData.put(uid, metaData(uid));
+        }
+        return eventFactory.expunged(session, metaData, mailbox);
+    }
+
+    private Event flagsUpdated(MessageUid uid, Flags oldFlags, Flags newFlags, long modSeq) {
+        return eventFactory.flagsUpdated(session, ImmutableList.of(uid), mailbox,
+            ImmutableList.of(UpdatedFlags.builder()
+                .uid(uid)
+                .oldFlags(oldFlags)
+                .newFlags(newFlags)
+                .modSeq(modSeq)
+                .build()));
+    }
+
+    private MessageMetaData metaData(MessageUid uid) {
+        return new SimpleMessageMetaData(uid, 0, new Flags(), 45L, null, new TestMessageId.Factory().generate());
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.james.mailbox.store.event.distributed;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -28,6 +29,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -38,7 +40,9 @@ import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.publisher.Topic;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 
 public class DistantMailboxPathRegisterTest {
@@ -46,6 +50,7 @@ public class DistantMailboxPathRegisterTest {
     private static final MailboxPath MAILBOX_PATH = new MailboxPath("namespace", "user", "name");
     private static final MailboxPath NEW_MAILBOX_PATH = new MailboxPath("namespace_new", "user_new", "name_new");
     private static final String TOPIC = "topic";
+    private static final long ONE_MINUTE_IN_MS = 60000;
 
     private DistantMailboxPathRegisterMapper mockedMapper;
     private DistantMailboxPathRegister register;
@@ -338,8 +343,73 @@ public class DistantMailboxPathRegisterTest {
         } finally {
             register.destroy();
         }
-        verify(mockedMapper, times(3)).doRegister(MAILBOX_PATH, register.getLocalTopic());
+        verify(mockedMapper).doRegister(MAILBOX_PATH, register.getLocalTopic());
+        verify(mockedMapper, times(2)).doRegister(ImmutableList.of(MAILBOX_PATH), register.getLocalTopic());
         verifyNoMoreInteractions(mockedMapper);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void renewRegistrationsShouldRenewAllRegisteredPathsAtOnce() throws Exception {
+        register.register(MAILBOX_PATH);
+        register.register(NEW_MAILBOX_PATH);
+
+        register.renewRegistrations();
+
+        ArgumentCaptor<Collection<MailboxPath>> captor = ArgumentCaptor.forClass((Class) Collection.class);
+        verify(mockedMapper).doRegister(captor.capture(), eq(register.getLocalTopic()));
+        assertThat(captor.getValue()).containsOnly(MAILBOX_PATH, NEW_MAILBOX_PATH);
+    }
+
+    @Test
+    public void renewRegistrationsShouldNotCallMapperWhenNothingIsRegistered() {
+        register.renewRegistrations();
+
+        verifyNoMoreInteractions(mockedMapper);
+    }
+
+    @Test
+    public void getTopicsShouldNotCacheByDefault() {
+        when(mockedMapper.getTopics(MAILBOX_PATH)).thenReturn(Sets.newHashSet(new Topic(TOPIC)));
+
+        register.getTopics(MAILBOX_PATH);
+        register.getTopics(MAILBOX_PATH);
+
+        verify(mockedMapper, times(2)).getTopics(MAILBOX_PATH);
+    }
+
+    @Test
+    public void getTopicsShouldUseCacheWhenEnabled() {
+        DistantMailboxPathRegister cachingRegister = new DistantMailboxPathRegister(mockedMapper, 1, 1, ONE_MINUTE_IN_MS);
+        Set<Topic> topics = Sets.newHashSet(new Topic(TOPIC));
+        when(mockedMapper.getTopics(MAILBOX_PATH)).thenReturn(topics);
+
+        cachingRegister.getTopics(MAILBOX_PATH);
+        assertThat(cachingRegister.getTopics(MAILBOX_PATH)).isEqualTo(topics);
+
+        verify(mockedMapper).getTopics(MAILBOX_PATH);
+    }
+
+    @Test
+    public void getTopicsShouldReturnACopyOfTheCachedTopics() {
+        DistantMailboxPathRegister cachingRegister = new DistantMailboxPathRegister(mockedMapper, 1, 1, ONE_MINUTE_IN_MS);
+        when(mockedMapper.getTopics(MAILBOX_PATH)).thenReturn(Sets.newHashSet(new Topic(TOPIC)));
+
+        cachingRegister.getTopics(MAILBOX_PATH).clear();
+
+        assertThat(cachingRegister.getTopics(MAILBOX_PATH)).containsOnly(new Topic(TOPIC));
+    }
+
+    @Test
+    public void registerShouldInvalidateCachedTopics() throws Exception {
+        DistantMailboxPathRegister cachingRegister = new DistantMailboxPathRegister(mockedMapper, 1, 1, ONE_MINUTE_IN_MS);
+        when(mockedMapper.getTopics(MAILBOX_PATH)).thenReturn(Sets.newHashSet(new Topic(TOPIC)));
+        cachingRegister.getTopics(MAILBOX_PATH);
+
+        cachingRegister.register(MAILBOX_PATH);
+        cachingRegister.getTopics(MAILBOX_PATH);
+
+        verify(mockedMapper, times(2)).getTopics(MAILBOX_PATH);
+    }
+
 }
@@ -0,0 +1,62 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event.distributed;
+
+import java.util.Set;
+
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.store.publisher.Topic;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+public class MemoryDistantMailboxPathRegisterMapper implements DistantMailboxPathRegisterMapper {
+
+    private final SetMultimap<MailboxPath, Topic> registrations;
+    private int readCount;
+
+    public MemoryDistantMailboxPathRegisterMapper() {
+        this.registrations = Multimaps.synchronizedSetMultimap(HashMultimap.create());
+    }
+
+    @Override
+    public Set<Topic> getTopics(MailboxPath mailboxPath) {
+        readCount++;
+        synchronized (registrations) {
+            return Sets.newHashSet(registrations.get(mailboxPath));
+        }
+    }
+
+    @Override
+    public void doRegister(MailboxPath mailboxPath, Topic topic) {
+        registrations.put(mailboxPath, topic);
+    }
+
+    @Override
+    public void doUnRegister(MailboxPath mailboxPath, Topic topic) {
+        registrations.remove(mailboxPath, topic);
+    }
+
+    public int getReadCount() {
+        return readCount;
+    }
+}
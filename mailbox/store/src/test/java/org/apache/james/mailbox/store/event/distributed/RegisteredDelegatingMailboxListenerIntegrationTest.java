@@ -0,0 +1,151 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.event.distributed;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.mailbox.MailboxListener;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.store.TestIdDeserializer;
+import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.event.EventSerializer;
+import org.apache.james.mailbox.store.json.MessagePackEventSerializer;
+import org.apache.james.mailbox.store.json.event.EventConverter;
+import org.apache.james.mailbox.store.json.event.MailboxConverter;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.apache.james.mailbox.util.EventCollector;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ Simulation of a cluster of James nodes using RegisteredDelegatingMailboxListener.
+
+ Communications go through message queues in memory, and we check that events are only sent to the nodes
+ having listeners registered for the mailbox of the event.
+ */
+public class RegisteredDelegatingMailboxListenerIntegrationTest {
+
+    private static final int NODE_COUNT = 20;
+    private static final long ONE_MINUTE_IN_MS = 60000;
+    private static final MailboxPath MAILBOX_PATH = MailboxPath.forUser("user", "mbx");
+    private static final MailboxPath OTHER_MAILBOX_PATH = MailboxPath.forUser("user", "mbx.other");
+    private static final ImmutableMap<MessageUid, MailboxMessage> EMPTY_MESSAGE_CACHE = ImmutableMap.of();
+
+    private MemoryDistantMailboxPathRegisterMapper mapper;
+    private AtomicInteger deserializationCount;
+    private List<RegisteredDelegatingMailboxListener> nodes;
+    private List<EventCollector> collectors;
+    private MailboxSession mailboxSession;
+
+    @Before
+    public void setUp() throws Exception {
+        PublisherReceiver publisherReceiver = new PublisherReceiver();
+        mapper = new MemoryDistantMailboxPathRegisterMapper();
+        deserializationCount = new AtomicInteger();
+        mailboxSession = new MockMailboxSession("Test");
+
+        ImmutableList.Builder<RegisteredDelegatingMailboxListener> nodesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<EventCollector> collectorsBuilder = ImmutableList.builder();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            nodesBuilder.add(new RegisteredDelegatingMailboxListener(countingSerializer(),
+                publisherReceiver,
+                publisherReceiver,
+                new DistantMailboxPathRegister(mapper, 1, 1, ONE_MINUTE_IN_MS)));
+            collectorsBuilder.add(new EventCollector(MailboxListener.ListenerType.MAILBOX));
+        }
+        nodes = nodesBuilder.build();
+        collectors = collectorsBuilder.build();
+    }
+
+    @Test
+    public void eventsShouldOnlyBeDeliveredToNodesListeningToTheMailbox() throws Exception {
+        nodes.get(1).addListener(MAILBOX_PATH, collectors.get(1), mailboxSession);
+        nodes.get(2).addListener(MAILBOX_PATH, collectors.get(2), mailboxSession);
+        nodes.get(3).addListener(OTHER_MAILBOX_PATH, collectors.get(3), mailboxSession);
+
+        nodes.get(0).event(addedEvent(MAILBOX_PATH));
+
+        assertThat(collectors.get(1).getEvents()).hasSize(1);
+        assertThat(collectors.get(2).getEvents()).hasSize(1);
+        assertThat(collectors.get(3).getEvents()).isEmpty();
+        assertThat(deserializationCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void eventsOfMailboxesWithoutListenersShouldNotBeSent() throws Exception {
+        nodes.get(3).addListener(OTHER_MAILBOX_PATH, collectors.get(3), mailboxSession);
+
+        for (RegisteredDelegatingMailboxListener node : nodes) {
+            node.event(addedEvent(MAILBOX_PATH));
+        }
+
+        assertThat(deserializationCount.get()).isZero();
+    }
+
+    @Test
+    public void topicLookupsShouldBeCachedAcrossEvents() throws Exception {
+        nodes.get(1).addListener(MAILBOX_PATH, collectors.get(1), mailboxSession);
+        int readsBeforeEvents = mapper.getReadCount();
+
+        for (int i = 0; i < 10; i++) {
+            nodes.get(0).event(addedEvent(MAILBOX_PATH));
+        }
+
+        assertThat(collectors.get(1).getEvents()).hasSize(10);
+        assertThat(mapper.getReadCount() - readsBeforeEvents).isEqualTo(1);
+    }
+
+    private MailboxListener.MailboxEvent addedEvent(MailboxPath path) {
+        SimpleMailbox mailbox = new SimpleMailbox(path, 42);
+        mailbox.setMailboxId(TestId.of(52));
+        return new EventFactory().added(mailboxSession, new TreeMap<>(), mailbox, EMPTY_MESSAGE_CACHE);
+    }
+
+    private EventSerializer countingSerializer() {
+        EventSerializer serializer = new MessagePackEventSerializer(
+            new EventConverter(new MailboxConverter(new TestIdDeserializer())),
+            new TestMessageId.Factory());
+        return new EventSerializer() {
+            @Override
+            public byte[] serializeEvent(MailboxListener.MailboxEvent event) throws Exception {
+                return serializer.serializeEvent(event);
+            }
+
+            @Override
+            public MailboxListener.MailboxEvent deSerializeEvent(byte[] serializedEvent) throws Exception {
+                deserializationCount.incrementAndGet();
+                return serializer.deSerializeEvent(serializedEvent);
+            }
+        };
+    }
+}
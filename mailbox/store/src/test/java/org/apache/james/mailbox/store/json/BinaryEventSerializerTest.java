@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.TreeMap;
+
+import javax.mail.Flags;
+
+import org.apache.james.mailbox.MailboxListener;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.mock.MockMailboxSession;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.store.SimpleMessageMetaData;
+import org.apache.james.mailbox.store.TestIdDeserializer;
+import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.mailbox.store.event.EventSerializer;
+import org.apache.james.mailbox.store.json.event.EventConverter;
+import org.apache.james.mailbox.store.json.event.MailboxConverter;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class BinaryEventSerializerTest extends EventSerializerTest {
+
+    private static final int UID_COUNT = 1000;
+
+    @Override
+    EventSerializer createSerializer() {
+        return new BinaryEventSerializer(
+            new MailboxConverter(new TestIdDeserializer()),
+            new TestMessageId.Factory());
+    }
+
+    @Test
+    public void addedEventWithManyUidsShouldBeSmallerThanItsJsonCounterpart() throws Exception {
+        SimpleMailbox mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "name"), 42);
+        mailbox.setMailboxId(TestId.of(28L));
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        TestMessageId.Factory messageIdFactory = new TestMessageId.Factory();
+        for (int i = 1; i <= UID_COUNT; i++) {
+            MessageUid uid = MessageUid.of(i);
+            metaData.put(uid, new SimpleMessageMetaData(uid, i, new Flags(Flags.Flag.SEEN), 45L, null, messageIdFactory.generate()));
+        }
+        MailboxListener.MailboxEvent event = new EventFactory().added(new MockMailboxSession("benwa"), metaData, mailbox, ImmutableMap.<MessageUid, MailboxMessage>of());
+        JsonEventSerializer jsonEventSerializer = new JsonEventSerializer(
+            new EventConverter(new MailboxConverter(new TestIdDeserializer())),
+            messageIdFactory);
+
+        byte[] binaryPayload = createSerializer().serializeEvent(event);
+
+        assertThat(binaryPayload.length).isLessThan(jsonEventSerializer.serializeEvent(event).length);
+        assertThat(((MailboxListener.Added) createSerializer().deSerializeEvent(binaryPayload)).getUids()).hasSize(UID_COUNT);
+    }
+
+    @Test
+    public void deSerializeEventShouldIgnoreTrailingFieldsOfNewerPayloads() throws Exception {
+        EventSerializer serializer = createSerializer();
+        SimpleMailbox mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "name"), 42);
+        mailbox.setMailboxId(TestId.of(28L));
+        byte[] payload = serializer.serializeEvent(new EventFactory().mailboxAdded(new MockMailboxSession("benwa"), mailbox));
+        byte[] payloadWithTrailingField = new byte[payload.length + 8];
+        System.arraycopy(payload, 0, payloadWithTrailingField, 0, payload.length);
+        payloadWithTrailingField[0] = BinaryEventSerializer.FORMAT_VERSION + 1;
+
+        assertThat(serializer.deSerializeEvent(payloadWithTrailingField)).isInstanceOf(MailboxListener.MailboxAdded.class);
+    }
+
+    @Test
+    public void deSerializeEventShouldRejectUnknownOlderVersions() throws Exception {
+        EventSerializer serializer = createSerializer();
+        SimpleMailbox mailbox = new SimpleMailbox(MailboxPath.forUser("benwa", "name"), 42);
+        mailbox.setMailboxId(TestId.of(28L));
+        byte[] payload = serializer.serializeEvent(new EventFactory().mailboxAdded(new MockMailboxSession("benwa"), mailbox));
+        payload[0] = 0;
+
+        assertThatThrownBy(() -> serializer.deSerializeEvent(payload)).hasMessageContaining("Unsupported binary event format version");
+    }
+}
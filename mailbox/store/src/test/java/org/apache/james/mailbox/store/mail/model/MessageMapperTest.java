@@ -23,13 +23,16 @@ import static org.apache.james.mailbox.store.mail.model.ListMessageAssert.assert
 import static org.apache.james.mailbox.store.mail.model.ListMessagePropertiesAssert.assertProperties;
 import static org.apache.james.mailbox.store.mail.model.MessageAssert.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 import java.io.IOException;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
@@ -58,6 +61,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 public abstract class MessageMapperTest {
@@ -480,6 +484,44 @@ public abstract class MessageMapperTest {
         assertThat(messageMapper.getLastUid(benwaInboxMailbox).get()).isGreaterThan(uid.get());
     }
 
+    @Test
+    public void addAllShouldAssignIncreasingUids() throws MailboxException {
+        messageMapper.add(benwaInboxMailbox, message1);
+
+        List<MessageMetaData> metaData = messageMapper.addAll(benwaInboxMailbox, ImmutableList.of(message2, message3, message4));
+
+        assertThat(metaData).extracting(MessageMetaData::getUid)
+            .containsExactly(message2.getUid(), message3.getUid(), message4.getUid());
+        assertThat(message2.getUid()).isGreaterThan(message1.getUid());
+        assertThat(message3.getUid()).isGreaterThan(message2.getUid());
+        assertThat(message4.getUid()).isGreaterThan(message3.getUid());
+        assertThat(messageMapper.getLastUid(benwaInboxMailbox)).contains(message4.getUid());
+    }
+
+    @Test
+    public void addAllShouldStoreMessages() throws MailboxException, IOException {
+        messageMapper.addAll(benwaInboxMailbox, ImmutableList.of(message1, message2, message3));
+
+        assertThat(messageMapper.countMessagesInMailbox(benwaInboxMailbox)).isEqualTo(3);
+        assertMessages(Lists.newArrayList(messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.all(), FetchType.Full, LIMIT)))
+            .containOnly(message1, message2, message3);
+    }
+
+    @Test
+    public void addAllShouldIncrementModSeq() throws MailboxException {
+        messageMapper.add(benwaInboxMailbox, message1);
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        messageMapper.addAll(benwaInboxMailbox, ImmutableList.of(message2, message3));
+
+        assertThat(messageMapper.getHighestModSeq(benwaInboxMailbox)).isGreaterThan(modSeq);
+    }
+
+    @Test
+    public void addAllShouldAcceptEmptyList() throws MailboxException {
+        assertThat(messageMapper.addAll(benwaInboxMailbox, ImmutableList.of())).isEmpty();
+    }
+
     @Test
     public void copyShouldIncrementUid() throws MailboxException, IOException {
         saveMessages();
@@ -677,6 +719,63 @@ public abstract class MessageMapperTest {
         assertThat(messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.REPLACE), MessageRange.all())).hasSize(5);
     }
 
+    @Test
+    public void flagsAdditionOnRangeShouldChangeModSeqOfMessagesInRangeOnly() throws MailboxException {
+        saveMessages();
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.ADD), MessageRange.one(message2.getUid()));
+        long message2ModSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        Iterator<UpdatedFlags> updatedFlags = messageMapper.updateFlags(benwaInboxMailbox,
+            new FlagsUpdateCalculator(new FlagsBuilder().add(Flags.Flag.SEEN, Flags.Flag.ANSWERED).build(), FlagsUpdateMode.ADD),
+            MessageRange.range(message1.getUid(), message3.getUid()));
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        assertThat(modSeqsByUid(updatedFlags)).containsOnly(
+            entry(message1.getUid(), modSeq),
+            entry(message2.getUid(), modSeq),
+            entry(message3.getUid(), modSeq));
+        assertThat(retrieveMessageFromStorage(message1)).hasFlags(new FlagsBuilder().add(Flags.Flag.SEEN, Flags.Flag.ANSWERED).build());
+        assertThat(retrieveMessageFromStorage(message2).getModSeq()).isEqualTo(modSeq).isGreaterThan(message2ModSeq);
+        assertThat(retrieveMessageFromStorage(message4)).hasFlags(new Flags());
+        assertThat(retrieveMessageFromStorage(message4).getModSeq()).isEqualTo(message4.getModSeq());
+    }
+
+    @Test
+    public void flagsAdditionShouldReportUserFlagsOfMessages() throws MailboxException {
+        message1.setFlags(new FlagsBuilder().add(USER_FLAG).build());
+        messageMapper.add(benwaInboxMailbox, message1);
+
+        Iterator<UpdatedFlags> updatedFlags = messageMapper.updateFlags(benwaInboxMailbox,
+            new FlagsUpdateCalculator(new Flags(Flags.Flag.SEEN), FlagsUpdateMode.ADD), MessageRange.one(message1.getUid()));
+
+        assertThat(Lists.newArrayList(updatedFlags))
+            .containsOnly(UpdatedFlags.builder()
+                .uid(message1.getUid())
+                .modSeq(messageMapper.getHighestModSeq(benwaInboxMailbox))
+                .oldFlags(new FlagsBuilder().add(USER_FLAG).build())
+                .newFlags(new FlagsBuilder().add(Flags.Flag.SEEN).add(USER_FLAG).build())
+                .build());
+        assertThat(retrieveMessageFromStorage(message1)).hasFlags(new FlagsBuilder().add(Flags.Flag.SEEN).add(USER_FLAG).build());
+    }
+
+    @Test
+    public void flagsRemovalOnRangeShouldNotChangeModSeqOfUnmodifiedMessages() throws MailboxException {
+        saveMessages();
+        messageMapper.updateFlags(benwaInboxMailbox, new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.ADD), MessageRange.one(message1.getUid()));
+
+        Iterator<UpdatedFlags> updatedFlags = messageMapper.updateFlags(benwaInboxMailbox,
+            new FlagsUpdateCalculator(new Flags(Flags.Flag.FLAGGED), FlagsUpdateMode.REMOVE), MessageRange.all());
+        long modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        assertThat(modSeqsByUid(updatedFlags)).containsOnly(
+            entry(message1.getUid(), modSeq),
+            entry(message2.getUid(), message2.getModSeq()),
+            entry(message3.getUid(), message3.getModSeq()),
+            entry(message4.getUid(), message4.getModSeq()),
+            entry(message5.getUid(), message5.getModSeq()));
+        assertThat(retrieveMessageFromStorage(message1)).hasFlags(new Flags());
+    }
+
     @Test
     public void messagePropertiesShouldBeStored() throws Exception {
         PropertyBuilder propBuilder = new PropertyBuilder();
@@ -1118,6 +1217,12 @@ public abstract class MessageMapperTest {
         message6.setModSeq(messageMapper.getHighestModSeq(benwaWorkMailbox));
     }
 
+    private Map<MessageUid, Long> modSeqsByUid(Iterator<UpdatedFlags> updatedFlags) {
+        return Lists.newArrayList(updatedFlags)
+            .stream()
+            .collect(Collectors.toMap(UpdatedFlags::getUid, UpdatedFlags::getModSeq));
+    }
+
     private MailboxMessage retrieveMessageFromStorage(MailboxMessage message) throws MailboxException {
         return messageMapper.findInMailbox(benwaInboxMailbox, MessageRange.one(message.getUid()), MessageMapper.FetchType.Metadata, LIMIT).next();
     }
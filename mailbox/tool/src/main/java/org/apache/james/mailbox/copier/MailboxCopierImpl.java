@@ -19,6 +19,7 @@
 package org.apache.james.mailbox.copier;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -46,6 +47,7 @@ import org.slf4j.LoggerFactory;
  */
 public class MailboxCopierImpl implements MailboxCopier {
     private static final Logger LOGGER = LoggerFactory.getLogger(MailboxCopierImpl.class.getName());
+    private static final int APPEND_BATCH_SIZE = 100;
 
     private static final FetchGroup GROUP = new FetchGroup() {
 
@@ -112,7 +114,7 @@ public class MailboxCopierImpl implements MailboxCopier {
                 dstMailboxManager.startProcessingRequest(dstMailboxSession);
                 MessageManager dstMessageManager = dstMailboxManager.getMailbox(mailboxPath, dstMailboxSession);
 
-                int j = 0;
+                List<MessageManager.AppendCommand> appendCommands = new ArrayList<>(APPEND_BATCH_SIZE);
                 Iterator<MessageResult> messageResultIterator = srcMessageManager.getMessages(MessageRange.all(), GROUP, srcMailboxSession);
                 
                 while (messageResultIterator.hasNext()) {
@@ -120,13 +122,17 @@ public class MailboxCopierImpl implements MailboxCopier {
                     MessageResult messageResult = messageResultIterator.next();
                     InputStreamContent content = (InputStreamContent) messageResult.getFullContent();
 
-                    dstMailboxManager.startProcessingRequest(dstMailboxSession);
-                    dstMessageManager.appendMessage(content.getInputStream(), messageResult.getInternalDate(), dstMailboxSession, messageResult.getFlags().contains(Flag.RECENT), messageResult.getFlags());
-                    dstMailboxManager.endProcessingRequest(dstMailboxSession);
-                    LOGGER.info("MailboxMessage #{} appended in destination mailbox with path={}", j, mailboxPath);
-                    j++;
+                    appendCommands.add(MessageManager.AppendCommand.builder()
+                        .withInternalDate(messageResult.getInternalDate())
+                        .isRecent(messageResult.getFlags().contains(Flag.RECENT))
+                        .withFlags(messageResult.getFlags())
+                        .build(content.getInputStream()));
+                    if (appendCommands.size() == APPEND_BATCH_SIZE) {
+                        appendMessages(dstMailboxManager, dstMessageManager, dstMailboxSession, appendCommands, mailboxPath);
+                    }
 
                 }
+                appendMessages(dstMailboxManager, dstMessageManager, dstMailboxSession, appendCommands, mailboxPath);
                 dstMailboxManager.endProcessingRequest(dstMailboxSession);
 
             } else {
@@ -138,4 +144,19 @@ public class MailboxCopierImpl implements MailboxCopier {
         LOGGER.info("Mailboxes copied in {} ms.", Calendar.getInstance().getTimeInMillis() - start.getTimeInMillis());
 
     }
+
+    /**
+     * Appends the pending messages in a single batch, then clears them
+     */
+    private void appendMessages(MailboxManager dstMailboxManager, MessageManager dstMessageManager, MailboxSession dstMailboxSession,
+                                List<MessageManager.AppendCommand> appendCommands, MailboxPath mailboxPath) throws MailboxException {
+        if (appendCommands.isEmpty()) {
+            return;
+        }
+        dstMailboxManager.startProcessingRequest(dstMailboxSession);
+        dstMessageManager.appendMessages(appendCommands, dstMailboxSession);
+        dstMailboxManager.endProcessingRequest(dstMailboxSession);
+        LOGGER.info("{} messages appended in destination mailbox with path={}", appendCommands.size(), mailboxPath);
+        appendCommands.clear();
+    }
 }
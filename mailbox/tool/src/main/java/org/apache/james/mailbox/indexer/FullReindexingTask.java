@@ -0,0 +1,119 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class FullReindexingTask implements Task {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FullReindexingTask.class);
+    public static final String FULL_RE_INDEXING = "FullReIndexing";
+
+    public static class Details implements TaskExecutionDetails.AdditionalInformation {
+        private final long totalMailboxCount;
+        private final long processedMailboxCount;
+        private final long failedMailboxCount;
+        private final long indexedMessageCount;
+        private final long failedMessageCount;
+        private final double messagesPerSecond;
+        private final Optional<Long> estimatedRemainingSeconds;
+
+        public Details(long totalMailboxCount, long processedMailboxCount, long failedMailboxCount,
+                       long indexedMessageCount, long failedMessageCount, double messagesPerSecond,
+                       Optional<Long> estimatedRemainingSeconds) {
+            this.totalMailboxCount = totalMailboxCount;
+            this.processedMailboxCount = processedMailboxCount;
+            this.failedMailboxCount = failedMailboxCount;
+            this.indexedMessageCount = indexedMessageCount;
+            this.failedMessageCount = failedMessageCount;
+            this.messagesPerSecond = messagesPerSecond;
+            this.estimatedRemainingSeconds = estimatedRemainingSeconds;
+        }
+
+        public long getTotalMailboxCount() {
+            return totalMailboxCount;
+        }
+
+        public long getProcessedMailboxCount() {
+            return processedMailboxCount;
+        }
+
+        public long getFailedMailboxCount() {
+            return failedMailboxCount;
+        }
+
+        public long getIndexedMessageCount() {
+            return indexedMessageCount;
+        }
+
+        public long getFailedMessageCount() {
+            return failedMessageCount;
+        }
+
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public Optional<Long> getEstimatedRemainingSeconds() {
+            return estimatedRemainingSeconds;
+        }
+    }
+
+    private final ReIndexerImpl reIndexer;
+    private final ReIndexingContext context;
+
+    public FullReindexingTask(ReIndexerImpl reIndexer) {
+        this.reIndexer = reIndexer;
+        this.context = new ReIndexingContext();
+    }
+
+    @Override
+    public Result run() {
+        try {
+            return reIndexer.reIndex(context);
+        } catch (MailboxException e) {
+            LOGGER.error("Error while performing full reindexing", e);
+            return Result.PARTIAL;
+        }
+    }
+
+    @Override
+    public String type() {
+        return FULL_RE_INDEXING;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(new Details(
+            context.getTotalMailboxCount(),
+            context.getProcessedMailboxCount(),
+            context.getFailedMailboxCount(),
+            context.getIndexedMessageCount(),
+            context.getFailedMessageCount(),
+            context.getMessagesPerSecond(),
+            context.getEstimatedRemainingTime().map(Duration::getSeconds)));
+    }
+}
@@ -0,0 +1,114 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.util.Optional;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+public class ReIndexerConfiguration {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    public static ReIndexerConfiguration defaultValues() {
+        return new Builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Optional<Integer> parallelism;
+        private Optional<Integer> batchSize;
+
+        private Builder() {
+            parallelism = Optional.empty();
+            batchSize = Optional.empty();
+        }
+
+        public Builder parallelism(int parallelism) {
+            Preconditions.checkArgument(parallelism > 0, "'parallelism' must be greater than zero");
+            this.parallelism = Optional.of(parallelism);
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0, "'batchSize' must be greater than zero");
+            this.batchSize = Optional.of(batchSize);
+            return this;
+        }
+
+        public ReIndexerConfiguration build() {
+            return new ReIndexerConfiguration(
+                parallelism.orElse(DEFAULT_PARALLELISM),
+                batchSize.orElse(DEFAULT_BATCH_SIZE));
+        }
+    }
+
+    private final int parallelism;
+    private final int batchSize;
+
+    private ReIndexerConfiguration(int parallelism, int batchSize) {
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of mailboxes re-indexed concurrently by a full re-indexation
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the number of messages read and sent to the index at once
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+        if (obj instanceof ReIndexerConfiguration) {
+            ReIndexerConfiguration other = (ReIndexerConfiguration) obj;
+            return Objects.equal(this.parallelism, other.parallelism)
+                && Objects.equal(this.batchSize, other.batchSize);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hashCode(this.parallelism, this.batchSize);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ReIndexerConfiguration.class)
+            .add("parallelism", parallelism)
+            .add("batchSize", batchSize)
+            .toString();
+    }
+}
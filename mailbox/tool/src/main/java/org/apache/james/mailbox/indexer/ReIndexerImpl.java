@@ -19,14 +19,20 @@
 
 package org.apache.james.mailbox.indexer;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.inject.Inject;
 
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.indexer.events.FlagsMessageEvent;
 import org.apache.james.mailbox.indexer.events.ImpactingEventType;
@@ -40,10 +46,15 @@ import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MemoryReIndexingCheckpoint;
+import org.apache.james.mailbox.store.search.ReIndexingCheckpoint;
+import org.apache.james.task.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Note about live re-indexation handling :
@@ -56,6 +67,13 @@ import com.google.common.collect.Iterables;
  *
  *  Why only care about updates and deletions ? Additions are already handled by the indexer that behaves normaly. We
  *  should just "adapt" our indexed value to the latest value, if any. The normal indexer will take care of new stuff.
+ *
+ * Note about full re-indexation :
+ *
+ *  Mailboxes are re-indexed in parallel, using at most <code>parallelism</code> threads. Messages are read and sent to
+ *  the index by batches of <code>batchSize</code>. Progress is recorded in a {@link ReIndexingCheckpoint} after each
+ *  batch: a failed full re-indexation resumes where it stopped, skipping completed mailboxes. The checkpoint of a
+ *  mailbox never moves past a message which could not be indexed, so that the next full re-indexation retries it.
  */
 public class ReIndexerImpl implements ReIndexer {
 
@@ -65,83 +83,202 @@ public class ReIndexerImpl implements ReIndexer {
     private final MailboxManager mailboxManager;
     private final ListeningMessageSearchIndex messageSearchIndex;
     private final MailboxSessionMapperFactory mailboxSessionMapperFactory;
+    private final ReIndexingCheckpoint checkpoint;
+    private final int parallelism;
+    private final int batchSize;
 
-    @Inject
     public ReIndexerImpl(MailboxManager mailboxManager,
                          ListeningMessageSearchIndex messageSearchIndex,
                          MailboxSessionMapperFactory mailboxSessionMapperFactory) {
+        this(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory, new MemoryReIndexingCheckpoint(), ReIndexerConfiguration.defaultValues());
+    }
+
+    @Inject
+    public ReIndexerImpl(MailboxManager mailboxManager,
+                         ListeningMessageSearchIndex messageSearchIndex,
+                         MailboxSessionMapperFactory mailboxSessionMapperFactory,
+                         ReIndexingCheckpoint checkpoint,
+                         ReIndexerConfiguration configuration) {
         this.mailboxManager = mailboxManager;
         this.messageSearchIndex = messageSearchIndex;
         this.mailboxSessionMapperFactory = mailboxSessionMapperFactory;
+        this.checkpoint = checkpoint;
+        this.parallelism = configuration.getParallelism();
+        this.batchSize = configuration.getBatchSize();
     }
 
     @Override
     public void reIndex(MailboxPath path) throws MailboxException {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(path.getUser());
-        reIndex(path, mailboxSession);
+        Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxByPath(path);
+        messageSearchIndex.deleteAll(mailboxSession, mailbox);
+        reIndex(path, mailboxSession, mailbox, MessageRange.all(), new ReIndexingContext());
     }
 
-
     @Override
     public void reIndex() throws MailboxException {
+        reIndex(new ReIndexingContext());
+    }
+
+    public Task fullReindexingTask() {
+        return new FullReindexingTask(this);
+    }
+
+    Task.Result reIndex(ReIndexingContext context) throws MailboxException {
         MailboxSession mailboxSession = mailboxManager.createSystemSession("re-indexing");
         LOGGER.info("Starting a full reindex");
         List<MailboxPath> mailboxPaths = mailboxManager.list(mailboxSession);
+        context.setTotalMailboxCount(mailboxPaths.size());
         GlobalRegistration globalRegistration = new GlobalRegistration();
         mailboxManager.addGlobalListener(globalRegistration, mailboxSession);
         try {
-            handleFullReindexingIterations(mailboxPaths, globalRegistration);
+            Task.Result result = handleFullReindexingIterations(mailboxPaths, globalRegistration, context);
+            result.onComplete(checkpoint::clear);
+            LOGGER.info("Full reindex finished: {} mailboxes and {} messages indexed, {} mailboxes and {} messages failed",
+                context.getProcessedMailboxCount(), context.getIndexedMessageCount(),
+                context.getFailedMailboxCount(), context.getFailedMessageCount());
+            return result;
         } finally {
             mailboxManager.removeGlobalListener(globalRegistration, mailboxSession);
         }
-        LOGGER.info("Full reindex finished");
     }
 
-    private void reIndex(MailboxPath path, MailboxSession mailboxSession) throws MailboxException {
+    private Task.Result handleFullReindexingIterations(List<MailboxPath> mailboxPaths, GlobalRegistration globalRegistration, ReIndexingContext context) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+            new ThreadFactoryBuilder().setNameFormat("re-indexing-%d").build());
+        try {
+            List<CompletableFuture<Task.Result>> results = new ArrayList<>();
+            for (MailboxPath mailboxPath : mailboxPaths) {
+                results.add(CompletableFuture.supplyAsync(
+                    () -> reIndexFromCheckpoint(mailboxPath, globalRegistration, context),
+                    executor));
+            }
+            return results.stream()
+                .map(CompletableFuture::join)
+                .reduce(Task.Result.COMPLETED, Task::combine);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Task.Result reIndexFromCheckpoint(MailboxPath mailboxPath, GlobalRegistration globalRegistration, ReIndexingContext context) {
+        Optional<MailboxPath> pathToIndex = globalRegistration.getPathToIndex(mailboxPath);
+        if (!pathToIndex.isPresent()) {
+            context.incrementProcessedMailboxCount();
+            return Task.Result.COMPLETED;
+        }
+        MailboxPath path = pathToIndex.get();
+        try {
+            MailboxSession mailboxSession = mailboxManager.createSystemSession(path.getUser());
+            Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxByPath(path);
+            if (checkpoint.isCompleted(mailbox.getMailboxId())) {
+                LOGGER.info("Skipping {} which was already reindexed", path);
+                context.incrementProcessedMailboxCount();
+                return Task.Result.COMPLETED;
+            }
+            Optional<MessageUid> lastIndexedUid = checkpoint.lastIndexedUid(mailbox.getMailboxId());
+            if (!lastIndexedUid.isPresent()) {
+                messageSearchIndex.deleteAll(mailboxSession, mailbox);
+            }
+            MessageRange range = lastIndexedUid
+                .map(uid -> MessageRange.from(uid.next()))
+                .orElse(MessageRange.all());
+            if (!reIndex(path, mailboxSession, mailbox, range, context)) {
+                LOGGER.warn("Some messages of {} could not be reindexed", path);
+                context.incrementFailedMailboxCount();
+                return Task.Result.PARTIAL;
+            }
+            checkpoint.complete(mailbox.getMailboxId());
+            context.incrementProcessedMailboxCount();
+            return Task.Result.COMPLETED;
+        } catch (Throwable e) {
+            LOGGER.error("Error while proceeding to full reindexing on {}", path, e);
+            context.incrementFailedMailboxCount();
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    /**
+     * @return true if all the messages of the range were indexed
+     */
+    private boolean reIndex(MailboxPath path, MailboxSession mailboxSession, Mailbox mailbox, MessageRange range, ReIndexingContext context) throws MailboxException {
         MailboxRegistration mailboxRegistration = new MailboxRegistration(path);
-        LOGGER.info("Intend to reindex {}",path);
-        Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxByPath(path);
-        messageSearchIndex.deleteAll(mailboxSession, mailbox);
+        LOGGER.info("Intend to reindex {}", path);
         mailboxManager.addListener(path, mailboxRegistration, mailboxSession);
         try {
-            handleMailboxIndexingIterations(mailboxSession,
-                mailboxRegistration,
-                mailbox,
-                mailboxSessionMapperFactory.getMessageMapper(mailboxSession)
-                    .findInMailbox(mailbox,
-                        MessageRange.all(),
-                        MessageMapper.FetchType.Full,
-                        NO_LIMIT));
+            boolean fullyIndexed = handleMailboxIndexingIterations(mailboxSession, mailboxRegistration, mailbox, range, context);
             LOGGER.info("Finish to reindex {}", path);
+            return fullyIndexed;
         } finally {
             mailboxManager.removeListener(path, mailboxRegistration, mailboxSession);
         }
     }
 
-    private void handleFullReindexingIterations(List<MailboxPath> mailboxPaths, GlobalRegistration globalRegistration) throws MailboxException {
-        for (MailboxPath mailboxPath : mailboxPaths) {
-            Optional<MailboxPath> pathToIndex = globalRegistration.getPathToIndex(mailboxPath);
-            if (pathToIndex.isPresent()) {
-                try {
-                    reIndex(pathToIndex.get());
-                } catch (Throwable e) {
-                    LOGGER.error("Error while proceeding to full reindexing on {}", pathToIndex.get(), e);
-                }
+    private boolean handleMailboxIndexingIterations(MailboxSession mailboxSession, MailboxRegistration mailboxRegistration, Mailbox mailbox, MessageRange range, ReIndexingContext context) throws MailboxException {
+        MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(mailboxSession);
+        MessageRange nextRange = range;
+        boolean fullyIndexed = true;
+        while (true) {
+            List<MailboxMessage> batch = readBatch(messageMapper.findInMailbox(mailbox, nextRange, MessageMapper.FetchType.Full, batchSize));
+            if (batch.isEmpty()) {
+                return fullyIndexed;
             }
+            List<MessageUid> failedUids = indexBatch(mailboxSession, mailboxRegistration, mailbox, batch, context);
+            if (fullyIndexed) {
+                fullyIndexed = failedUids.isEmpty();
+                lastIndexedUid(batch, failedUids)
+                    .ifPresent(uid -> checkpoint.checkpoint(mailbox.getMailboxId(), uid));
+            }
+            MessageUid lastUid = Iterables.getLast(batch).getUid();
+            if (batch.size() < batchSize) {
+                return fullyIndexed;
+            }
+            nextRange = MessageRange.from(lastUid.next());
+        }
+    }
+
+    /**
+     * @return the uid of the last message of the batch preceding the first one which could not be indexed
+     */
+    private Optional<MessageUid> lastIndexedUid(List<MailboxMessage> batch, List<MessageUid> failedUids) {
+        Optional<MessageUid> firstFailedUid = failedUids.stream().min(MessageUid::compareTo);
+        return batch.stream()
+            .map(MailboxMessage::getUid)
+            .filter(uid -> firstFailedUid.map(failedUid -> uid.compareTo(failedUid) < 0).orElse(true))
+            .max(MessageUid::compareTo);
+    }
+
+    private List<MailboxMessage> readBatch(Iterator<MailboxMessage> iterator) {
+        List<MailboxMessage> batch = new ArrayList<>(batchSize);
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
         }
+        return batch;
     }
 
-    private void handleMailboxIndexingIterations(MailboxSession mailboxSession, MailboxRegistration mailboxRegistration, Mailbox mailbox, Iterator<MailboxMessage> iterator) throws MailboxException {
-        while (iterator.hasNext()) {
-            MailboxMessage message = iterator.next();
+    private List<MessageUid> indexBatch(MailboxSession mailboxSession, MailboxRegistration mailboxRegistration, Mailbox mailbox, List<MailboxMessage> batch, ReIndexingContext context) throws MailboxException {
+        List<MailboxMessage> toIndex = new ArrayList<>(batch.size());
+        for (MailboxMessage message : batch) {
             ImpactingMessageEvent impactingMessageEvent = findMostRelevant(mailboxRegistration.getImpactingEvents(message.getUid()));
             if (impactingMessageEvent == null) {
-                messageSearchIndex.add(mailboxSession, mailbox, message);
+                toIndex.add(message);
             } else if (impactingMessageEvent instanceof FlagsMessageEvent) {
                 message.setFlags(((FlagsMessageEvent) impactingMessageEvent).getFlags());
-                messageSearchIndex.add(mailboxSession, mailbox, message);
+                toIndex.add(message);
             }
         }
+        if (toIndex.isEmpty()) {
+            return ImmutableList.of();
+        }
+        try {
+            List<MessageUid> failedUids = messageSearchIndex.add(mailboxSession, mailbox, toIndex);
+            context.addIndexedMessages(toIndex.size() - failedUids.size());
+            context.addFailedMessages(failedUids.size());
+            return failedUids;
+        } catch (MailboxException e) {
+            context.addFailedMessages(toIndex.size());
+            throw e;
+        }
     }
 
     private ImpactingMessageEvent findMostRelevant(Collection<ImpactingMessageEvent> messageEvents) {
@@ -0,0 +1,118 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.indexer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a full re-indexation.
+ */
+public class ReIndexingContext {
+
+    private final Clock clock;
+    private final Instant start;
+    private final AtomicLong totalMailboxCount;
+    private final AtomicLong processedMailboxCount;
+    private final AtomicLong failedMailboxCount;
+    private final AtomicLong indexedMessageCount;
+    private final AtomicLong failedMessageCount;
+
+    public ReIndexingContext() {
+        this(Clock.systemUTC());
+    }
+
+    public ReIndexingContext(Clock clock) {
+        this.clock = clock;
+        this.start = clock.instant();
+        this.totalMailboxCount = new AtomicLong(0L);
+        this.processedMailboxCount = new AtomicLong(0L);
+        this.failedMailboxCount = new AtomicLong(0L);
+        this.indexedMessageCount = new AtomicLong(0L);
+        this.failedMessageCount = new AtomicLong(0L);
+    }
+
+    public void setTotalMailboxCount(long totalMailboxCount) {
+        this.totalMailboxCount.set(totalMailboxCount);
+    }
+
+    public void incrementProcessedMailboxCount() {
+        processedMailboxCount.incrementAndGet();
+    }
+
+    public void incrementFailedMailboxCount() {
+        failedMailboxCount.incrementAndGet();
+    }
+
+    public void addIndexedMessages(long count) {
+        indexedMessageCount.addAndGet(count);
+    }
+
+    public void addFailedMessages(long count) {
+        failedMessageCount.addAndGet(count);
+    }
+
+    public long getTotalMailboxCount() {
+        return totalMailboxCount.get();
+    }
+
+    public long getProcessedMailboxCount() {
+        return processedMailboxCount.get();
+    }
+
+    public long getFailedMailboxCount() {
+        return failedMailboxCount.get();
+    }
+
+    public long getIndexedMessageCount() {
+        return indexedMessageCount.get();
+    }
+
+    public long getFailedMessageCount() {
+        return failedMessageCount.get();
+    }
+
+    public Duration getElapsedTime() {
+        return Duration.between(start, clock.instant());
+    }
+
+    public double getMessagesPerSecond() {
+        long elapsedMillis = getElapsedTime().toMillis();
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return getIndexedMessageCount() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Estimates the remaining time from the average time spent per mailbox so far.
+     */
+    public Optional<Duration> getEstimatedRemainingTime() {
+        long processed = getProcessedMailboxCount() + getFailedMailboxCount();
+        if (processed == 0) {
+            return Optional.empty();
+        }
+        long remaining = Math.max(0, getTotalMailboxCount() - processed);
+        return Optional.of(getElapsedTime().multipliedBy(remaining).dividedBy(processed));
+    }
+}
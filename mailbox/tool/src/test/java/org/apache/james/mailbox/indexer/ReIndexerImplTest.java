@@ -19,6 +19,7 @@
 
 package org.apache.james.mailbox.indexer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -30,9 +31,11 @@ import org.apache.james.mailbox.MailboxListener;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.mock.MockMailboxSession;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.TestId;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.MessageBuilder;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
@@ -41,6 +44,8 @@ import org.apache.james.mailbox.store.mail.model.Mailbox;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailbox;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MemoryReIndexingCheckpoint;
+import org.apache.james.task.Task;
 import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,7 +55,6 @@ import com.google.common.collect.ImmutableList;
 public class ReIndexerImplTest {
 
     public static final MailboxPath INBOX = MailboxPath.forUser("benwa@apache.org", "INBOX");
-    public static final int LIMIT = 0;
     private MailboxManager mailboxManager;
     private MailboxSessionMapperFactory mailboxSessionMapperFactory;
     private ListeningMessageSearchIndex messageSearchIndex;
@@ -80,7 +84,7 @@ public class ReIndexerImplTest {
         final SimpleMailbox mailbox = new SimpleMailbox(INBOX, 42);
         mailbox.setMailboxId(message.getMailboxId());
         when(mailboxMapper.findMailboxByPath(INBOX)).thenReturn(mailbox);
-        when(messageMapper.findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, LIMIT))
+        when(messageMapper.findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, ReIndexerConfiguration.DEFAULT_BATCH_SIZE))
             .thenReturn(Lists.newArrayList(message).iterator());
 
         reIndexer.reIndex(INBOX);
@@ -89,10 +93,10 @@ public class ReIndexerImplTest {
         verify(mailboxSessionMapperFactory).getMailboxMapper(mockMailboxSession);
         verify(mailboxSessionMapperFactory).getMessageMapper(mockMailboxSession);
         verify(mailboxMapper).findMailboxByPath(INBOX);
-        verify(messageMapper).findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, LIMIT);
+        verify(messageMapper).findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, ReIndexerConfiguration.DEFAULT_BATCH_SIZE);
         verify(mailboxManager).addListener(eq(INBOX), any(MailboxListener.class), any(MailboxSession.class));
         verify(mailboxManager).removeListener(eq(INBOX), any(MailboxListener.class), any(MailboxSession.class));
-        verify(messageSearchIndex).add(any(MailboxSession.class), eq(mailbox), eq(message));
+        verify(messageSearchIndex).add(any(MailboxSession.class), eq(mailbox), eq(ImmutableList.of(message)));
         verify(messageSearchIndex).deleteAll(any(MailboxSession.class), eq(mailbox));
         verifyNoMoreInteractions(mailboxMapper, mailboxSessionMapperFactory, messageSearchIndex, messageMapper, mailboxMapper);
     }
@@ -115,13 +119,15 @@ public class ReIndexerImplTest {
         when(mailboxSessionMapperFactory.getMailboxMapper(user1MailboxSession))
             .thenReturn(user1MailboxMapper);
         Mailbox user1Mailbox = mock(Mailbox.class);
+        when(user1Mailbox.getMailboxId())
+            .thenReturn(TestId.of(1));
         when(user1MailboxMapper.findMailboxByPath(user1MailboxPath))
             .thenReturn(user1Mailbox);
         MessageMapper user1MessageMapper = mock(MessageMapper.class);
         when(mailboxSessionMapperFactory.getMessageMapper(user1MailboxSession))
             .thenReturn(user1MessageMapper);
         MailboxMessage user1MailboxMessage = mock(MailboxMessage.class);
-        when(user1MessageMapper.findInMailbox(user1Mailbox, MessageRange.all(), MessageMapper.FetchType.Full, ReIndexerImpl.NO_LIMIT))
+        when(user1MessageMapper.findInMailbox(user1Mailbox, MessageRange.all(), MessageMapper.FetchType.Full, ReIndexerConfiguration.DEFAULT_BATCH_SIZE))
             .thenReturn(ImmutableList.of(user1MailboxMessage).iterator());
         when(user1MailboxMessage.getUid())
             .thenReturn(MessageUid.of(1));
@@ -132,6 +138,155 @@ public class ReIndexerImplTest {
         reIndexer.reIndex();
 
         verify(messageSearchIndex).deleteAll(user1MailboxSession, user1Mailbox);
-        verify(messageSearchIndex).add(user1MailboxSession, user1Mailbox, user1MailboxMessage);
+        verify(messageSearchIndex).add(user1MailboxSession, user1Mailbox, ImmutableList.of(user1MailboxMessage));
+    }
+
+    @Test
+    public void reIndexShouldReadAndIndexMessagesByBatches() throws Exception {
+        reIndexer = new ReIndexerImpl(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory,
+            new MemoryReIndexingCheckpoint(), ReIndexerConfiguration.builder().parallelism(1).batchSize(2).build());
+        MockMailboxSession mailboxSession = new MockMailboxSession("benwa@apache.org");
+        when(mailboxManager.createSystemSession(any(String.class)))
+            .thenReturn(mailboxSession);
+        MessageMapper messageMapper = mock(MessageMapper.class);
+        MailboxMapper mailboxMapper = mock(MailboxMapper.class);
+        when(mailboxSessionMapperFactory.getMessageMapper(mailboxSession))
+            .thenReturn(messageMapper);
+        when(mailboxSessionMapperFactory.getMailboxMapper(mailboxSession))
+            .thenReturn(mailboxMapper);
+        SimpleMailbox mailbox = new SimpleMailbox(INBOX, 42, TestId.of(1));
+        when(mailboxMapper.findMailboxByPath(INBOX)).thenReturn(mailbox);
+        MailboxMessage message1 = messageWithUid(1);
+        MailboxMessage message2 = messageWithUid(2);
+        MailboxMessage message3 = messageWithUid(3);
+        when(messageMapper.findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, 2))
+            .thenReturn(ImmutableList.of(message1, message2).iterator());
+        when(messageMapper.findInMailbox(mailbox, MessageRange.from(MessageUid.of(3)), MessageMapper.FetchType.Full, 2))
+            .thenReturn(ImmutableList.of(message3).iterator());
+
+        reIndexer.reIndex(INBOX);
+
+        verify(messageSearchIndex).deleteAll(mailboxSession, mailbox);
+        verify(messageSearchIndex).add(mailboxSession, mailbox, ImmutableList.of(message1, message2));
+        verify(messageSearchIndex).add(mailboxSession, mailbox, ImmutableList.of(message3));
+        verifyNoMoreInteractions(messageSearchIndex);
+    }
+
+    @Test
+    public void fullReIndexShouldResumeFromCheckpoint() throws Exception {
+        MemoryReIndexingCheckpoint checkpoint = new MemoryReIndexingCheckpoint();
+        reIndexer = new ReIndexerImpl(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory,
+            checkpoint, ReIndexerConfiguration.builder().parallelism(2).build());
+        MockMailboxSession mailboxSession = new MockMailboxSession("benwa@apache.org");
+        when(mailboxManager.createSystemSession(any(String.class)))
+            .thenReturn(mailboxSession);
+        MessageMapper messageMapper = mock(MessageMapper.class);
+        MailboxMapper mailboxMapper = mock(MailboxMapper.class);
+        when(mailboxSessionMapperFactory.getMessageMapper(mailboxSession))
+            .thenReturn(messageMapper);
+        when(mailboxSessionMapperFactory.getMailboxMapper(mailboxSession))
+            .thenReturn(mailboxMapper);
+        MailboxPath completedPath = MailboxPath.forUser("benwa@apache.org", "completed");
+        MailboxPath startedPath = MailboxPath.forUser("benwa@apache.org", "started");
+        SimpleMailbox completedMailbox = new SimpleMailbox(completedPath, 42, TestId.of(1));
+        SimpleMailbox startedMailbox = new SimpleMailbox(startedPath, 42, TestId.of(2));
+        when(mailboxMapper.findMailboxByPath(completedPath)).thenReturn(completedMailbox);
+        when(mailboxMapper.findMailboxByPath(startedPath)).thenReturn(startedMailbox);
+        when(mailboxManager.list(mailboxSession))
+            .thenReturn(ImmutableList.of(completedPath, startedPath));
+        checkpoint.complete(completedMailbox.getMailboxId());
+        checkpoint.checkpoint(startedMailbox.getMailboxId(), MessageUid.of(4));
+        MailboxMessage message = messageWithUid(5);
+        when(messageMapper.findInMailbox(startedMailbox, MessageRange.from(MessageUid.of(5)), MessageMapper.FetchType.Full, ReIndexerConfiguration.DEFAULT_BATCH_SIZE))
+            .thenReturn(ImmutableList.of(message).iterator());
+
+        reIndexer.reIndex();
+
+        verify(messageSearchIndex).add(mailboxSession, startedMailbox, ImmutableList.of(message));
+        verifyNoMoreInteractions(messageSearchIndex);
+    }
+
+    @Test
+    public void fullReIndexShouldClearCheckpointWhenSuccessful() throws Exception {
+        MemoryReIndexingCheckpoint checkpoint = new MemoryReIndexingCheckpoint();
+        reIndexer = new ReIndexerImpl(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory,
+            checkpoint, ReIndexerConfiguration.builder().parallelism(2).build());
+        MockMailboxSession mailboxSession = new MockMailboxSession("re-indexing");
+        when(mailboxManager.createSystemSession(any(String.class)))
+            .thenReturn(mailboxSession);
+        when(mailboxManager.list(mailboxSession))
+            .thenReturn(ImmutableList.of());
+        checkpoint.complete(TestId.of(1));
+
+        reIndexer.reIndex();
+
+        assertThat(checkpoint.isCompleted(TestId.of(1))).isFalse();
+    }
+
+    @Test
+    public void fullReIndexShouldKeepCheckpointWhenAMailboxFails() throws Exception {
+        MemoryReIndexingCheckpoint checkpoint = new MemoryReIndexingCheckpoint();
+        reIndexer = new ReIndexerImpl(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory,
+            checkpoint, ReIndexerConfiguration.builder().parallelism(2).build());
+        MockMailboxSession mailboxSession = new MockMailboxSession("benwa@apache.org");
+        when(mailboxManager.createSystemSession(any(String.class)))
+            .thenReturn(mailboxSession);
+        MailboxMapper mailboxMapper = mock(MailboxMapper.class);
+        when(mailboxSessionMapperFactory.getMailboxMapper(mailboxSession))
+            .thenReturn(mailboxMapper);
+        when(mailboxMapper.findMailboxByPath(INBOX)).thenThrow(new MailboxException());
+        when(mailboxManager.list(mailboxSession))
+            .thenReturn(ImmutableList.of(INBOX));
+        checkpoint.complete(TestId.of(1));
+
+        reIndexer.reIndex();
+
+        assertThat(checkpoint.isCompleted(TestId.of(1))).isTrue();
+    }
+
+    @Test
+    public void fullReIndexShouldNotCheckpointPastAMessageWhichCouldNotBeIndexed() throws Exception {
+        MemoryReIndexingCheckpoint checkpoint = new MemoryReIndexingCheckpoint();
+        ReIndexerImpl testee = new ReIndexerImpl(mailboxManager, messageSearchIndex, mailboxSessionMapperFactory,
+            checkpoint, ReIndexerConfiguration.builder().parallelism(1).batchSize(2).build());
+        MockMailboxSession mailboxSession = new MockMailboxSession("benwa@apache.org");
+        when(mailboxManager.createSystemSession(any(String.class)))
+            .thenReturn(mailboxSession);
+        MessageMapper messageMapper = mock(MessageMapper.class);
+        MailboxMapper mailboxMapper = mock(MailboxMapper.class);
+        when(mailboxSessionMapperFactory.getMessageMapper(mailboxSession))
+            .thenReturn(messageMapper);
+        when(mailboxSessionMapperFactory.getMailboxMapper(mailboxSession))
+            .thenReturn(mailboxMapper);
+        SimpleMailbox mailbox = new SimpleMailbox(INBOX, 42, TestId.of(1));
+        when(mailboxMapper.findMailboxByPath(INBOX)).thenReturn(mailbox);
+        when(mailboxManager.list(mailboxSession))
+            .thenReturn(ImmutableList.of(INBOX));
+        MailboxMessage message1 = messageWithUid(1);
+        MailboxMessage message2 = messageWithUid(2);
+        MailboxMessage message3 = messageWithUid(3);
+        when(messageMapper.findInMailbox(mailbox, MessageRange.all(), MessageMapper.FetchType.Full, 2))
+            .thenReturn(ImmutableList.of(message1, message2).iterator());
+        when(messageMapper.findInMailbox(mailbox, MessageRange.from(MessageUid.of(3)), MessageMapper.FetchType.Full, 2))
+            .thenReturn(ImmutableList.of(message3).iterator());
+        when(messageSearchIndex.add(mailboxSession, mailbox, ImmutableList.of(message1, message2)))
+            .thenReturn(ImmutableList.of(MessageUid.of(2)));
+        when(messageSearchIndex.add(mailboxSession, mailbox, ImmutableList.of(message3)))
+            .thenReturn(ImmutableList.of());
+        ReIndexingContext context = new ReIndexingContext();
+
+        Task.Result result = testee.reIndex(context);
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(context.getIndexedMessageCount()).isEqualTo(2);
+        assertThat(context.getFailedMessageCount()).isEqualTo(1);
+        assertThat(checkpoint.isCompleted(mailbox.getMailboxId())).isFalse();
+        assertThat(checkpoint.lastIndexedUid(mailbox.getMailboxId())).contains(MessageUid.of(1));
+    }
+
+    private MailboxMessage messageWithUid(long uid) {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.getUid()).thenReturn(MessageUid.of(uid));
+        return message;
     }
 }
@@ -0,0 +1,69 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.mailet;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import javax.mail.MessagingException;
+
+/**
+ * A {@link Mailet} whose processing completes asynchronously.
+ * <p>
+ * Mailets waiting on remote resources (DNS, spam filters, remote servers...) can implement this
+ * interface so that the mailet container does not hold one of its threads while they wait. The
+ * container calls {@link #serviceAsync} instead of {@link #service} and hands the mail over to
+ * the next Matcher-Mailet pair once the returned stage completes. The mail must not be modified
+ * by the mailet after that.
+ * <p>
+ * A stage completing exceptionally is handled like an exception thrown by {@link #service}.
+ * Mailets which do not implement this interface keep being called synchronously.
+ */
+@Experimental
+public interface AsyncMailet extends Mailet {
+
+    /**
+     * Starts processing the given mail.
+     *
+     * @param mail the Mail to process
+     * @return a stage completing once the mail has been processed
+     * @throws MessagingException if the processing can not be started
+     */
+    CompletionStage<Void> serviceAsync(Mail mail) throws MessagingException;
+
+    /**
+     * Processes the given mail, waiting for the completion of {@link #serviceAsync}.
+     */
+    @Override
+    default void service(Mail mail) throws MessagingException {
+        try {
+            serviceAsync(mail).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MessagingException) {
+                throw (MessagingException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -20,7 +20,6 @@
 
 package org.apache.james.transport.mailets;
 
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -32,15 +31,20 @@ import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.Set;
 
+import javax.inject.Inject;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.james.core.MailAddress;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
 import org.apache.mailet.Experimental;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.GenericMailet;
@@ -52,8 +56,8 @@ import org.slf4j.LoggerFactory;
 /**
  * <P>Does an antivirus scan check using a ClamAV daemon (CLAMD)</P>
  * <p/>
- * <P> Interacts directly with the daemon using the "stream" method,
- * which should have the lowest possible overhead.</P>
+ * <P> Interacts directly with the daemon using the "instream" method within
+ * sessions, which should have the lowest possible overhead.</P>
  * <P>The CLAMD daemon will typically reside on <I>localhost</I>, but could reside on a
  * different host.
  * It may also consist on a set of multiple daemons, each residing on a different
@@ -79,8 +83,16 @@ import org.slf4j.LoggerFactory;
  * <LI><CODE>&lt;pingIntervalMilli&gt;</CODE>: the interval (in milliseconds)
  * between each connection retry during startup.
  * The default is <I>30000</I> (30 seconds).</LI>
- * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the BufferedOutputStream buffer size to use
- * writing to the <I>stream connection</I>. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;streamBufferSize&gt;</CODE>: the size of the chunks the message is
+ * sent to CLAMD by. The default is <I>8192</I>.</LI>
+ * <LI><CODE>&lt;maxIdleSessions&gt;</CODE>: the maximum number of CLAMD sessions kept open
+ * between two scans. The default is <I>10</I>.</LI>
+ * <LI><CODE>&lt;sessionIdleTimeoutMilli&gt;</CODE>: the time (in milliseconds) after which
+ * a CLAMD session left unused is closed. It should be lower than CLAMD <CODE>IdleTimeout</CODE>.
+ * The default is <I>20000</I> (20 seconds).</LI>
+ * <LI><CODE>&lt;sessionPingThresholdMilli&gt;</CODE>: the time (in milliseconds) after which
+ * a CLAMD session left unused is checked with a <CODE>PING</CODE> before being reused.
+ * The default is <I>5000</I> (5 seconds).</LI>
  * </UL>
  * <p/>
  * <P>The actions performed are as follows:</P>
@@ -99,19 +111,20 @@ import org.slf4j.LoggerFactory;
  * </OL>
  * <LI>For every mail</LI>
  * <OL>
- * <LI>connects to CLAMD at the "next" IP in the round-robin list, on
+ * <LI>takes a CLAMD session from the pool of idle sessions, if any, sending it a
+ * "<CODE>PING</CODE>" request first if it has been idle for more than
+ * <CODE>&lt;sessionPingThresholdMilli&gt;</CODE>;</LI>
+ * <LI>otherwise connects to CLAMD at the "next" IP in the round-robin list, on
  * the specified <CODE>&lt;port&gt;</CODE>, and increments the "next" index;
  * if the connection request is not accepted tries with the next one
- * in the list unless all of them have failed;</LI>
- * <LI>sends a "<CODE>STREAM</CODE>" request;</LI>
- * <LI>parses the "<CODE>PORT <I>streamPort</I></CODE>" answer obtaining the port number;</LI>
- * <LI>makes a second connection (the <I>stream connection</I>) to CLAMD at the same host (or IP)
- * on the <I>streamPort</I> just obtained;</LI>
+ * in the list unless all of them have failed; then starts a session
+ * with an "<CODE>IDSESSION</CODE>" request;</LI>
+ * <LI>sends an "<CODE>INSTREAM</CODE>" request;</LI>
  * <LI>sends the mime message to CLAMD (using {@link MimeMessage#writeTo(java.io.OutputStream)})
- * through the <I>stream connection</I>;</LI>
- * <LI>closes the <I>stream connection</I>;</LI>
- * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer from the main connection;</LI>
- * <LI>closes the main connection;</LI>
+ * as a sequence of chunks of at most <CODE>&lt;streamBufferSize&gt;</CODE> bytes;</LI>
+ * <LI>gets the "<CODE>OK</CODE>" or "<CODE>... FOUND</CODE>" answer;</LI>
+ * <LI>gives the session back to the pool. If the session was broken, it is closed, and the
+ * scan is retried once on a new session if it came from the pool;</LI>
  * <LI>sets the "<CODE>org.apache.james.infected</CODE>" <I>mail attribute</I> to either
  * "<CODE>true</CODE>" or "<CODE>false</CODE>";</LI>
  * <LI>adds the "<CODE>X-MessageIsInfected</CODE>" <I>header</I> to either
@@ -193,12 +206,22 @@ public class ClamAVScan extends GenericMailet {
 
     private static final int DEFAULT_STREAM_BUFFER_SIZE = 8192;
 
+    private static final int DEFAULT_MAX_IDLE_SESSIONS = 10;
+
+    private static final int DEFAULT_SESSION_IDLE_TIMEOUT_MILLI = 20000;
+
+    private static final int DEFAULT_SESSION_PING_THRESHOLD_MILLI = 5000;
+
+    private static final String SCAN_METRIC = "clamAV-scan";
+
     //private static final int DEFAULT_CONNECTION_TIMEOUT = 20000;
 
     private static final String STREAM_PORT_STRING = "PORT ";
 
     private static final String FOUND_STRING = "FOUND";
 
+    private static final String ERROR_STRING = "ERROR";
+
     private static final String MAIL_ATTRIBUTE_NAME = "org.apache.james.infected";
 
     private static final String HEADER_NAME = "X-MessageIsInfected";
@@ -243,6 +266,15 @@ public class ClamAVScan extends GenericMailet {
      */
     private int nextAddressIndex;
 
+    private final MetricFactory metricFactory;
+
+    private ClamdSessionPool sessionPool;
+
+    @Inject
+    public ClamAVScan(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
     @Override
     public String getMailetInfo() {
         return "Antivirus Check using ClamAV (CLAMD)";
@@ -259,7 +291,10 @@ public class ClamAVScan extends GenericMailet {
                 "port",
                 "maxPings",
                 "pingIntervalMilli",
-                "streamBufferSize"
+                "streamBufferSize",
+                "maxIdleSessions",
+                "sessionIdleTimeoutMilli",
+                "sessionPingThresholdMilli"
         };
     }
 
@@ -573,6 +608,8 @@ public class ClamAVScan extends GenericMailet {
                 ping();
             }
 
+            initSessionPool();
+
         } catch (Exception e) {
             LOGGER.error("Exception thrown", e);
             throw new MessagingException("Exception thrown", e);
@@ -603,59 +640,10 @@ public class ClamAVScan extends GenericMailet {
             return;
         }
 
-        // get the socket
-        Socket socket = getClamdSocket();
-        BufferedReader reader = null;
-        PrintWriter writer = null;
-        Socket streamSocket = null;
-        BufferedOutputStream bos = null;
-
         try {
+            Optional<String> virusLogMessage = sessionPool.execute(session -> scan(session, mimeMessage));
 
-            // prepare the reader and writer for the commands
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ASCII"));
-            writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream())), true);
-
-            // write a request for a port to use for streaming out the data to scan
-            writer.println("STREAM");
-            writer.flush();
-
-            // parse and get the "stream" port#
-            int streamPort = getStreamPortFromAnswer(reader.readLine());
-
-            // get the "stream" socket and the related (buffered) output stream
-            streamSocket = new Socket(socket.getInetAddress(), streamPort);
-            bos = new BufferedOutputStream(streamSocket.getOutputStream(), getStreamBufferSize());
-
-            // stream out the message to the scanner
-            mimeMessage.writeTo(bos);
-            bos.flush();
-            bos.close();
-            streamSocket.close();
-
-            String answer;
-            boolean virusFound = false;
-            String logMessage = "";
-            for (; ; ) {
-                answer = reader.readLine();
-                if (answer != null) {
-                    answer = answer.trim();
-
-                    // if a virus is found the answer will be '... FOUND'
-                    if (answer.substring(answer.length() - FOUND_STRING.length()).equals(FOUND_STRING)) {
-                        virusFound = true;
-                        logMessage = answer + " (by CLAMD on " + socket.getInetAddress() + ")";
-                        LOGGER.debug(logMessage);
-                    }
-                } else {
-                    break;
-                }
-            }
-
-            reader.close();
-            writer.close();
-
-            if (virusFound) {
+            if (virusLogMessage.isPresent()) {
                 String errorMessage = mail.getErrorMessage();
                 if (errorMessage == null) {
                     errorMessage = "";
@@ -663,7 +651,7 @@ public class ClamAVScan extends GenericMailet {
                     errorMessage += "\r\n";
                 }
                 StringBuilder sb = new StringBuilder(errorMessage);
-                sb.append(logMessage).append("\r\n");
+                sb.append(virusLogMessage.get()).append("\r\n");
 
                 // write mail and message info to log
                 logMailInfo(mail);
@@ -679,9 +667,6 @@ public class ClamAVScan extends GenericMailet {
                 mimeMessage.setHeader(HEADER_NAME, "true");
 
             } else {
-                if (isDebug()) {
-                    LOGGER.debug("OK (by CLAMD on {})", socket.getInetAddress());
-                }
                 mail.setAttribute(MAIL_ATTRIBUTE_NAME, "false");
 
                 // mark the message with a header string
@@ -696,16 +681,72 @@ public class ClamAVScan extends GenericMailet {
             }
 
         } catch (Exception ex) {
-            LOGGER.error("Exception caught calling CLAMD on {}: {}", socket.getInetAddress(), ex.getMessage(), ex);
+            LOGGER.error("Exception caught calling CLAMD: {}", ex.getMessage(), ex);
             throw new MessagingException("Exception caught", ex);
+        }
+
+    }
+
+    @Override
+    public void destroy() {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+    }
+
+    /**
+     * Initializes the pool of CLAMD sessions.
+     */
+    protected void initSessionPool() {
+        String maxIdleSessionsParam = getInitParameter("maxIdleSessions");
+        int maxIdleSessions = (maxIdleSessionsParam == null) ? DEFAULT_MAX_IDLE_SESSIONS : Integer.parseInt(maxIdleSessionsParam);
+        String sessionIdleTimeoutMilliParam = getInitParameter("sessionIdleTimeoutMilli");
+        int sessionIdleTimeoutMilli = (sessionIdleTimeoutMilliParam == null) ? DEFAULT_SESSION_IDLE_TIMEOUT_MILLI : Integer.parseInt(sessionIdleTimeoutMilliParam);
+        String sessionPingThresholdMilliParam = getInitParameter("sessionPingThresholdMilli");
+        int sessionPingThresholdMilli = (sessionPingThresholdMilliParam == null) ? DEFAULT_SESSION_PING_THRESHOLD_MILLI : Integer.parseInt(sessionPingThresholdMilliParam);
+        if (isDebug()) {
+            LOGGER.debug("maxIdleSessions: {}", maxIdleSessions);
+            LOGGER.debug("sessionIdleTimeoutMilli: {}", sessionIdleTimeoutMilli);
+            LOGGER.debug("sessionPingThresholdMilli: {}", sessionPingThresholdMilli);
+        }
+
+        Clock clock = Clock.systemUTC();
+        sessionPool = new ClamdSessionPool(
+            () -> ClamdSession.open(getClamdSocket(), getStreamBufferSize(), clock.instant()),
+            maxIdleSessions,
+            Duration.ofMillis(sessionIdleTimeoutMilli),
+            Duration.ofMillis(sessionPingThresholdMilli),
+            clock,
+            metricFactory);
+    }
+
+    /**
+     * Scans a message on a CLAMD session.
+     *
+     * @return the message to log if a virus is found
+     */
+    private Optional<String> scan(ClamdSession session, MimeMessage mimeMessage) throws IOException, MessagingException {
+        TimeMetric timeMetric = metricFactory.timer(SCAN_METRIC);
+        String answer;
+        try {
+            answer = session.scan(mimeMessage);
         } finally {
-            IOUtils.closeQuietly(reader);
-            IOUtils.closeQuietly(writer);
-            IOUtils.closeQuietly(bos);
-            IOUtils.closeQuietly(streamSocket);
-            IOUtils.closeQuietly(socket);
+            timeMetric.stopAndPublish();
         }
 
+        // if a virus is found the answer will be '... FOUND'
+        if (answer.endsWith(FOUND_STRING)) {
+            String logMessage = answer + " (by CLAMD on " + session.getInetAddress() + ")";
+            LOGGER.debug(logMessage);
+            return Optional.of(logMessage);
+        }
+        if (answer.endsWith(ERROR_STRING)) {
+            throw new MessagingException("CLAMD on " + session.getInetAddress() + " could not scan the message: " + answer);
+        }
+        if (isDebug()) {
+            LOGGER.debug("OK (by CLAMD on {})", session.getInetAddress());
+        }
+        return Optional.empty();
     }
 
     /**
@@ -0,0 +1,217 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A CLAMD session (<code>IDSESSION</code>), allowing several scans on the same
+ * connection.
+ * <p/>
+ * Messages are sent with the <code>INSTREAM</code> command: they are written
+ * as length prefixed chunks directly on the connection, without being
+ * buffered as a whole.
+ */
+class ClamdSession implements Closeable {
+
+    private static final byte[] SESSION_COMMAND = "zIDSESSION\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SCAN_COMMAND = "zINSTREAM\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PING_COMMAND = "zPING\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_COMMAND = "zEND\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int REPLY_DELIMITER = 0;
+    private static final String REPLY_ID_SEPARATOR = ": ";
+    private static final String PONG = "PONG";
+
+    /**
+     * Opens a session on a connection to CLAMD.
+     *
+     * @param socket a socket connected to CLAMD
+     * @param streamBufferSize the size of the chunks messages are sent by
+     * @return the session
+     * @throws IOException if the session can not be started
+     */
+    static ClamdSession open(Socket socket, int streamBufferSize, Instant now) throws IOException {
+        try {
+            ClamdSession session = new ClamdSession(socket, streamBufferSize, now);
+            session.out.write(SESSION_COMMAND);
+            session.out.flush();
+            return session;
+        } catch (IOException e) {
+            IOUtils.closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final InputStream in;
+    private final int streamBufferSize;
+    private int lastRequestId;
+    private Instant lastUsedAt;
+
+    private ClamdSession(Socket socket, int streamBufferSize, Instant now) throws IOException {
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), streamBufferSize + Integer.BYTES));
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.streamBufferSize = streamBufferSize;
+        this.lastRequestId = 0;
+        this.lastUsedAt = now;
+    }
+
+    /**
+     * Scans a message.
+     *
+     * @param message the message to scan
+     * @return the CLAMD answer, for instance "<code>stream: OK</code>" or
+     *         "<code>stream: Eicar-Test-Signature FOUND</code>"
+     * @throws IOException if the session is broken
+     * @throws MessagingException if the message can not be written
+     */
+    String scan(MimeMessage message) throws IOException, MessagingException {
+        out.write(SCAN_COMMAND);
+        try (OutputStream chunks = new ChunkedOutputStream(out, streamBufferSize)) {
+            message.writeTo(chunks);
+        }
+        return readReply();
+    }
+
+    /**
+     * @return true if CLAMD answered to a <code>PING</code> on this session
+     */
+    boolean ping() throws IOException {
+        out.write(PING_COMMAND);
+        out.flush();
+        return readReply().equals(PONG);
+    }
+
+    InetAddress getInetAddress() {
+        return socket.getInetAddress();
+    }
+
+    Instant getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void markUsed(Instant now) {
+        this.lastUsedAt = now;
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.write(END_COMMAND);
+            out.flush();
+        } catch (IOException e) {
+            // the session is closed anyway
+        } finally {
+            IOUtils.closeQuietly(socket);
+        }
+    }
+
+    private String readReply() throws IOException {
+        lastRequestId++;
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read()) != REPLY_DELIMITER) {
+            if (read == -1) {
+                throw new IOException("CLAMD closed the session");
+            }
+            reply.write(read);
+        }
+        return stripRequestId(new String(reply.toByteArray(), StandardCharsets.US_ASCII).trim());
+    }
+
+    private String stripRequestId(String reply) throws IOException {
+        String expectedPrefix = lastRequestId + REPLY_ID_SEPARATOR;
+        if (!reply.startsWith(expectedPrefix)) {
+            throw new IOException("Unexpected answer from CLAMD for request " + lastRequestId + ": \"" + reply + "\"");
+        }
+        return reply.substring(expectedPrefix.length());
+    }
+
+    /**
+     * Frames the written bytes as <code>INSTREAM</code> chunks. Closing it
+     * ends the stream but leaves the session open.
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte[] buffer;
+        private int count;
+
+        private ChunkedOutputStream(DataOutputStream out, int chunkSize) {
+            this.out = out;
+            this.buffer = new byte[chunkSize];
+            this.count = 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int toCopy = Math.min(length - written, buffer.length - count);
+                System.arraycopy(bytes, offset + written, buffer, count, toCopy);
+                count += toCopy;
+                written += toCopy;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) {
+                writeChunk();
+            }
+            out.writeInt(0);
+            out.flush();
+        }
+
+        private void writeChunk() throws IOException {
+            out.writeInt(count);
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of CLAMD sessions shared by the threads running a mailet.
+ * <p/>
+ * Sessions are reused as long as they were not left idle for more than
+ * <code>maxIdleTime</code>, so that they are not closed meanwhile by CLAMD
+ * (<code>IdleTimeout</code> in clamd.conf). Sessions left idle for more than
+ * <code>pingThreshold</code> are checked with a <code>PING</code> before being
+ * reused. An operation failing on a reused session is retried once on a new
+ * session.
+ */
+class ClamdSessionPool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClamdSessionPool.class);
+
+    static final String SESSION_CREATION_METRIC = "clamAV-session-creation";
+    static final String SESSION_REUSE_METRIC = "clamAV-session-reuse";
+    static final String SESSION_FAILURE_METRIC = "clamAV-session-failure";
+
+    @FunctionalInterface
+    interface SessionFactory {
+        ClamdSession create() throws IOException, MessagingException;
+    }
+
+    @FunctionalInterface
+    interface SessionOperation<T> {
+        T execute(ClamdSession session) throws IOException, MessagingException;
+    }
+
+    private final SessionFactory sessionFactory;
+    private final Duration maxIdleTime;
+    private final Duration pingThreshold;
+    private final Clock clock;
+    private final BlockingDeque<ClamdSession> idleSessions;
+    private final MetricFactory metricFactory;
+    private final Metric sessionReuse;
+    private final Metric sessionFailure;
+
+    ClamdSessionPool(SessionFactory sessionFactory, int maxIdleSessions, Duration maxIdleTime, Duration pingThreshold,
+                     Clock clock, MetricFactory metricFactory) {
+        this.sessionFactory = sessionFactory;
+        this.maxIdleTime = maxIdleTime;
+        this.pingThreshold = pingThreshold;
+        this.clock = clock;
+        this.idleSessions = new LinkedBlockingDeque<>(maxIdleSessions);
+        this.metricFactory = metricFactory;
+        this.sessionReuse = metricFactory.generate(SESSION_REUSE_METRIC);
+        this.sessionFailure = metricFactory.generate(SESSION_FAILURE_METRIC);
+    }
+
+    /**
+     * Executes an operation on a pooled session, or on a new one if none is
+     * available.
+     *
+     * @throws MessagingException if the operation failed, or if no session
+     *         could be opened
+     */
+    <T> T execute(SessionOperation<T> operation) throws MessagingException {
+        Optional<ClamdSession> idleSession = pollIdleSession();
+        if (idleSession.isPresent()) {
+            sessionReuse.increment();
+            try {
+                return executeAndRelease(idleSession.get(), operation);
+            } catch (IOException e) {
+                sessionFailure.increment();
+                LOGGER.debug("Pooled CLAMD session on {} failed, retrying on a new session", idleSession.get().getInetAddress(), e);
+            }
+        }
+
+        ClamdSession session = createSession();
+        try {
+            return executeAndRelease(session, operation);
+        } catch (IOException e) {
+            sessionFailure.increment();
+            throw new MessagingException("Exception caught calling CLAMD on " + session.getInetAddress(), e);
+        }
+    }
+
+    int idleSessionCount() {
+        return idleSessions.size();
+    }
+
+    @Override
+    public void close() {
+        ClamdSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            session.close();
+        }
+    }
+
+    private <T> T executeAndRelease(ClamdSession session, SessionOperation<T> operation) throws IOException, MessagingException {
+        try {
+            T result = operation.execute(session);
+            release(session);
+            return result;
+        } catch (IOException | MessagingException | RuntimeException e) {
+            // the session state is unknown
+            session.close();
+            throw e;
+        }
+    }
+
+    private ClamdSession createSession() throws MessagingException {
+        TimeMetric timeMetric = metricFactory.timer(SESSION_CREATION_METRIC);
+        try {
+            return sessionFactory.create();
+        } catch (IOException e) {
+            sessionFailure.increment();
+            throw new MessagingException("Unable to open a CLAMD session", e);
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
+
+    private Optional<ClamdSession> pollIdleSession() {
+        ClamdSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            if (isExpired(session)) {
+                session.close();
+            } else if (needsPing(session) && !isAlive(session)) {
+                sessionFailure.increment();
+                session.close();
+            } else {
+                return Optional.of(session);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isExpired(ClamdSession session) {
+        return session.getLastUsedAt().plus(maxIdleTime).isBefore(clock.instant());
+    }
+
+    private boolean needsPing(ClamdSession session) {
+        return session.getLastUsedAt().plus(pingThreshold).isBefore(clock.instant());
+    }
+
+    private boolean isAlive(ClamdSession session) {
+        try {
+            return session.ping();
+        } catch (IOException e) {
+            LOGGER.debug("Pooled CLAMD session on {} did not answer to PING", session.getInetAddress(), e);
+            return false;
+        }
+    }
+
+    private void release(ClamdSession session) {
+        session.markUsed(clock.instant());
+        if (!idleSessions.offerFirst(session)) {
+            session.close();
+        }
+        closeExpiredSessions();
+    }
+
+    /**
+     * Sessions are reused from the head of the deque, so the least recently
+     * used ones, at its tail, may expire without being polled.
+     */
+    private void closeExpiredSessions() {
+        ClamdSession session;
+        while ((session = idleSessions.peekLast()) != null && isExpired(session)) {
+            if (idleSessions.removeLastOccurrence(session)) {
+                session.close();
+            }
+        }
+    }
+}
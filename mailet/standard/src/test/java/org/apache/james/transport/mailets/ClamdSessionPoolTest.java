@@ -0,0 +1,297 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClamdSessionPoolTest {
+
+    private static final Instant NOW = Instant.parse("2018-04-01T10:00:00Z");
+    private static final Duration MAX_IDLE_TIME = Duration.ofSeconds(20);
+    private static final Duration PING_THRESHOLD = Duration.ofSeconds(5);
+    private static final int STREAM_BUFFER_SIZE = 16;
+    private static final String VIRUS = "EICAR-STANDARD-ANTIVIRUS-TEST-FILE";
+
+    private FakeClamd clamd;
+    private Clock clock;
+    private ClamdSessionPool testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clamd = new FakeClamd();
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        testee = new ClamdSessionPool(
+            () -> ClamdSession.open(new Socket(InetAddress.getLoopbackAddress(), clamd.getPort()), STREAM_BUFFER_SIZE, clock.instant()),
+            2,
+            MAX_IDLE_TIME,
+            PING_THRESHOLD,
+            clock,
+            new NoopMetricFactory());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        testee.close();
+        clamd.close();
+    }
+
+    @Test
+    void scanShouldReturnOkForCleanMessage() throws Exception {
+        assertThat(testee.execute(session -> session.scan(message("A clean message body, longer than a chunk"))))
+            .isEqualTo("stream: OK");
+    }
+
+    @Test
+    void scanShouldReturnFoundForInfectedMessage() throws Exception {
+        assertThat(testee.execute(session -> session.scan(message(VIRUS))))
+            .isEqualTo("stream: Eicar-Test-Signature FOUND");
+    }
+
+    @Test
+    void pingShouldSucceedOnASession() throws Exception {
+        assertThat(testee.execute(ClamdSession::ping)).isTrue();
+    }
+
+    @Test
+    void sessionsShouldBeReused() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+        testee.execute(session -> session.scan(message("second")));
+        testee.execute(ClamdSession::ping);
+
+        assertThat(clamd.getConnectionCount()).isEqualTo(1);
+        assertThat(testee.idleSessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredSessionsShouldNotBeReused() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+
+        when(clock.instant()).thenReturn(NOW.plus(MAX_IDLE_TIME).plusSeconds(1));
+        testee.execute(session -> session.scan(message("second")));
+
+        assertThat(clamd.getConnectionCount()).isEqualTo(2);
+        assertThat(testee.idleSessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recentlyUsedSessionsShouldNotBePinged() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+        testee.execute(session -> session.scan(message("second")));
+
+        assertThat(clamd.getPingCount()).isEqualTo(0);
+    }
+
+    @Test
+    void staleSessionsShouldBePingedBeforeBeingReused() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+
+        when(clock.instant()).thenReturn(NOW.plus(PING_THRESHOLD).plusSeconds(1));
+        testee.execute(session -> session.scan(message("second")));
+
+        assertThat(clamd.getPingCount()).isEqualTo(1);
+        assertThat(clamd.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void staleSessionsNotAnsweringPingShouldBeReplacedBeforeExecutingTheOperation() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+        clamd.closeOpenedConnections();
+        AtomicInteger executionCount = new AtomicInteger();
+
+        when(clock.instant()).thenReturn(NOW.plus(PING_THRESHOLD).plusSeconds(1));
+        String answer = testee.execute(session -> {
+            executionCount.incrementAndGet();
+            return session.scan(message("second"));
+        });
+
+        assertThat(answer).isEqualTo("stream: OK");
+        assertThat(executionCount.get()).isEqualTo(1);
+        assertThat(clamd.getConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void executeShouldRetryOnANewSessionWhenAPooledSessionIsBroken() throws Exception {
+        testee.execute(session -> session.scan(message("first")));
+        clamd.closeOpenedConnections();
+
+        assertThat(testee.execute(session -> session.scan(message("second"))))
+            .isEqualTo("stream: OK");
+        assertThat(clamd.getConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void idleSessionsShouldBeBounded() throws Exception {
+        ClamdSessionPool.SessionOperation<Object> nestedScans = session1 ->
+            testee.execute(session2 ->
+                testee.execute(session3 -> session3.scan(message("nested"))));
+
+        testee.execute(nestedScans);
+
+        assertThat(clamd.getConnectionCount()).isEqualTo(3);
+        assertThat(testee.idleSessionCount()).isEqualTo(2);
+    }
+
+    private MimeMessage message(String text) throws MessagingException {
+        return MimeMessageBuilder.mimeMessageBuilder()
+            .setSubject("test")
+            .setText(text)
+            .build();
+    }
+
+    /**
+     * Minimal CLAMD speaking the session commands, reporting messages
+     * containing the EICAR test string as infected.
+     */
+    private static class FakeClamd implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor;
+        private final AtomicInteger connectionCount;
+        private final AtomicInteger pingCount;
+        private final List<Socket> connections;
+
+        FakeClamd() throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.executor = Executors.newCachedThreadPool();
+            this.connectionCount = new AtomicInteger();
+            this.pingCount = new AtomicInteger();
+            this.connections = new CopyOnWriteArrayList<>();
+            executor.submit(this::acceptConnections);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return connectionCount.get();
+        }
+
+        int getPingCount() {
+            return pingCount.get();
+        }
+
+        void closeOpenedConnections() throws IOException {
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            closeOpenedConnections();
+            executor.shutdownNow();
+        }
+
+        private Void acceptConnections() throws IOException {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                connections.add(socket);
+                executor.submit(() -> serve(socket));
+            }
+            return null;
+        }
+
+        private Void serve(Socket socket) throws IOException {
+            try (Socket closeable = socket) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                int requestId = 0;
+                String command;
+                while ((command = readCommand(in)) != null) {
+                    switch (command) {
+                        case "zIDSESSION":
+                            break;
+                        case "zPING":
+                            pingCount.incrementAndGet();
+                            reply(out, ++requestId, "PONG");
+                            break;
+                        case "zINSTREAM":
+                            String content = readChunks(in);
+                            reply(out, ++requestId, content.contains(VIRUS) ? "stream: Eicar-Test-Signature FOUND" : "stream: OK");
+                            break;
+                        default:
+                            return null;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private String readCommand(InputStream in) throws IOException {
+            ByteArrayOutputStream command = new ByteArrayOutputStream();
+            int read;
+            while ((read = in.read()) != 0) {
+                if (read == -1) {
+                    return null;
+                }
+                command.write(read);
+            }
+            return new String(command.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        private String readChunks(DataInputStream in) throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            int length;
+            while ((length = in.readInt()) > 0) {
+                byte[] chunk = new byte[length];
+                in.readFully(chunk);
+                content.write(chunk);
+            }
+            return new String(content.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        private void reply(OutputStream out, int requestId, String reply) throws IOException {
+            out.write((requestId + ": " + reply + "\0").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+    }
+}
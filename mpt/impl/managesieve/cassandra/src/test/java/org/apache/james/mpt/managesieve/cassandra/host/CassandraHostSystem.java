@@ -56,14 +56,14 @@ public class CassandraHostSystem extends JamesManageSieveHostSystem {
     @Override
     protected SieveRepository createSieveRepository() throws Exception {
         return new CassandraSieveRepository(
-            new CassandraSieveDAO(cassandra.getConf()),
-            new CassandraSieveQuotaDAO(cassandra.getConf()),
-            new CassandraActiveScriptDAO(cassandra.getConf()));
+            new CassandraSieveDAO(cassandra.getConf(), cassandra.getExecutor()),
+            new CassandraSieveQuotaDAO(cassandra.getConf(), cassandra.getExecutor()),
+            new CassandraActiveScriptDAO(cassandra.getConf(), cassandra.getExecutor()));
     }
 
     @Override
     protected UsersRepository createUsersRepository() {
-        CassandraUsersRepository cassandraUsersRepository = new CassandraUsersRepository(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        CassandraUsersRepository cassandraUsersRepository = new CassandraUsersRepository(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
         cassandraUsersRepository.setEnableVirtualHosting(false);
         return cassandraUsersRepository;
     }
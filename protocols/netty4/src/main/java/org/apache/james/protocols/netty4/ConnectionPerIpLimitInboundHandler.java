@@ -0,0 +1,85 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Close new connections once the given count of concurrent connections from the same ip is reached
+ */
+@Sharable
+public class ConnectionPerIpLimitInboundHandler extends ChannelInboundHandlerAdapter {
+
+    private final ConcurrentMap<String, AtomicInteger> connections = new ConcurrentHashMap<>();
+    private volatile int maxConnectionsPerIp = -1;
+
+    public ConnectionPerIpLimitInboundHandler(int maxConnectionsPerIp) {
+        this.maxConnectionsPerIp = maxConnectionsPerIp;
+    }
+
+    public int getConnections(String ip) {
+        AtomicInteger count = connections.get(ip);
+        if (count == null) {
+            return 0;
+        } else {
+            return count.get();
+        }
+    }
+
+    public void setMaxConnectionsPerIp(int maxConnectionsPerIp) {
+        this.maxConnectionsPerIp = maxConnectionsPerIp;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        if (maxConnectionsPerIp > 0) {
+            int count = connections.computeIfAbsent(remoteIp(ctx), ip -> new AtomicInteger())
+                .incrementAndGet();
+            if (count > maxConnectionsPerIp) {
+                ctx.close();
+                return;
+            }
+        }
+
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (maxConnectionsPerIp > 0) {
+            AtomicInteger atomicCount = connections.get(remoteIp(ctx));
+            if (atomicCount != null) {
+                atomicCount.decrementAndGet();
+            }
+        }
+        super.channelInactive(ctx);
+    }
+
+    private String remoteIp(ChannelHandlerContext ctx) {
+        InetSocketAddress remoteAddress = (InetSocketAddress) ctx.channel().remoteAddress();
+        return remoteAddress.getAddress().getHostAddress();
+    }
+}
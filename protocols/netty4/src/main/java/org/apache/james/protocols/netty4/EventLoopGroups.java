@@ -0,0 +1,121 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Boss and worker {@link EventLoopGroup}s, which can be shared by all the {@link Netty4Server}s of a process.
+ *
+ * The native epoll transport is used when it is available, NIO otherwise. The groups are not owned by the
+ * servers using them: {@link #shutdown()} needs to be called once all of these servers are unbound.
+ */
+public class EventLoopGroups {
+
+    public static final int DEFAULT_BOSS_COUNT = 1;
+    public static final int DEFAULT_IO_WORKER_COUNT = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final String BOSS_POOL_NAME = "james-netty-boss";
+    private static final String WORKER_POOL_NAME = "james-netty-worker";
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 15;
+
+    public static EventLoopGroups create() {
+        return create(DEFAULT_BOSS_COUNT, DEFAULT_IO_WORKER_COUNT);
+    }
+
+    /**
+     * @param bossCount the thread count accepting connections. Should not be lower than the acceptor count of the servers
+     * @param ioWorkerCount the thread count handling the IO of the connections
+     */
+    public static EventLoopGroups create(int bossCount, int ioWorkerCount) {
+        if (Epoll.isAvailable()) {
+            return epoll(bossCount, ioWorkerCount);
+        }
+        return nio(bossCount, ioWorkerCount);
+    }
+
+    public static EventLoopGroups epoll(int bossCount, int ioWorkerCount) {
+        Epoll.ensureAvailability();
+        return new EventLoopGroups(
+            new EpollEventLoopGroup(bossCount, new DefaultThreadFactory(BOSS_POOL_NAME)),
+            new EpollEventLoopGroup(ioWorkerCount, new DefaultThreadFactory(WORKER_POOL_NAME)),
+            EpollServerSocketChannel.class,
+            true);
+    }
+
+    public static EventLoopGroups nio(int bossCount, int ioWorkerCount) {
+        return new EventLoopGroups(
+            new NioEventLoopGroup(bossCount, new DefaultThreadFactory(BOSS_POOL_NAME)),
+            new NioEventLoopGroup(ioWorkerCount, new DefaultThreadFactory(WORKER_POOL_NAME)),
+            NioServerSocketChannel.class,
+            false);
+    }
+
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    private final Class<? extends ServerChannel> serverChannelClass;
+    private final boolean nativeTransport;
+
+    private EventLoopGroups(EventLoopGroup bossGroup, EventLoopGroup workerGroup, Class<? extends ServerChannel> serverChannelClass, boolean nativeTransport) {
+        this.bossGroup = bossGroup;
+        this.workerGroup = workerGroup;
+        this.serverChannelClass = serverChannelClass;
+        this.nativeTransport = nativeTransport;
+    }
+
+    public EventLoopGroup getBossGroup() {
+        return bossGroup;
+    }
+
+    public EventLoopGroup getWorkerGroup() {
+        return workerGroup;
+    }
+
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return serverChannelClass;
+    }
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    /**
+     * Return true if several server sockets can be bound to the same address with SO_REUSEPORT, letting the kernel
+     * balance the incoming connections between them
+     */
+    public boolean isReusePortSupported() {
+        return nativeTransport;
+    }
+
+    public void shutdown() {
+        bossGroup.shutdownGracefully(0, SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        bossGroup.terminationFuture().syncUninterruptibly();
+        workerGroup.terminationFuture().syncUninterruptibly();
+    }
+}
@@ -0,0 +1,69 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import java.nio.ByteBuffer;
+
+import org.apache.james.protocols.api.ProtocolSession;
+import org.apache.james.protocols.api.ProtocolSessionImpl;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.api.handler.LineHandler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+
+/**
+ * {@link io.netty.channel.ChannelInboundHandler} implementation which will call a given {@link LineHandler} implementation
+ *
+ * @param <S>
+ */
+public class LineHandlerInboundHandler<S extends ProtocolSession> extends SimpleChannelInboundHandler<ByteBuf> {
+
+    /**
+     * Return the content of the given line as a {@link ByteBuffer}.
+     *
+     * Direct buffers are exposed without copy, and are thus only valid until the line is released.
+     * Heap buffers are copied, as {@link LineHandler}s read {@link ByteBuffer#array()} from the start.
+     */
+    static ByteBuffer toByteBuffer(ByteBuf line) {
+        if (line.hasArray()) {
+            return ByteBuffer.wrap(ByteBufUtil.getBytes(line));
+        }
+        return line.nioBuffer();
+    }
+
+    private final LineHandler<S> handler;
+    private final S session;
+
+    public LineHandlerInboundHandler(S session, LineHandler<S> handler) {
+        this.handler = handler;
+        this.session = session;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf line) throws Exception {
+        Response response = handler.onLine(session, toByteBuffer(line));
+        if (response != null) {
+            ((ProtocolSessionImpl) session).getProtocolTransport().writeResponse(response, session);
+        }
+    }
+
+}
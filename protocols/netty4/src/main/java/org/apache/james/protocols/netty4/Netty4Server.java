@@ -0,0 +1,395 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.net.ssl.SSLEngine;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+import org.apache.james.protocols.api.ProtocolServer;
+import org.apache.james.protocols.api.handler.ProtocolHandler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+/**
+ * Generic {@link ProtocolServer} running on Netty 4.
+ *
+ * Buffers are allocated from the pooled allocator, and the event loops are taken from the given
+ * {@link EventLoopGroups}, so that they can be shared by several servers. When the native transport is
+ * available, several acceptors can be bound to each listen address with SO_REUSEPORT.
+ *
+ * Only line based protocols built on a {@link Protocol} are supported: IMAP, which has its own pipeline, is not.
+ * In the James server, only the LMTP server can run on it, when configured with the netty4 transport. The other
+ * servers run on the Netty 3 based NettyServer.
+ */
+public class Netty4Server implements ProtocolServer {
+
+    public static class Factory {
+
+        private final EventLoopGroups eventLoopGroups;
+
+        private Protocol protocol;
+        private Optional<Encryption> secure;
+        private Optional<ChannelHandlerFactory> frameHandlerFactory;
+        private Optional<ChannelHandler> coreHandler;
+
+        @Inject
+        public Factory(EventLoopGroups eventLoopGroups) {
+            this.eventLoopGroups = eventLoopGroups;
+            secure = Optional.empty();
+            frameHandlerFactory = Optional.empty();
+            coreHandler = Optional.empty();
+        }
+
+        public Factory protocol(Protocol protocol) {
+            Preconditions.checkNotNull(protocol, "'protocol' is mandatory");
+            this.protocol = protocol;
+            return this;
+        }
+
+        public Factory secure(Encryption secure) {
+            this.secure = Optional.ofNullable(secure);
+            return this;
+        }
+
+        public Factory frameHandlerFactory(ChannelHandlerFactory frameHandlerFactory) {
+            this.frameHandlerFactory = Optional.ofNullable(frameHandlerFactory);
+            return this;
+        }
+
+        /**
+         * Use the given {@link ChannelHandler}, which needs to be sharable, instead of a {@link BasicChannelInboundHandler}
+         */
+        public Factory coreHandler(ChannelHandler coreHandler) {
+            this.coreHandler = Optional.ofNullable(coreHandler);
+            return this;
+        }
+
+        public Netty4Server build() {
+            Preconditions.checkState(protocol != null, "'protocol' is mandatory");
+            return new Netty4Server(protocol,
+                    secure.orElse(null),
+                    frameHandlerFactory.orElse(new LineDelimiterBasedChannelHandlerFactory(LineDelimiterBasedChannelHandlerFactory.MAX_LINE_LENGTH)),
+                    coreHandler,
+                    eventLoopGroups);
+        }
+    }
+
+    private static final String EXECUTOR_POOL_NAME = "james-netty-executor";
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 15;
+
+    protected final Encryption secure;
+    protected final Protocol protocol;
+    private final ChannelHandlerFactory frameHandlerFactory;
+    private final Optional<ChannelHandler> coreHandler;
+    private final EventLoopGroups eventLoopGroups;
+
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final List<Channel> serverChannels = new ArrayList<>();
+
+    private volatile boolean started;
+    private volatile int backlog = 250;
+    private volatile int timeout = 120;
+    private volatile int acceptorCount = 1;
+    private volatile int maxCurConnections;
+    private volatile int maxCurConnectionsPerIP;
+    private volatile int executorThreadCount;
+
+    private EventExecutorGroup executorGroup;
+
+    private List<InetSocketAddress> addresses = new ArrayList<>();
+
+    private Netty4Server(Protocol protocol, Encryption secure, ChannelHandlerFactory frameHandlerFactory,
+                         Optional<ChannelHandler> coreHandler, EventLoopGroups eventLoopGroups) {
+        this.protocol = protocol;
+        this.secure = secure;
+        this.frameHandlerFactory = frameHandlerFactory;
+        this.coreHandler = coreHandler;
+        this.eventLoopGroups = eventLoopGroups;
+    }
+
+    public synchronized void setListenAddresses(InetSocketAddress... addresses) {
+        checkNotStarted();
+        this.addresses = ImmutableList.copyOf(addresses);
+    }
+
+    /**
+     * Set the read/write timeout for the server. This will throw a {@link IllegalStateException} if the
+     * server is running.
+     *
+     * @param timeout
+     */
+    public void setTimeout(int timeout) {
+        checkNotStarted();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Set the Backlog for the socket. This will throw a {@link IllegalStateException} if the server is running.
+     *
+     * @param backlog
+     */
+    public void setBacklog(int backlog) {
+        checkNotStarted();
+        this.backlog = backlog;
+    }
+
+    /**
+     * Set the count of server sockets bound to each listen address. More than one acceptor is only used when the
+     * {@link EventLoopGroups} support SO_REUSEPORT, and should not exceed their boss count.
+     *
+     * @param acceptorCount
+     */
+    public void setAcceptorCount(int acceptorCount) {
+        Preconditions.checkArgument(acceptorCount > 0, "'acceptorCount' should be strictly positive");
+        checkNotStarted();
+        this.acceptorCount = acceptorCount;
+    }
+
+    public int getAcceptorCount() {
+        return acceptorCount;
+    }
+
+    /**
+     * Set true if the {@link ProtocolHandler}s should be run on a dedicated thread pool rather than on the event loop.
+     * This should be done if you have some {@link ProtocolHandler}'s which need to full fill some blocking operation.
+     *
+     * @param useHandler <code>true</code> if a dedicated thread pool should be used
+     * @param size the thread count to use
+     */
+    public void setUseExecutionHandler(boolean useHandler, int size) {
+        checkNotStarted();
+        if (useHandler) {
+            Preconditions.checkArgument(size > 0, "'size' should be strictly positive");
+            executorThreadCount = size;
+        } else {
+            executorThreadCount = 0;
+        }
+    }
+
+    public void setMaxConcurrentConnections(int maxCurConnections) {
+        checkNotStarted();
+        this.maxCurConnections = maxCurConnections;
+    }
+
+    public void setMaxConcurrentConnectionsPerIP(int maxCurConnectionsPerIP) {
+        checkNotStarted();
+        this.maxCurConnectionsPerIP = maxCurConnectionsPerIP;
+    }
+
+    private void checkNotStarted() {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+    }
+
+    protected ChannelHandler createCoreHandler() {
+        return coreHandler.orElseGet(() -> new BasicChannelInboundHandler(protocol, secure));
+    }
+
+    @Override
+    public synchronized void bind() throws Exception {
+        if (started) {
+            throw new IllegalStateException("Server running already");
+        }
+
+        if (addresses.isEmpty()) {
+            throw new RuntimeException("Please specify at least on socketaddress to which the server should get bound!");
+        }
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+            .group(eventLoopGroups.getBossGroup(), eventLoopGroups.getWorkerGroup())
+            .channel(eventLoopGroups.getServerChannelClass())
+            .childHandler(createChannelInitializer());
+        configureBootstrap(bootstrap);
+
+        // Created on each bind, as it is shut down by unbind
+        if (executorThreadCount > 0) {
+            executorGroup = new DefaultEventExecutorGroup(executorThreadCount, new DefaultThreadFactory(EXECUTOR_POOL_NAME));
+        }
+        try {
+            for (InetSocketAddress address : addresses) {
+                Channel channel = bind(bootstrap, address);
+                // Bind the other acceptors to the effective address, as the port may have been chosen by the system
+                for (int i = 1; i < effectiveAcceptorCount(); i++) {
+                    bind(bootstrap, (InetSocketAddress) channel.localAddress());
+                }
+            }
+        } catch (Exception e) {
+            closeChannels();
+            shutdownExecutorGroup();
+            throw e;
+        }
+        started = true;
+    }
+
+    private Channel bind(ServerBootstrap bootstrap, InetSocketAddress address) throws InterruptedException {
+        Channel channel = bootstrap.bind(address).sync().channel();
+        channels.add(channel);
+        serverChannels.add(channel);
+        return channel;
+    }
+
+    private int effectiveAcceptorCount() {
+        if (eventLoopGroups.isReusePortSupported()) {
+            return acceptorCount;
+        }
+        return 1;
+    }
+
+    /**
+     * Configure the bootstrap before it get bound
+     *
+     * @param bootstrap
+     */
+    protected void configureBootstrap(ServerBootstrap bootstrap) {
+        bootstrap.option(ChannelOption.SO_BACKLOG, backlog)
+            .option(ChannelOption.SO_REUSEADDR, true)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        if (effectiveAcceptorCount() > 1) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+    }
+
+    private ChannelInitializer<Channel> createChannelInitializer() {
+        ChannelHandler coreHandler = createCoreHandler();
+        ConnectionLimitInboundHandler connectionLimitHandler = new ConnectionLimitInboundHandler(maxCurConnections);
+        ConnectionPerIpLimitInboundHandler connectionPerIpLimitHandler = new ConnectionPerIpLimitInboundHandler(maxCurConnectionsPerIP);
+
+        return new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) throws Exception {
+                channels.add(channel);
+
+                ChannelPipeline pipeline = channel.pipeline();
+                if (isSSLSocket()) {
+                    pipeline.addLast(HandlerConstants.SSL_HANDLER, new SslHandler(createSSLEngine()));
+                }
+                pipeline.addLast(HandlerConstants.CONNECTION_LIMIT_HANDLER, connectionLimitHandler);
+                pipeline.addLast(HandlerConstants.CONNECTION_PER_IP_LIMIT_HANDLER, connectionPerIpLimitHandler);
+
+                // Add the text line decoder which limit the max line length, don't strip the delimiter and use CRLF as delimiter
+                pipeline.addLast(HandlerConstants.FRAMER, frameHandlerFactory.create(pipeline));
+
+                // Add the ChunkedWriteHandler to be able to write ChunkInput
+                pipeline.addLast(HandlerConstants.CHUNK_HANDLER, new ChunkedWriteHandler());
+                pipeline.addLast(HandlerConstants.TIMEOUT_HANDLER, new TimeoutHandler(timeout));
+
+                // The core handler runs on the event loop of the channel unless an execution handler is used
+                pipeline.addLast(executorGroup, HandlerConstants.CORE_HANDLER, coreHandler);
+            }
+        };
+    }
+
+    private boolean isSSLSocket() {
+        return secure != null && secure.getContext() != null && !secure.isStartTLS();
+    }
+
+    private SSLEngine createSSLEngine() {
+        // We need to set clientMode to false.
+        // See https://issues.apache.org/jira/browse/JAMES-1025
+        SSLEngine engine = secure.getContext().createSSLEngine();
+        engine.setUseClientMode(false);
+        String[] enabledCipherSuites = secure.getEnabledCipherSuites();
+        if (enabledCipherSuites != null && enabledCipherSuites.length > 0) {
+            engine.setEnabledCipherSuites(enabledCipherSuites);
+        }
+        return engine;
+    }
+
+    @Override
+    public synchronized void unbind() {
+        if (started == false) {
+            return;
+        }
+        closeChannels();
+        shutdownExecutorGroup();
+        started = false;
+    }
+
+    private void closeChannels() {
+        channels.close().awaitUninterruptibly();
+        serverChannels.clear();
+    }
+
+    private void shutdownExecutorGroup() {
+        if (executorGroup != null) {
+            executorGroup.shutdownGracefully(0, SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS).syncUninterruptibly();
+            executorGroup = null;
+        }
+    }
+
+    @VisibleForTesting
+    Optional<EventExecutorGroup> getExecutorGroup() {
+        return Optional.ofNullable(executorGroup);
+    }
+
+    @Override
+    public synchronized List<InetSocketAddress> getListenAddresses() {
+        ImmutableSet.Builder<InetSocketAddress> builder = ImmutableSet.builder();
+        for (Channel channel : serverChannels) {
+            builder.add((InetSocketAddress) channel.localAddress());
+        }
+        return builder.build().asList();
+    }
+
+    @Override
+    public int getBacklog() {
+        return backlog;
+    }
+
+    @Override
+    public int getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public boolean isBound() {
+        return started;
+    }
+}
@@ -0,0 +1,78 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class ConnectionLimitInboundHandlerTest {
+
+    @Sharable
+    private static class ActiveCountingHandler extends ChannelInboundHandlerAdapter {
+        private final AtomicInteger activeCount = new AtomicInteger();
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            activeCount.incrementAndGet();
+            super.channelActive(ctx);
+        }
+    }
+
+    @Test
+    public void channelActiveShouldBePropagatedWhenUnderTheLimit() {
+        ConnectionLimitInboundHandler connectionLimitHandler = new ConnectionLimitInboundHandler(1);
+        ActiveCountingHandler nextHandler = new ActiveCountingHandler();
+
+        EmbeddedChannel channel = new EmbeddedChannel(connectionLimitHandler, nextHandler);
+
+        assertThat(channel.isOpen(), is(true));
+        assertThat(nextHandler.activeCount.get(), is(1));
+    }
+
+    @Test
+    public void channelActiveShouldNotBePropagatedWhenOverTheLimit() {
+        ConnectionLimitInboundHandler connectionLimitHandler = new ConnectionLimitInboundHandler(1);
+        ActiveCountingHandler nextHandler = new ActiveCountingHandler();
+        new EmbeddedChannel(connectionLimitHandler, nextHandler);
+
+        EmbeddedChannel channel = new EmbeddedChannel(connectionLimitHandler, nextHandler);
+
+        assertThat(channel.isOpen(), is(false));
+        assertThat(nextHandler.activeCount.get(), is(1));
+    }
+
+    @Test
+    public void channelInactiveShouldReleaseTheConnection() {
+        ConnectionLimitInboundHandler connectionLimitHandler = new ConnectionLimitInboundHandler(1);
+        EmbeddedChannel channel = new EmbeddedChannel(connectionLimitHandler);
+
+        channel.close();
+
+        assertThat(connectionLimitHandler.getConnections(), is(0));
+    }
+}
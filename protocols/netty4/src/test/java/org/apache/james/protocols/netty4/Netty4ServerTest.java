@@ -0,0 +1,177 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.netty4;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.net.InetSocketAddress;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+public class Netty4ServerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private EventLoopGroups eventLoopGroups;
+
+    @Before
+    public void setup() {
+        eventLoopGroups = EventLoopGroups.create(2, 1);
+    }
+
+    @After
+    public void teardown() {
+        eventLoopGroups.shutdown();
+    }
+
+    @Test
+    public void protocolShouldThrowWhenProtocolIsNull() {
+        expectedException.expect(NullPointerException.class);
+        new Netty4Server.Factory(eventLoopGroups).protocol(null);
+    }
+
+    @Test
+    public void buildShouldThrowWhenProtocolIsNotGiven() {
+        expectedException.expect(IllegalStateException.class);
+        new Netty4Server.Factory(eventLoopGroups)
+            .build();
+    }
+
+    @Test
+    public void buildShouldWorkWhenEverythingIsGiven() throws Exception {
+        Protocol protocol = mock(Protocol.class);
+        Encryption encryption = Encryption.createStartTls(SSLContext.getDefault());
+        ChannelHandlerFactory channelHandlerFactory = mock(ChannelHandlerFactory.class);
+        new Netty4Server.Factory(eventLoopGroups)
+            .protocol(protocol)
+            .secure(encryption)
+            .frameHandlerFactory(channelHandlerFactory)
+            .build();
+    }
+
+    @Test
+    public void createCoreHandlerShouldDefaultToBasicChannelInboundHandler() {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+
+        assertThat(server.createCoreHandler(), instanceOf(BasicChannelInboundHandler.class));
+    }
+
+    @Test
+    public void createCoreHandlerShouldReturnTheGivenCoreHandler() {
+        ChannelHandler coreHandler = mock(ChannelHandler.class);
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .coreHandler(coreHandler)
+            .build();
+
+        assertThat(server.createCoreHandler(), sameInstance(coreHandler));
+    }
+
+    @Test
+    public void setAcceptorCountShouldThrowWhenNotPositive() {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+        server.setAcceptorCount(0);
+    }
+
+    @Test
+    public void getListenAddressesShouldReturnEachAddressOnceWhenSeveralAcceptors() throws Exception {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress("127.0.0.1", 0));
+        server.setAcceptorCount(2);
+
+        server.bind();
+        try {
+            assertThat(server.getListenAddresses().size(), is(1));
+        } finally {
+            server.unbind();
+        }
+    }
+
+    @Test
+    public void unbindShouldShutdownTheExecutionHandlerThreads() throws Exception {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress("127.0.0.1", 0));
+        server.setUseExecutionHandler(true, 2);
+
+        server.bind();
+        EventExecutorGroup executorGroup = server.getExecutorGroup().get();
+        server.unbind();
+
+        assertThat(executorGroup.isTerminated(), is(true));
+        assertThat(server.getExecutorGroup().isPresent(), is(false));
+    }
+
+    @Test
+    public void bindShouldUseANewExecutionHandlerAfterUnbind() throws Exception {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress("127.0.0.1", 0));
+        server.setUseExecutionHandler(true, 2);
+
+        server.bind();
+        server.unbind();
+        server.bind();
+        try {
+            assertThat(server.getExecutorGroup().get().isShuttingDown(), is(false));
+        } finally {
+            server.unbind();
+        }
+    }
+
+    @Test
+    public void unbindShouldReleaseListenAddresses() throws Exception {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress("127.0.0.1", 0));
+
+        server.bind();
+        server.unbind();
+
+        assertThat(server.isBound(), is(false));
+        assertThat(server.getListenAddresses().isEmpty(), is(true));
+    }
+}
@@ -21,42 +21,100 @@ package org.apache.james.protocols.pop3.core;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
 
 
 /**
  * Adds extra dot if dot occurs in message body at beginning of line (according
  * to RFC1939)
+ *
+ * The content is read and copied by chunks: only the line starts need to be
+ * inspected, the bytes in between are copied in bulk.
  */
 public class ExtraDotInputStream extends InputStream {
 
-    boolean startLine = true;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean startLine;
+    private boolean dotStuffed;
     private int last;
-    private final PushbackInputStream in;
 
     public ExtraDotInputStream(InputStream in) {
-        this.in = new PushbackInputStream(in, 2);
-        startLine = true;
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.startLine = true;
     }
-    
+
     @Override
     public int read() throws IOException {
-       int i = in.read();
-       if (startLine) {
-           startLine = false;
-           if (i == '.') {
-                in.unread(i);
-               return '.';
-           }
-           
-       }
-      
-       if (last == '\r' && i == '\n') {
-           startLine = true;
-       }
-       last = i;
-       return i;
-       
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        if (startLine && !dotStuffed && buffer[position] == '.') {
+            dotStuffed = true;
+            return '.';
+        }
+        byte current = buffer[position++];
+        startLine = current == '\n' && last == '\r';
+        dotStuffed = false;
+        last = current;
+        return current & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !fill()) {
+            return -1;
+        }
+
+        int written = 0;
+        while (written < len && position < limit) {
+            if (startLine && !dotStuffed && buffer[position] == '.') {
+                b[off + written++] = '.';
+                dotStuffed = true;
+                continue;
+            }
+            int end = Math.min(limit, position + len - written);
+            int segmentEnd = end;
+            boolean lineEnded = false;
+            int previous = last;
+            for (int i = position; i < end; i++) {
+                byte current = buffer[i];
+                if (current == '\n' && previous == '\r') {
+                    segmentEnd = i + 1;
+                    lineEnded = true;
+                    break;
+                }
+                previous = current;
+            }
+            int segmentLength = segmentEnd - position;
+            System.arraycopy(buffer, position, b, off + written, segmentLength);
+            written += segmentLength;
+            position = segmentEnd;
+            last = buffer[segmentEnd - 1];
+            startLine = lineEnded;
+            dotStuffed = false;
+        }
+        return written;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        while (read == 0) {
+            read = in.read(buffer, 0, buffer.length);
+        }
+        if (read == -1) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
     }
 
     @Override
@@ -66,7 +124,7 @@ public class ExtraDotInputStream extends InputStream {
 
     @Override
     public int available() throws IOException {
-        return in.available();
+        return (limit - position) + in.available();
     }
 
     @Override
@@ -20,6 +20,7 @@
 package org.apache.james.protocols.pop3.core;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 public class ExtraDotInputStreamTest extends AbstractInputStreamTest {
@@ -71,8 +72,53 @@ public class ExtraDotInputStreamTest extends AbstractInputStreamTest {
         checkReadViaArray(new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes())), data);
 
     }
-   
 
+    public void testExtraDotOnFirstLine() throws IOException {
+        String data = ".This\r\nThis.\r\n";
+        String expected = "..This\r\nThis.\r\n";
+
+        checkRead(new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes())), expected);
+        checkReadViaArray(new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes())), expected);
+    }
+
+    public void testNoExtraDotAfterLoneLineFeed() throws IOException {
+        String data = "This\n.\rThis.\r\n";
+
+        checkRead(new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes())), data);
+        checkReadViaArray(new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes())), data);
+    }
+
+    public void testExtraDotOnContentLargerThanBuffer() throws IOException {
+        StringBuilder data = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            data.append(".line ").append(i).append("\r\n");
+            expected.append("..line ").append(i).append("\r\n");
+        }
+
+        checkRead(new ExtraDotInputStream(new ByteArrayInputStream(data.toString().getBytes())), expected.toString());
+        checkReadViaArray(new ExtraDotInputStream(new ByteArrayInputStream(data.toString().getBytes())), expected.toString());
+    }
+
+    public void testExtraDotWhenMixingSingleByteAndArrayReads() throws IOException {
+        String data = "a\r\n.b\r\n.\r\nc\r\n";
+        ExtraDotInputStream in = new ExtraDotInputStream(new ByteArrayInputStream(data.getBytes()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        byte[] buf = new byte[2];
+        int read = in.read(buf);
+        while (read != -1) {
+            out.write(buf, 0, read);
+            int single = in.read();
+            if (single == -1) {
+                break;
+            }
+            out.write(single);
+            read = in.read(buf);
+        }
+        in.close();
+
+        assertEquals("a\r\n..b\r\n..\r\nc\r\n", new String(out.toByteArray()));
+    }
 
-    
 }
@@ -0,0 +1,64 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.protocols.smtp.netty;
+
+import java.net.InetSocketAddress;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+import org.apache.james.protocols.api.ProtocolServer;
+import org.apache.james.protocols.netty4.EventLoopGroups;
+import org.apache.james.protocols.netty4.Netty4Server;
+import org.apache.james.protocols.smtp.AbstractSMTPSServerTest;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Integration tests which use netty 4 implementation
+ * 
+ *
+ */
+public class Netty4SMTPSServerTest extends AbstractSMTPSServerTest {
+
+    private static final String LOCALHOST_IP = "127.0.0.1";
+    private static final int RANDOM_PORT = 0;
+
+    private EventLoopGroups eventLoopGroups;
+
+    @Before
+    public void setup() {
+        eventLoopGroups = EventLoopGroups.create();
+    }
+
+    @After
+    public void teardown() {
+        eventLoopGroups.shutdown();
+    }
+
+    @Override
+    protected ProtocolServer createEncryptedServer(Protocol protocol, Encryption enc) {
+        Netty4Server server = new Netty4Server.Factory(eventLoopGroups)
+                .protocol(protocol)
+                .secure(enc)
+                .build();
+        server.setListenAddresses(new InetSocketAddress(LOCALHOST_IP, RANDOM_PORT));
+        return server;
+    }
+
+}
@@ -65,8 +65,8 @@ public class CassandraBlobsDAO implements ObjectStore {
     private final CassandraBlobId.Factory blobIdFactory;
 
     @Inject
-    public CassandraBlobsDAO(Session session, CassandraConfiguration cassandraConfiguration, CassandraBlobId.Factory blobIdFactory) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraBlobsDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraConfiguration cassandraConfiguration, CassandraBlobId.Factory blobIdFactory) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.configuration = cassandraConfiguration;
         this.blobIdFactory = blobIdFactory;
         this.dataChunker = new DataChunker();
@@ -78,8 +78,8 @@ public class CassandraBlobsDAO implements ObjectStore {
     }
 
     @VisibleForTesting
-    public CassandraBlobsDAO(Session session) {
-        this(session, CassandraConfiguration.DEFAULT_CONFIGURATION, new CassandraBlobId.Factory());
+    public CassandraBlobsDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this(session, cassandraAsyncExecutor, CassandraConfiguration.DEFAULT_CONFIGURATION, new CassandraBlobId.Factory());
     }
 
     private PreparedStatement prepareSelect(Session session) {
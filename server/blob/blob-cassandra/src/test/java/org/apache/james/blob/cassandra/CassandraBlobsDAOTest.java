@@ -52,7 +52,7 @@ public class CassandraBlobsDAOTest implements ObjectStoreContract {
         cassandra = CassandraCluster.create(
                 new CassandraBlobModule(), dockerCassandra.getIp(), dockerCassandra.getBindingPort());
         
-        testee = new CassandraBlobsDAO(cassandra.getConf(),
+        testee = new CassandraBlobsDAO(cassandra.getConf(), cassandra.getExecutor(),
             CassandraConfiguration.builder()
                 .blobPartSize(CHUNK_SIZE)
                 .build(),
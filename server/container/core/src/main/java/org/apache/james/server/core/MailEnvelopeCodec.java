@@ -0,0 +1,459 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.mail.internet.AddressException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.Mail;
+import org.apache.mailet.PerRecipientHeaders;
+import org.apache.mailet.PerRecipientHeaders.Header;
+
+/**
+ * Compact binary encoding of the envelope of a {@link Mail}: everything but its message.
+ *
+ * The encoding starts with a magic number followed by a version, so that it can be told apart from the Java
+ * serialization of previous versions (see {@link #isEncoded(byte[])}). Attribute values of common types (strings,
+ * primitive wrappers, byte arrays, dates and mail addresses) are encoded natively, other values are delegated to an
+ * {@link AttributeValueSerializer}.
+ */
+public class MailEnvelopeCodec {
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'J', 'M', 'E'};
+    private static final byte ENVELOPE = 'E';
+    private static final byte ATTRIBUTES = 'A';
+    private static final byte ATTRIBUTE_VALUE = 'V';
+
+    private static final byte NO_SENDER = 0;
+    private static final byte NULL_SENDER = 1;
+    private static final byte SENDER = 2;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte BOOLEAN_VALUE = 2;
+    private static final byte INTEGER_VALUE = 3;
+    private static final byte LONG_VALUE = 4;
+    private static final byte DOUBLE_VALUE = 5;
+    private static final byte FLOAT_VALUE = 6;
+    private static final byte SHORT_VALUE = 7;
+    private static final byte BYTE_VALUE = 8;
+    private static final byte BYTES_VALUE = 9;
+    private static final byte DATE_VALUE = 10;
+    private static final byte MAIL_ADDRESS_VALUE = 11;
+    private static final byte SERIALIZED_VALUE = 127;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Returns true if the given bytes were produced by this codec, false if they are a Java serialization.
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        if (bytes.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final AttributeValueSerializer attributeValueSerializer;
+
+    public MailEnvelopeCodec() {
+        this(new JavaAttributeValueSerializer());
+    }
+
+    public MailEnvelopeCodec(AttributeValueSerializer attributeValueSerializer) {
+        this.attributeValueSerializer = attributeValueSerializer;
+    }
+
+    public byte[] encode(Mail mail) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        encode(mail, bytes);
+        return bytes.toByteArray();
+    }
+
+    public void encode(Mail mail, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        writeHeader(out, ENVELOPE);
+        writeString(out, mail.getName());
+        writeSender(out, mail.getSender());
+        writeRecipients(out, mail.getRecipients());
+        writeString(out, mail.getState());
+        writeString(out, mail.getErrorMessage());
+        writeString(out, mail.getRemoteHost());
+        writeString(out, mail.getRemoteAddr());
+        writeDate(out, mail.getLastUpdated());
+        writeAttributes(out, mail);
+        writePerRecipientHeaders(out, mail.getPerRecipientSpecificHeaders());
+        out.flush();
+    }
+
+    public MailImpl decode(byte[] bytes) throws IOException {
+        return decode(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Returns a mail populated with the decoded envelope, without any message.
+     */
+    public MailImpl decode(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        readHeader(in, ENVELOPE);
+        MailImpl mail = new MailImpl();
+        mail.setName(readString(in));
+        mail.setSender(readSender(in));
+        mail.setRecipients(readRecipients(in));
+        mail.setState(readString(in));
+        mail.setErrorMessage(readString(in));
+        mail.setRemoteHost(readString(in));
+        mail.setRemoteAddr(readString(in));
+        mail.setLastUpdated(readDate(in));
+        mail.setAttributesRaw(readAttributes(in));
+        mail.addAllSpecificHeaderForRecipient(readPerRecipientHeaders(in));
+        return mail;
+    }
+
+    /**
+     * Encodes the attributes of the given mail only.
+     */
+    public byte[] encodeAttributes(Mail mail) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out, ATTRIBUTES);
+        writeAttributes(out, mail);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public HashMap<String, Object> decodeAttributes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        readHeader(in, ATTRIBUTES);
+        return readAttributes(in);
+    }
+
+    public byte[] encodeAttributeValue(Serializable value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeHeader(out, ATTRIBUTE_VALUE);
+        writeValue(out, value);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public Serializable decodeAttributeValue(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        readHeader(in, ATTRIBUTE_VALUE);
+        return readValue(in);
+    }
+
+    private void writeHeader(DataOutputStream out, byte kind) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+    }
+
+    private void readHeader(DataInputStream in, byte expectedKind) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!isEncoded(magic)) {
+            throw new IOException("Not an encoded mail envelope");
+        }
+        int version = in.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("Unsupported mail envelope version " + version);
+        }
+        byte kind = in.readByte();
+        if (kind != expectedKind) {
+            throw new IOException("Expecting " + (char) expectedKind + " but got " + (char) kind);
+        }
+    }
+
+    private void writeSender(DataOutputStream out, MailAddress sender) throws IOException {
+        if (sender == null) {
+            out.writeByte(NO_SENDER);
+        } else if (sender.isNullSender()) {
+            out.writeByte(NULL_SENDER);
+        } else {
+            out.writeByte(SENDER);
+            writeString(out, sender.toString());
+        }
+    }
+
+    private MailAddress readSender(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case NO_SENDER:
+                return null;
+            case NULL_SENDER:
+                return MailAddress.nullSender();
+            case SENDER:
+                return readMailAddress(in);
+            default:
+                throw new IOException("Unknown sender kind " + kind);
+        }
+    }
+
+    private void writeRecipients(DataOutputStream out, Collection<MailAddress> recipients) throws IOException {
+        if (recipients == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, recipients.size());
+        for (MailAddress recipient : recipients) {
+            writeString(out, recipient.toString());
+        }
+    }
+
+    private List<MailAddress> readRecipients(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        List<MailAddress> recipients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recipients.add(readMailAddress(in));
+        }
+        return recipients;
+    }
+
+    private void writeAttributes(DataOutputStream out, Mail mail) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> iterator = mail.getAttributeNames(); iterator.hasNext(); ) {
+            names.add(iterator.next());
+        }
+        writeVarInt(out, names.size());
+        for (String name : names) {
+            writeString(out, name);
+            writeValue(out, mail.getAttribute(name));
+        }
+    }
+
+    private HashMap<String, Object> readAttributes(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        HashMap<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            attributes.put(readString(in), readValue(in));
+        }
+        return attributes;
+    }
+
+    private void writePerRecipientHeaders(DataOutputStream out, PerRecipientHeaders perRecipientHeaders) throws IOException {
+        if (perRecipientHeaders == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        Collection<MailAddress> recipients = perRecipientHeaders.getRecipientsWithSpecificHeaders();
+        writeVarInt(out, recipients.size());
+        for (MailAddress recipient : recipients) {
+            writeString(out, recipient.toString());
+            Collection<Header> headers = perRecipientHeaders.getHeadersForRecipient(recipient);
+            writeVarInt(out, headers.size());
+            for (Header header : headers) {
+                writeString(out, header.getName());
+                writeString(out, header.getValue());
+            }
+        }
+    }
+
+    private PerRecipientHeaders readPerRecipientHeaders(DataInputStream in) throws IOException {
+        PerRecipientHeaders perRecipientHeaders = new PerRecipientHeaders();
+        int recipientCount = readVarInt(in);
+        for (int i = 0; i < recipientCount; i++) {
+            MailAddress recipient = readMailAddress(in);
+            int headerCount = readVarInt(in);
+            for (int j = 0; j < headerCount; j++) {
+                perRecipientHeaders.addHeaderForRecipient(Header.builder()
+                    .name(readString(in))
+                    .value(readString(in)), recipient);
+            }
+        }
+        return perRecipientHeaders;
+    }
+
+    private void writeValue(DataOutputStream out, Serializable value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_VALUE);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER_VALUE);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG_VALUE);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT_VALUE);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT_VALUE);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE_VALUE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES_VALUE);
+            writeBytes(out, (byte[]) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE_VALUE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == MailAddress.class) {
+            out.writeByte(MAIL_ADDRESS_VALUE);
+            writeString(out, value.toString());
+        } else {
+            out.writeByte(SERIALIZED_VALUE);
+            writeBytes(out, attributeValueSerializer.serialize(value));
+        }
+    }
+
+    private Serializable readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL_VALUE:
+                return null;
+            case STRING_VALUE:
+                return readString(in);
+            case BOOLEAN_VALUE:
+                return in.readBoolean();
+            case INTEGER_VALUE:
+                return in.readInt();
+            case LONG_VALUE:
+                return in.readLong();
+            case DOUBLE_VALUE:
+                return in.readDouble();
+            case FLOAT_VALUE:
+                return in.readFloat();
+            case SHORT_VALUE:
+                return in.readShort();
+            case BYTE_VALUE:
+                return in.readByte();
+            case BYTES_VALUE:
+                return readBytes(in);
+            case DATE_VALUE:
+                return new Date(in.readLong());
+            case MAIL_ADDRESS_VALUE:
+                return readMailAddress(in);
+            case SERIALIZED_VALUE:
+                return attributeValueSerializer.deserialize(readBytes(in));
+            default:
+                throw new IOException("Unknown attribute value type " + type);
+        }
+    }
+
+    private void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.getTime());
+    }
+
+    private Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time == NO_DATE ? null : new Date(time);
+    }
+
+    private MailAddress readMailAddress(DataInputStream in) throws IOException {
+        String address = readString(in);
+        try {
+            return new MailAddress(address);
+        } catch (AddressException e) {
+            throw new IOException("Invalid mail address " + address, e);
+        }
+    }
+
+    /**
+     * Strings are encoded as their UTF-8 length plus one followed by their UTF-8 bytes, 0 standing for null.
+     */
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Negative length " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
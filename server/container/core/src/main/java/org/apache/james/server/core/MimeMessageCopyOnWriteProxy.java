@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.Optional;
 
 import javax.activation.DataHandler;
 import javax.mail.Address;
@@ -125,12 +126,27 @@ public class MimeMessageCopyOnWriteProxy extends MimeMessage implements Disposab
      */
     protected synchronized MimeMessage getWrappedMessageForWriting() throws MessagingException {
         if (refCount.getReferenceCount() > 1) {
+            MimeMessage copy = copy(refCount.getWrapped());
             refCount.decrementReferenceCount();
-            refCount = new MessageReferenceTracker(new MimeMessageWrapper(refCount.getWrapped()));
+            refCount = new MessageReferenceTracker(copy);
         }
         return refCount.getWrapped();
     }
 
+    /**
+     * Headers only modifications of a message read from a source are stored on top of the shared source
+     * rather than copying the whole message.
+     */
+    private static MimeMessage copy(MimeMessage original) throws MessagingException {
+        if (original instanceof MimeMessageWrapper) {
+            Optional<MimeMessageWrapper> copy = ((MimeMessageWrapper) original).copySharingSource();
+            if (copy.isPresent()) {
+                return copy.get();
+            }
+        }
+        return new MimeMessageWrapper(original);
+    }
+
     /**
      * Return wrapped mimeMessage
      * 
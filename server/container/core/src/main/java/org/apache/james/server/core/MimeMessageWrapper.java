@@ -28,6 +28,7 @@ import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.util.Enumeration;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.activation.DataHandler;
@@ -160,6 +161,37 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
         }
     }
 
+    /**
+     * Returns a copy of this message reading its body from the same source, its headers being copied in memory.
+     *
+     * The source is then shared by reference counting, and only disposed once every message reading it is disposed.
+     * This is not possible when the body was modified, or when the source content does not live until the source is
+     * disposed, in which case the message needs to be fully copied.
+     */
+    public synchronized Optional<MimeMessageWrapper> copySharingSource() throws MessagingException {
+        if (bodyModified || !isShareable(source)) {
+            return Optional.empty();
+        }
+        if (!(source instanceof SharedMimeMessageSource)) {
+            source = new SharedMimeMessageSource(source);
+        }
+        MimeMessageWrapper copy = new MimeMessageWrapper(session, ((SharedMimeMessageSource) source).newReference());
+        copy.flags = getFlags();
+        if (headersModified) {
+            copy.headers = new MailHeaders(new InternetHeadersInputStream(headers.getAllHeaderLines()));
+            copy.initialHeaderSize = initialHeaderSize;
+            copy.headersModified = true;
+            copy.modified = modified;
+            copy.saved = saved;
+        }
+        return Optional.of(copy);
+    }
+
+    private boolean isShareable(MimeMessageSource source) {
+        return source instanceof MimeMessageInputStreamSource
+            || source instanceof SharedMimeMessageSource;
+    }
+
     /**
      * Overrides default javamail behaviour by not altering the Message-ID by
      * default, see <a href="https://issues.apache.org/jira/browse/JAMES-875">JAMES-875</a> and
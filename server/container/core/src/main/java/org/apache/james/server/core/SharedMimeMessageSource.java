@@ -0,0 +1,111 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+
+/**
+ * Reference to a {@link MimeMessageSource} shared by several messages.
+ *
+ * Each message holds its own reference, obtained through {@link #newReference()}, and disposes it. The underlying
+ * source is only disposed once every reference has been disposed.
+ */
+public class SharedMimeMessageSource extends MimeMessageSource implements Disposable {
+
+    /**
+     * Tracks the references to the underlying source. It is important that this is static otherwise it will keep a
+     * reference to the first reference.
+     */
+    private static class ReferenceTracker {
+        private final MimeMessageSource source;
+        private int referenceCount = 1;
+
+        private ReferenceTracker(MimeMessageSource source) {
+            this.source = source;
+        }
+
+        private synchronized void incrementReferenceCount() {
+            referenceCount++;
+        }
+
+        private synchronized void decrementReferenceCount() {
+            referenceCount--;
+            if (referenceCount == 0) {
+                LifecycleUtil.dispose(source);
+            }
+        }
+
+        private synchronized int getReferenceCount() {
+            return referenceCount;
+        }
+    }
+
+    private final ReferenceTracker tracker;
+    private final AtomicBoolean disposed;
+
+    public SharedMimeMessageSource(MimeMessageSource source) {
+        this(new ReferenceTracker(source));
+    }
+
+    private SharedMimeMessageSource(ReferenceTracker tracker) {
+        this.tracker = tracker;
+        this.disposed = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns a new reference to the underlying source, to be disposed independently of this one.
+     */
+    public SharedMimeMessageSource newReference() {
+        tracker.incrementReferenceCount();
+        return new SharedMimeMessageSource(tracker);
+    }
+
+    public int getReferenceCount() {
+        return tracker.getReferenceCount();
+    }
+
+    @Override
+    public String getSourceId() {
+        return tracker.source.getSourceId();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return tracker.source.getInputStream();
+    }
+
+    @Override
+    public long getMessageSize() throws IOException {
+        return tracker.source.getMessageSize();
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            tracker.decrementReferenceCount();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.PerRecipientHeaders.Header;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class MailEnvelopeCodecTest {
+
+    private MailEnvelopeCodec testee;
+    private MailImpl mail;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new MailEnvelopeCodec();
+        mail = new MailImpl("name", new MailAddress("sender@domain.com"),
+            ImmutableList.of(new MailAddress("rcpt1@domain.com"), new MailAddress("rcpt2@domain.com")));
+        mail.setState("state");
+        mail.setErrorMessage("error");
+        mail.setRemoteHost("host");
+        mail.setRemoteAddr("10.0.0.1");
+        mail.setLastUpdated(new Date(1234567890L));
+    }
+
+    @Test
+    public void decodeShouldReturnEncodedEnvelope() throws Exception {
+        MailImpl decoded = testee.decode(testee.encode(mail));
+
+        assertThat(decoded.getName()).isEqualTo("name");
+        assertThat(decoded.getSender()).isEqualTo(new MailAddress("sender@domain.com"));
+        assertThat(decoded.getRecipients()).containsExactly(new MailAddress("rcpt1@domain.com"), new MailAddress("rcpt2@domain.com"));
+        assertThat(decoded.getState()).isEqualTo("state");
+        assertThat(decoded.getErrorMessage()).isEqualTo("error");
+        assertThat(decoded.getRemoteHost()).isEqualTo("host");
+        assertThat(decoded.getRemoteAddr()).isEqualTo("10.0.0.1");
+        assertThat(decoded.getLastUpdated()).isEqualTo(new Date(1234567890L));
+    }
+
+    @Test
+    public void decodeShouldPreserveNullSender() throws Exception {
+        mail.setSender(MailAddress.nullSender());
+
+        assertThat(testee.decode(testee.encode(mail)).getSender().isNullSender()).isTrue();
+    }
+
+    @Test
+    public void decodeShouldPreserveMissingSender() throws Exception {
+        mail.setSender(null);
+
+        assertThat(testee.decode(testee.encode(mail)).getSender()).isNull();
+    }
+
+    @Test
+    public void decodeShouldPreserveMissingValues() throws Exception {
+        mail.setErrorMessage(null);
+        mail.setLastUpdated(null);
+
+        MailImpl decoded = testee.decode(testee.encode(mail));
+
+        assertThat(decoded.getErrorMessage()).isNull();
+        assertThat(decoded.getLastUpdated()).isNull();
+    }
+
+    @Test
+    public void decodeShouldPreserveAttributesOfAllTypes() throws Exception {
+        mail.setAttribute("string", "value");
+        mail.setAttribute("boolean", true);
+        mail.setAttribute("integer", 42);
+        mail.setAttribute("long", 42L);
+        mail.setAttribute("double", 4.2d);
+        mail.setAttribute("float", 4.2f);
+        mail.setAttribute("short", (short) 42);
+        mail.setAttribute("byte", (byte) 42);
+        mail.setAttribute("bytes", new byte[] {1, 2, 3});
+        mail.setAttribute("date", new Date(42L));
+        mail.setAttribute("address", new MailAddress("attr@domain.com"));
+        mail.setAttribute("list", new ArrayList<>(ImmutableList.of("a", "b")));
+        mail.setAttribute("null", null);
+
+        MailImpl decoded = testee.decode(testee.encode(mail));
+
+        assertThat(decoded.getAttributesRaw()).containsOnlyKeys("string", "boolean", "integer", "long", "double", "float",
+            "short", "byte", "bytes", "date", "address", "list", "null");
+        assertThat(decoded.getAttribute("string")).isEqualTo("value");
+        assertThat(decoded.getAttribute("boolean")).isEqualTo(true);
+        assertThat(decoded.getAttribute("integer")).isEqualTo(42);
+        assertThat(decoded.getAttribute("long")).isEqualTo(42L);
+        assertThat(decoded.getAttribute("double")).isEqualTo(4.2d);
+        assertThat(decoded.getAttribute("float")).isEqualTo(4.2f);
+        assertThat(decoded.getAttribute("short")).isEqualTo((short) 42);
+        assertThat(decoded.getAttribute("byte")).isEqualTo((byte) 42);
+        assertThat((byte[]) decoded.getAttribute("bytes")).containsExactly(1, 2, 3);
+        assertThat(decoded.getAttribute("date")).isEqualTo(new Date(42L));
+        assertThat(decoded.getAttribute("address")).isEqualTo(new MailAddress("attr@domain.com"));
+        assertThat(decoded.getAttribute("list")).isEqualTo(ImmutableList.of("a", "b"));
+        assertThat(decoded.getAttribute("null")).isNull();
+    }
+
+    @Test
+    public void decodeShouldPreservePerRecipientHeaders() throws Exception {
+        MailAddress recipient = new MailAddress("rcpt1@domain.com");
+        Header header = Header.builder().name("X-Custom").value("value").build();
+        mail.addSpecificHeaderForRecipient(header, recipient);
+
+        MailImpl decoded = testee.decode(testee.encode(mail));
+
+        assertThat(decoded.getPerRecipientSpecificHeaders().getHeadersForRecipient(recipient)).containsOnly(header);
+    }
+
+    @Test
+    public void encodeShouldBeSmallerThanJavaSerialization() throws Exception {
+        mail.setAttribute("string", "value");
+        mail.setAttribute("long", 42L);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(mail);
+        }
+
+        assertThat(testee.encode(mail).length).isLessThan(serialized.size());
+    }
+
+    @Test
+    public void isEncodedShouldTellCodecOutputFromJavaSerialization() throws Exception {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(mail);
+        }
+
+        assertThat(MailEnvelopeCodec.isEncoded(testee.encode(mail))).isTrue();
+        assertThat(MailEnvelopeCodec.isEncoded(serialized.toByteArray())).isFalse();
+    }
+
+    @Test
+    public void decodeAttributesShouldReturnEncodedAttributes() throws Exception {
+        mail.setAttribute("string", "value");
+        mail.setAttribute("integer", 42);
+
+        HashMap<String, Object> attributes = testee.decodeAttributes(testee.encodeAttributes(mail));
+
+        assertThat(attributes).containsOnlyKeys("string", "integer");
+        assertThat(attributes.get("string")).isEqualTo("value");
+        assertThat(attributes.get("integer")).isEqualTo(42);
+    }
+
+    @Test
+    public void decodeAttributeValueShouldReturnEncodedValue() throws Exception {
+        MailAddress value = new MailAddress("attr@domain.com");
+
+        assertThat(testee.decodeAttributeValue(testee.encodeAttributeValue(value))).isEqualTo(value);
+    }
+
+    @Test
+    public void decodeShouldUseGivenAttributeValueSerializer() throws Exception {
+        AttributeValueSerializer serializer = new AttributeValueSerializer() {
+            @Override
+            public byte[] serialize(Serializable value) {
+                return new byte[0];
+            }
+
+            @Override
+            public Serializable deserialize(byte[] bytes) {
+                return "custom";
+            }
+        };
+        testee = new MailEnvelopeCodec(serializer);
+        mail.setAttribute("list", new ArrayList<>(ImmutableList.of("a", "b")));
+
+        assertThat(testee.decode(testee.encode(mail)).getAttribute("list")).isEqualTo("custom");
+    }
+
+    @Test
+    public void decodeShouldThrowOnUnsupportedVersion() throws Exception {
+        byte[] encoded = testee.encode(mail);
+        encoded[3] = (byte) (MailEnvelopeCodec.VERSION + 1);
+
+        assertThatThrownBy(() -> testee.decode(encoded)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void decodeAttributesShouldThrowOnEnvelope() throws Exception {
+        assertThatThrownBy(() -> testee.decodeAttributes(testee.encode(mail))).isInstanceOf(IOException.class);
+    }
+}
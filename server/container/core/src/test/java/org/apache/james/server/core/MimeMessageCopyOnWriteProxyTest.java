@@ -26,6 +26,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 
 import javax.mail.MessagingException;
@@ -250,6 +251,38 @@ public class MimeMessageCopyOnWriteProxyTest extends MimeMessageFromStreamTest {
         LifecycleUtil.dispose(mm);
     }
 
+    @Test
+    public void headerModificationShouldShareTheSourceOfTheBody() throws Exception {
+        MimeMessageCopyOnWriteProxy original = (MimeMessageCopyOnWriteProxy) getMessageFromSources(content + sep + body);
+        MimeMessageCopyOnWriteProxy copy = new MimeMessageCopyOnWriteProxy(original);
+
+        copy.setSubject("new Subject");
+
+        assertFalse(isSameMimeMessage(original, copy));
+        assertEquals(((MimeMessageWrapper) getWrappedMessage(original)).getSourceId(),
+            ((MimeMessageWrapper) getWrappedMessage(copy)).getSourceId());
+        assertEquals("foo", original.getSubject());
+        assertEquals("new Subject", copy.getSubject());
+        LifecycleUtil.dispose(original);
+        LifecycleUtil.dispose(copy);
+    }
+
+    @Test
+    public void sharedSourceShouldRemainReadableOnceTheOriginalIsDisposed() throws Exception {
+        MimeMessageCopyOnWriteProxy original = (MimeMessageCopyOnWriteProxy) getMessageFromSources(content + sep + body);
+        MimeMessageCopyOnWriteProxy copy = new MimeMessageCopyOnWriteProxy(original);
+        copy.setSubject("new Subject");
+
+        LifecycleUtil.dispose(original);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        copy.writeTo(out);
+        String written = out.toString();
+        assertTrue(written.contains("Subject: new Subject"));
+        assertTrue(written.endsWith(body));
+        LifecycleUtil.dispose(copy);
+    }
+
     private static String getReferences(MimeMessage m) {
         StringBuilder ref = new StringBuilder("/");
         while (m instanceof MimeMessageCopyOnWriteProxy) {
@@ -39,6 +39,7 @@ import org.apache.james.mailbox.elasticsearch.MailboxIndexCreationUtil;
 import org.apache.james.mailbox.elasticsearch.events.ElasticSearchListeningMessageSearchIndex;
 import org.apache.james.mailbox.elasticsearch.query.QueryConverter;
 import org.apache.james.mailbox.elasticsearch.search.ElasticSearchSearcher;
+import org.apache.james.mailbox.indexer.ReIndexerConfiguration;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
@@ -60,6 +61,8 @@ public class ElasticSearchMailboxModule extends AbstractModule {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchMailboxModule.class);
 
     public static final String ELASTICSEARCH_CONFIGURATION_NAME = "elasticsearch";
+    public static final String REINDEXING_PARALLELISM = "elasticsearch.reindexing.parallelism";
+    public static final String REINDEXING_BATCH_SIZE = "elasticsearch.reindexing.batch.size";
 
     @Override
     protected void configure() {
@@ -112,6 +115,21 @@ public class ElasticSearchMailboxModule extends AbstractModule {
         }
     }
 
+    @Provides
+    @Singleton
+    private ReIndexerConfiguration getReIndexerConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            PropertiesConfiguration configuration = propertiesProvider.getConfiguration(ELASTICSEARCH_CONFIGURATION_NAME);
+            return ReIndexerConfiguration.builder()
+                .parallelism(configuration.getInt(REINDEXING_PARALLELISM, ReIndexerConfiguration.DEFAULT_PARALLELISM))
+                .batchSize(configuration.getInt(REINDEXING_BATCH_SIZE, ReIndexerConfiguration.DEFAULT_BATCH_SIZE))
+                .build();
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + ELASTICSEARCH_CONFIGURATION_NAME + " configuration file. Using default re-indexing settings");
+            return ReIndexerConfiguration.defaultValues();
+        }
+    }
+
     @Provides
     @Singleton
     protected Client provideClient(ElasticSearchConfiguration configuration,
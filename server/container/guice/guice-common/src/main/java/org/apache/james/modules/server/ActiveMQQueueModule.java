@@ -26,6 +26,7 @@ import org.apache.activemq.store.kahadb.KahaDBPersistenceAdapter;
 import org.apache.james.queue.activemq.ActiveMQMailQueueFactory;
 import org.apache.james.queue.activemq.EmbeddedActiveMQ;
 import org.apache.james.queue.api.MailQueueFactory;
+import org.apache.james.server.core.MailEnvelopeCodec;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
@@ -48,8 +49,9 @@ public class ActiveMQQueueModule extends AbstractModule {
 
     @Provides
     @Singleton
-    public MailQueueFactory<?> createActiveMailQueueFactory(ActiveMQMailQueueFactory activeMQMailQueueFactory) {
+    public MailQueueFactory<?> createActiveMailQueueFactory(ActiveMQMailQueueFactory activeMQMailQueueFactory, MailEnvelopeCodec mailEnvelopeCodec) {
         activeMQMailQueueFactory.setUseJMX(true);
+        activeMQMailQueueFactory.setMailEnvelopeCodec(mailEnvelopeCodec);
         activeMQMailQueueFactory.init();
         return activeMQMailQueueFactory;
     }
@@ -22,9 +22,12 @@ package org.apache.james.modules.mailbox;
 import java.io.IOException;
 
 import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.mailbox.indexer.ReIndexerConfiguration;
 import org.apache.james.mailbox.lucene.search.LuceneMessageSearchIndex;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MemoryReIndexingCheckpoint;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.mailbox.store.search.ReIndexingCheckpoint;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 
@@ -40,6 +43,10 @@ public class LuceneSearchMailboxModule extends AbstractModule {
         bind(LuceneMessageSearchIndex.class).in(Scopes.SINGLETON);
         bind(MessageSearchIndex.class).to(LuceneMessageSearchIndex.class);
         bind(ListeningMessageSearchIndex.class).to(LuceneMessageSearchIndex.class);
+
+        bind(MemoryReIndexingCheckpoint.class).in(Scopes.SINGLETON);
+        bind(ReIndexingCheckpoint.class).to(MemoryReIndexingCheckpoint.class);
+        bind(ReIndexerConfiguration.class).toInstance(ReIndexerConfiguration.defaultValues());
     }
 
     @Provides
@@ -20,37 +20,28 @@
 package org.apache.james.modules.mailbox;
 
 import java.util.List;
-import java.util.Optional;
 
 import javax.inject.Inject;
 
-import org.apache.commons.configuration.ConfigurationException;
 import org.apache.james.lifecycle.api.Configurable;
 import org.apache.james.mailbox.MailboxListener;
-import org.apache.james.mailbox.store.event.AsynchronousEventDelivery;
 import org.apache.james.mailbox.store.event.DefaultDelegatingMailboxListener;
 import org.apache.james.mailbox.store.event.DelegatingMailboxListener;
 import org.apache.james.mailbox.store.event.EventDelivery;
 import org.apache.james.mailbox.store.event.MailboxAnnotationListener;
 import org.apache.james.mailbox.store.event.MailboxListenerRegistry;
-import org.apache.james.mailbox.store.event.MixedEventDelivery;
-import org.apache.james.mailbox.store.event.SynchronousEventDelivery;
 import org.apache.james.mailbox.store.quota.ListeningCurrentQuotaUpdater;
-import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.server.core.configuration.ConfigurationProvider;
 import org.apache.james.utils.ConfigurationPerformer;
 
 import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
-import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.Multibinder;
 
 public class DefaultEventModule extends AbstractModule {
 
-    private static final int DEFAULT_POOL_SIZE = 8;
-
     @Override
     protected void configure() {
         bind(DefaultDelegatingMailboxListener.class).in(Scopes.SINGLETON);
@@ -66,27 +57,8 @@ public class DefaultEventModule extends AbstractModule {
         bind(MailboxListenerRegistry.class).in(Scopes.SINGLETON);
         bind(MailboxListenersLoader.class).to(MailboxListenersLoaderImpl.class);
         Multibinder.newSetBinder(binder(), MailboxListener.class);
-    }
-
-    @Provides
-    @Singleton
-    EventDelivery provideEventDelivery(ConfigurationProvider configurationProvider, MetricFactory metricFactory) {
-        int poolSize = retrievePoolSize(configurationProvider);
 
-        SynchronousEventDelivery synchronousEventDelivery = new SynchronousEventDelivery(metricFactory);
-        return new MixedEventDelivery(
-            new AsynchronousEventDelivery(poolSize, synchronousEventDelivery),
-            synchronousEventDelivery);
-    }
-
-    private int retrievePoolSize(ConfigurationProvider configurationProvider) {
-        try {
-            return Optional.ofNullable(configurationProvider.getConfiguration("listeners")
-                .getInteger("poolSize", null))
-                .orElse(DEFAULT_POOL_SIZE);
-        } catch (ConfigurationException e) {
-            return DEFAULT_POOL_SIZE;
-        }
+        bind(EventDelivery.class).toProvider(EventDeliveryProvider.class).in(Scopes.SINGLETON);
     }
 
     @Singleton
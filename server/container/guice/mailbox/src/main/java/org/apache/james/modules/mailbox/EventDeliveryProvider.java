@@ -0,0 +1,97 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.james.mailbox.store.event.AsynchronousEventDelivery;
+import org.apache.james.mailbox.store.event.CoalescingEventDelivery;
+import org.apache.james.mailbox.store.event.EventDelivery;
+import org.apache.james.mailbox.store.event.MixedEventDelivery;
+import org.apache.james.mailbox.store.event.SynchronousEventDelivery;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.server.core.configuration.ConfigurationProvider;
+
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * Builds the {@link EventDelivery} once, and stops its {@link CoalescingEventDelivery}, if any, when James stops so
+ * that its pending events are delivered.
+ */
+@Singleton
+class EventDeliveryProvider implements Provider<EventDelivery> {
+
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    private final EventDelivery eventDelivery;
+    private final Optional<CoalescingEventDelivery> coalescingEventDelivery;
+
+    @Inject
+    EventDeliveryProvider(ConfigurationProvider configurationProvider, MetricFactory metricFactory) {
+        int poolSize = retrievePoolSize(configurationProvider);
+
+        SynchronousEventDelivery synchronousEventDelivery = new SynchronousEventDelivery(metricFactory);
+        MixedEventDelivery mixedEventDelivery = new MixedEventDelivery(
+            new AsynchronousEventDelivery(poolSize, synchronousEventDelivery),
+            synchronousEventDelivery);
+        this.coalescingEventDelivery = retrieveCoalescingWindow(configurationProvider)
+            .map(window -> new CoalescingEventDelivery(mixedEventDelivery, window, CoalescingEventDelivery.DEFAULT_MAX_PENDING_EVENTS));
+        this.eventDelivery = coalescingEventDelivery
+            .<EventDelivery>map(delivery -> delivery)
+            .orElse(mixedEventDelivery);
+    }
+
+    @Override
+    public EventDelivery get() {
+        return eventDelivery;
+    }
+
+    @PreDestroy
+    void stop() {
+        coalescingEventDelivery.ifPresent(CoalescingEventDelivery::stop);
+    }
+
+    private Optional<Duration> retrieveCoalescingWindow(ConfigurationProvider configurationProvider) {
+        try {
+            return Optional.ofNullable(configurationProvider.getConfiguration("listeners")
+                .getLong("coalescingWindowInMs", null))
+                .filter(window -> window > 0)
+                .map(Duration::ofMillis);
+        } catch (ConfigurationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private int retrievePoolSize(ConfigurationProvider configurationProvider) {
+        try {
+            return Optional.ofNullable(configurationProvider.getConfiguration("listeners")
+                .getInteger("poolSize", null))
+                .orElse(DEFAULT_POOL_SIZE);
+        } catch (ConfigurationException e) {
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+}
@@ -92,6 +92,8 @@ public class EventsConfigurationBeanFactoryPostProcessor implements BeanFactoryP
             return "json-event-serializer";
         } else if (serialization.equals("message-pack")) {
             return "message-pack-event-serializer";
+        } else if (serialization.equals("binary")) {
+            return "binary-event-serializer";
         }
         return null;
     }
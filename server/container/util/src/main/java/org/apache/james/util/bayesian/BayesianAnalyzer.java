@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -62,7 +63,7 @@ import java.util.stream.IntStream;
  * <p>
  * Use: void buildCorpus()
  * <p/>
- * to build the final token/probabilities Map.
+ * to build the final token corpus.
  * <p/>
  * Use your own methods for persistent storage of either the individual ham/spam
  * corpus & message counts, and/or the final corpus.
@@ -78,7 +79,7 @@ import java.util.stream.IntStream;
  * </p>
  * <p/>
  * <p>
- * If you use persistent storage, use: void setCorpus(Map)
+ * If you use persistent storage, use: void setCorpus(TokenCorpus)
  * <p/>
  * before calling computeSpamProbability.
  * </p>
@@ -88,8 +89,6 @@ import java.util.stream.IntStream;
 
 public class BayesianAnalyzer {
 
-    private final Object lock = new Object();
-
     /**
      * Number of "interesting" tokens to use to compute overall spamminess
      * probability.
@@ -129,9 +128,9 @@ public class BayesianAnalyzer {
     private int spamMessageCount = 0;
 
     /**
-     * Final token/probability corpus.
+     * Final token corpus.
      */
-    private Map<String, Double> corpus = new HashMap<>();
+    private volatile TokenCorpus corpus = new TokenCorpus();
 
     /**
      * Inner class for managing Token Probability Strengths during the
@@ -148,6 +147,11 @@ public class BayesianAnalyzer {
          */
         String token = null;
 
+        /**
+         * Token's probability, or the one of its strongest degeneration.
+         */
+        double probability = DEFAULT_TOKEN_PROBABILITY;
+
         /**
          * Token's computed probability strength.
          */
@@ -259,7 +263,7 @@ public class BayesianAnalyzer {
      * Clears all analysis repositories and counters.
      */
     public void clear() {
-        corpus.clear();
+        corpus = new TokenCorpus();
 
         tokenCountsClear();
 
@@ -280,14 +284,14 @@ public class BayesianAnalyzer {
      *
      * @param corpus The new corpus.
      */
-    public void setCorpus(Map<String, Double> corpus) {
+    public void setCorpus(TokenCorpus corpus) {
         this.corpus = corpus;
     }
 
     /**
      * Public getter for corpus.
      */
-    public Map<String, Double> getCorpus() {
+    public TokenCorpus getCorpus() {
         return this.corpus;
     }
 
@@ -295,18 +299,20 @@ public class BayesianAnalyzer {
      * Builds the corpus from the existing ham & spam counts.
      */
     public void buildCorpus() {
-        // Combine the known ham & spam tokens.
-        Set<String> set = new HashSet<>(hamTokenCounts.size() + spamTokenCounts.size());
-        set.addAll(hamTokenCounts.keySet());
-        set.addAll(spamTokenCounts.keySet());
-        Map<String, Double> tempCorpus = new HashMap<>(set.size());
-
-        // Iterate through all the tokens and compute their new
-        // individual probabilities.
-        for (String token : set) {
-            tempCorpus.put(token, computeProbability(token));
-        }
-        setCorpus(tempCorpus);
+        setCorpus(toTokenCorpus());
+    }
+
+    /**
+     * Builds a corpus holding the existing ham & spam counts.
+     *
+     * @return The ham & spam token counts and message counts as a corpus
+     */
+    protected TokenCorpus toTokenCorpus() {
+        TokenCorpus tempCorpus = new TokenCorpus(hamTokenCounts.size() + spamTokenCounts.size());
+        hamTokenCounts.forEach((token, count) -> tempCorpus.addHam(TokenCorpus.hash(token), count));
+        spamTokenCounts.forEach((token, count) -> tempCorpus.addSpam(TokenCorpus.hash(token), count));
+        tempCorpus.addMessageCounts(hamMessageCount, spamMessageCount);
+        return tempCorpus;
     }
 
     /**
@@ -344,7 +350,7 @@ public class BayesianAnalyzer {
 
         // Get the corpus to use in this run
         // A new corpus may be being built in the meantime
-        Map<String, Double> workCorpus = getCorpus();
+        TokenCorpus workCorpus = getCorpus();
 
         // Assign their probabilities from the Corpus (using an additional
         // calculation to determine spamminess).
@@ -352,7 +358,7 @@ public class BayesianAnalyzer {
 
         // Compute and return the overall probability that the
         // stream is SPAM.
-        return computeOverallProbability(tokenProbabilityStrengths, workCorpus);
+        return computeOverallProbability(tokenProbabilityStrengths);
     }
 
     /**
@@ -513,55 +519,6 @@ public class BayesianAnalyzer {
         }
     }
 
-    /**
-     * Compute the probability that "token" is SPAM.
-     *
-     * @param token
-     * @return The probability that the token occurs within spam.
-     */
-    private double computeProbability(String token) {
-        double hamFactor = 0;
-        double spamFactor = 0;
-
-        boolean foundInHam = false;
-        boolean foundInSpam = false;
-
-        double minThreshold = 0.01;
-        double maxThreshold = 0.99;
-
-        if (hamTokenCounts.containsKey(token)) {
-            foundInHam = true;
-        }
-
-        if (spamTokenCounts.containsKey(token)) {
-            foundInSpam = true;
-        }
-
-        if (foundInHam) {
-            hamFactor = 2 * hamTokenCounts.get(token).doubleValue();
-            if (!foundInSpam) {
-                minThreshold = (hamFactor > 20) ? 0.0001 : 0.0002;
-            }
-        }
-
-        if (foundInSpam) {
-            spamFactor = spamTokenCounts.get(token).doubleValue();
-            if (!foundInHam) {
-                maxThreshold = (spamFactor > 10) ? 0.9999 : 0.9998;
-            }
-        }
-
-        if ((hamFactor + spamFactor) < 5) {
-            // This token hasn't been seen enough.
-            return 0.4;
-        }
-
-        double spamFreq = Math.min(1.0, spamFactor / spamMessageCount);
-        double hamFreq = Math.min(1.0, hamFactor / hamMessageCount);
-
-        return Math.max(minThreshold, Math.min(maxThreshold, (spamFreq / (hamFreq + spamFreq))));
-    }
-
     /**
      * Returns a SortedSet of TokenProbabilityStrength built from the Corpus and
      * the tokens passed in the "tokens" Set. The ordering is from the highest
@@ -571,7 +528,7 @@ public class BayesianAnalyzer {
      * @param workCorpus
      * @return SortedSet of TokenProbabilityStrength objects.
      */
-    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, Map<String, Double> workCorpus) {
+    private SortedSet<TokenProbabilityStrength> getTokenProbabilityStrengths(Set<String> tokens, TokenCorpus workCorpus) {
         // Convert to a SortedSet of token probability strengths.
         SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths = new TreeSet<>();
 
@@ -580,38 +537,29 @@ public class BayesianAnalyzer {
 
             tps.token = token;
 
-            if (workCorpus.containsKey(tps.token)) {
-                tps.strength = Math.abs(0.5 - workCorpus.get(tps.token));
+            OptionalDouble tokenProbability = workCorpus.probability(TokenCorpus.hash(tps.token));
+            if (tokenProbability.isPresent()) {
+                tps.probability = tokenProbability.getAsDouble();
+                tps.strength = Math.abs(0.5 - tps.probability);
             } else {
                 // This token has never been seen before,
-                // we'll give it initially the default probability.
-                Double corpusProbability = DEFAULT_TOKEN_PROBABILITY;
-                tps.strength = Math.abs(0.5 - DEFAULT_TOKEN_PROBABILITY);
-                boolean isTokenDegeneratedFound = false;
-
+                // we'll give it initially the default probability,
+                // unless one of its degenerations is stronger.
                 Collection<String> degeneratedTokens = buildDegenerated(tps.token);
                 Iterator<String> iDegenerated = degeneratedTokens.iterator();
                 String tokenDegenerated;
                 double strengthDegenerated;
                 while (iDegenerated.hasNext()) {
                     tokenDegenerated = iDegenerated.next();
-                    if (workCorpus.containsKey(tokenDegenerated)) {
-                        Double probabilityTemp = workCorpus.get(tokenDegenerated);
-                        strengthDegenerated = Math.abs(0.5 - probabilityTemp);
+                    OptionalDouble probabilityDegenerated = workCorpus.probability(TokenCorpus.hash(tokenDegenerated));
+                    if (probabilityDegenerated.isPresent()) {
+                        strengthDegenerated = Math.abs(0.5 - probabilityDegenerated.getAsDouble());
                         if (strengthDegenerated > tps.strength) {
-                            isTokenDegeneratedFound = true;
                             tps.strength = strengthDegenerated;
-                            corpusProbability = probabilityTemp;
+                            tps.probability = probabilityDegenerated.getAsDouble();
                         }
                     }
                 }
-                // to reduce memory usage, put in the corpus only if the
-                // probability is different from (stronger than) the default
-                if (isTokenDegeneratedFound) {
-                    synchronized (lock) {
-                        workCorpus.put(tps.token, corpusProbability);
-                    }
-                }
             }
 
             tokenProbabilityStrengths.add(tps);
@@ -675,10 +623,9 @@ public class BayesianAnalyzer {
      * tokenProbabilities SortedSet.
      *
      * @param tokenProbabilityStrengths
-     * @param workCorpus
      * @return Computed spamminess.
      */
-    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths, Map<String, Double> workCorpus) {
+    private double computeOverallProbability(SortedSet<TokenProbabilityStrength> tokenProbabilityStrengths) {
         double p = 1.0;
         double np = 1.0;
         double tempStrength = 0.5;
@@ -690,14 +637,8 @@ public class BayesianAnalyzer {
 
             // System.out.println(tps);
 
-            double theDoubleValue = DEFAULT_TOKEN_PROBABILITY; // initialize it
-            // to the default
-            Double theDoubleObject = workCorpus.get(tps.token);
-            // if either the original token or a degeneration was found use the
-            // double value, otherwise use the default
-            if (theDoubleObject != null) {
-                theDoubleValue = theDoubleObject;
-            }
+            // either the original token or a degeneration probability, or the default
+            double theDoubleValue = tps.probability;
             p *= theDoubleValue;
             np *= (1.0 - theDoubleValue);
             // System.out.println("Token " + tps + ", p=" + theDoubleValue +
@@ -0,0 +1,83 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Bounded log of the trainings committed to the corpus storage.
+ * <p/>
+ * Each training is given a sequence number. Analyzers remember the sequence
+ * of the next training they have not applied yet, and retrieve the trainings
+ * committed since then to update their corpus without reloading it. When the
+ * log no longer holds all of them, the corpus has to be reloaded.
+ */
+class CorpusUpdateLog {
+
+    private final int capacity;
+    private final Deque<TokenCorpus> updates;
+    private long firstSequence;
+
+    CorpusUpdateLog(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "capacity should be strictly positive");
+        this.capacity = capacity;
+        this.updates = new ArrayDeque<>(capacity);
+        this.firstSequence = 0;
+    }
+
+    synchronized long nextSequence() {
+        return firstSequence + updates.size();
+    }
+
+    synchronized void append(TokenCorpus update) {
+        updates.addLast(update);
+        if (updates.size() > capacity) {
+            updates.removeFirst();
+            firstSequence++;
+        }
+    }
+
+    /**
+     * @param sequence The sequence of the first training to return
+     * @return The trainings committed since the given sequence, or empty if
+     *         some of them are no longer available
+     */
+    synchronized Optional<List<TokenCorpus>> since(long sequence) {
+        if (sequence < firstSequence || sequence > nextSequence()) {
+            return Optional.empty();
+        }
+        return Optional.of(ImmutableList.copyOf(Iterables.skip(updates, (int) (sequence - firstSequence))));
+    }
+
+    /**
+     * Discards all the trainings, forcing analyzers to reload their corpus.
+     */
+    synchronized void reset() {
+        firstSequence = nextSequence() + 1;
+        updates.clear();
+    }
+}
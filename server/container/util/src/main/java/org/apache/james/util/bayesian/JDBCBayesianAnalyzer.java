@@ -26,7 +26,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.apache.james.util.sql.JDBCUtil;
 import org.apache.james.util.sql.SqlResources;
@@ -52,6 +54,12 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
     /** Public object representing a lock on database activity. */
     public static final String DATABASE_LOCK = "database lock";
 
+    /** Number of trainings kept for incremental corpus updates. */
+    private static final int MAX_PENDING_CORPUS_UPDATES = 1000;
+
+    /** Trainings committed to the database by this JVM. */
+    private static final CorpusUpdateLog CORPUS_UPDATES = new CorpusUpdateLog(MAX_PENDING_CORPUS_UPDATES);
+
     /**
      * The JDBCUtil helper class
      */
@@ -69,6 +77,9 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
     /** Holds value of property lastDatabaseUpdateTime. */
     private static long lastDatabaseUpdateTime;
 
+    /** Sequence of the first training not applied to the corpus yet. */
+    private long corpusSequence;
+
     /**
      * Getter for property sqlFileName.
      * 
@@ -136,88 +147,79 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
     }
 
     /**
-     * Loads the token frequencies from the database.
+     * Loads the token frequencies from the database and builds the corpus
+     * from them.
+     * <p>
+     * Callers should hold {@link #DATABASE_LOCK}, so that the trainings
+     * committed meanwhile are applied by the next {@link #updateCorpus()}.
+     * </p>
      * 
      * @param conn
      *            The connection for accessing the database
      * @throws SQLException
      *             If a database error occurs
      */
-    public void loadHamNSpam(Connection conn) throws java.sql.SQLException {
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
-        try {
-            pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectHamTokens", true));
-            rs = pstmt.executeQuery();
+    public void loadCorpus(Connection conn) throws java.sql.SQLException {
+        long sequence = CORPUS_UPDATES.nextSequence();
+        TokenCorpus corpus = new TokenCorpus();
 
-            Map<String, Integer> ham = getHamTokenCounts();
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectHamTokens", true));
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                String token = rs.getString(1);
-                int count = rs.getInt(2);
-                // to reduce memory, use the token only if the count is > 1
-                if (count > 1) {
-                    ham.put(token, count);
-                }
+                corpus.addHam(TokenCorpus.hash(rs.getString(1)), rs.getInt(2));
             }
-            // Verbose.
-            LOGGER.debug("Ham tokens count: {}", ham.size());
-
-            rs.close();
-            pstmt.close();
-
-            // Get the spam tokens/counts.
-            pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectSpamTokens", true));
-            rs = pstmt.executeQuery();
+        }
 
-            Map<String, Integer> spam = getSpamTokenCounts();
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectSpamTokens", true));
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                String token = rs.getString(1);
-                int count = rs.getInt(2);
-                // to reduce memory, use the token only if the count is > 1
-                if (count > 1) {
-                    spam.put(token, count);
-                }
+                corpus.addSpam(TokenCorpus.hash(rs.getString(1)), rs.getInt(2));
             }
+        }
 
-            // Verbose.
-            LOGGER.error("Spam tokens count: {}", spam.size());
-
-            rs.close();
-            pstmt.close();
-
-            // Get the ham/spam message counts.
-            pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectMessageCounts", true));
-            rs = pstmt.executeQuery();
+        // Get the ham/spam message counts.
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlQueries.getSqlString("selectMessageCounts", true));
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) {
-                setHamMessageCount(rs.getInt(1));
-                setSpamMessageCount(rs.getInt(2));
+                corpus.addMessageCounts(rs.getInt(1), rs.getInt(2));
             }
+        }
 
-            rs.close();
-            pstmt.close();
-
-        } finally {
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (java.sql.SQLException se) {
-                    LOGGER.info("Exception ignored", se);
-                }
-
-                rs = null;
-            }
+        LOGGER.debug("Corpus tokens count: {}", corpus.size());
 
-            if (pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (java.sql.SQLException se) {
-                    LOGGER.info("Exception ignored", se);
-                }
+        setCorpus(corpus);
+        corpusSequence = sequence;
+    }
 
-                pstmt = null;
-            }
+    /**
+     * Applies to the corpus the trainings committed since it was loaded.
+     * 
+     * @return false if some of these trainings are no longer available, in
+     *         which case the corpus needs to be loaded again
+     */
+    public boolean updateCorpus() {
+        Optional<List<TokenCorpus>> updates = CORPUS_UPDATES.since(corpusSequence);
+        if (!updates.isPresent()) {
+            return false;
         }
+        TokenCorpus corpus = getCorpus();
+        updates.get().forEach(corpus::merge);
+        corpusSequence += updates.get().size();
+        LOGGER.debug("Applied {} trainings to the corpus", updates.get().size());
+        return true;
+    }
+
+    /**
+     * Makes the token frequencies committed to the database available to the
+     * analyzers for incremental corpus updates.
+     * <p>
+     * To be called once the updates of {@link #updateHamTokens(Connection)}
+     * or {@link #updateSpamTokens(Connection)} are committed.
+     * </p>
+     */
+    public void publishTokenCounts() {
+        CORPUS_UPDATES.append(toTokenCorpus());
+        touchLastDatabaseUpdateTime();
     }
 
     /**
@@ -260,6 +262,9 @@ public class JDBCBayesianAnalyzer extends BayesianAnalyzer {
         deleteData(conn, sqlQueries.getSqlString("deleteHamTokens", true));
         deleteData(conn, sqlQueries.getSqlString("deleteSpamTokens", true));
         deleteData(conn, sqlQueries.getSqlString("deleteMessageCounts", true));
+
+        CORPUS_UPDATES.reset();
+        touchLastDatabaseUpdateTime();
     }
 
     private void setMessageCount(Connection conn, String sqlStatement, int count) throws java.sql.SQLException {
@@ -0,0 +1,310 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import java.util.OptionalDouble;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Ham and spam occurrences of the tokens of a bayesian corpus, along with the
+ * count of the messages they were read from.
+ * <p/>
+ * Tokens are identified by a 64 bits hash and stored in an open addressing
+ * table backed by primitive arrays: a token costs a few dozens of bytes instead
+ * of the token string and the boxed counts of a {@link java.util.HashMap}.
+ * <p/>
+ * Token probabilities are computed from the occurrences when looked up, which
+ * allows to update the corpus incrementally with newly trained messages.
+ *
+ * @since 3.1.0
+ */
+public class TokenCorpus {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD_FACTOR = 0.66;
+    private static final long FREE = 0L;
+
+    /**
+     * Tokens that have been seen less than that number of times (ham
+     * occurrences counting twice) get the default probability.
+     */
+    private static final int MIN_OCCURRENCES = 5;
+
+    /**
+     * Ham or spam occurrences below that number are ignored, in order to keep
+     * the tokens seen only once out of the scoring. This is applied when the
+     * probability is computed, so that loaded and merged corpora agree.
+     */
+    private static final int MIN_SIGNIFICANT_OCCURRENCES = 2;
+    private static final double UNTRUSTED_TOKEN_PROBABILITY = 0.4;
+
+    /**
+     * Hashes a token into its 64 bits identifier, using FNV-1a followed by
+     * the MurmurHash3 finalizer so that low bits can index the table.
+     *
+     * @param token The token to hash
+     * @return The token identifier, never 0
+     */
+    public static long hash(CharSequence token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        if (hash == FREE) {
+            return 1L;
+        }
+        return hash;
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] tokens;
+    private int[] hamOccurrences;
+    private int[] spamOccurrences;
+    private int size;
+    private int hamMessageCount;
+    private int spamMessageCount;
+
+    public TokenCorpus() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of tokens the corpus is expected to hold
+     */
+    public TokenCorpus(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0, "expectedSize should be positive");
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds ham occurrences of a token.
+     *
+     * @param token The token hash, as returned by {@link #hash(CharSequence)}
+     * @param occurrences The number of occurrences to add
+     */
+    public void addHam(long token, int occurrences) {
+        lock.writeLock().lock();
+        try {
+            add(token, occurrences, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds spam occurrences of a token.
+     *
+     * @param token The token hash, as returned by {@link #hash(CharSequence)}
+     * @param occurrences The number of occurrences to add
+     */
+    public void addSpam(long token, int occurrences) {
+        lock.writeLock().lock();
+        try {
+            add(token, 0, occurrences);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addMessageCounts(int hamMessages, int spamMessages) {
+        lock.writeLock().lock();
+        try {
+            hamMessageCount += hamMessages;
+            spamMessageCount += spamMessages;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds all the occurrences and message counts of another corpus to this
+     * one.
+     *
+     * @param other The corpus to merge in this one
+     */
+    public void merge(TokenCorpus other) {
+        other.lock.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < other.tokens.length; i++) {
+                if (other.tokens[i] != FREE) {
+                    add(other.tokens[i], other.hamOccurrences[i], other.spamOccurrences[i]);
+                }
+            }
+            hamMessageCount += other.hamMessageCount;
+            spamMessageCount += other.spamMessageCount;
+        } finally {
+            lock.writeLock().unlock();
+            other.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the probability that a token occurs within spam.
+     *
+     * @param token The token hash, as returned by {@link #hash(CharSequence)}
+     * @return The probability, or empty if the token is not part of the corpus
+     *         or has not been seen more than once neither in ham nor in spam
+     */
+    public OptionalDouble probability(long token) {
+        lock.readLock().lock();
+        try {
+            int index = indexOf(token);
+            if (tokens[index] == FREE) {
+                return OptionalDouble.empty();
+            }
+            int hamCount = significantOccurrences(hamOccurrences[index]);
+            int spamCount = significantOccurrences(spamOccurrences[index]);
+            if (hamCount == 0 && spamCount == 0) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(computeProbability(hamCount, spamCount));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getHamMessageCount() {
+        lock.readLock().lock();
+        try {
+            return hamMessageCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSpamMessageCount() {
+        lock.readLock().lock();
+        try {
+            return spamMessageCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int significantOccurrences(int occurrences) {
+        if (occurrences < MIN_SIGNIFICANT_OCCURRENCES) {
+            return 0;
+        }
+        return occurrences;
+    }
+
+    private double computeProbability(int hamCount, int spamCount) {
+        double hamFactor = 2 * (double) hamCount;
+        double spamFactor = spamCount;
+
+        double minThreshold = 0.01;
+        double maxThreshold = 0.99;
+
+        if (hamCount > 0 && spamCount == 0) {
+            minThreshold = (hamFactor > 20) ? 0.0001 : 0.0002;
+        }
+        if (spamCount > 0 && hamCount == 0) {
+            maxThreshold = (spamFactor > 10) ? 0.9999 : 0.9998;
+        }
+
+        if ((hamFactor + spamFactor) < MIN_OCCURRENCES) {
+            // This token hasn't been seen enough.
+            return UNTRUSTED_TOKEN_PROBABILITY;
+        }
+
+        double spamFreq = Math.min(1.0, spamFactor / spamMessageCount);
+        double hamFreq = Math.min(1.0, hamFactor / hamMessageCount);
+
+        return Math.max(minThreshold, Math.min(maxThreshold, (spamFreq / (hamFreq + spamFreq))));
+    }
+
+    private void add(long token, int hamCount, int spamCount) {
+        Preconditions.checkArgument(token != FREE, "0 is not a valid token hash");
+        int index = indexOf(token);
+        if (tokens[index] == FREE) {
+            if (size + 1 > tokens.length * MAX_LOAD_FACTOR) {
+                resize(tokens.length * 2);
+                index = indexOf(token);
+            }
+            tokens[index] = token;
+            size++;
+        }
+        hamOccurrences[index] += hamCount;
+        spamOccurrences[index] += spamCount;
+    }
+
+    /**
+     * Returns the slot holding the token, or the free slot where it should be
+     * inserted.
+     */
+    private int indexOf(long token) {
+        int mask = tokens.length - 1;
+        int index = (int) token & mask;
+        while (tokens[index] != FREE && tokens[index] != token) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize(int capacity) {
+        long[] oldTokens = tokens;
+        int[] oldHamOccurrences = hamOccurrences;
+        int[] oldSpamOccurrences = spamOccurrences;
+
+        allocate(capacity);
+        for (int i = 0; i < oldTokens.length; i++) {
+            if (oldTokens[i] != FREE) {
+                int index = indexOf(oldTokens[i]);
+                tokens[index] = oldTokens[i];
+                hamOccurrences[index] = oldHamOccurrences[i];
+                spamOccurrences[index] = oldSpamOccurrences[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        tokens = new long[capacity];
+        hamOccurrences = new int[capacity];
+        spamOccurrences = new int[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -36,6 +36,7 @@ import javax.mail.internet.MimeMessage;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,7 +111,7 @@ public class SpamAssassinInvoker {
     }
 
     public SpamAssassinResult scanMailWithAdditionalHeaders(MimeMessage message, String... additionalHeaders) throws MessagingException {
-        try (Socket socket = new Socket(spamdHost, spamdPort);
+        try (Socket socket = connect();
              OutputStream out = socket.getOutputStream();
              BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(out);
              PrintWriter writer = new PrintWriter(bufferedOutputStream);
@@ -128,9 +129,9 @@ public class SpamAssassinInvoker {
             writer.write(CRLF);
             writer.flush();
 
-            // pass the message to spamd
-            message.writeTo(out);
-            out.flush();
+            // pass the message to spamd, buffering the many small writes of the serialization
+            message.writeTo(bufferedOutputStream);
+            bufferedOutputStream.flush();
             socket.shutdownOutput();
 
             return in.lines()
@@ -145,6 +146,19 @@ public class SpamAssassinInvoker {
         }
     }
 
+    /**
+     * spamd closes the connection once it has answered, hence connections
+     * can not be reused: they are only timed.
+     */
+    private Socket connect() throws IOException {
+        TimeMetric timeMetric = metricFactory.timer("spamAssassin-connection");
+        try {
+            return new Socket(spamdHost, spamdPort);
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
+
     public SpamAssassinResult scanMailWithoutAdditionalHeaders(MimeMessage message) throws MessagingException {
         return scanMailWithAdditionalHeaders(message);
     }
@@ -212,7 +226,7 @@ public class SpamAssassinInvoker {
     }
 
     private boolean reportMessageAs(InputStream message, String user, MessageClass messageClass) throws MessagingException {
-        try (Socket socket = new Socket(spamdHost, spamdPort);
+        try (Socket socket = connect();
              OutputStream out = socket.getOutputStream();
              BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(out);
              PrintWriter writer = new PrintWriter(bufferedOutputStream);
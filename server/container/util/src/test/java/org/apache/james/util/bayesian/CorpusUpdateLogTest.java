@@ -0,0 +1,83 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CorpusUpdateLogTest {
+
+    private CorpusUpdateLog testee;
+
+    @Before
+    public void setUp() {
+        testee = new CorpusUpdateLog(2);
+    }
+
+    @Test
+    public void sinceShouldReturnNothingWhenNoTraining() {
+        assertThat(testee.since(testee.nextSequence()).get()).isEmpty();
+    }
+
+    @Test
+    public void sinceShouldReturnTrainingsAppendedAfterTheSequence() {
+        TokenCorpus update1 = new TokenCorpus();
+        TokenCorpus update2 = new TokenCorpus();
+        testee.append(update1);
+        long sequence = testee.nextSequence();
+        testee.append(update2);
+
+        assertThat(testee.since(sequence).get()).containsExactly(update2);
+    }
+
+    @Test
+    public void sinceShouldBeEmptyWhenTrainingsWereDiscarded() {
+        long sequence = testee.nextSequence();
+        testee.append(new TokenCorpus());
+        testee.append(new TokenCorpus());
+        testee.append(new TokenCorpus());
+
+        assertThat(testee.since(sequence)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void sinceShouldBeEmptyAfterReset() {
+        long sequence = testee.nextSequence();
+        testee.append(new TokenCorpus());
+
+        testee.reset();
+
+        assertThat(testee.since(sequence)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void sinceShouldReturnTrainingsAppendedAfterReset() {
+        testee.reset();
+        long sequence = testee.nextSequence();
+        TokenCorpus update = new TokenCorpus();
+        testee.append(update);
+
+        assertThat(testee.since(sequence).get()).containsExactly(update);
+    }
+}
@@ -0,0 +1,161 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.util.bayesian;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.OptionalDouble;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class TokenCorpusTest {
+
+    private static final long TOKEN = TokenCorpus.hash("viagra");
+
+    @Test
+    public void hashShouldBeStable() {
+        assertThat(TokenCorpus.hash("viagra")).isEqualTo(TokenCorpus.hash(new StringBuilder("viagra")));
+    }
+
+    @Test
+    public void hashShouldDifferForDifferentTokens() {
+        assertThat(TokenCorpus.hash("Subject:viagra")).isNotEqualTo(TokenCorpus.hash("viagra"));
+    }
+
+    @Test
+    public void probabilityShouldBeEmptyForUnknownToken() {
+        assertThat(new TokenCorpus().probability(TOKEN)).isEqualTo(OptionalDouble.empty());
+    }
+
+    @Test
+    public void probabilityShouldBeDefaultForRareToken() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addSpam(TOKEN, 4);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.4);
+    }
+
+    @Test
+    public void probabilityShouldBeHighForSpamOnlyToken() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addSpam(TOKEN, 20);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.9999);
+    }
+
+    @Test
+    public void probabilityShouldBeLowForHamOnlyToken() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addHam(TOKEN, 20);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.0001);
+    }
+
+    @Test
+    public void probabilityShouldWeightHamAndSpamFrequencies() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(20, 10);
+        corpus.addHam(TOKEN, 5);
+        corpus.addSpam(TOKEN, 5);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isCloseTo(0.5 / (0.5 + 0.5), within(0.0001));
+    }
+
+    @Test
+    public void addShouldCumulateOccurrences() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addSpam(TOKEN, 2);
+        corpus.addSpam(TOKEN, 3);
+
+        assertThat(corpus.size()).isEqualTo(1);
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.9998);
+    }
+
+    @Test
+    public void corpusShouldGrowBeyondItsInitialCapacity() {
+        TokenCorpus corpus = new TokenCorpus(1);
+        corpus.addMessageCounts(10, 10);
+        IntStream.range(0, 10000)
+            .forEach(i -> corpus.addSpam(TokenCorpus.hash("token" + i), 10));
+
+        assertThat(corpus.size()).isEqualTo(10000);
+        assertThat(IntStream.range(0, 10000)
+            .allMatch(i -> corpus.probability(TokenCorpus.hash("token" + i)).isPresent()))
+            .isTrue();
+    }
+
+    @Test
+    public void mergeShouldAddOccurrencesAndMessageCounts() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addHam(TOKEN, 20);
+        TokenCorpus update = new TokenCorpus();
+        update.addMessageCounts(0, 1);
+        update.addSpam(TOKEN, 2);
+        update.addSpam(TokenCorpus.hash("other"), 2);
+
+        corpus.merge(update);
+
+        assertThat(corpus.size()).isEqualTo(2);
+        assertThat(corpus.getHamMessageCount()).isEqualTo(10);
+        assertThat(corpus.getSpamMessageCount()).isEqualTo(11);
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isCloseTo((2.0 / 11) / (1 + 2.0 / 11), within(0.0001));
+    }
+
+    @Test
+    public void probabilityShouldBeEmptyForTokenSeenOnce() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addHam(TOKEN, 1);
+        corpus.addSpam(TOKEN, 1);
+
+        assertThat(corpus.probability(TOKEN)).isEqualTo(OptionalDouble.empty());
+    }
+
+    @Test
+    public void probabilityShouldIgnoreOccurrencesSeenOnce() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addHam(TOKEN, 1);
+        corpus.addSpam(TOKEN, 20);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.9999);
+    }
+
+    @Test
+    public void mergeShouldMakeTokensSeenOnceSignificantOnceSeenAgain() {
+        TokenCorpus corpus = new TokenCorpus();
+        corpus.addMessageCounts(10, 10);
+        corpus.addSpam(TOKEN, 1);
+        TokenCorpus update = new TokenCorpus();
+        update.addMessageCounts(0, 1);
+        update.addSpam(TOKEN, 1);
+
+        corpus.merge(update);
+
+        assertThat(corpus.probability(TOKEN).getAsDouble()).isEqualTo(0.4);
+    }
+}
@@ -52,9 +52,9 @@ public class CassandraDomainList extends AbstractDomainList {
     private final PreparedStatement removeStatement;
 
     @Inject
-    public CassandraDomainList(DNSService dnsService, Session session, CassandraUtils cassandraUtils) {
+    public CassandraDomainList(DNSService dnsService, Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils) {
         super(dnsService);
-        this.executor = new CassandraAsyncExecutor(session);
+        this.executor = executor;
         this.cassandraUtils = cassandraUtils;
         this.readAllStatement = prepareReadAllStatement(session);
         this.readStatement = prepareReadStatement(session);
@@ -87,8 +87,8 @@ public class CassandraDomainList extends AbstractDomainList {
     }
 
     @VisibleForTesting
-    CassandraDomainList(DNSService dnsService, Session session) {
-        this(dnsService, session, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    CassandraDomainList(DNSService dnsService, Session session, CassandraAsyncExecutor executor) {
+        this(dnsService, session, executor, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     @Override
@@ -109,7 +109,7 @@ public class CassandraDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void addDomain(Domain domain) throws DomainListException {
+    protected void doAddDomain(Domain domain) throws DomainListException {
         boolean executed = executor.executeReturnApplied(insertStatement.bind()
             .setString(DOMAIN, domain.asString()))
             .join();
@@ -119,7 +119,7 @@ public class CassandraDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void removeDomain(Domain domain) throws DomainListException {
+    protected void doRemoveDomain(Domain domain) throws DomainListException {
         boolean executed = executor.executeReturnApplied(removeStatement.bind()
             .setString(DOMAIN, domain.asString()))
             .join();
@@ -48,8 +48,8 @@ public class UrlsDao {
     private final CassandraUtils cassandraUtils;
 
     @Inject
-    public UrlsDao(Session session, CassandraUtils cassandraUtils) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public UrlsDao(Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils) {
+        this.executor = executor;
         this.cassandraUtils = cassandraUtils;
 
         this.insert = prepareInsert(session);
@@ -28,15 +28,18 @@ import static org.apache.james.rrt.cassandra.tables.CassandraRecipientRewriteTab
 import static org.apache.james.rrt.cassandra.tables.CassandraRecipientRewriteTableTable.TABLE_NAME;
 import static org.apache.james.rrt.cassandra.tables.CassandraRecipientRewriteTableTable.USER;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
 import org.apache.james.core.Domain;
+import org.apache.james.core.User;
 import org.apache.james.rrt.lib.AbstractRecipientRewriteTable;
 import org.apache.james.rrt.lib.Mapping;
 import org.apache.james.rrt.lib.MappingSource;
@@ -58,8 +61,8 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
     private final PreparedStatement retrieveAllMappingsStatement;
 
     @Inject
-    public CassandraRecipientRewriteTable(Session session, CassandraUtils cassandraUtils) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraRecipientRewriteTable(Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils) {
+        this.executor = executor;
         this.cassandraUtils = cassandraUtils;
         this.insertStatement = prepareInsertStatement(session);
         this.deleteStatement = prepareDelete(session);
@@ -95,7 +98,7 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
     }
 
     @Override
-    public void addMapping(MappingSource source, Mapping mapping) {
+    protected void doAddMapping(MappingSource source, Mapping mapping) {
         executor.executeVoid(insertStatement.bind()
             .setString(USER, source.getFixedUser())
             .setString(DOMAIN, source.getFixedDomain())
@@ -104,7 +107,7 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
     }
 
     @Override
-    public void removeMapping(MappingSource source, Mapping mapping) {
+    protected void doRemoveMapping(MappingSource source, Mapping mapping) {
         executor.executeVoid(deleteStatement.bind()
                 .setString(USER, source.getFixedUser())
                 .setString(DOMAIN, source.getFixedDomain())
@@ -119,15 +122,17 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
     }
 
     private Optional<Mappings> retrieveMappings(MappingSource source) {
-        List<String> mappings = executor.execute(retrieveMappingStatement.bind()
+        return retrieveMappingsAsync(source).join();
+    }
+
+    private CompletableFuture<Optional<Mappings>> retrieveMappingsAsync(MappingSource source) {
+        return executor.execute(retrieveMappingStatement.bind()
             .setString(USER, source.getFixedUser())
             .setString(DOMAIN, source.getFixedDomain()))
             .thenApply(resultSet -> cassandraUtils.convertToStream(resultSet)
                 .map(row -> row.getString(MAPPING))
                 .collect(Guavate.toImmutableList()))
-            .join();
-
-        return MappingsImpl.fromCollection(mappings).toOptional();
+            .thenApply(mappings -> MappingsImpl.fromCollection(mappings).toOptional());
     }
 
     @Override
@@ -175,4 +180,28 @@ public class CassandraRecipientRewriteTable extends AbstractRecipientRewriteTabl
                 .orElse(MappingsImpl.empty());
     }
 
+    @Override
+    protected Map<User, Mappings> mapAddresses(Collection<User> users) {
+        Map<User, CompletableFuture<Optional<Mappings>>> userMappings = users.stream()
+            .distinct()
+            .collect(Guavate.toImmutableMap(
+                Function.identity(),
+                user -> retrieveMappingsAsync(MappingSource.fromUser(user))));
+        Map<Domain, CompletableFuture<Optional<Mappings>>> domainMappings = users.stream()
+            .map(user -> user.getDomainPart().get())
+            .distinct()
+            .collect(Guavate.toImmutableMap(
+                Function.identity(),
+                domain -> retrieveMappingsAsync(MappingSource.fromDomain(domain))));
+
+        return userMappings.entrySet()
+            .stream()
+            .collect(Guavate.toImmutableMap(
+                Map.Entry::getKey,
+                entry -> OptionalUtils.or(
+                        entry.getValue().join(),
+                        domainMappings.get(entry.getKey().getDomainPart().get()).join())
+                    .orElse(MappingsImpl.empty())));
+    }
+
 }
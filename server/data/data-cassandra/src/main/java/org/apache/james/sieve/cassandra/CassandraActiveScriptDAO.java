@@ -48,8 +48,8 @@ public class CassandraActiveScriptDAO {
     private final PreparedStatement selectActiveName;
 
     @Inject
-    public CassandraActiveScriptDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraActiveScriptDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.insertActive = session.prepare(insertInto(TABLE_NAME)
             .value(SCRIPT_NAME, bindMarker(SCRIPT_NAME))
             .value(USER_NAME, bindMarker(USER_NAME))
@@ -59,8 +59,8 @@ public class CassandraSieveDAO {
     private final PreparedStatement deleteScriptStatement;
 
     @Inject
-    public CassandraSieveDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraSieveDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         insertScriptStatement = session.prepare(
             insertInto(TABLE_NAME)
@@ -53,8 +53,8 @@ public class CassandraSieveQuotaDAO {
     private final PreparedStatement deleteUserQuotaStatement;
 
     @Inject
-    public CassandraSieveQuotaDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraSieveQuotaDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         selectClusterQuotaStatement = session.prepare(
             select(CassandraSieveClusterQuotaTable.VALUE)
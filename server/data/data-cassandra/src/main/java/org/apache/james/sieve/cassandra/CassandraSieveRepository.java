@@ -92,6 +92,7 @@ public class CassandraSieveRepository implements SieveRepository {
     public void putScript(String user, String name, String content) throws QuotaExceededException, StorageException {
         CompletableFuture<Long> spaceUsed = spaceThatWillBeUsedByNewScript(user, name, content.length());
         throwOnOverQuota(user, spaceUsed);
+        boolean isActive = isActive(user, name);
 
         CompletableFuture.allOf(
             updateSpaceUsed(user, spaceUsed.join()),
@@ -99,9 +100,20 @@ public class CassandraSieveRepository implements SieveRepository {
                 Script.builder()
                     .name(name)
                     .content(content)
-                    .isActive(false)
+                    .isActive(isActive)
                     .build()))
             .join();
+        if (isActive) {
+            // Refreshes the activation date, which tells the parsed copies of the script are outdated
+            cassandraActiveScriptDAO.activate(user, name).join();
+        }
+    }
+
+    private boolean isActive(String user, String name) {
+        return cassandraActiveScriptDAO.getActiveSctiptInfo(user).join()
+            .map(ActiveScriptInfo::getName)
+            .filter(name::equals)
+            .isPresent();
     }
 
     public CompletableFuture<Void> updateSpaceUsed(String user, long spaceUsed) {
@@ -173,8 +185,7 @@ public class CassandraSieveRepository implements SieveRepository {
     }
 
     private void ensureIsNotActive(String user, String name) throws IsActiveException {
-        Optional<String> activeName = cassandraActiveScriptDAO.getActiveSctiptInfo(user).join().map(ActiveScriptInfo::getName);
-        if (activeName.isPresent() && name.equals(activeName.get())) {
+        if (isActive(user, name)) {
             throw new IsActiveException();
         }
     }
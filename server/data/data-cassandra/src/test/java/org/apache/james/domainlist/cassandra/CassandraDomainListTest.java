@@ -47,7 +47,7 @@ public class CassandraDomainListTest extends AbstractDomainListTest {
 
     @Override
     protected DomainList createDomainList() throws Exception {
-        CassandraDomainList testee = new CassandraDomainList(getDNSServer("localhost"), cassandra.getConf());
+        CassandraDomainList testee = new CassandraDomainList(getDNSServer("localhost"), cassandra.getConf(), cassandra.getExecutor());
         testee.setAutoDetect(false);
         testee.setAutoDetectIP(false);
         return testee;
@@ -61,6 +61,7 @@ public class CassandraMailRepositoryUrlStoreExtension implements ParameterResolv
         return new CassandraMailRepositoryUrlStore(
             new UrlsDao(
                 cassandraCluster.getConf(),
+                cassandraCluster.getExecutor(),
                 CassandraUtils.WITH_DEFAULT_CONFIGURATION));
     }
 }
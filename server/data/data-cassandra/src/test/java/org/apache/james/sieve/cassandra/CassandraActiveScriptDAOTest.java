@@ -45,7 +45,7 @@ public class CassandraActiveScriptDAOTest {
     @Before
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraSieveRepositoryModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        activeScriptDAO = new CassandraActiveScriptDAO(cassandra.getConf());
+        activeScriptDAO = new CassandraActiveScriptDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
@@ -65,7 +65,7 @@ public class CassandraSieveDAOTest {
     @Before
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraSieveRepositoryModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        sieveDAO = new CassandraSieveDAO(cassandra.getConf());
+        sieveDAO = new CassandraSieveDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
@@ -43,7 +43,7 @@ public class CassandraSieveQuotaDAOTest {
     @Before
     public void setUp() throws Exception {
         cassandra = CassandraCluster.create(new CassandraSieveRepositoryModule(), cassandraServer.getIp(), cassandraServer.getBindingPort());
-        sieveQuotaDAO = new CassandraSieveQuotaDAO(cassandra.getConf());
+        sieveQuotaDAO = new CassandraSieveQuotaDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @After
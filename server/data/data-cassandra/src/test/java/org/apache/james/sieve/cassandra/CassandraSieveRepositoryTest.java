@@ -49,8 +49,8 @@ public class CassandraSieveRepositoryTest extends AbstractSieveRepositoryTest {
     @Override
     protected SieveRepository createSieveRepository() throws Exception {
         return new CassandraSieveRepository(
-            new CassandraSieveDAO(cassandra.getConf()),
-            new CassandraSieveQuotaDAO(cassandra.getConf()),
-            new CassandraActiveScriptDAO(cassandra.getConf()));
+            new CassandraSieveDAO(cassandra.getConf(), cassandra.getExecutor()),
+            new CassandraSieveQuotaDAO(cassandra.getConf(), cassandra.getExecutor()),
+            new CassandraActiveScriptDAO(cassandra.getConf(), cassandra.getExecutor()));
     }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@
 
 package org.apache.james.mailrepository.file;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -26,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.PostConstruct;
@@ -46,6 +48,10 @@ import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+
 /**
  * <p>
  * Implementation of a MailRepository on a FileSystem.
@@ -61,6 +67,12 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * Requires a logger called MailRepository.
  * </p>
+ * <p>
+ * Unless CACHEKEYS is false, the keys of the repository are tracked in an append-only index file stored
+ * alongside the mails, so that listing and counting mails does not scan the repository directory. Keys
+ * are then listed in their insertion order. Deleting the index file forces it to be rebuilt from the
+ * directory on the next start.
+ * </p>
  */
 public class FileMailRepository extends AbstractMailRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileMailRepository.class);
@@ -68,8 +80,7 @@ public class FileMailRepository extends AbstractMailRepository {
     private FilePersistentStreamRepository streamRepository;
     private FilePersistentObjectRepository objectRepository;
     private String destination;
-    private Set<String> keys;
-    private final Object lock = new Object();
+    private MailKeyIndex keyIndex;
     private boolean fifo;
     private boolean cacheKeys; // experimental: for use with write mostly
     // repositories such as spam and error
@@ -108,56 +119,93 @@ public class FileMailRepository extends AbstractMailRepository {
             streamRepository.init();
 
             if (cacheKeys) {
-                keys = Collections.synchronizedSet(new HashSet<String>());
+                keyIndex = loadOrCreateKeyIndex();
+            } else {
+                removeStrandedFiles();
             }
+            LOGGER.debug("{} created in {}", getClass().getName(), destination);
+        } catch (Exception e) {
+            LOGGER.error("Failed to retrieve Store component", e);
+            throw e;
+        }
+    }
+
+    private MailKeyIndex loadOrCreateKeyIndex() throws IOException, MessagingException {
+        removeStrandedFiles();
+        File indexFile = new File(fileSystem.getFile(destination), MailKeyIndex.INDEX_FILE_NAME);
+        if (!indexFile.exists()) {
+            return MailKeyIndex.create(indexFile, storedKeys().iterator());
+        }
+        MailKeyIndex index = MailKeyIndex.load(indexFile);
+        reconcile(index);
+        return index;
+    }
 
-            // Finds non-matching pairs and deletes the extra files
-            HashSet<String> streamKeys = new HashSet<>();
-            for (Iterator<String> i = streamRepository.list(); i.hasNext(); ) {
-                streamKeys.add(i.next());
+    /**
+     * Mails are indexed once stored, and removed from the index once deleted: a crash in between leaves the index
+     * out of sync with the directory, which is the reference.
+     */
+    private void reconcile(MailKeyIndex index) throws IOException {
+        Set<String> storedKeys = ImmutableSet.copyOf(storedKeys());
+        for (String indexedKey : ImmutableList.copyOf(index.keys())) {
+            if (!storedKeys.contains(indexedKey)) {
+                LOGGER.warn("Removing {} from the index of {}: it is not stored anymore", indexedKey, destination);
+                index.remove(indexedKey);
             }
-            HashSet<String> objectKeys = new HashSet<>();
-            for (Iterator<String> i = objectRepository.list(); i.hasNext(); ) {
-                objectKeys.add(i.next());
+        }
+        for (String storedKey : storedKeys) {
+            if (!index.contains(storedKey)) {
+                LOGGER.warn("Adding {} to the index of {}: it was stored but not indexed", storedKey, destination);
+                index.add(storedKey);
             }
+        }
+    }
 
-            @SuppressWarnings("unchecked")
-            Collection<String> strandedStreams = (Collection<String>) streamKeys.clone();
-            strandedStreams.removeAll(objectKeys);
-            for (Object strandedStream : strandedStreams) {
-                MailKey key = new MailKey((String) strandedStream);
-                remove(key);
-            }
+    /**
+     * Keys of the stored mails, sorted when FIFO order is required: the underlying repository lists them in hash order.
+     */
+    private List<String> storedKeys() {
+        ArrayList<String> keys = new ArrayList<>();
+        for (Iterator<String> i = objectRepository.list(); i.hasNext(); ) {
+            keys.add(i.next());
+        }
+        if (fifo) {
+            Collections.sort(keys);
+        }
+        return keys;
+    }
 
-            @SuppressWarnings("unchecked")
-            Collection<String> strandedObjects = (Collection<String>) objectKeys.clone();
-            strandedObjects.removeAll(streamKeys);
-            for (Object strandedObject : strandedObjects) {
-                MailKey key = new MailKey((String) strandedObject);
-                remove(key);
-            }
+    private void removeStrandedFiles() throws MessagingException {
+        // Finds non-matching pairs and deletes the extra files
+        HashSet<String> streamKeys = new HashSet<>();
+        for (Iterator<String> i = streamRepository.list(); i.hasNext(); ) {
+            streamKeys.add(i.next());
+        }
+        HashSet<String> objectKeys = new HashSet<>();
+        for (Iterator<String> i = objectRepository.list(); i.hasNext(); ) {
+            objectKeys.add(i.next());
+        }
 
-            if (keys != null) {
-                // Next get a list from the object repository
-                // and use that for the list of keys
-                keys.clear();
-                for (Iterator<String> i = objectRepository.list(); i.hasNext(); ) {
-                    keys.add(i.next());
-                }
-            }
-            LOGGER.debug("{} created in {}", getClass().getName(), destination);
-        } catch (Exception e) {
-            LOGGER.error("Failed to retrieve Store component", e);
-            throw e;
+        @SuppressWarnings("unchecked")
+        Collection<String> strandedStreams = (Collection<String>) streamKeys.clone();
+        strandedStreams.removeAll(objectKeys);
+        for (Object strandedStream : strandedStreams) {
+            MailKey key = new MailKey((String) strandedStream);
+            remove(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        Collection<String> strandedObjects = (Collection<String>) objectKeys.clone();
+        strandedObjects.removeAll(streamKeys);
+        for (Object strandedObject : strandedObjects) {
+            MailKey key = new MailKey((String) strandedObject);
+            remove(key);
         }
     }
 
     @Override
     protected void internalStore(Mail mc) throws MessagingException, IOException {
         String key = mc.getName();
-        if (keys != null && !keys.contains(key)) {
-            keys.add(key);
-        }
         boolean saveStream = true;
         boolean update = true;
 
@@ -216,6 +264,9 @@ public class FileMailRepository extends AbstractMailRepository {
         }
         // Always save the header information
         objectRepository.put(key, mc);
+        if (keyIndex != null) {
+            keyIndex.add(key);
+        }
     }
 
     @Override
@@ -245,34 +296,45 @@ public class FileMailRepository extends AbstractMailRepository {
 
     @Override
     protected void internalRemove(MailKey key) throws MessagingException {
-        if (keys != null) {
-            keys.remove(key.asString());
-        }
         streamRepository.remove(key.asString());
         objectRepository.remove(key.asString());
+        if (keyIndex != null) {
+            try {
+                keyIndex.remove(key.asString());
+            } catch (IOException e) {
+                throw new MessagingException("Exception while removing " + key.asString() + " from the index", e);
+            }
+        }
     }
 
     @Override
     public Iterator<MailKey> list() {
-        // Fix ConcurrentModificationException by cloning
-        // the keyset before getting an iterator
-        final ArrayList<String> clone;
-        if (keys != null) {
-            synchronized (lock) {
-                clone = new ArrayList<>(keys);
-            }
-        } else {
-            clone = new ArrayList<>();
-            for (Iterator<String> i = objectRepository.list(); i.hasNext(); ) {
-                clone.add(i.next());
-            }
-        }
-        if (fifo) {
-            Collections.sort(clone); // Keys is a HashSet; impose FIFO for apps
+        if (keyIndex != null) {
+            // The index iterates keys in insertion order, which is FIFO, without copying them
+            return Iterators.transform(keyIndex.keys(), MailKey::new);
         }
-        // that need it
-        return clone.stream()
+        return storedKeys().stream()
             .map(MailKey::new)
             .iterator();
     }
+
+    @Override
+    public long size() throws MessagingException {
+        if (keyIndex != null) {
+            return keyIndex.size();
+        }
+        return super.size();
+    }
+
+    @Override
+    public void removeAll() throws MessagingException {
+        if (keyIndex == null) {
+            super.removeAll();
+            return;
+        }
+        // Listing the index is weakly consistent, so keys can be removed while iterating
+        for (Iterator<MailKey> i = list(); i.hasNext(); ) {
+            remove(i.next());
+        }
+    }
 }
@@ -22,16 +22,16 @@
  * 1. Currently, iterating through the message collection does not
  *    preserve the order in the file.  Change this with some form of
  *    OrderedMap.  There is a suitable class in Jakarta Commons
- *    Collections.
+ *    Collections. - DONE.
  *
- * 2. Optimize the remove operation.
+ * 2. Optimize the remove operation. - DONE.
  *
  * 3. Don't load entire message into memory.  This would mean computing
  *    the hash during I/O streaming, rather than loading entire message
  *    into memory, and using a MimeMessageWrapper with a suitable data
  *    source.  As a strawman, the interface to MessageAction would
  *    carry the hash, along with a size-limited stream providing the
- *    message body.
+ *    message body. - Partially done, keys are hashed while streaming.
  *
  * 4. Decide what to do when there are IDENTICAL messages in the file.
  *    Right now only the last one will ever be processed, due to key
@@ -45,23 +45,21 @@
 
 package org.apache.james.mailrepository.file;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 import javax.mail.MessagingException;
 import javax.mail.Session;
@@ -78,9 +76,7 @@ import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
-import com.google.common.hash.Hashing;
 
 /**
  * Implementation of a MailRepository using UNIX mbox files.
@@ -105,14 +101,14 @@ import com.google.common.hash.Hashing;
  * <p>
  * Implementation notes:
  * <p>
- * This class keeps an internal store of the mbox file When the internal mbox
- * file is updated (added/deleted) then the file will be re-read from disk and
- * then written back. This is a bit inefficent but means that the file on disk
- * should be correct.
+ * This class keeps the offsets of the messages of the mbox file in a sidecar
+ * index file (see {@link MBoxMessageIndex}). Storing a message appends it to
+ * the mbox file and only indexes the appended part. Retrieving a message reads
+ * it from a memory mapping of its offsets. Removing messages copies the bytes
+ * of the remaining ones to a new mbox file, without parsing them again.
  * <p>
  * The mbox store is mainly meant to be used as a one-way street. Storing new
- * emails is very fast (append to file) whereas reading them (via POP3) is
- * slower (read from disk and parse). Therefore this implementation is best
+ * emails is very fast (append to file). Therefore this implementation is best
  * suited to people who wish to use the mbox format for taking data out of James
  * and into something else (IMAP server or mail list displayer)
  *
@@ -128,31 +124,19 @@ public class MBoxMailRepository implements MailRepository, Configurable {
 
     static final SimpleDateFormat dy = new SimpleDateFormat("EE MMM dd HH:mm:ss yyyy", Locale.US);
     static final String LOCKEXT = ".lock";
-    static final String WORKEXT = ".work";
     static final int LOCKSLEEPDELAY = 2000; // 2 second back off in the event of a problem with the lock file
     static final int MAXSLEEPTIMES = 100; //
-    // The hash table will be loaded with a initial capacity of filelength/MLISTPRESIZEFACTOR
-    static final long MLISTPRESIZEFACTOR = 10 * 1024; 
-    // Set up a hashtable to have a meaningful default
-    static final long DEFAULTMLISTCAPACITY = 20; 
-    
-    /**
-     * Whether line buffering is turned used.
-     */
-    private static boolean BUFFERING = true;
 
     /**
-     * The internal list of emails.
+     * The offsets of the emails in the mbox file, in file order.
      * The key is an adapted SHA-256 fingerprint of the email body.
      */
-    private Hashtable<String, Long> mList = null;
+    private MBoxMessageIndex index = null;
     /**
      * The filename to read & write the mbox from/to
      */
     private String mboxFile;
 
-    private boolean fifo;
-
     /**
      * A callback used when a message is read from the mbox file
      */
@@ -168,9 +152,7 @@ public class MBoxMailRepository implements MailRepository, Configurable {
       The repository configuration
      */
         String destination;
-        this.mList = null;
-        BUFFERING = configuration.getBoolean("[@BUFFERING]", true);
-        fifo = configuration.getBoolean("[@FIFO]", false);
+        this.index = null;
         destination = configuration.getString("[@destinationURL]");
         if (destination.charAt(destination.length() - 1) == '/') {
             // Remove the trailing / as well as the protocol marker
@@ -206,272 +188,64 @@ public class MBoxMailRepository implements MailRepository, Configurable {
     }
 
     /**
-     * Parse a text block as an email and convert it into a mime message
-     * 
-     * @param emailBody
-     *            The headers and body of an email. This will be parsed into a
-     *            mime message and stored
+     * Parse a message read from the mbox file into a mime message
      */
-    private MimeMessage convertTextToMimeMessage(String emailBody) {
-        // this.emailBody = emailBody;
-        MimeMessage mimeMessage = null;
-        // Parse the mime message as we have the full message now (in string
-        // format)
-        ByteArrayInputStream mb = new ByteArrayInputStream(emailBody.getBytes());
+    private MimeMessage convertToMimeMessage(InputStream message) {
         Properties props = System.getProperties();
         Session session = Session.getDefaultInstance(props);
         try {
-            mimeMessage = new MimeMessage(session, mb);
-
+            return new MimeMessage(session, message);
         } catch (MessagingException e) {
             LOGGER.error("Unable to parse mime message!", e);
+            return null;
         }
-
-        if (mimeMessage == null) {
-            LOGGER.debug("Mime message is null");
-        }
-
-        return mimeMessage;
-    }
-
-    /**
-     * Generate a hex representation of a SHA-256 checksum on the email body
-     */
-    private String generateKeyValue(String emailBody) {
-        return Hashing.sha256().hashUnencodedChars(emailBody).toString();
-    }
-
-    /**
-     * Parse the mbox file.
-     * 
-     * @param ins
-     *            The random access file to load. Note that the file may or may
-     *            not start at offset 0 in the file
-     * @param messAct
-     *            The action to take when a message is found
-     */
-    private MimeMessage parseMboxFile(RandomAccessFile ins, MessageAction messAct) {
-        LOGGER.debug("Start parsing {}", mboxFile);
-        try {
-
-            Pattern sepMatchPattern = Pattern.compile("^From (.*) (.*):(.*):(.*)$");
-
-            int c;
-            boolean inMessage = false;
-            StringBuffer messageBuffer = new StringBuffer();
-            String previousMessageSeparator = null;
-            boolean foundSep;
-
-            long prevMessageStart = ins.getFilePointer();
-            if (BUFFERING) {
-                String line;
-                while ((line = ins.readLine()) != null) {
-                    foundSep = sepMatchPattern.matcher(line).matches();
-
-                    if (foundSep && inMessage) {
-                        MimeMessage endResult = messAct.messageAction(previousMessageSeparator, messageBuffer.toString(), prevMessageStart);
-                        if (messAct.isComplete()) {
-                            // I've got what I want so just exit
-                            return endResult;
-                        }
-                        previousMessageSeparator = line;
-                        prevMessageStart = ins.getFilePointer() - line.length();
-                        messageBuffer = new StringBuffer();
-                        inMessage = true;
-                    }
-                    // Only done at the start (first header)
-                    if (foundSep && !inMessage) {
-                        previousMessageSeparator = line;
-                        inMessage = true;
-                    }
-                    if (!foundSep && inMessage) {
-                        messageBuffer.append(line).append("\n");
-                    }
-                }
-            } else {
-                StringBuffer line = new StringBuffer();
-                while ((c = ins.read()) != -1) {
-                    if (c == 10) {
-                        foundSep = sepMatchPattern.matcher(line).matches();
-                        if (foundSep && inMessage) {
-                            MimeMessage endResult = messAct.messageAction(previousMessageSeparator, messageBuffer.toString(), prevMessageStart);
-                            if (messAct.isComplete()) {
-                                // I've got what I want so just exit
-                                return endResult;
-                            }
-                            previousMessageSeparator = line.toString();
-                            prevMessageStart = ins.getFilePointer() - line.length();
-                            messageBuffer = new StringBuffer();
-                            inMessage = true;
-                        }
-                        // Only done at the start (first header)
-                        if (foundSep && !inMessage) {
-                            previousMessageSeparator = line.toString();
-                            inMessage = true;
-                        }
-                        if (!foundSep) {
-                            messageBuffer.append(line).append((char) c);
-                        }
-                        line = new StringBuffer(); // Reset buffer
-                    } else {
-                        line.append((char) c);
-                    }
-                }
-            }
-
-            if (messageBuffer.length() != 0) {
-                // process last message
-                return messAct.messageAction(previousMessageSeparator, messageBuffer.toString(), prevMessageStart);
-            }
-        } catch (IOException ioEx) {
-            LOGGER.error("Unable to write file (General I/O problem) {}", mboxFile, ioEx);
-        } catch (PatternSyntaxException e) {
-            LOGGER.error("Bad regex passed {}", mboxFile, e);
-        } finally {
-            LOGGER.debug("Finished parsing {}", mboxFile);
-        }
-        return null;
     }
 
     /**
      * Find a given message<br>
-     * This method will first use selectMessage(key) to see if the key/offset
-     * combination allows us to skip parts of the file and only load the message
-     * we are interested in
+     * Messages appended to the mbox file by someone else since it was last
+     * indexed are indexed when the key is not found.
      * 
      * @param key
      *            The key of the message to find
      */
-    private MimeMessage findMessage(String key) {
-        MimeMessage foundMessage;
-
-        // See if we can get the message by using the cache position first
-        foundMessage = selectMessage(key);
-        if (foundMessage == null) {
-            // If the message is not found something has changed from
-            // the cache. The cache may have been invalidated by
-            // another method, or the file may have been replaced from
-            // underneath us. Reload the cache, and try again.
-            mList = null;
-            loadKeys();
-            foundMessage = selectMessage(key);
-        }
-        return foundMessage;
-    }
-
-    /**
-     * Quickly find a message by using the stored message offsets
-     * 
-     * @param key
-     *            The key of the message to find
-     */
-    private MimeMessage selectMessage(final String key) {
-        MimeMessage foundMessage = null;
-        // Can we find the key first
-        if (mList == null || !mList.containsKey(key)) {
-            // Not initiailised so no point looking
-            LOGGER.debug("mList - key not found {}", mboxFile);
-            return foundMessage;
-        }
-        long messageStart = mList.get(key);
-        LOGGER.debug("Load message starting at offset {} from file {}", messageStart, mboxFile);
-        // Now try and find the position in the file
-        RandomAccessFile ins = null;
+    private synchronized MimeMessage findMessage(String key) {
         try {
-            ins = new RandomAccessFile(mboxFile, "r");
-            if (messageStart != 0) {
-                ins.seek(messageStart - 1);
-            }
-            MessageAction op = new MessageAction() {
-                @Override
-                public boolean isComplete() {
-                    return true;
-                }
-
-                @Override
-                public MimeMessage messageAction(String messageSeparator, String bodyText, long messageStart) {
-                    if (key.equals(generateKeyValue(bodyText))) {
-                        LOGGER.debug("{} Located message. Returning MIME message", this.getClass().getName());
-                        return convertTextToMimeMessage(bodyText);
-                    }
-                    return null;
-                }
-            };
-            foundMessage = this.parseMboxFile(ins, op);
-        } catch (FileNotFoundException e) {
-            LOGGER.error("Unable to save(open) file (File not found) {}", mboxFile, e);
-        } catch (IOException e) {
-            LOGGER.error("Unable to write file (General I/O problem) {}", mboxFile, e);
-        } finally {
-            if (foundMessage == null) {
-                LOGGER.debug("select - message not found {}", mboxFile);
+            Optional<MBoxMessageIndex.Entry> entry = index.get(key);
+            if (!entry.isPresent()) {
+                index.append();
+                entry = index.get(key);
             }
-            if (ins != null) {
-                try {
-                    ins.close();
-                } catch (IOException e) {
-                    LOGGER.error("Unable to close file (General I/O problem) {}", mboxFile, e);
-                }
+            if (!entry.isPresent()) {
+                LOGGER.debug("index - key not found {}", mboxFile);
+                return null;
             }
+            LOGGER.debug("Load message starting at offset {} from file {}", entry.get().getOffset(), mboxFile);
+            return convertToMimeMessage(index.read(entry.get()));
+        } catch (IOException e) {
+            LOGGER.error("Unable to read file (General I/O problem) {}", mboxFile, e);
+            return null;
         }
-        return foundMessage;
     }
 
     /**
      * Load the message keys and file pointer offsets from disk
      */
     private synchronized void loadKeys() {
-        if (mList != null) {
+        if (index != null) {
             return;
         }
-        RandomAccessFile ins = null;
         try {
-            ins = new RandomAccessFile(mboxFile, "r");
-            long initialCapacity = (ins.length() > MLISTPRESIZEFACTOR ? ins.length() / MLISTPRESIZEFACTOR : 0);
-            if (initialCapacity < DEFAULTMLISTCAPACITY) {
-                initialCapacity = DEFAULTMLISTCAPACITY;
-            }
-            if (initialCapacity > Integer.MAX_VALUE) {
-                initialCapacity = Integer.MAX_VALUE - 1;
-            }
-            this.mList = new Hashtable<>((int) initialCapacity);
-            this.parseMboxFile(ins, new MessageAction() {
-                @Override
-                public boolean isComplete() {
-                    return false;
-                }
-
-                @Override
-                public MimeMessage messageAction(String messageSeparator, String bodyText, long messageStart) {
-                    String key = generateKeyValue(bodyText);
-                    mList.put(key, messageStart);
-                    LOGGER.debug("Key {} at {}", key, messageStart);
-
-                    return null;
-                }
-            });
-            // System.out.println("Done Load keys!");
-        } catch (FileNotFoundException e) {
-            LOGGER.error("Unable to save(open) file (File not found) {}", mboxFile, e);
-            this.mList = new Hashtable<>((int) DEFAULTMLISTCAPACITY);
+            index = MBoxMessageIndex.load(new File(mboxFile));
         } catch (IOException e) {
-            LOGGER.error("Unable to write file (General I/O problem) {}", mboxFile, e);
-        } finally {
-            if (ins != null) {
-                try {
-                    ins.close();
-                } catch (IOException e) {
-                    LOGGER.error("Unable to close file (General I/O problem) {}", mboxFile, e);
-                }
-            }
+            LOGGER.error("Unable to read file (General I/O problem) {}", mboxFile, e);
         }
     }
 
     @Override
-    public MailKey store(Mail mc) {
+    public synchronized MailKey store(Mail mc) {
         LOGGER.debug("Will store message to file {}", mboxFile);
 
-        this.mList = null;
         // Now make up the from header
         String fromHeader = null;
         String message = null;
@@ -495,6 +269,10 @@ public class MBoxMailRepository implements MailRepository, Configurable {
             saveFile.writeBytes((fromHeader + "\n"));
             saveFile.writeBytes((message + "\n"));
             saveFile.close();
+            if (index != null) {
+                // Only index what was appended
+                index.append();
+            }
         } catch (FileNotFoundException e) {
             LOGGER.error("Unable to save(open) file (File not found) {}", mboxFile, e);
         } catch (IOException e) {
@@ -505,27 +283,27 @@ public class MBoxMailRepository implements MailRepository, Configurable {
 
     @Override
     public Iterator<MailKey> list() {
-        ArrayList<String> keys = loadKeysAsArray();
-
-        if (!keys.isEmpty()) {
-            // find the first message. This is a trick to make sure that if
-            // the file is changed out from under us, we will detect it and
-            // correct for it BEFORE we return the iterator.
-            findMessage(keys.iterator().next());
-        }
+        List<String> keys = loadKeysAsList();
 
         LOGGER.debug("{} keys to be iterated over.", keys.size());
-        if (fifo) {
-            Collections.sort(keys); // Keys is a HashSet; impose FIFO for apps that need it
-        }
+        // Keys are listed in file order, which is FIFO
         return keys.stream()
             .map(MailKey::new)
             .iterator();
     }
 
-    private ArrayList<String> loadKeysAsArray() {
+    private synchronized List<String> loadKeysAsList() {
         loadKeys();
-        return new ArrayList<>(mList.keySet());
+        if (index == null) {
+            return ImmutableList.of();
+        }
+        try {
+            // Index messages appended by someone else
+            index.append();
+        } catch (IOException e) {
+            LOGGER.error("Unable to read file (General I/O problem) {}", mboxFile, e);
+        }
+        return index.keys();
     }
 
     @Override
@@ -534,7 +312,7 @@ public class MBoxMailRepository implements MailRepository, Configurable {
         loadKeys();
         MailImpl res;
 
-        MimeMessage foundMessage = findMessage(key.asString());
+        MimeMessage foundMessage = index == null ? null : findMessage(key.asString());
         if (foundMessage == null) {
             LOGGER.error("found message is null!");
             return null;
@@ -548,9 +326,7 @@ public class MBoxMailRepository implements MailRepository, Configurable {
 
     @Override
     public void remove(Mail mail) {
-        ArrayList<Mail> remArray = new ArrayList<>();
-        remArray.add(mail);
-        remove(remArray);
+        remove(ImmutableList.of(mail));
     }
 
     /**
@@ -600,70 +376,18 @@ public class MBoxMailRepository implements MailRepository, Configurable {
     @Override
     public void remove(final Collection<Mail> mails) {
         LOGGER.debug("Removing entry for key {}", mails);
-        // The plan is as follows:
-        // Attempt to locate the message in the file
-        // by reading through the
-        // once we've done that then seek to the file
-        try {
-            RandomAccessFile ins = new RandomAccessFile(mboxFile, "r"); // The source
-            final RandomAccessFile outputFile = new RandomAccessFile(mboxFile + WORKEXT, "rw"); // The destination
-            parseMboxFile(ins, new MessageAction() {
-                @Override
-                public boolean isComplete() {
-                    return false;
-                }
-
-                @Override
-                public MimeMessage messageAction(String messageSeparator, String bodyText, long messageStart) {
-                    // Write out the messages as we go, until we reach the key
-                    // we want
-                    try {
-                        String currentKey = generateKeyValue(bodyText);
-                        boolean foundKey = false;
-                        Iterator<Mail> mailList = mails.iterator();
-                        String key;
-                        while (mailList.hasNext()) {
-                            // Attempt to find the current key in the array
-                            key = mailList.next().getName();
-                            if (key.equals(currentKey)) {
-                                // Don't write the message to disk
-                                foundKey = true;
-                                break;
-                            }
-                        }
-                        if (!foundKey) {
-                            // We didn't find the key in the array so we will
-                            // keep it
-                            outputFile.writeBytes(messageSeparator + "\n");
-                            outputFile.writeBytes(bodyText);
-
-                        }
-                    } catch (IOException e) {
-                        LOGGER.error("Unable to write file (General I/O problem) {}", mboxFile, e);
-                    }
-                    return null;
-                }
-            });
-            ins.close();
-            outputFile.close();
-            // Delete the old mbox file
-            File mbox = new File(mboxFile);
-            FileUtils.forceDelete(mbox);
-            // And rename the lock file to be the new mbox
-            mbox = new File(mboxFile + WORKEXT);
-            if (!mbox.renameTo(new File(mboxFile))) {
-                throw new IOException("Failed to rename file " + mbox + " -> " + mboxFile);
-            }
-
-            // Now delete the keys in mails from the main hash
-            Iterator<Mail> mailList = mails.iterator();
-            String key;
-            while (mailList.hasNext()) {
-                // Attempt to find the current key in the array
-                key = mailList.next().getName();
-                mList.remove(key);
-            }
+        removeKeys(mails.stream()
+            .map(Mail::getName)
+            .collect(Collectors.toList()));
+    }
 
+    private synchronized void removeKeys(Collection<String> keys) {
+        loadKeys();
+        if (index == null) {
+            return;
+        }
+        try {
+            index.remove(keys);
         } catch (FileNotFoundException e) {
             LOGGER.error("Unable to save(open) file (File not found) {}", mboxFile, e);
         } catch (IOException e) {
@@ -673,18 +397,21 @@ public class MBoxMailRepository implements MailRepository, Configurable {
 
     @Override
     public void remove(MailKey key) throws MessagingException {
-        loadKeys();
+        removeLocked(ImmutableList.of(key.asString()));
+    }
+
+    private void removeLocked(Collection<String> keys) {
         try {
             lockMBox();
         } catch (Exception e) {
             LOGGER.error("Lock failed!", e);
             return; // No lock, so exit
         }
-        ArrayList<Mail> keys = new ArrayList<>();
-        keys.add(retrieve(key));
-
-        this.remove(keys);
-        unlockMBox();
+        try {
+            removeKeys(keys);
+        } finally {
+            unlockMBox();
+        }
     }
 
     @Override
@@ -699,12 +426,12 @@ public class MBoxMailRepository implements MailRepository, Configurable {
 
     @Override
     public long size() {
-        return loadKeysAsArray().size();
+        return loadKeysAsList().size();
     }
 
     @Override
     public void removeAll() throws MessagingException {
-        ImmutableList.copyOf(list())
-            .forEach(Throwing.<MailKey>consumer(this::remove).sneakyThrow());
+        // Removes all the messages in a single pass over the mbox file
+        removeLocked(loadKeysAsList());
     }
 }
@@ -0,0 +1,466 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailrepository.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Offsets of the messages of a mbox file, persisted in a sidecar <code>.index</code> file.
+ *
+ * Each line of the sidecar file holds the offset and length of a message in the mbox file, followed by
+ * its key. Messages stored in the mbox file are appended to the sidecar file, so that only the part of
+ * the mbox file written since the last indexing needs to be scanned. The sidecar file is rebuilt from a
+ * full scan when it does not match the mbox file anymore.
+ *
+ * Keys are the hex SHA-256 of the message body, where each line is read as ISO-8859-1 characters and
+ * terminated by a line feed.
+ */
+class MBoxMessageIndex {
+
+    static class Entry {
+        private final long offset;
+        private final long length;
+
+        Entry(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        long getOffset() {
+            return offset;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        long getEnd() {
+            return offset + length;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Entry) {
+                Entry entry = (Entry) o;
+                return this.offset == entry.offset
+                    && this.length == entry.length;
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(offset, length);
+        }
+    }
+
+    static final String INDEX_EXTENSION = ".index";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MBoxMessageIndex.class);
+    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("^From (.*) (.*):(.*):(.*)$");
+    private static final byte[] SEPARATOR_PREFIX = "From ".getBytes(StandardCharsets.US_ASCII);
+    private static final String WORK_EXTENSION = ".work";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Loads the index of the given mbox file, scanning only the messages not covered by its sidecar file.
+     */
+    static MBoxMessageIndex load(File mbox) throws IOException {
+        MBoxMessageIndex index = new MBoxMessageIndex(mbox);
+        if (!mbox.exists()) {
+            return index;
+        }
+        if (!index.readSidecar()) {
+            index.clear();
+            index.scan(0);
+            index.writeSidecar();
+            return index;
+        }
+        index.append();
+        return index;
+    }
+
+    private final File mbox;
+    private final File sidecar;
+    private final LinkedHashMap<String, Entry> entries;
+    private long indexedLength;
+
+    private MBoxMessageIndex(File mbox) {
+        this.mbox = mbox;
+        this.sidecar = new File(mbox.getPath() + INDEX_EXTENSION);
+        this.entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns the keys of the messages, in the order they were appended to the mbox file.
+     */
+    List<String> keys() {
+        return ImmutableList.copyOf(entries.keySet());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    Optional<Entry> get(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    /**
+     * Indexes the messages appended to the mbox file since the last indexing.
+     */
+    void append() throws IOException {
+        List<String> appendedKeys = scan(indexedLength);
+        if (!appendedKeys.isEmpty()) {
+            appendToSidecar(appendedKeys);
+        }
+    }
+
+    /**
+     * Returns the message of the given entry, without its separator line, from a memory mapping of the mbox file.
+     */
+    InputStream read(Entry entry) throws IOException {
+        ByteBuffer message;
+        try (FileChannel channel = FileChannel.open(mbox.toPath(), StandardOpenOption.READ)) {
+            message = channel.map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), entry.getLength());
+        }
+        skipLine(message);
+        return new ByteBufferInputStream(message);
+    }
+
+    /**
+     * Removes the given messages from the mbox file.
+     *
+     * The bytes of the remaining messages are copied by the file system to a work file replacing the mbox file, without
+     * being parsed again, and the offsets of the remaining messages are shifted accordingly.
+     */
+    void remove(Collection<String> keys) throws IOException {
+        List<Entry> removedEntries = keys.stream()
+            .map(entries::get)
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted(Comparator.comparingLong(Entry::getOffset))
+            .collect(Collectors.toList());
+        if (removedEntries.isEmpty()) {
+            return;
+        }
+
+        File work = new File(mbox.getPath() + WORK_EXTENSION);
+        TreeMap<Long, Long> removedLengthBefore = new TreeMap<>();
+        long removedLength = 0;
+        try (FileChannel source = FileChannel.open(mbox.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(work.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Entry removedEntry : removedEntries) {
+                transfer(source, position, removedEntry.getOffset() - position, target);
+                removedLength += removedEntry.getLength();
+                removedLengthBefore.put(removedEntry.getEnd(), removedLength);
+                position = removedEntry.getEnd();
+            }
+            transfer(source, position, source.size() - position, target);
+        }
+        Files.move(work.toPath(), mbox.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        entries.keySet().removeAll(keys);
+        entries.replaceAll((key, entry) -> Optional.ofNullable(removedLengthBefore.floorEntry(entry.getOffset()))
+            .map(shift -> new Entry(entry.getOffset() - shift.getValue(), entry.getLength()))
+            .orElse(entry));
+        indexedLength -= removedLength;
+        writeSidecar();
+    }
+
+    private void clear() {
+        entries.clear();
+        indexedLength = 0;
+    }
+
+    /**
+     * Reads the sidecar file, returning false when it is missing or does not match the mbox file.
+     */
+    private boolean readSidecar() throws IOException {
+        if (!sidecar.exists()) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(sidecar.toPath(), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    LOGGER.warn("Malformed line '{}' in {}, rebuilding it", line, sidecar);
+                    return false;
+                }
+                Entry entry = new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                entries.put(parts[2], entry);
+                indexedLength = Math.max(indexedLength, entry.getEnd());
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Malformed {}, rebuilding it", sidecar, e);
+            return false;
+        }
+        return matchesMBox();
+    }
+
+    private boolean matchesMBox() throws IOException {
+        if (indexedLength > mbox.length()) {
+            LOGGER.info("{} was truncated since {} was written, rebuilding it", mbox, sidecar);
+            return false;
+        }
+        Optional<Entry> lastEntry = entries.values().stream()
+            .max(Comparator.comparingLong(Entry::getOffset));
+        if (lastEntry.isPresent() && !startsWithSeparator(lastEntry.get())) {
+            LOGGER.info("{} was rewritten since {} was written, rebuilding it", mbox, sidecar);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean startsWithSeparator(Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(mbox.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SEPARATOR_PREFIX.length);
+            while (buffer.hasRemaining() && channel.read(buffer, entry.getOffset() + buffer.position()) > 0) {
+                // Reads the prefix of the message
+            }
+            return Arrays.equals(buffer.array(), SEPARATOR_PREFIX);
+        }
+    }
+
+    private void writeSidecar() {
+        File work = new File(sidecar.getPath() + WORK_EXTENSION);
+        try {
+            try (Writer writer = Files.newBufferedWriter(work.toPath(), StandardCharsets.US_ASCII)) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    writeLine(writer, entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(work.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write {}, it will be rebuilt on next load", sidecar, e);
+            sidecar.delete();
+        }
+    }
+
+    private void appendToSidecar(List<String> keys) {
+        try (Writer writer = Files.newBufferedWriter(sidecar.toPath(), StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (String key : keys) {
+                writeLine(writer, key, entries.get(key));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to append to {}, it will be rebuilt on next load", sidecar, e);
+            sidecar.delete();
+        }
+    }
+
+    private void writeLine(Writer writer, String key, Entry entry) throws IOException {
+        writer.write(entry.getOffset() + " " + entry.getLength() + " " + key + "\n");
+    }
+
+    /**
+     * Indexes the messages found from the given offset of the mbox file, which must be the start of a line.
+     *
+     * A trailing message with an empty body is left unindexed until a message is appended after it.
+     */
+    @VisibleForTesting
+    List<String> scan(long from) throws IOException {
+        if (!mbox.exists()) {
+            return ImmutableList.of();
+        }
+        Scanner scanner = new Scanner(from);
+        try (FileChannel channel = FileChannel.open(mbox.toPath(), StandardOpenOption.READ);
+             InputStream inputStream = new BufferedInputStream(Channels.newInputStream(channel.position(from)), BUFFER_SIZE)) {
+            int c;
+            while ((c = inputStream.read()) != -1) {
+                scanner.accept((byte) c);
+            }
+        }
+        return scanner.end();
+    }
+
+    private class Scanner {
+        private final List<String> keys = new ArrayList<>();
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private long position;
+        private long lineStart;
+        private boolean pendingCarriageReturn;
+        private long messageStart = -1;
+        private Hasher hasher;
+        private boolean emptyBody;
+
+        Scanner(long from) {
+            this.position = from;
+            this.lineStart = from;
+        }
+
+        void accept(byte c) {
+            position++;
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                if (c == '\n') {
+                    lineStart = position;
+                    return;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                endLine();
+                pendingCarriageReturn = c == '\r';
+                lineStart = position;
+                return;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, lineLength * 2);
+            }
+            line[lineLength++] = c;
+        }
+
+        List<String> end() {
+            if (lineLength > 0) {
+                endLine();
+            }
+            if (messageStart >= 0 && !emptyBody) {
+                index(position);
+            }
+            return keys;
+        }
+
+        private void endLine() {
+            if (isSeparator()) {
+                if (messageStart >= 0) {
+                    index(lineStart);
+                }
+                messageStart = lineStart;
+                hasher = Hashing.sha256().newHasher();
+                emptyBody = true;
+            } else if (messageStart >= 0) {
+                for (int i = 0; i < lineLength; i++) {
+                    hasher.putChar((char) (line[i] & 0xff));
+                }
+                hasher.putChar('\n');
+                emptyBody = false;
+            }
+            lineLength = 0;
+        }
+
+        private boolean isSeparator() {
+            if (lineLength < SEPARATOR_PREFIX.length) {
+                return false;
+            }
+            for (int i = 0; i < SEPARATOR_PREFIX.length; i++) {
+                if (line[i] != SEPARATOR_PREFIX[i]) {
+                    return false;
+                }
+            }
+            return SEPARATOR_PATTERN.matcher(new String(line, 0, lineLength, StandardCharsets.ISO_8859_1)).matches();
+        }
+
+        private void index(long messageEnd) {
+            String key = hasher.hash().toString();
+            entries.put(key, new Entry(messageStart, messageEnd - messageStart));
+            keys.add(key);
+            indexedLength = messageEnd;
+        }
+    }
+
+    private static void transfer(FileChannel source, long position, long count, FileChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            transferred += source.transferTo(position + transferred, count - transferred, target);
+        }
+    }
+
+    private static void skipLine(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte c = buffer.get();
+            if (c == '\n') {
+                return;
+            }
+            if (c == '\r') {
+                if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                return;
+            }
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailrepository.file;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Append-only index of the keys stored in a {@link FileMailRepository}.
+ *
+ * Each addition or removal of a key appends a <code>+key</code> or <code>-key</code> record to the index file, so
+ * that listing and counting the keys of the repository never needs to scan its directory. Keys are kept in memory
+ * in insertion order, and iterating them is weakly consistent: concurrent additions and removals never fail
+ * an ongoing listing.
+ *
+ * The index file is compacted once it holds more removed records than live keys.
+ */
+class MailKeyIndex implements Closeable {
+    static final String INDEX_FILE_NAME = "mailKeys.index";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailKeyIndex.class);
+    private static final char ADDED = '+';
+    private static final char REMOVED = '-';
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+    private static final int MIN_COMPACTION_THRESHOLD = 1000;
+
+    /**
+     * Loads the index stored in the given file. A truncated trailing record, left by a crash, is dropped.
+     */
+    static MailKeyIndex load(File file) throws IOException {
+        dropTruncatedRecord(file);
+        MailKeyIndex index = new MailKeyIndex(file);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                index.replay(record);
+            }
+        }
+        index.openWriter();
+        return index;
+    }
+
+    /**
+     * Creates a new index file holding the given keys, replacing any previous one.
+     */
+    static MailKeyIndex create(File file, Iterator<String> keys) throws IOException {
+        MailKeyIndex index = new MailKeyIndex(file);
+        keys.forEachRemaining(index::addInMemory);
+        index.rewrite();
+        return index;
+    }
+
+    private final File file;
+    private final ConcurrentNavigableMap<Long, String> keysBySequence;
+    private final ConcurrentMap<String, Long> sequences;
+    private long nextSequence;
+    private long removedRecords;
+    private Writer writer;
+
+    private MailKeyIndex(File file) {
+        this.file = file;
+        this.keysBySequence = new ConcurrentSkipListMap<>();
+        this.sequences = new ConcurrentHashMap<>();
+    }
+
+    public boolean contains(String key) {
+        return sequences.containsKey(key);
+    }
+
+    public int size() {
+        return sequences.size();
+    }
+
+    /**
+     * Returns the keys in insertion order, without copying them.
+     */
+    public Iterator<String> keys() {
+        return keysBySequence.values().iterator();
+    }
+
+    public synchronized void add(String key) throws IOException {
+        if (addInMemory(key)) {
+            append(ADDED, key);
+        }
+    }
+
+    public synchronized void remove(String key) throws IOException {
+        if (removeInMemory(key)) {
+            append(REMOVED, key);
+            removedRecords += 2;
+            if (removedRecords > Math.max(MIN_COMPACTION_THRESHOLD, sequences.size())) {
+                compact();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void compact() throws IOException {
+        writer.close();
+        rewrite();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private boolean addInMemory(String key) {
+        if (sequences.containsKey(key)) {
+            return false;
+        }
+        long sequence = nextSequence++;
+        sequences.put(key, sequence);
+        keysBySequence.put(sequence, key);
+        return true;
+    }
+
+    private boolean removeInMemory(String key) {
+        Long sequence = sequences.remove(key);
+        if (sequence == null) {
+            return false;
+        }
+        keysBySequence.remove(sequence);
+        return true;
+    }
+
+    private void replay(String record) {
+        if (record.length() < 2) {
+            LOGGER.warn("Ignoring malformed record '{}' of index {}", record, file);
+            return;
+        }
+        try {
+            String key = decode(record.substring(1));
+            switch (record.charAt(0)) {
+                case ADDED:
+                    addInMemory(key);
+                    break;
+                case REMOVED:
+                    removeInMemory(key);
+                    removedRecords += 2;
+                    break;
+                default:
+                    LOGGER.warn("Ignoring malformed record '{}' of index {}", record, file);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Ignoring malformed record '{}' of index {}", record, file, e);
+        }
+    }
+
+    private void append(char operation, String key) throws IOException {
+        writer.write(operation);
+        writer.write(encode(key));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private void rewrite() throws IOException {
+        File compacted = new File(file.getPath() + ".tmp");
+        try (Writer compactedWriter = Files.newBufferedWriter(compacted.toPath(), StandardCharsets.UTF_8)) {
+            for (String key : keysBySequence.values()) {
+                compactedWriter.write(ADDED);
+                compactedWriter.write(encode(key));
+                compactedWriter.write('\n');
+            }
+        }
+        Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        removedRecords = 0;
+        openWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Records are only complete once their trailing new line is written: the bytes following the last one are
+     * truncated, so that a partially written key is neither replayed nor completed by the next appended record.
+     */
+    private static void dropTruncatedRecord(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            long length = randomAccessFile.length();
+            long end = length;
+            while (end > 0) {
+                randomAccessFile.seek(end - 1);
+                if (randomAccessFile.read() == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < length) {
+                LOGGER.warn("Dropping truncated record at the end of index {}", file);
+                randomAccessFile.setLength(end);
+            }
+        }
+    }
+
+    private static String encode(String key) {
+        try {
+            return URLEncoder.encode(key, ENCODING);
+        } catch (UnsupportedEncodingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String decode(String encodedKey) {
+        try {
+            return URLDecoder.decode(encodedKey, ENCODING);
+        } catch (UnsupportedEncodingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
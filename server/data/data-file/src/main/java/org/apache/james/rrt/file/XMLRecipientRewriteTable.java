@@ -95,12 +95,12 @@ public class XMLRecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doAddMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         throw new RecipientRewriteTableException("Read-Only implementation");
     }
 
     @Override
-    public void removeMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doRemoveMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         throw new RecipientRewriteTableException("Read-Only implementation");
     }
 }
@@ -183,7 +183,7 @@ public class UsersFileRepository extends AbstractJamesUsersRepository {
     }
 
     @Override
-    public synchronized void removeUser(String name) throws UsersRepositoryException {
+    protected synchronized void doRemoveUser(String name) throws UsersRepositoryException {
         if (!objectRepository.remove(name)) {
             throw new UsersRepositoryException("User " + name + " does not exist");
         }
@@ -210,7 +210,7 @@ public class UsersFileRepository extends AbstractJamesUsersRepository {
     }
 
     @Override
-    public boolean test(String name, String password) throws UsersRepositoryException {
+    protected boolean doTest(String name, String password) throws UsersRepositoryException {
         User user;
         try {
             user = getUserByName(name);
@@ -19,33 +19,49 @@
 
 package org.apache.james.mailrepository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
 import org.apache.commons.configuration.DefaultConfigurationBuilder;
 import org.apache.james.filesystem.api.mock.MockFileSystem;
+import org.apache.james.mailrepository.api.MailKey;
 import org.apache.james.mailrepository.api.MailRepository;
 import org.apache.james.mailrepository.file.FileMailRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
 
 public class FileMailRepositoryTest {
+    private static final String DESTINATION_URL = "file://target/var/mailRepository";
+    private static final String INDEX_FILE_NAME = "mailKeys.index";
 
     public abstract class GenericFileMailRepositoryTest implements MailRepositoryContract {
         private FileMailRepository mailRepository;
-        private MockFileSystem filesystem;
+        protected MockFileSystem filesystem;
 
         @BeforeEach
         void init() throws Exception {
             filesystem = new MockFileSystem();
-            mailRepository = new FileMailRepository();
-            mailRepository.setFileSystem(filesystem);
-            mailRepository.configure(getConfiguration());
-            mailRepository.init();
+            mailRepository = createRepository();
+        }
+
+        protected FileMailRepository createRepository() throws Exception {
+            FileMailRepository repository = new FileMailRepository();
+            repository.setFileSystem(filesystem);
+            repository.configure(getConfiguration());
+            repository.init();
+            return repository;
         }
 
         protected DefaultConfigurationBuilder getConfiguration() {
             DefaultConfigurationBuilder configuration = new DefaultConfigurationBuilder();
-            configuration.addProperty("[@destinationURL]", "file://target/var/mailRepository");
+            configuration.addProperty("[@destinationURL]", DESTINATION_URL);
             return withConfigurationOptions(configuration);
         }
 
@@ -96,6 +112,35 @@ public class FileMailRepositoryTest {
             configuration.addProperty("[@CACHEKEYS]", "true");
             return configuration;
         }
+
+        @Test
+        void listShouldReturnSortedKeysWhenTheIndexIsCreated() throws Exception {
+            storeUnsortedMails();
+            assertThat(indexFile().delete()).isTrue();
+
+            assertThat(ImmutableList.copyOf(createRepository().list()))
+                .containsExactly(new MailKey("mail1"), new MailKey("mail2"), new MailKey("mail3"));
+        }
+
+        @Test
+        void listShouldReturnSortedKeysWhenTheIndexIsReconciled() throws Exception {
+            storeUnsortedMails();
+            Files.write(indexFile().toPath(), new byte[0]);
+
+            assertThat(ImmutableList.copyOf(createRepository().list()))
+                .containsExactly(new MailKey("mail1"), new MailKey("mail2"), new MailKey("mail3"));
+        }
+
+        private void storeUnsortedMails() throws Exception {
+            MailRepository testee = retrieveRepository();
+            testee.store(createMail(new MailKey("mail3")));
+            testee.store(createMail(new MailKey("mail1")));
+            testee.store(createMail(new MailKey("mail2")));
+        }
+
+        private File indexFile() throws Exception {
+            return new File(filesystem.getFile(DESTINATION_URL), INDEX_FILE_NAME);
+        }
     }
 
     @Nested
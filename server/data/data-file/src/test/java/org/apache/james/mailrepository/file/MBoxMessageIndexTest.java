@@ -0,0 +1,152 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailrepository.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+
+class MBoxMessageIndexTest {
+    private static final String SEPARATOR = "From sender@domain.tld Mon Jan 01 10:00:00 2018\n";
+    private static final String BODY_1 = "Subject: first\n\nbody 1\n";
+    private static final String BODY_2 = "Subject: second\r\n\r\nbody 2\r\n";
+    private static final String BODY_3 = "Subject: third\n\nbody 3\n";
+    private static final String KEY_1 = key("Subject: first\n\nbody 1\n");
+    private static final String KEY_2 = key("Subject: second\n\nbody 2\n");
+    private static final String KEY_3 = key("Subject: third\n\nbody 3\n");
+
+    private File directory;
+    private File mbox;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("mbox").toFile();
+        mbox = new File(directory, "Inbox");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    void loadShouldIndexMessagesInFileOrder() throws IOException {
+        write(SEPARATOR + BODY_1 + SEPARATOR + BODY_2);
+
+        assertThat(MBoxMessageIndex.load(mbox).keys()).containsExactly(KEY_1, KEY_2);
+    }
+
+    @Test
+    void loadShouldWriteSidecarFile() throws IOException {
+        write(SEPARATOR + BODY_1);
+
+        MBoxMessageIndex.load(mbox);
+
+        assertThat(Files.readAllLines(new File(mbox.getPath() + MBoxMessageIndex.INDEX_EXTENSION).toPath()))
+            .containsExactly("0 " + (SEPARATOR + BODY_1).length() + " " + KEY_1);
+    }
+
+    @Test
+    void loadShouldOnlyScanMessagesAppendedAfterTheSidecarFile() throws IOException {
+        write(SEPARATOR + BODY_1);
+        MBoxMessageIndex.load(mbox);
+        append(SEPARATOR + BODY_2);
+
+        assertThat(MBoxMessageIndex.load(mbox).keys()).containsExactly(KEY_1, KEY_2);
+    }
+
+    @Test
+    void loadShouldRebuildSidecarFileWhenMBoxWasRewritten() throws IOException {
+        write(SEPARATOR + BODY_1 + SEPARATOR + BODY_2);
+        MBoxMessageIndex.load(mbox);
+        write(SEPARATOR + BODY_3);
+
+        assertThat(MBoxMessageIndex.load(mbox).keys()).containsExactly(KEY_3);
+    }
+
+    @Test
+    void appendShouldIndexAppendedMessages() throws IOException {
+        write(SEPARATOR + BODY_1);
+        MBoxMessageIndex index = MBoxMessageIndex.load(mbox);
+
+        append(SEPARATOR + BODY_2);
+        index.append();
+
+        assertThat(index.keys()).containsExactly(KEY_1, KEY_2);
+    }
+
+    @Test
+    void readShouldReturnTheMessageWithoutItsSeparator() throws IOException {
+        write(SEPARATOR + BODY_1 + SEPARATOR + BODY_2);
+        MBoxMessageIndex index = MBoxMessageIndex.load(mbox);
+
+        assertThat(IOUtils.toString(index.read(index.get(KEY_2).get()), StandardCharsets.US_ASCII))
+            .isEqualTo(BODY_2);
+    }
+
+    @Test
+    void removeShouldRewriteMBoxWithoutRemovedMessages() throws IOException {
+        write(SEPARATOR + BODY_1 + SEPARATOR + BODY_2 + SEPARATOR + BODY_3);
+        MBoxMessageIndex index = MBoxMessageIndex.load(mbox);
+
+        index.remove(ImmutableList.of(KEY_1, KEY_3));
+
+        assertThat(new String(Files.readAllBytes(mbox.toPath()), StandardCharsets.US_ASCII))
+            .isEqualTo(SEPARATOR + BODY_2);
+    }
+
+    @Test
+    void removeShouldShiftOffsetsOfRemainingMessages() throws IOException {
+        write(SEPARATOR + BODY_1 + SEPARATOR + BODY_2 + SEPARATOR + BODY_3);
+        MBoxMessageIndex index = MBoxMessageIndex.load(mbox);
+
+        index.remove(ImmutableList.of(KEY_2));
+
+        assertThat(IOUtils.toString(index.read(index.get(KEY_3).get()), StandardCharsets.US_ASCII))
+            .isEqualTo(BODY_3);
+        assertThat(MBoxMessageIndex.load(mbox).get(KEY_3)).isEqualTo(index.get(KEY_3));
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(mbox.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(mbox.toPath(), content.getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+    }
+
+    private static String key(String body) {
+        return Hashing.sha256().hashUnencodedChars(body).toString();
+    }
+}
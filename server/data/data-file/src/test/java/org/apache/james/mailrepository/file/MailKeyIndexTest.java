@@ -0,0 +1,154 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailrepository.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class MailKeyIndexTest {
+    private File directory;
+    private File indexFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("mailKeyIndex").toFile();
+        indexFile = new File(directory, MailKeyIndex.INDEX_FILE_NAME);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    void keysShouldBeListedInInsertionOrder() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("b", "a").iterator())) {
+            index.add("c");
+
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("b", "a", "c");
+        }
+    }
+
+    @Test
+    void addShouldNotDuplicateExistingKeys() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("a").iterator())) {
+            index.add("b");
+            index.add("a");
+
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("a", "b");
+            assertThat(index.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void removeShouldUpdateSizeAndListing() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("a", "b", "c").iterator())) {
+            index.remove("b");
+
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("a", "c");
+            assertThat(index.size()).isEqualTo(2);
+            assertThat(index.contains("b")).isFalse();
+        }
+    }
+
+    @Test
+    void removeShouldBeAllowedWhileIterating() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("a", "b", "c").iterator())) {
+            Iterator<String> keys = index.keys();
+            while (keys.hasNext()) {
+                index.remove(keys.next());
+            }
+
+            assertThat(index.size()).isZero();
+        }
+    }
+
+    @Test
+    void loadShouldReplayAdditionsAndRemovals() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.<String>of().iterator())) {
+            index.add("a");
+            index.add("key with spaces+plus\nand new line");
+            index.add("c");
+            index.remove("a");
+        }
+
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("key with spaces+plus\nand new line", "c");
+        }
+    }
+
+    @Test
+    void loadShouldIgnoreTruncatedRecord() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("a").iterator())) {
+            index.add("b");
+        }
+        Files.write(indexFile.toPath(), "+".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            index.add("c");
+        }
+
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("a", "b", "c");
+        }
+    }
+
+    @Test
+    void loadShouldNotReplayPartiallyWrittenKey() throws IOException {
+        Files.write(indexFile.toPath(), "+a\n+Mail1".getBytes(StandardCharsets.UTF_8));
+
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("a");
+            index.add("Mail456");
+        }
+
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("a", "Mail456");
+        }
+    }
+
+    @Test
+    void compactShouldOnlyKeepLiveKeys() throws IOException {
+        try (MailKeyIndex index = MailKeyIndex.create(indexFile, ImmutableList.of("a", "b", "c").iterator())) {
+            index.remove("a");
+            index.compact();
+            index.add("d");
+        }
+
+        assertThat(Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)).containsExactly("+b", "+c", "+d");
+        try (MailKeyIndex index = MailKeyIndex.load(indexFile)) {
+            assertThat(ImmutableList.copyOf(index.keys())).containsExactly("b", "c", "d");
+        }
+    }
+}
@@ -77,7 +77,7 @@ public class HBaseDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void addDomain(Domain domain) throws DomainListException {
+    protected void doAddDomain(Domain domain) throws DomainListException {
         if (containsDomain(domain)) {
             throw new DomainListException(domain.name() + " already exists.");
         }
@@ -97,7 +97,7 @@ public class HBaseDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void removeDomain(Domain domain) throws DomainListException {
+    protected void doRemoveDomain(Domain domain) throws DomainListException {
         HTableInterface table = null;
         try {
             table = TablePool.getInstance().getDomainlistTable();
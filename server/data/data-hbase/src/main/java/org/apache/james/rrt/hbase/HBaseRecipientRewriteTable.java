@@ -60,7 +60,7 @@ public class HBaseRecipientRewriteTable extends AbstractRecipientRewriteTable {
     private static final String COLUMN_SEPARATOR = ";";
 
     @Override
-    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doAddMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (!map.isEmpty()) {
             Mappings updatedMappings = MappingsImpl.from(map).add(mapping).build();
@@ -176,7 +176,7 @@ public class HBaseRecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void removeMapping(MappingSource source, Mapping mapping) throws
+    protected void doRemoveMapping(MappingSource source, Mapping mapping) throws
             RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (map.size() > 1) {
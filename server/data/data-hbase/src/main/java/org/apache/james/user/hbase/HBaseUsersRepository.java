@@ -76,7 +76,7 @@ public class HBaseUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public void updateUser(User user) throws UsersRepositoryException {
+    protected void doUpdateUser(User user) throws UsersRepositoryException {
         if (user == null) {
             throw new UsersRepositoryException("Please provide a non null user");
         }
@@ -91,7 +91,7 @@ public class HBaseUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public void removeUser(String name) throws UsersRepositoryException {
+    protected void doRemoveUser(String name) throws UsersRepositoryException {
         HTableInterface table = null;
         try {
             table = TablePool.getInstance().getUsersRepositoryTable();
@@ -113,7 +113,7 @@ public class HBaseUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public boolean test(String name, String password) throws UsersRepositoryException {
+    protected boolean doTest(String name, String password) throws UsersRepositoryException {
         KeyValue keyValue = getKeyValue(name);
         if (keyValue != null) {
             DefaultUser user = new DefaultUser(name, algo);
@@ -145,7 +145,7 @@ public class JCRUsersRepository extends AbstractUsersRepository {
      *            If an error occurred
      */
     @Override
-    public void updateUser(User user) throws UsersRepositoryException {
+    protected void doUpdateUser(User user) throws UsersRepositoryException {
         if (user != null && user instanceof JCRUser) {
             final JCRUser jcrUser = (JCRUser) user;
             final String userName = jcrUser.getUserName();
@@ -185,7 +185,7 @@ public class JCRUsersRepository extends AbstractUsersRepository {
      * @throws UsersRepositoryException
      */
     @Override
-    public void removeUser(String username) throws UsersRepositoryException {
+    protected void doRemoveUser(String username) throws UsersRepositoryException {
         try {
             final Session session = login();
             try {
@@ -253,7 +253,7 @@ public class JCRUsersRepository extends AbstractUsersRepository {
      * @since James 1.2.2
      */
     @Override
-    public boolean test(String username, String password) throws UsersRepositoryException {
+    protected boolean doTest(String username, String password) throws UsersRepositoryException {
         try {
             final Session session = login();
             try {
@@ -20,12 +20,9 @@
 package org.apache.james.mailrepository.jdbc;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -56,6 +53,8 @@ import org.apache.james.filesystem.api.FileSystem;
 import org.apache.james.mailrepository.api.MailKey;
 import org.apache.james.mailrepository.lib.AbstractMailRepository;
 import org.apache.james.repository.file.FilePersistentStreamRepository;
+import org.apache.james.server.core.AttributeValueSerializer;
+import org.apache.james.server.core.MailEnvelopeCodec;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageWrapper;
@@ -152,6 +151,12 @@ public class JDBCMailRepository extends AbstractMailRepository {
 
     private String destination;
 
+    /**
+     * The codec of the mail attributes, which serializer of the attribute values can be set with the
+     * attributeValueSerializer configuration entry
+     */
+    private MailEnvelopeCodec codec = new MailEnvelopeCodec();
+
     @Inject
     public void setDatasource(DataSource datasource) {
         this.datasource = datasource;
@@ -216,6 +221,19 @@ public class JDBCMailRepository extends AbstractMailRepository {
         filestore = configuration.getString("filestore", null);
         sqlFileName = configuration.getString("sqlFile");
 
+        String attributeValueSerializer = configuration.getString("attributeValueSerializer", null);
+        if (attributeValueSerializer != null) {
+            codec = new MailEnvelopeCodec(createAttributeValueSerializer(attributeValueSerializer));
+        }
+    }
+
+    private AttributeValueSerializer createAttributeValueSerializer(String className) throws ConfigurationException {
+        try {
+            return Class.forName(className).asSubclass(AttributeValueSerializer.class).newInstance();
+        } catch (ClassNotFoundException | ClassCastException | InstantiationException | IllegalAccessException e) {
+            throw new ConfigurationException("Unable to create the attribute value serializer " + className, e);
+        }
+
     }
 
     /**
@@ -466,31 +484,8 @@ public class JDBCMailRepository extends AbstractMailRepository {
                     PreparedStatement updateMessageAttr = null;
                     try {
                         updateMessageAttr = conn.prepareStatement(updateMessageAttrSql);
-                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                        ObjectOutputStream oos = new ObjectOutputStream(baos);
-                        try {
-                            if (mc instanceof MailImpl) {
-                                oos.writeObject(((MailImpl) mc).getAttributesRaw());
-                            } else {
-                                HashMap<String, Serializable> temp = new HashMap<>();
-                                for (Iterator<String> i = mc.getAttributeNames(); i.hasNext();) {
-                                    String hashKey = i.next();
-                                    temp.put(hashKey, mc.getAttribute(hashKey));
-                                }
-                                oos.writeObject(temp);
-                            }
-                            oos.flush();
-                            ByteArrayInputStream attrInputStream = new ByteArrayInputStream(baos.toByteArray());
-                            updateMessageAttr.setBinaryStream(1, attrInputStream, baos.size());
-                        } finally {
-                            try {
-                                if (oos != null) {
-                                    oos.close();
-                                }
-                            } catch (IOException ioe) {
-                                LOGGER.debug("JDBCMailRepository: Unexpected exception while closing output stream.", ioe);
-                            }
-                        }
+                        byte[] attributes = codec.encodeAttributes(mc);
+                        updateMessageAttr.setBinaryStream(1, new ByteArrayInputStream(attributes), attributes.length);
                         updateMessageAttr.setString(2, mc.getName());
                         updateMessageAttr.setString(3, repositoryName);
                         updateMessageAttr.execute();
@@ -548,31 +543,8 @@ public class JDBCMailRepository extends AbstractMailRepository {
 
                     // Store attributes
                     if (numberOfParameters > 10) {
-                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                        ObjectOutputStream oos = new ObjectOutputStream(baos);
-                        try {
-                            if (mc instanceof MailImpl) {
-                                oos.writeObject(((MailImpl) mc).getAttributesRaw());
-                            } else {
-                                HashMap<String, Serializable> temp = new HashMap<>();
-                                for (Iterator<String> i = mc.getAttributeNames(); i.hasNext();) {
-                                    String hashKey = i.next();
-                                    temp.put(hashKey, mc.getAttribute(hashKey));
-                                }
-                                oos.writeObject(temp);
-                            }
-                            oos.flush();
-                            ByteArrayInputStream attrInputStream = new ByteArrayInputStream(baos.toByteArray());
-                            insertMessage.setBinaryStream(11, attrInputStream, baos.size());
-                        } finally {
-                            try {
-                                if (oos != null) {
-                                    oos.close();
-                                }
-                            } catch (IOException ioe) {
-                                LOGGER.debug("JDBCMailRepository: Unexpected exception while closing output stream.", ioe);
-                            }
-                        }
+                        byte[] attributes = codec.encodeAttributes(mc);
+                        insertMessage.setBinaryStream(11, new ByteArrayInputStream(attributes), attributes.length);
                     }
 
                     insertMessage.execute();
@@ -592,7 +564,6 @@ public class JDBCMailRepository extends AbstractMailRepository {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Mail retrieve(MailKey key) throws MessagingException {
         if (DEEP_DEBUG) {
             System.err.println("retrieving " + key);
@@ -642,10 +613,7 @@ public class JDBCMailRepository extends AbstractMailRepository {
                             }
                             // this check is for better backwards compatibility
                             if (serializedAttr != null) {
-                                ByteArrayInputStream bais = new ByteArrayInputStream(serializedAttr);
-                                ObjectInputStream ois = new ObjectInputStream(bais);
-                                attributes = (HashMap<String, Object>) ois.readObject();
-                                ois.close();
+                                attributes = readAttributes(serializedAttr);
                             }
                         } catch (IOException ioe) {
                             LOGGER.debug("Exception reading attributes {} in {}", key, repositoryName, ioe);
@@ -699,6 +667,20 @@ public class JDBCMailRepository extends AbstractMailRepository {
         }
     }
 
+    /**
+     * Attributes stored by previous versions are Java serialized maps, newer ones are encoded by the
+     * {@link MailEnvelopeCodec}.
+     */
+    @SuppressWarnings("unchecked")
+    private HashMap<String, Object> readAttributes(byte[] serializedAttr) throws IOException, ClassNotFoundException {
+        if (MailEnvelopeCodec.isEncoded(serializedAttr)) {
+            return codec.decodeAttributes(serializedAttr);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serializedAttr))) {
+            return (HashMap<String, Object>) ois.readObject();
+        }
+    }
+
     @Override
     protected void internalRemove(MailKey key) throws MessagingException {
         Connection conn = null;
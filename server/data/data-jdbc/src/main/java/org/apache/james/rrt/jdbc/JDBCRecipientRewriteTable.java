@@ -188,7 +188,7 @@ public class JDBCRecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doAddMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (map != null && map.size() != 0) {
             Mappings updatedMappings = MappingsImpl.from(map).add(mapping).build();
@@ -290,7 +290,7 @@ public class JDBCRecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void removeMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doRemoveMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (map != null && map.size() > 1) {
             Mappings updatedMappings = map.remove(mapping);
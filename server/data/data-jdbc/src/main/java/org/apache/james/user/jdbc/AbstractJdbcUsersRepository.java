@@ -129,7 +129,7 @@ public abstract class AbstractJdbcUsersRepository extends AbstractJamesUsersRepo
      * @throws UsersRepositoryException
      */
     @Override
-    public void removeUser(String userName) throws UsersRepositoryException {
+    protected void doRemoveUser(String userName) throws UsersRepositoryException {
         User user = getUserByName(userName);
         if (user != null) {
             doRemoveUser(user);
@@ -189,7 +189,7 @@ public abstract class AbstractJdbcUsersRepository extends AbstractJamesUsersRepo
      * @since James 1.2.2
      */
     @Override
-    public boolean test(String name, String password) throws UsersRepositoryException {
+    protected boolean doTest(String name, String password) throws UsersRepositoryException {
         User user = getUserByName(name, ignoreCase);
         return user != null && user.verifyPassword(password);
     }
@@ -53,8 +53,8 @@ public class CassandraAccessTokenDAO {
     private final int durationInSeconds;
 
     @Inject
-    public CassandraAccessTokenDAO(Session session, @Named(TOKEN_EXPIRATION_IN_MS) long durationInMilliseconds) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraAccessTokenDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, @Named(TOKEN_EXPIRATION_IN_MS) long durationInMilliseconds) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
         this.durationInSeconds = Ints.checkedCast(TimeUnit.MILLISECONDS.toSeconds(durationInMilliseconds));
 
         this.removeStatement = session.prepare(delete()
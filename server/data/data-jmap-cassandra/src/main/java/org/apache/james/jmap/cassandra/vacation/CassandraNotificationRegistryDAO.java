@@ -50,8 +50,8 @@ public class CassandraNotificationRegistryDAO {
     private final PreparedStatement flushStatement;
 
     @Inject
-    public CassandraNotificationRegistryDAO(Session session) {
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+    public CassandraNotificationRegistryDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor) {
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         this.registerStatement = session.prepare(createInsert());
 
@@ -58,9 +58,9 @@ public class CassandraVacationDAO {
     private final BiFunction<VacationPatch, Insert, Insert> insertGeneratorPipeline;
 
     @Inject
-    public CassandraVacationDAO(Session session, CassandraTypesProvider cassandraTypesProvider) {
+    public CassandraVacationDAO(Session session, CassandraAsyncExecutor cassandraAsyncExecutor, CassandraTypesProvider cassandraTypesProvider) {
         this.zonedDateTimeUserType = cassandraTypesProvider.getDefinedUserType(CassandraZonedDateTimeModule.ZONED_DATE_TIME);
-        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraAsyncExecutor = cassandraAsyncExecutor;
 
         this.readStatement = session.prepare(select()
             .from(CassandraVacationTable.TABLE_NAME)
@@ -49,7 +49,7 @@ public class CassandraAccessTokenRepositoryTest extends AccessTokenRepositoryTes
     @Override
     protected AccessTokenRepository provideAccessTokenRepository() {
         return new CassandraAccessTokenRepository(
-            new CassandraAccessTokenDAO(cassandra.getConf(), AccessTokenRepositoryTest.TTL_IN_MS));
+            new CassandraAccessTokenDAO(cassandra.getConf(), cassandra.getExecutor(), AccessTokenRepositoryTest.TTL_IN_MS));
     }
 
 }
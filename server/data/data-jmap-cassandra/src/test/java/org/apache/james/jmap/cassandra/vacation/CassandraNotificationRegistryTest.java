@@ -48,7 +48,7 @@ public class CassandraNotificationRegistryTest extends AbstractNotificationRegis
     
     @Override
     protected NotificationRegistry createNotificationRegistry(ZonedDateTimeProvider zonedDateTimeProvider) {
-        return new CassandraNotificationRegistry(zonedDateTimeProvider, new CassandraNotificationRegistryDAO(cassandra.getConf()));
+        return new CassandraNotificationRegistry(zonedDateTimeProvider, new CassandraNotificationRegistryDAO(cassandra.getConf(), cassandra.getExecutor()));
     }
 
 }
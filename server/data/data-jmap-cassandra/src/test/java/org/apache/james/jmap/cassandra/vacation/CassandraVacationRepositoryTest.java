@@ -50,7 +50,7 @@ public class CassandraVacationRepositoryTest extends AbstractVacationRepositoryT
     
     @Override
     protected VacationRepository createVacationRepository() {
-        return new CassandraVacationRepository(new CassandraVacationDAO(cassandra.getConf(), cassandra.getTypesProvider()));
+        return new CassandraVacationRepository(new CassandraVacationDAO(cassandra.getConf(), cassandra.getExecutor(), cassandra.getTypesProvider()));
     }
 
 }
@@ -121,7 +121,7 @@ public class JPADomainList extends AbstractDomainList {
     }
 
     @Override
-    public void addDomain(Domain domain) throws DomainListException {
+    protected void doAddDomain(Domain domain) throws DomainListException {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         final EntityTransaction transaction = entityManager.getTransaction();
         try {
@@ -143,7 +143,7 @@ public class JPADomainList extends AbstractDomainList {
     }
 
     @Override
-    public void removeDomain(Domain domain) throws DomainListException {
+    protected void doRemoveDomain(Domain domain) throws DomainListException {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         final EntityTransaction transaction = entityManager.getTransaction();
         try {
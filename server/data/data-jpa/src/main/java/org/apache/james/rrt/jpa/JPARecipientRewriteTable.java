@@ -64,7 +64,7 @@ public class JPARecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doAddMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (!map.isEmpty()) {
             Mappings updatedMappings = MappingsImpl.from(map).add(mapping).build();
@@ -163,7 +163,7 @@ public class JPARecipientRewriteTable extends AbstractRecipientRewriteTable {
     }
 
     @Override
-    public void removeMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+    protected void doRemoveMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings map = getUserDomainMappings(source);
         if (map.size() > 1) {
             Mappings updatedMappings = map.remove(mapping);
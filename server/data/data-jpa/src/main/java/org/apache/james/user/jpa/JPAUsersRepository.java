@@ -119,7 +119,7 @@ public class JPAUsersRepository extends AbstractUsersRepository {
      * @throws UsersRepositoryException
      */
     @Override
-    public void updateUser(User user) throws UsersRepositoryException {
+    protected void doUpdateUser(User user) throws UsersRepositoryException {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
 
         final EntityTransaction transaction = entityManager.getTransaction();
@@ -151,7 +151,7 @@ public class JPAUsersRepository extends AbstractUsersRepository {
      * @throws UsersRepositoryException
      */
     @Override
-    public void removeUser(String name) throws UsersRepositoryException {
+    protected void doRemoveUser(String name) throws UsersRepositoryException {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
 
         final EntityTransaction transaction = entityManager.getTransaction();
@@ -212,7 +212,7 @@ public class JPAUsersRepository extends AbstractUsersRepository {
      * @since James 1.2.2
      */
     @Override
-    public boolean test(String name, String password) throws UsersRepositoryException {
+    protected boolean doTest(String name, String password) throws UsersRepositoryException {
         final User user = getUserByName(name);
         final boolean result;
         result = user != null && user.verifyPassword(password);
@@ -21,7 +21,10 @@ package org.apache.james.domainlist.lib;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.apache.commons.configuration.ConfigurationException;
@@ -37,8 +40,10 @@ import org.slf4j.LoggerFactory;
 import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 /**
@@ -55,11 +60,30 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
     public static final String CONFIGURE_DOMAIN_NAMES = "domainnames.domainname";
     public static final String ENV_DOMAIN = "DOMAIN";
 
+    private static class DomainsSnapshot {
+        private final ImmutableList<Domain> domains;
+        private final ImmutableSet<Domain> domainSet;
+        private final long expirationNanos;
+
+        DomainsSnapshot(ImmutableList<Domain> domains, Duration refreshPeriod) {
+            this.domains = domains;
+            this.domainSet = ImmutableSet.copyOf(domains);
+            this.expirationNanos = System.nanoTime() + refreshPeriod.toNanos();
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expirationNanos >= 0;
+        }
+    }
+
     private final DNSService dns;
     private final EnvDetector envDetector;
     private boolean autoDetect = true;
     private boolean autoDetectIP = true;
     private Domain defaultDomain;
+    private Duration cacheRefreshPeriod = DomainListConfiguration.DEFAULT_CACHE_REFRESH_PERIOD;
+    private volatile Optional<DomainsSnapshot> snapshot = Optional.empty();
+    private final AtomicLong snapshotGeneration = new AtomicLong();
 
     public AbstractDomainList(DNSService dns, EnvDetector envDetector) {
         this.dns = dns;
@@ -78,6 +102,7 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
     }
 
     public void configure(DomainListConfiguration domainListConfiguration) throws ConfigurationException {
+        setCacheRefreshPeriod(domainListConfiguration.getCacheRefreshPeriod());
         setAutoDetect(domainListConfiguration.isAutoDetect());
         setAutoDetectIP(domainListConfiguration.isAutoDetectIp());
 
@@ -85,6 +110,7 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
 
         addEnvDomain();
         addConfiguredDomains(domainListConfiguration.getConfiguredDomains());
+        invalidateSnapshot();
     }
 
     protected void addConfiguredDomains(List<Domain> domains) {
@@ -141,14 +167,67 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
         }
     }
 
+    @Override
+    public void addDomain(Domain domain) throws DomainListException {
+        try {
+            doAddDomain(domain);
+        } finally {
+            invalidateSnapshot();
+        }
+    }
+
+    @Override
+    public void removeDomain(Domain domain) throws DomainListException {
+        try {
+            doRemoveDomain(domain);
+        } finally {
+            invalidateSnapshot();
+        }
+    }
+
     @Override
     public boolean containsDomain(Domain domain) throws DomainListException {
-        boolean internalAnswer = containsDomainInternal(domain);
-        return internalAnswer || getDomains().contains(domain);
+        if (cacheRefreshPeriod.isZero()) {
+            boolean internalAnswer = containsDomainInternal(domain);
+            return internalAnswer || computeDomains().contains(domain);
+        }
+        return retrieveSnapshot().domainSet.contains(domain);
     }
 
     @Override
     public ImmutableList<Domain> getDomains() throws DomainListException {
+        if (cacheRefreshPeriod.isZero()) {
+            return computeDomains();
+        }
+        return retrieveSnapshot().domains;
+    }
+
+    /**
+     * The domains, including the detected ones, are computed at most once per refresh period.
+     * Local changes discard them immediately, changes made by other servers are seen after the
+     * refresh period.
+     */
+    private DomainsSnapshot retrieveSnapshot() throws DomainListException {
+        Optional<DomainsSnapshot> current = snapshot;
+        if (current.isPresent() && !current.get().isExpired()) {
+            return current.get();
+        }
+
+        long generation = snapshotGeneration.get();
+        DomainsSnapshot computed = new DomainsSnapshot(computeDomains(), cacheRefreshPeriod);
+        // A domain was added or removed while computing: the result might be outdated
+        if (generation == snapshotGeneration.get()) {
+            snapshot = Optional.of(computed);
+        }
+        return computed;
+    }
+
+    private void invalidateSnapshot() {
+        snapshotGeneration.incrementAndGet();
+        snapshot = Optional.empty();
+    }
+
+    private ImmutableList<Domain> computeDomains() throws DomainListException {
         List<Domain> domains = getDomainListInternal();
         ImmutableList<Domain> detectedDomains = detectDomains();
         // Guava does not support concatenating ImmutableLists at this time:
@@ -228,6 +307,7 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
     public synchronized void setAutoDetect(boolean autoDetect) {
         LOGGER.info("Set autodetect to: {}", autoDetect);
         this.autoDetect = autoDetect;
+        invalidateSnapshot();
     }
 
     /**
@@ -240,6 +320,19 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
     public synchronized void setAutoDetectIP(boolean autoDetectIP) {
         LOGGER.info("Set autodetectIP to: {}", autoDetectIP);
         this.autoDetectIP = autoDetectIP;
+        invalidateSnapshot();
+    }
+
+    /**
+     * Set how long the computed domains are reused before being computed again. Default is 10 seconds
+     *
+     * @param cacheRefreshPeriod
+     *            set to <code>Duration.ZERO</code> to compute the domains on each call
+     */
+    public synchronized void setCacheRefreshPeriod(Duration cacheRefreshPeriod) {
+        Preconditions.checkArgument(!cacheRefreshPeriod.isNegative(), "cacheRefreshPeriod can not be negative");
+        this.cacheRefreshPeriod = cacheRefreshPeriod;
+        invalidateSnapshot();
     }
 
     /**
@@ -251,4 +344,8 @@ public abstract class AbstractDomainList implements DomainList, Configurable {
 
     protected abstract boolean containsDomainInternal(Domain domain) throws DomainListException;
 
+    protected abstract void doAddDomain(Domain domain) throws DomainListException;
+
+    protected abstract void doRemoveDomain(Domain domain) throws DomainListException;
+
 }
@@ -19,6 +19,7 @@
 
 package org.apache.james.domainlist.lib;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -37,12 +38,14 @@ public class DomainListConfiguration {
         private Optional<Boolean> autoDetect;
         private Optional<Domain> defaultDomain;
         private ImmutableList.Builder<Domain> configuredDomains;
+        private Optional<Duration> cacheRefreshPeriod;
 
         public Builder() {
             autoDetectIp = Optional.empty();
             autoDetect = Optional.empty();
             defaultDomain = Optional.empty();
             configuredDomains = ImmutableList.builder();
+            cacheRefreshPeriod = Optional.empty();
         }
 
         public Builder defaultDomain(Domain defaultDomain) {
@@ -85,12 +88,23 @@ public class DomainListConfiguration {
             return this;
         }
 
+        public Builder cacheRefreshPeriod(Duration cacheRefreshPeriod) {
+            this.cacheRefreshPeriod = Optional.of(cacheRefreshPeriod);
+            return this;
+        }
+
+        public Builder cacheRefreshPeriod(Optional<Duration> cacheRefreshPeriod) {
+            this.cacheRefreshPeriod = cacheRefreshPeriod;
+            return this;
+        }
+
         public DomainListConfiguration build() {
             return new DomainListConfiguration(
                 autoDetectIp.orElse(true),
                 autoDetect.orElse(true),
                 defaultDomain.orElse(Domain.LOCALHOST),
-                configuredDomains.build());
+                configuredDomains.build(),
+                cacheRefreshPeriod.orElse(DEFAULT_CACHE_REFRESH_PERIOD));
         }
     }
 
@@ -98,6 +112,8 @@ public class DomainListConfiguration {
     public static final String CONFIGURE_AUTODETECT_IP = "autodetectIP";
     public static final String CONFIGURE_DEFAULT_DOMAIN = "defaultDomain";
     public static final String CONFIGURE_DOMAIN_NAMES = "domainnames.domainname";
+    public static final String CONFIGURE_CACHE_REFRESH_PERIOD = "cacheRefreshPeriodInSeconds";
+    public static final Duration DEFAULT_CACHE_REFRESH_PERIOD = Duration.ofSeconds(10);
 
     public static Builder builder() {
         return new Builder();
@@ -115,6 +131,9 @@ public class DomainListConfiguration {
             .defaultDomain(Optional.ofNullable(config.getString(CONFIGURE_DEFAULT_DOMAIN, null))
                 .map(Domain::of))
             .addConfiguredDomains(configuredDomains)
+            .cacheRefreshPeriod(Optional.ofNullable(config.getString(CONFIGURE_CACHE_REFRESH_PERIOD, null))
+                .map(Long::valueOf)
+                .map(Duration::ofSeconds))
             .build();
     }
 
@@ -122,12 +141,18 @@ public class DomainListConfiguration {
     private final boolean autoDetect;
     private final Domain defaultDomain;
     private final List<Domain> configuredDomains;
+    private final Duration cacheRefreshPeriod;
 
     public DomainListConfiguration(boolean autoDetectIp, boolean autoDetect, Domain defaultDomain, List<Domain> configuredDomains) {
+        this(autoDetectIp, autoDetect, defaultDomain, configuredDomains, DEFAULT_CACHE_REFRESH_PERIOD);
+    }
+
+    public DomainListConfiguration(boolean autoDetectIp, boolean autoDetect, Domain defaultDomain, List<Domain> configuredDomains, Duration cacheRefreshPeriod) {
         this.autoDetectIp = autoDetectIp;
         this.autoDetect = autoDetect;
         this.defaultDomain = defaultDomain;
         this.configuredDomains = configuredDomains;
+        this.cacheRefreshPeriod = cacheRefreshPeriod;
     }
 
     public boolean isAutoDetectIp() {
@@ -146,6 +171,10 @@ public class DomainListConfiguration {
         return configuredDomains;
     }
 
+    public Duration getCacheRefreshPeriod() {
+        return cacheRefreshPeriod;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof DomainListConfiguration) {
@@ -153,13 +182,14 @@ public class DomainListConfiguration {
 
             return Objects.equals(this.autoDetectIp, that.autoDetectIp)
                 && Objects.equals(this.autoDetect, that.autoDetect)
-                && Objects.equals(this.defaultDomain, that.defaultDomain);
+                && Objects.equals(this.defaultDomain, that.defaultDomain)
+                && Objects.equals(this.cacheRefreshPeriod, that.cacheRefreshPeriod);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(autoDetectIp, autoDetect, defaultDomain);
+        return Objects.hash(autoDetectIp, autoDetect, defaultDomain, cacheRefreshPeriod);
     }
 }
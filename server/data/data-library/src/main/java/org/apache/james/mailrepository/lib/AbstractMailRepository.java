@@ -96,13 +96,8 @@ public abstract class AbstractMailRepository implements MailRepository, Configur
         boolean wasLocked = true;
         MailKey key = MailKey.forMail(mc);
         try {
-            synchronized (this) {
-                wasLocked = lock.isLocked(key);
-                if (!wasLocked) {
-                    // If it wasn't locked, we want a lock during the store
-                    lock(key);
-                }
-            }
+            // If it wasn't locked, we want a lock during the store
+            wasLocked = !lock.lockIfUnlocked(key);
             internalStore(mc);
             return key;
         } catch (MessagingException e) {
@@ -115,9 +110,6 @@ public abstract class AbstractMailRepository implements MailRepository, Configur
             if (!wasLocked) {
                 // If it wasn't locked, we need to unlock now
                 unlock(key);
-                synchronized (this) {
-                    notify();
-                }
             }
         }
     }
@@ -19,16 +19,20 @@
 
 package org.apache.james.mailrepository.lib;
 
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides Lock functionality
+ *
+ * Locks are owned by the thread acquiring them. Acquiring or releasing a lock only contends
+ * on the given key, not on the whole set of locks.
  */
 public class Lock {
     /**
-     * An internal hash table of keys to locks
+     * An internal map of keys to lock owners
      */
-    private final Hashtable<Object, Object> locks = new Hashtable<>();
+    private final ConcurrentMap<Object, Object> locks = new ConcurrentHashMap<>();
 
     /**
      * Check to see if the object is locked
@@ -38,7 +42,7 @@ public class Lock {
      * @return true if the object is locked, false otherwise
      */
     public boolean isLocked(Object key) {
-        return (locks.get(key) != null);
+        return locks.containsKey(key);
     }
 
     /**
@@ -63,18 +67,19 @@ public class Lock {
      * @return true if the locking was successful, false otherwise
      */
     public boolean lock(Object key) {
-        Object theLock;
-
-        synchronized (this) {
-            theLock = locks.get(key);
+        Object theLock = locks.putIfAbsent(key, getCallerId());
+        return null == theLock || getCallerId() == theLock;
+    }
 
-            if (null == theLock) {
-                locks.put(key, getCallerId());
-                return true;
-            } else {
-                return getCallerId() == theLock;
-            }
-        }
+    /**
+     * Lock on a given object if no one, including the calling thread, already holds it.
+     *
+     * @param key
+     *            the Object on which to lock
+     * @return true if the lock was acquired by this call, false otherwise
+     */
+    public boolean lockIfUnlocked(Object key) {
+        return null == locks.putIfAbsent(key, getCallerId());
     }
 
     /**
@@ -85,19 +90,8 @@ public class Lock {
      * @return true if the unlocking was successful, false otherwise
      */
     public boolean unlock(Object key) {
-        Object theLock;
-        synchronized (this) {
-            theLock = locks.get(key);
-
-            if (null == theLock) {
-                return true;
-            } else if (getCallerId() == theLock) {
-                locks.remove(key);
-                return true;
-            } else {
-                return false;
-            }
-        }
+        Object callerId = getCallerId();
+        return locks.remove(key, callerId) || !locks.containsKey(key);
     }
 
     /**
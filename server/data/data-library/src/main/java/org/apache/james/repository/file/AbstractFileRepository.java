@@ -29,6 +29,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -42,6 +44,8 @@ import org.apache.james.repository.api.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * This an abstract class implementing functionality for creating a file-store.
  */
@@ -54,6 +58,8 @@ public abstract class AbstractFileRepository implements Repository, Configurable
 
     protected static final char[] HEX_DIGITS = new char[] { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
 
+    private static final int LOCK_STRIPES = 64;
+
     protected String extension;
 
     protected String name;
@@ -66,6 +72,11 @@ public abstract class AbstractFileRepository implements Repository, Configurable
 
     private String destination;
 
+    /**
+     * Guards the file of each key: operations on different keys do not contend unless they share a stripe
+     */
+    private final Striped<ReadWriteLock> keyLocks = Striped.readWriteLock(LOCK_STRIPES);
+
     @Override
     public void configure(HierarchicalConfiguration configuration) throws ConfigurationException {
         destination = configuration.getString("[@destinationURL]");
@@ -248,7 +259,9 @@ public abstract class AbstractFileRepository implements Repository, Configurable
      * @throws IOException 
      */
     
-    public synchronized boolean remove(String key) {
+    public boolean remove(String key) {
+        Lock lock = writeLock(key);
+        lock.lock();
         try {
             FileUtils.forceDelete(getFile(key));
             return true;
@@ -256,6 +269,8 @@ public abstract class AbstractFileRepository implements Repository, Configurable
             return false;
         } catch (Exception e) {
             throw new RuntimeException("Exception caught while removing" + " an object", e);
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -267,7 +282,9 @@ public abstract class AbstractFileRepository implements Repository, Configurable
      *            the key which checked for
      * @return true if the repository contains the key
      */
-    public synchronized boolean containsKey(String key) {
+    public boolean containsKey(String key) {
+        Lock lock = readLock(key);
+        lock.lock();
         try {
             final File file = getFile(key);
             if (DEBUG) {
@@ -276,9 +293,25 @@ public abstract class AbstractFileRepository implements Repository, Configurable
             return file.exists();
         } catch (Exception e) {
             throw new RuntimeException("Exception caught while searching " + "an object", e);
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Return the lock to hold while reading the file of the given key
+     */
+    protected Lock readLock(String key) {
+        return keyLocks.get(key).readLock();
+    }
+
+    /**
+     * Return the lock to hold while writing or deleting the file of the given key
+     */
+    protected Lock writeLock(String key) {
+        return keyLocks.get(key).writeLock();
+    }
+
     /**
      * Returns the list of used keys.
      */
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.james.repository.api.ObjectRepository;
 import org.slf4j.Logger;
@@ -41,7 +42,9 @@ public class FilePersistentObjectRepository extends AbstractFileRepository imple
     }
 
     @Override
-    public synchronized Object get(String key) {
+    public Object get(String key) {
+        Lock lock = readLock(key);
+        lock.lock();
         try {
             final InputStream inputStream = getInputStream(key);
 
@@ -61,11 +64,15 @@ public class FilePersistentObjectRepository extends AbstractFileRepository imple
             }
         } catch (Throwable e) {
             throw new RuntimeException("Exception caught while retrieving an object", e);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
-    public synchronized Object get(String key, ClassLoader classLoader) {
+    public Object get(String key, ClassLoader classLoader) {
+        Lock lock = readLock(key);
+        lock.lock();
         try {
             final InputStream inputStream = getInputStream(key);
 
@@ -87,12 +94,16 @@ public class FilePersistentObjectRepository extends AbstractFileRepository imple
             }
         } catch (Throwable e) {
             throw new RuntimeException("Exception caught while retrieving an object", e);
+        } finally {
+            lock.unlock();
         }
 
     }
 
     @Override
-    public synchronized void put(String key, Object value) {
+    public void put(String key, Object value) {
+        Lock lock = writeLock(key);
+        lock.lock();
         try (OutputStream outputStream = getOutputStream(key)) {
             final ObjectOutputStream stream = new ObjectOutputStream(outputStream);
             stream.writeObject(value);
@@ -101,6 +112,8 @@ public class FilePersistentObjectRepository extends AbstractFileRepository imple
             }
         } catch (Exception e) {
             throw new RuntimeException("Exception caught while storing an object", e);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -44,7 +44,7 @@ public class FilePersistentStreamRepository extends AbstractFileRepository imple
 
 
     @Override
-    public synchronized InputStream get(String key) {
+    public InputStream get(String key) {
         try {
             return getInputStream(key);
         } catch (IOException ioe) {
@@ -56,7 +56,7 @@ public class FilePersistentStreamRepository extends AbstractFileRepository imple
 
 
     @Override
-    public synchronized OutputStream put(String key) {
+    public OutputStream put(String key) {
         try {
             final OutputStream outputStream = getOutputStream(key);
             return new BufferedOutputStream(outputStream);
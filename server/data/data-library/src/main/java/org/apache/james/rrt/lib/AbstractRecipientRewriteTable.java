@@ -18,7 +18,12 @@
  ****************************************************************/
 package org.apache.james.rrt.lib;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -41,9 +46,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 public abstract class AbstractRecipientRewriteTable implements RecipientRewriteTable, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRecipientRewriteTable.class);
+    private static final long DEFAULT_MAPPING_CACHE_TTL_IN_SECONDS = 0;
+    private static final long DEFAULT_MAPPING_CACHE_MAX_SIZE = 10000;
 
     // The maximum mappings which will process before throwing exception
     private int mappingLimit = 10;
@@ -52,6 +65,10 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
 
     private DomainList domainList;
 
+    // Fully expanded mappings, cleared each time a mapping is added or removed. Disabled unless configured
+    private Optional<Cache<User, Mappings>> mappingsCache = Optional.empty();
+    private final AtomicLong mappingsGeneration = new AtomicLong();
+
     @Inject
     public void setDomainList(DomainList domainList) {
         this.domainList = domainList;
@@ -62,12 +79,21 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
         setRecursiveMapping(config.getBoolean("recursiveMapping", true));
         try {
             setMappingLimit(config.getInt("mappingLimit", 10));
+            setMappingCache(config.getLong("mappingCacheTtlInSeconds", DEFAULT_MAPPING_CACHE_TTL_IN_SECONDS),
+                config.getLong("mappingCacheMaxSize", DEFAULT_MAPPING_CACHE_MAX_SIZE));
         } catch (IllegalArgumentException e) {
             throw new ConfigurationException(e.getMessage());
         }
         doConfigure(config);
     }
 
+    private static Cache<User, Mappings> createMappingsCache(long ttlInSeconds, long maxSize) {
+        return CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlInSeconds, TimeUnit.SECONDS)
+            .maximumSize(maxSize)
+            .build();
+    }
+
     /**
      * Override to handle config
      */
@@ -76,6 +102,7 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
 
     public void setRecursiveMapping(boolean recursive) {
         this.recursive = recursive;
+        invalidateMappingsCache();
     }
 
     /**
@@ -91,14 +118,83 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
             throw new IllegalArgumentException("The minimum mappingLimit is 1");
         }
         this.mappingLimit = mappingLimit;
+        invalidateMappingsCache();
+    }
+
+    /**
+     * Configures the cache of fully expanded mappings. It is disabled by
+     * default.
+     *
+     * @param ttlInSeconds
+     *            how long an expanded mapping is kept. 0 disables the cache
+     * @param maxSize
+     *            the maximum count of expanded mappings kept
+     * @throws IllegalArgumentException
+     *             get thrown if a negative value is used
+     */
+    public void setMappingCache(long ttlInSeconds, long maxSize) throws IllegalArgumentException {
+        if (ttlInSeconds < 0 || maxSize < 0) {
+            throw new IllegalArgumentException("The mapping cache ttl and size can not be negative");
+        }
+        if (ttlInSeconds == 0 || maxSize == 0) {
+            this.mappingsCache = Optional.empty();
+        } else {
+            this.mappingsCache = Optional.of(createMappingsCache(ttlInSeconds, maxSize));
+        }
+    }
+
+    @Override
+    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+        try {
+            doAddMapping(source, mapping);
+        } finally {
+            invalidateMappingsCache();
+        }
+    }
+
+    @Override
+    public void removeMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+        try {
+            doRemoveMapping(source, mapping);
+        } finally {
+            invalidateMappingsCache();
+        }
+    }
+
+    /**
+     * Expanded mappings can depend on any stored mapping, they are all discarded.
+     */
+    private void invalidateMappingsCache() {
+        mappingsGeneration.incrementAndGet();
+        mappingsCache.ifPresent(Cache::invalidateAll);
     }
 
     @Override
     public Mappings getMappings(String user, Domain domain) throws ErrorMappingException, RecipientRewriteTableException {
-        return getMappings(User.fromLocalPartWithDomain(user, domain), mappingLimit);
+        User target = User.fromLocalPartWithDomain(user, domain);
+        Optional<Cache<User, Mappings>> cache = mappingsCache;
+        Optional<Mappings> cachedMappings = cache.map(c -> c.getIfPresent(target));
+        if (cachedMappings.isPresent()) {
+            return cachedMappings.get();
+        }
+
+        long generation = mappingsGeneration.get();
+        Mappings mappings = getMappings(target, mappingLimit, new HashMap<>());
+        cache.ifPresent(c -> {
+            // A mapping changed while expanding: the result might be outdated
+            if (generation == mappingsGeneration.get()) {
+                c.put(target, mappings);
+            }
+        });
+        return mappings;
+    }
+
+    @VisibleForTesting
+    long cachedMappingsCount() {
+        return mappingsCache.map(Cache::size).orElse(0L);
     }
 
-    private Mappings getMappings(User user, int mappingLimit) throws ErrorMappingException, RecipientRewriteTableException {
+    private Mappings getMappings(User user, int mappingLimit, Map<User, Mappings> lookups) throws ErrorMappingException, RecipientRewriteTableException {
 
         // We have to much mappings throw ErrorMappingException to avoid
         // infinity loop
@@ -106,23 +202,58 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
             throw new TooManyMappingException("554 Too many mappings to process");
         }
 
-        Mappings targetMappings = mapAddress(user.getLocalPart(), user.getDomainPart().get());
-
+        Mappings targetMappings = lookup(user, lookups);
+        if (recursive) {
+            prefetchRewrittenUsers(user, targetMappings, lookups);
+        }
 
         try {
             return MappingsImpl.fromMappings(
                 targetMappings.asStream()
-                    .flatMap(Throwing.function((Mapping target) -> convertAndRecurseMapping(user, target, mappingLimit)).sneakyThrow()));
+                    .flatMap(Throwing.function((Mapping target) -> convertAndRecurseMapping(user, target, mappingLimit, lookups)).sneakyThrow()));
         } catch (SkipMappingProcessingException e) {
             return MappingsImpl.empty();
         }
     }
 
-    private Stream<Mapping> convertAndRecurseMapping(User originalUser, Mapping associatedMapping, int remainingLoops) throws ErrorMappingException, RecipientRewriteTableException, SkipMappingProcessingException, AddressException {
+    private Mappings lookup(User user, Map<User, Mappings> lookups) throws RecipientRewriteTableException {
+        Mappings mappings = lookups.get(user);
+        if (mappings == null) {
+            mappings = mapAddress(user.getLocalPart(), user.getDomainPart().get());
+            lookups.put(user, mappings);
+        }
+        return mappings;
+    }
+
+    /**
+     * Retrieves at once the stored mappings of all the users the given mappings rewrite to,
+     * so that the next level of the expansion does not query the storage once per user.
+     */
+    private void prefetchRewrittenUsers(User user, Mappings targetMappings, Map<User, Mappings> lookups) throws RecipientRewriteTableException {
+        ImmutableList.Builder<User> rewrittenUsers = ImmutableList.builder();
+        for (Mapping target : targetMappings) {
+            try {
+                target.rewriteUser(user)
+                    .map(rewrittenUser -> rewrittenUser.withDefaultDomainFromUser(user))
+                    .filter(rewrittenUser -> !rewrittenUser.equals(user))
+                    .filter(User::hasDomainPart)
+                    .filter(rewrittenUser -> !lookups.containsKey(rewrittenUser))
+                    .ifPresent(rewrittenUsers::add);
+            } catch (AddressException | ErrorMappingException e) {
+                // Reported when the mapping is processed
+            }
+        }
+        ImmutableList<User> usersToRetrieve = rewrittenUsers.build();
+        if (usersToRetrieve.size() > 1) {
+            lookups.putAll(mapAddresses(usersToRetrieve));
+        }
+    }
+
+    private Stream<Mapping> convertAndRecurseMapping(User originalUser, Mapping associatedMapping, int remainingLoops, Map<User, Mappings> lookups) throws ErrorMappingException, RecipientRewriteTableException, SkipMappingProcessingException, AddressException {
 
         Function<User, Stream<Mapping>> convertAndRecurseMapping =
             Throwing
-                .function((User rewrittenUser) -> convertAndRecurseMapping(associatedMapping, originalUser, rewrittenUser, remainingLoops))
+                .function((User rewrittenUser) -> convertAndRecurseMapping(associatedMapping, originalUser, rewrittenUser, remainingLoops, lookups))
                 .sneakyThrow();
 
         return associatedMapping.rewriteUser(originalUser)
@@ -131,7 +262,7 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
             .orElse(Stream.empty());
     }
 
-    private Stream<Mapping> convertAndRecurseMapping(Mapping mapping, User originalUser, User rewrittenUser, int remainingLoops) throws ErrorMappingException, RecipientRewriteTableException {
+    private Stream<Mapping> convertAndRecurseMapping(Mapping mapping, User originalUser, User rewrittenUser, int remainingLoops, Map<User, Mappings> lookups) throws ErrorMappingException, RecipientRewriteTableException {
         LOGGER.debug("Valid virtual user mapping {} to {}", originalUser, rewrittenUser);
 
         Stream<Mapping> nonRecursiveResult = Stream.of(toMapping(rewrittenUser, mapping.getType()));
@@ -143,12 +274,12 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
         if (originalUser.equals(rewrittenUser)) {
             return mapping.handleIdentity(nonRecursiveResult);
         } else {
-            return recurseMapping(nonRecursiveResult, rewrittenUser, remainingLoops);
+            return recurseMapping(nonRecursiveResult, rewrittenUser, remainingLoops, lookups);
         }
     }
 
-    private Stream<Mapping> recurseMapping(Stream<Mapping> nonRecursiveResult, User targetUser, int remainingLoops) throws ErrorMappingException, RecipientRewriteTableException {
-        Mappings childMappings = getMappings(targetUser, remainingLoops - 1);
+    private Stream<Mapping> recurseMapping(Stream<Mapping> nonRecursiveResult, User targetUser, int remainingLoops, Map<User, Mappings> lookups) throws ErrorMappingException, RecipientRewriteTableException {
+        Mappings childMappings = getMappings(targetUser, remainingLoops - 1, lookups);
 
         if (childMappings.isEmpty()) {
             return nonRecursiveResult;
@@ -310,6 +441,28 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
      */
     protected abstract Mappings mapAddress(String user, Domain domain) throws RecipientRewriteTableException;
 
+    /**
+     * Returns the stored Mappings of several users, as {@link #mapAddress(String, Domain)} does.
+     * Implementations can override it to retrieve them with fewer queries.
+     */
+    protected Map<User, Mappings> mapAddresses(Collection<User> users) throws RecipientRewriteTableException {
+        ImmutableMap.Builder<User, Mappings> mappings = ImmutableMap.builder();
+        for (User user : ImmutableSet.copyOf(users)) {
+            mappings.put(user, mapAddress(user.getLocalPart(), user.getDomainPart().get()));
+        }
+        return mappings.build();
+    }
+
+    /**
+     * Stores the given mapping
+     */
+    protected abstract void doAddMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException;
+
+    /**
+     * Removes the given mapping from the storage
+     */
+    protected abstract void doRemoveMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException;
+
     private void checkDuplicateMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
         Mappings mappings = getUserDomainMappings(source);
         if (mappings != null && mappings.contains(mapping)) {
@@ -87,14 +87,6 @@ public abstract class AbstractJamesUsersRepository extends AbstractUsersReposito
      */
     protected abstract void doAddUser(User user) throws UsersRepositoryException;
 
-    /**
-     * Updates a user record to match the supplied User.
-     * 
-     * @param user
-     *            the user to update
-     */
-    protected abstract void doUpdateUser(User user) throws UsersRepositoryException;
-
     @Override
     protected void doAddUser(String username, String password) throws UsersRepositoryException {
         User newbie = new DefaultJamesUser(username, "SHA");
@@ -116,7 +108,7 @@ public abstract class AbstractJamesUsersRepository extends AbstractUsersReposito
         if (!contains(user.getUserName())) {
             throw new UsersRepositoryException("User " + user.getUserName() + " does not exist");
         } else {
-            doUpdateUser(user);
+            super.updateUser(user);
         }
     }
 
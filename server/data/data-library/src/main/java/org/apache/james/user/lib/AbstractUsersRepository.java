@@ -19,7 +19,12 @@
 
 package org.apache.james.user.lib;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -31,27 +36,99 @@ import org.apache.james.core.User;
 import org.apache.james.domainlist.api.DomainList;
 import org.apache.james.domainlist.api.DomainListException;
 import org.apache.james.lifecycle.api.Configurable;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
 import org.apache.james.user.api.AlreadyExistInUsersRepositoryException;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.api.UsersRepositoryException;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 
 public abstract class AbstractUsersRepository implements UsersRepository, Configurable {
+    private static final long DEFAULT_AUTHENTICATION_CACHE_TTL_IN_SECONDS = 0;
+    private static final long DEFAULT_AUTHENTICATION_CACHE_MAX_SIZE = 10000;
+    private static final int SALT_LENGTH = 16;
 
     private DomainList domainList;
     private boolean virtualHosting;
     private Optional<String> administratorId;
 
+    // Fingerprint of the last password successfully verified for each user, disabled unless configured
+    private Optional<Cache<String, HashCode>> authenticationCache = Optional.empty();
+    private final AtomicLong authenticationGeneration = new AtomicLong();
+    private final byte[] fingerprintSalt = createSalt();
+    private Metric authenticationCacheHits;
+    private Metric authenticationCacheMisses;
+    private MetricFactory metricFactory;
+
+    public AbstractUsersRepository() {
+        setMetricFactory(new NoopMetricFactory());
+    }
+
     @Override
     public void configure(HierarchicalConfiguration configuration) throws ConfigurationException {
 
         virtualHosting = configuration.getBoolean("enableVirtualHosting", getDefaultVirtualHostingValue());
         administratorId = Optional.ofNullable(configuration.getString("administratorId"));
+        try {
+            setAuthenticationCache(configuration.getLong("authenticationCacheTtlInSeconds", DEFAULT_AUTHENTICATION_CACHE_TTL_IN_SECONDS),
+                configuration.getLong("authenticationCacheMaxSize", DEFAULT_AUTHENTICATION_CACHE_MAX_SIZE));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(e.getMessage());
+        }
 
         doConfigure(configuration);
     }
 
+    private static Cache<String, HashCode> createAuthenticationCache(long ttlInSeconds, long maxSize) {
+        return CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlInSeconds, TimeUnit.SECONDS)
+            .maximumSize(maxSize)
+            .build();
+    }
+
+    private static byte[] createSalt() {
+        byte[] salt = new byte[SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+        return salt;
+    }
+
+    /**
+     * Configures the cache of successful authentications. It is disabled by
+     * default. Entries are only dropped by updates and removals made through
+     * this instance, never by changes made on other nodes.
+     *
+     * @param ttlInSeconds
+     *            how long a successful authentication is remembered. 0 disables the cache
+     * @param maxSize
+     *            the maximum count of users remembered
+     * @throws IllegalArgumentException
+     *             get thrown if a negative value is used
+     */
+    public void setAuthenticationCache(long ttlInSeconds, long maxSize) throws IllegalArgumentException {
+        if (ttlInSeconds < 0 || maxSize < 0) {
+            throw new IllegalArgumentException("The authentication cache ttl and size can not be negative");
+        }
+        if (ttlInSeconds == 0 || maxSize == 0) {
+            this.authenticationCache = Optional.empty();
+        } else {
+            this.authenticationCache = Optional.of(createAuthenticationCache(ttlInSeconds, maxSize));
+        }
+    }
+
+    @Inject
+    public void setMetricFactory(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+        this.authenticationCacheHits = metricFactory.generate("usersRepositoryAuthenticationCacheHits");
+        this.authenticationCacheMisses = metricFactory.generate("usersRepositoryAuthenticationCacheMisses");
+    }
+
     protected boolean getDefaultVirtualHostingValue() {
         return false;
     }
@@ -104,6 +181,76 @@ public abstract class AbstractUsersRepository implements UsersRepository, Config
 
     }
 
+    @Override
+    public void updateUser(org.apache.james.user.api.model.User user) throws UsersRepositoryException {
+        try {
+            doUpdateUser(user);
+        } finally {
+            invalidateAuthentication(user.getUserName());
+        }
+    }
+
+    @Override
+    public void removeUser(String name) throws UsersRepositoryException {
+        try {
+            doRemoveUser(name);
+        } finally {
+            invalidateAuthentication(name);
+        }
+    }
+
+    /**
+     * Successful authentications are remembered for a short time, so that clients reconnecting
+     * often do not hit the storage and the password hashing each time.
+     */
+    @Override
+    public boolean test(String name, String password) throws UsersRepositoryException {
+        Optional<Cache<String, HashCode>> cache = authenticationCache;
+        String key = authenticationKey(name);
+        HashCode fingerprint = fingerprint(name, password);
+        if (cache.map(c -> fingerprint.equals(c.getIfPresent(key))).orElse(false)) {
+            authenticationCacheHits.increment();
+            return true;
+        }
+        authenticationCacheMisses.increment();
+
+        long generation = authenticationGeneration.get();
+        TimeMetric timeMetric = metricFactory.timer("usersRepositoryAuthentication");
+        try {
+            boolean authenticated = doTest(name, password);
+            if (authenticated && generation == authenticationGeneration.get()) {
+                cache.ifPresent(c -> c.put(key, fingerprint));
+            }
+            return authenticated;
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
+
+    private void invalidateAuthentication(String name) {
+        authenticationGeneration.incrementAndGet();
+        authenticationCache.ifPresent(cache -> cache.invalidate(authenticationKey(name)));
+    }
+
+    private String authenticationKey(String name) {
+        return name.toLowerCase(Locale.US);
+    }
+
+    private HashCode fingerprint(String name, String password) {
+        return Hashing.sha256()
+            .newHasher()
+            .putBytes(fingerprintSalt)
+            .putString(name, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(String.valueOf(password), StandardCharsets.UTF_8)
+            .hash();
+    }
+
+    @VisibleForTesting
+    long cachedAuthenticationsCount() {
+        return authenticationCache.map(Cache::size).orElse(0L);
+    }
+
     @Override
     public boolean supportVirtualHosting() {
         return virtualHosting;
@@ -119,6 +266,29 @@ public abstract class AbstractUsersRepository implements UsersRepository, Config
      */
     protected abstract void doAddUser(String username, String password) throws UsersRepositoryException;
 
+    /**
+     * Updates a user record to match the supplied User.
+     * 
+     * @param user
+     *            the user to update
+     */
+    protected abstract void doUpdateUser(org.apache.james.user.api.model.User user) throws UsersRepositoryException;
+
+    /**
+     * Removes the user with the given username
+     *
+     * @param name
+     *            the name of the user to remove
+     */
+    protected abstract void doRemoveUser(String name) throws UsersRepositoryException;
+
+    /**
+     * Checks the given password against the stored credentials of the user
+     *
+     * @return true if the user exists and the password matches
+     */
+    protected abstract boolean doTest(String name, String password) throws UsersRepositoryException;
+
     @Override
     public String getUser(MailAddress mailAddress) throws UsersRepositoryException {
         if (supportVirtualHosting()) {
@@ -22,10 +22,13 @@ package org.apache.james.domainlist.lib;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.InetAddress;
+import java.time.Duration;
 import java.util.List;
 
 import org.apache.commons.configuration.HierarchicalConfiguration;
@@ -65,12 +68,12 @@ public class AbstractDomainListPrivateMethodsTest {
         }
 
         @Override
-        public void addDomain(Domain domain) throws DomainListException {
+        protected void doAddDomain(Domain domain) throws DomainListException {
             domains.add(domain);
         }
 
         @Override
-        public void removeDomain(Domain domain) throws DomainListException {
+        protected void doRemoveDomain(Domain domain) throws DomainListException {
             domains.remove(domain);
         }
 
@@ -325,4 +328,58 @@ public class AbstractDomainListPrivateMethodsTest {
                 Domain.of(domain2));
     }
 
+    @Test
+    public void containsDomainShouldNotDetectDomainsAgainWithinRefreshPeriod() throws Exception {
+        when(dnsService.getHostName(any(InetAddress.class))).thenReturn("detected.tld");
+
+        domainList.containsDomain(Domain.of("any.tld"));
+        domainList.containsDomain(Domain.of("other.tld"));
+
+        verify(dnsService, times(1)).getHostName(any(InetAddress.class));
+    }
+
+    @Test
+    public void containsDomainShouldDetectDomainsOnEachCallWhenCacheIsDisabled() throws Exception {
+        domainList.setCacheRefreshPeriod(Duration.ZERO);
+        when(dnsService.getHostName(any(InetAddress.class))).thenReturn("detected.tld");
+
+        domainList.containsDomain(Domain.of("any.tld"));
+        domainList.containsDomain(Domain.of("other.tld"));
+
+        verify(dnsService, times(2)).getHostName(any(InetAddress.class));
+    }
+
+    @Test
+    public void containsDomainShouldReturnTrueWhenDomainAddedAfterPreviousCheck() throws Exception {
+        Domain domain = Domain.of("added.tld");
+        assertThat(domainList.containsDomain(domain)).isFalse();
+
+        domainList.addDomain(domain);
+
+        assertThat(domainList.containsDomain(domain)).isTrue();
+    }
+
+    @Test
+    public void containsDomainShouldReturnFalseWhenDomainRemovedAfterPreviousCheck() throws Exception {
+        Domain domain = Domain.of("added.tld");
+        domainList.addDomain(domain);
+        assertThat(domainList.containsDomain(domain)).isTrue();
+
+        domainList.removeDomain(domain);
+
+        assertThat(domainList.containsDomain(domain)).isFalse();
+    }
+
+    @Test
+    public void getDomainsShouldBeRecomputedWhenAutoDetectChanges() throws Exception {
+        String detected = "detected.tld";
+        when(dnsService.getHostName(any(InetAddress.class))).thenReturn(detected);
+        domainList.setAutoDetectIP(false);
+        assertThat(domainList.getDomains()).contains(Domain.of(detected));
+
+        domainList.setAutoDetect(false);
+
+        assertThat(domainList.getDomains()).doesNotContain(Domain.of(detected));
+    }
+
 }
@@ -354,4 +354,101 @@ public abstract class AbstractRecipientRewriteTableTest {
         assertThat(virtualUserTable.getMappings(user, domain))
             .isEqualTo(MappingsImpl.empty());
     }
+
+    @Test
+    public void getMappingsShouldReturnAddedMappingWhenPreviousResultWasCached() throws Exception {
+        virtualUserTable.setMappingCache(10, 10000);
+        String user = "test";
+        Domain domain = Domain.LOCALHOST;
+        MappingSource source = MappingSource.fromUser(user, domain);
+
+        assertThat(virtualUserTable.getMappings(user, domain)).isEqualTo(MappingsImpl.empty());
+
+        virtualUserTable.addMapping(source, Mapping.address("test@james"));
+
+        assertThat(virtualUserTable.getMappings(user, domain)).containsOnly(Mapping.address("test@james"));
+    }
+
+    @Test
+    public void getMappingsShouldNotReturnRemovedMappingWhenPreviousResultWasCached() throws Exception {
+        virtualUserTable.setMappingCache(10, 10000);
+        String user = "test";
+        Domain domain = Domain.LOCALHOST;
+        MappingSource source = MappingSource.fromUser(user, domain);
+        virtualUserTable.addMapping(source, Mapping.address("test@james"));
+
+        assertThat(virtualUserTable.getMappings(user, domain)).hasSize(1);
+
+        virtualUserTable.removeMapping(source, Mapping.address("test@james"));
+
+        assertThat(virtualUserTable.getMappings(user, domain)).isEqualTo(MappingsImpl.empty());
+    }
+
+    @Test
+    public void getMappingsShouldUpdateIntermediateMappingsOfARecursiveChain() throws Exception {
+        virtualUserTable.setMappingCache(10, 10000);
+        Domain domain = Domain.LOCALHOST;
+        virtualUserTable.addMapping(MappingSource.fromUser("alias", domain), Mapping.address("group@localhost"));
+        virtualUserTable.addMapping(MappingSource.fromUser("group", domain), Mapping.address("member1@localhost"));
+
+        assertThat(virtualUserTable.getMappings("alias", domain)).containsOnly(Mapping.address("member1@localhost"));
+
+        virtualUserTable.addMapping(MappingSource.fromUser("group", domain), Mapping.address("member2@localhost"));
+
+        assertThat(virtualUserTable.getMappings("alias", domain))
+            .containsOnly(Mapping.address("member1@localhost"), Mapping.address("member2@localhost"));
+    }
+
+    @Test
+    public void getMappingsShouldExpandNestedGroups() throws Exception {
+        Domain domain = Domain.LOCALHOST;
+        virtualUserTable.setMappingLimit(4);
+        MappingSource alias = MappingSource.fromUser("alias", domain);
+        virtualUserTable.addMapping(alias, Mapping.address("group1@localhost"));
+        virtualUserTable.addMapping(alias, Mapping.address("group2@localhost"));
+        for (int i = 0; i < 10; i++) {
+            virtualUserTable.addMapping(MappingSource.fromUser("group1", domain), Mapping.address("sub" + i + "@localhost"));
+            virtualUserTable.addMapping(MappingSource.fromUser("sub" + i, domain), Mapping.address("member" + i + "@localhost"));
+        }
+        virtualUserTable.addMapping(MappingSource.fromUser("group2", domain), Mapping.address("member0@localhost"));
+
+        assertThat(virtualUserTable.getMappings("alias", domain))
+            .hasSize(11)
+            .contains(Mapping.address("member0@localhost"), Mapping.address("member9@localhost"));
+    }
+
+    @Test
+    public void addMappingShouldInvalidateCachedMappings() throws Exception {
+        virtualUserTable.setMappingCache(10, 10000);
+        Domain domain = Domain.LOCALHOST;
+        virtualUserTable.getMappings("test", domain);
+        assertThat(virtualUserTable.cachedMappingsCount()).isEqualTo(1);
+
+        virtualUserTable.addMapping(MappingSource.fromUser("other", domain), Mapping.address("other@james"));
+
+        assertThat(virtualUserTable.cachedMappingsCount()).isZero();
+    }
+
+    @Test
+    public void getMappingsShouldNotCacheMappingsByDefault() throws Exception {
+        virtualUserTable.getMappings("test", Domain.LOCALHOST);
+
+        assertThat(virtualUserTable.cachedMappingsCount()).isZero();
+    }
+
+    @Test
+    public void setMappingCacheShouldThrowOnNegativeTtl() {
+        assertThatThrownBy(() -> virtualUserTable.setMappingCache(-1, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getMappingsShouldWorkWhenCacheIsDisabled() throws Exception {
+        String user = "test";
+        Domain domain = Domain.LOCALHOST;
+        virtualUserTable.setMappingCache(0, 0);
+        virtualUserTable.addMapping(MappingSource.fromUser(user, domain), Mapping.address("test@james"));
+
+        assertThat(virtualUserTable.getMappings(user, domain)).containsOnly(Mapping.address("test@james"));
+    }
 }
@@ -180,6 +180,17 @@ public abstract class AbstractSieveRepositoryTest {
         assertThat(getScriptContent(sieveRepository.getActive(USER))).isEqualTo(SCRIPT_CONTENT);
     }
 
+    @Test
+    public void putScriptShouldKeepTheOverwrittenActiveScriptActive() throws Exception {
+        sieveRepository.putScript(USER, SCRIPT_NAME, SCRIPT_CONTENT);
+        sieveRepository.setActive(USER, SCRIPT_NAME);
+
+        sieveRepository.putScript(USER, SCRIPT_NAME, OTHER_SCRIPT_CONTENT);
+
+        assertThat(sieveRepository.listScripts(USER)).containsOnly(new ScriptSummary(SCRIPT_NAME, true));
+        assertThat(getScriptContent(sieveRepository.getActive(USER))).isEqualTo(OTHER_SCRIPT_CONTENT);
+    }
+
     @Test
     public void setActiveSwitchScriptShouldWork() throws Exception {
         sieveRepository.putScript(USER, SCRIPT_NAME, SCRIPT_CONTENT);
@@ -306,6 +306,77 @@ public abstract class AbstractUsersRepositoryTest {
         assertThat(usersRepository.test(user1, "password")).isFalse();
     }
     
+    @Test
+    public void updateUserShouldNotAllowToAuthenticateWithOldPasswordWhenAuthenticationWasCached() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(30, 10000);
+        usersRepository.addUser(user1, "password");
+        assertThat(usersRepository.test(user1, "password")).isTrue();
+        User user = usersRepository.getUserByName(user1);
+        user.setPassword("newpass");
+
+        usersRepository.updateUser(user);
+
+        assertThat(usersRepository.test(user1, "password")).isFalse();
+        assertThat(usersRepository.test(user1, "newpass")).isTrue();
+    }
+
+    @Test
+    public void removeUserShouldNotAllowToAuthenticateWhenAuthenticationWasCached() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(30, 10000);
+        usersRepository.addUser(user1, "password");
+        assertThat(usersRepository.test(user1, "password")).isTrue();
+
+        usersRepository.removeUser(user1);
+
+        assertThat(usersRepository.test(user1, "password")).isFalse();
+    }
+
+    @Test
+    public void testShouldRememberSuccessfulAuthentication() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(30, 10000);
+        usersRepository.addUser(user1, "password");
+
+        usersRepository.test(user1, "password");
+
+        assertThat(usersRepository.cachedAuthenticationsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testShouldNotRememberFailedAuthentication() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(30, 10000);
+        usersRepository.addUser(user1, "password");
+
+        usersRepository.test(user1, "password2");
+
+        assertThat(usersRepository.cachedAuthenticationsCount()).isZero();
+    }
+
+    @Test
+    public void testShouldReturnFalseWhenAnotherPasswordWasCached() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(30, 10000);
+        usersRepository.addUser(user1, "password");
+        usersRepository.test(user1, "password");
+
+        assertThat(usersRepository.test(user1, "password2")).isFalse();
+    }
+
+    @Test
+    public void testShouldNotRememberAuthenticationByDefault() throws UsersRepositoryException {
+        usersRepository.addUser(user1, "password");
+
+        assertThat(usersRepository.test(user1, "password")).isTrue();
+        assertThat(usersRepository.cachedAuthenticationsCount()).isZero();
+    }
+
+    @Test
+    public void testShouldWorkWhenAuthenticationCacheIsDisabled() throws UsersRepositoryException {
+        usersRepository.setAuthenticationCache(0, 0);
+        usersRepository.addUser(user1, "password");
+
+        assertThat(usersRepository.test(user1, "password")).isTrue();
+        assertThat(usersRepository.cachedAuthenticationsCount()).isZero();
+    }
+
     @Test(expected = UsersRepositoryException.class)
     public void updateUserShouldThrowWhenAUserIsNoMoreInRepository() throws UsersRepositoryException {
         //Given
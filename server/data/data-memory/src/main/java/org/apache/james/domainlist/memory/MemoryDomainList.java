@@ -60,7 +60,7 @@ public class MemoryDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void addDomain(Domain domain) throws DomainListException {
+    protected void doAddDomain(Domain domain) throws DomainListException {
         if (containsDomain(domain)) {
             throw new DomainListException(domain.name() + " already exists.");
         }
@@ -68,7 +68,7 @@ public class MemoryDomainList extends AbstractDomainList {
     }
 
     @Override
-    public void removeDomain(Domain domain) throws DomainListException {
+    protected void doRemoveDomain(Domain domain) throws DomainListException {
         if (!domains.remove(domain)) {
             throw new DomainListException(domain.name() + " was not found");
         }
@@ -80,7 +80,7 @@ public class MemoryUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public void updateUser(User user) throws UsersRepositoryException {
+    protected void doUpdateUser(User user) throws UsersRepositoryException {
         User existingUser = getUserByName(user.getUserName());
         if (existingUser == null) {
             throw new UsersRepositoryException("Please provide an existing user to update");
@@ -89,7 +89,7 @@ public class MemoryUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public void removeUser(String name) throws UsersRepositoryException {
+    protected void doRemoveUser(String name) throws UsersRepositoryException {
         if (userByName.remove(name) == null) {
             throw new UsersRepositoryException("unable to remove unknown user " + name);
         }
@@ -101,7 +101,7 @@ public class MemoryUsersRepository extends AbstractUsersRepository {
     }
 
     @Override
-    public boolean test(String name, final String password) throws UsersRepositoryException {
+    protected boolean doTest(String name, final String password) throws UsersRepositoryException {
         return Optional.ofNullable(userByName.get(org.apache.james.core.User.fromUsername(name).asString()))
             .map(user -> user.verifyPassword(password))
             .orElse(false);
@@ -39,4 +39,19 @@ public interface InetNetwork {
      */
     boolean contains(InetAddress ip);
 
+    /**
+     * Return the address of the network, that is the bytes of its ip address
+     * once its mask is applied
+     * 
+     * @return the network address
+     */
+    byte[] getNetworkAddress();
+
+    /**
+     * Return the mask of the network, of the same length as its address
+     * 
+     * @return the network mask
+     */
+    byte[] getNetworkMask();
+
 }
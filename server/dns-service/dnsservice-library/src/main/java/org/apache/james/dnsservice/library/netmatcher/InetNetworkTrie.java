@@ -0,0 +1,126 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.dnsservice.library.netmatcher;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.james.dnsservice.library.inetnetwork.model.InetNetwork;
+
+/**
+ * Binary prefix trie of the {@link InetNetwork}s of a given address length (4 bytes for IPv4, 16 for IPv6).
+ * 
+ * Checking whether an address belongs to one of the networks takes at most as many steps as the address has bits,
+ * whatever the number of networks. Networks whose mask is not a prefix (eg 255.0.255.0) can not be part of the trie.
+ * 
+ * Nodes are stored as pairs of child indexes in a single array. A trie is not thread safe while being built, but
+ * can be shared once built.
+ */
+class InetNetworkTrie {
+
+    private static final int ROOT = 0;
+    private static final int NO_CHILD = 0;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int addressLength;
+    private final BitSet terminals;
+    private int[] children;
+    private int nodeCount;
+
+    InetNetworkTrie(int addressLength) {
+        this.addressLength = addressLength;
+        this.terminals = new BitSet();
+        this.children = new int[INITIAL_CAPACITY * 2];
+        this.nodeCount = 1;
+    }
+
+    /**
+     * Add the given network to the trie.
+     * 
+     * @return false if the network can not be part of this trie, because of its length or of its mask
+     */
+    boolean add(InetNetwork network) {
+        byte[] address = network.getNetworkAddress();
+        int prefixLength = prefixLength(network.getNetworkMask());
+        if (address.length != addressLength || prefixLength < 0) {
+            return false;
+        }
+
+        int node = ROOT;
+        for (int bit = 0; bit < prefixLength && !terminals.get(node); bit++) {
+            int child = 2 * node + bitAt(address, bit);
+            if (children[child] == NO_CHILD) {
+                int created = newNode();
+                children[child] = created;
+            }
+            node = children[child];
+        }
+        terminals.set(node);
+        return true;
+    }
+
+    /**
+     * Return true if the given address belongs to one of the networks of the trie.
+     */
+    boolean contains(byte[] address) {
+        if (address.length != addressLength) {
+            return false;
+        }
+        int bitCount = addressLength * 8;
+        int node = ROOT;
+        for (int bit = 0; !terminals.get(node); bit++) {
+            if (bit == bitCount) {
+                return false;
+            }
+            node = children[2 * node + bitAt(address, bit)];
+            if (node == NO_CHILD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int newNode() {
+        if (2 * (nodeCount + 1) > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        return nodeCount++;
+    }
+
+    private static int bitAt(byte[] address, int bit) {
+        return (address[bit >> 3] >> (7 - (bit & 7))) & 1;
+    }
+
+    /**
+     * Return the number of leading bits set in the mask, or -1 if the mask is not a prefix.
+     */
+    private static int prefixLength(byte[] mask) {
+        int bit = 0;
+        int bitCount = mask.length * 8;
+        while (bit < bitCount && bitAt(mask, bit) == 1) {
+            bit++;
+        }
+        for (int remaining = bit; remaining < bitCount; remaining++) {
+            if (bitAt(mask, remaining) == 1) {
+                return -1;
+            }
+        }
+        return bit;
+    }
+}
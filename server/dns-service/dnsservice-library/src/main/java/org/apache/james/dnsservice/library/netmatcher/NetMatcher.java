@@ -20,9 +20,9 @@ package org.apache.james.dnsservice.library.netmatcher;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -40,6 +40,10 @@ import com.google.common.base.Splitter;
  * 
  * NetMatcher provides a means for checking whether a particular IPv4 or IPv6
  * address or domain name is within a set of subnets.
+ * 
+ * Subnets are indexed in prefix tries, so that matching an address does not
+ * depend on the number of subnets. The subnets can be replaced at runtime
+ * using {@link #reload(Collection)}.
  */
 public class NetMatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(NetMatcher.class);
@@ -52,9 +56,9 @@ public class NetMatcher {
     private final DNSService dnsServer;
 
     /**
-     * The Set of InetNetwork to match against.
+     * The networks to match against. Replaced as a whole on reload.
      */
-    private SortedSet<InetNetwork> networks;
+    private volatile Networks networks;
 
     /**
      * Create a new instance of Netmatcher.
@@ -66,7 +70,7 @@ public class NetMatcher {
      */
     public NetMatcher(String[] nets, DNSService dnsServer) {
         this.dnsServer = dnsServer;
-        initInetNetworks(nets);
+        this.networks = buildNetworks(nets);
     }
 
     /**
@@ -79,13 +83,24 @@ public class NetMatcher {
      */
     public NetMatcher(Collection<String> nets, DNSService dnsServer) {
         this.dnsServer = dnsServer;
-        initInetNetworks(nets);
+        this.networks = buildNetworks(nets);
     }
 
     public NetMatcher(String commaSeparatedNets, DNSService dnsServer) {
         this.dnsServer = dnsServer;
         List<String> nets = Splitter.on(NETS_SEPARATOR).splitToList(commaSeparatedNets);
-        initInetNetworks(nets);
+        this.networks = buildNetworks(nets);
+    }
+
+    /**
+     * Replace the networks to match against. Concurrent matches either see all the previous networks or all the
+     * new ones.
+     * 
+     * @param nets
+     *            a Collection which holds all networks
+     */
+    public void reload(Collection<String> nets) {
+        this.networks = buildNetworks(nets);
     }
 
     /**
@@ -119,16 +134,7 @@ public class NetMatcher {
      * @return true if match the network
      */
     public boolean matchInetNetwork(InetAddress ip) {
-
-        boolean sameNet = false;
-
-        for (Iterator<InetNetwork> iter = networks.iterator(); (!sameNet) && iter.hasNext();) {
-            InetNetwork network = iter.next();
-            sameNet = network.contains(ip);
-        }
-
-        return sameNet;
-
+        return networks.contains(ip);
     }
 
     @Override
@@ -137,36 +143,75 @@ public class NetMatcher {
     }
 
     /**
-     * Init the class with the given networks.
+     * Build the networks to match against.
      * 
      * @param nets
      *            a Collection which holds all networks
      */
-    private void initInetNetworks(Collection<String> nets) {
-        initInetNetworks(nets.toArray(new String[nets.size()]));
+    private Networks buildNetworks(Collection<String> nets) {
+        return buildNetworks(nets.toArray(new String[nets.size()]));
     }
 
     /**
-     * Init the class with the given networks.
+     * Build the networks to match against.
      * 
      * @param nets
      *            a String[] which holds all networks
      */
-    private void initInetNetworks(String[] nets) {
+    private Networks buildNetworks(String[] nets) {
 
-        networks = new TreeSet<>(Comparator.comparing(Object::toString));
+        SortedSet<InetNetwork> inetNetworks = new TreeSet<>(Comparator.comparing(Object::toString));
 
         final InetNetworkBuilder inetNetwork = new InetNetworkBuilder(dnsServer);
 
         for (String net : nets) {
             try {
                 InetNetwork inet = inetNetwork.getFromString(net);
-                networks.add(inet);
+                inetNetworks.add(inet);
             } catch (UnknownHostException uhe) {
                 LOGGER.info("Cannot resolve address: {}", uhe.getMessage());
             }
         }
 
+        return new Networks(inetNetworks);
+    }
+
+    /**
+     * Immutable set of networks, indexed for matching.
+     */
+    private static class Networks {
+        private final SortedSet<InetNetwork> all;
+        private final InetNetworkTrie ipV4Networks;
+        private final InetNetworkTrie ipV6Networks;
+        /**
+         * Networks which can not be indexed in a trie, because their mask is not a prefix
+         */
+        private final List<InetNetwork> otherNetworks;
+
+        Networks(SortedSet<InetNetwork> all) {
+            this.all = all;
+            this.ipV4Networks = new InetNetworkTrie(4);
+            this.ipV6Networks = new InetNetworkTrie(16);
+            this.otherNetworks = new ArrayList<>();
+            for (InetNetwork network : all) {
+                if (!ipV4Networks.add(network) && !ipV6Networks.add(network)) {
+                    otherNetworks.add(network);
+                }
+            }
+        }
+
+        boolean contains(InetAddress ip) {
+            byte[] address = ip.getAddress();
+            if (ipV4Networks.contains(address) || ipV6Networks.contains(address)) {
+                return true;
+            }
+            return otherNetworks.stream().anyMatch(network -> network.contains(ip));
+        }
+
+        @Override
+        public String toString() {
+            return all.toString();
+        }
     }
 
 }
@@ -20,9 +20,16 @@ package org.apache.james.dnsservice.library.netmatcher;
 
 import static org.junit.Assert.assertEquals;
 
+import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.apache.james.dnsservice.api.mock.DNSFixture;
+import org.apache.james.dnsservice.library.inetnetwork.InetNetworkBuilder;
+import org.apache.james.dnsservice.library.inetnetwork.model.InetNetwork;
 import org.junit.Test;
 
 /**
@@ -111,4 +118,50 @@ public class NetMatcherTest {
         assertEquals(false, netMatcher.matchInetNetwork("192.168.1.254"));
         assertEquals(false, netMatcher.matchInetNetwork("192.169.1.254"));
     }
+
+    @Test
+    public void matchInetNetworkShouldSupportMasksWhichAreNotPrefixes() throws UnknownHostException {
+
+        netMatcher = new NetMatcher(new String[] {"10.0.0.0/255.0.255.0"}, DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        assertEquals(true, netMatcher.matchInetNetwork("10.12.0.1"));
+        assertEquals(false, netMatcher.matchInetNetwork("10.12.1.1"));
+    }
+
+    @Test
+    public void reloadShouldReplaceNetworks() throws UnknownHostException {
+
+        netMatcher = new NetMatcher(DNSFixture.LOCALHOST_IP_V4_ADDRESSES, DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        netMatcher.reload(Arrays.asList("10.0.0.0/8"));
+
+        assertEquals(false, netMatcher.matchInetNetwork("172.16.15.254"));
+        assertEquals(true, netMatcher.matchInetNetwork("10.1.2.3"));
+        assertEquals("[10.0.0.0/255.0.0.0]", netMatcher.toString());
+    }
+
+    @Test
+    public void matchInetNetworkShouldMatchLikeEachNetworkWithLargeNetworkLists() throws Exception {
+        Random random = new Random(42);
+        List<String> nets = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            nets.add(random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256)
+                + "/" + (16 + random.nextInt(17)));
+        }
+        netMatcher = new NetMatcher(nets, DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        InetNetworkBuilder builder = new InetNetworkBuilder(DNSFixture.DNS_SERVER_IPV4_MOCK);
+        List<InetNetwork> networks = new ArrayList<>();
+        for (String net : nets) {
+            networks.add(builder.getFromString(net));
+        }
+        for (int i = 0; i < 10000; i++) {
+            byte[] address = new byte[4];
+            random.nextBytes(address);
+            InetAddress ip = InetAddress.getByAddress(address);
+
+            boolean expected = networks.stream().anyMatch(network -> network.contains(ip));
+            assertEquals(ip.toString(), expected, netMatcher.matchInetNetwork(ip));
+        }
+    }
 }
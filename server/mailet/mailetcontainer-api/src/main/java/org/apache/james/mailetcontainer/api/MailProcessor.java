@@ -19,6 +19,9 @@
 
 package org.apache.james.mailetcontainer.api;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import org.apache.mailet.Mail;
 
 /**
@@ -58,4 +61,29 @@ public interface MailProcessor {
      */
     void service(Mail mail) throws javax.mail.MessagingException;
 
+    /**
+     * Processes the mail without holding the calling thread while the mailets
+     * wait on remote resources.
+     * <p>
+     * The default implementation calls {@link #service(Mail)} and returns an
+     * already completed stage.
+     * </p>
+     * 
+     * @param mail
+     *            - the Mail object that contains the message and routing
+     *            information
+     * @return a stage completing once the mail has been processed,
+     *         exceptionally if the processing failed
+     */
+    default CompletionStage<Void> serviceAsync(Mail mail) {
+        CompletableFuture<Void> processing = new CompletableFuture<>();
+        try {
+            service(mail);
+            processing.complete(null);
+        } catch (javax.mail.MessagingException | RuntimeException e) {
+            processing.completeExceptionally(e);
+        }
+        return processing;
+    }
+
 }
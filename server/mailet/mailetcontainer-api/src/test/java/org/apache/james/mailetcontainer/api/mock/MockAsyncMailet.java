@@ -0,0 +1,58 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.api.mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.mail.MessagingException;
+
+import org.apache.mailet.AsyncMailet;
+import org.apache.mailet.Mail;
+import org.apache.mailet.MailetConfig;
+
+public class MockAsyncMailet implements AsyncMailet {
+
+    private MailetConfig config;
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public MailetConfig getMailetConfig() {
+        return config;
+    }
+
+    @Override
+    public String getMailetInfo() {
+        return "";
+    }
+
+    @Override
+    public void init(MailetConfig config) throws MessagingException {
+        this.config = config;
+    }
+
+    @Override
+    public CompletionStage<Void> serviceAsync(Mail mail) {
+        String state = config.getInitParameter("state");
+        return CompletableFuture.runAsync(() -> mail.setState(state));
+    }
+}
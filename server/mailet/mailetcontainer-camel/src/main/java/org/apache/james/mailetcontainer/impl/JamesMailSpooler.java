@@ -19,7 +19,11 @@
 
 package org.apache.james.mailetcontainer.impl;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -49,20 +53,33 @@ import org.slf4j.LoggerFactory;
  * Manages the mail spool. This class is responsible for retrieving messages
  * from the spool, directing messages to the appropriate processor, and removing
  * them from the spool when processing is complete.
+ *
+ * Mails are processed asynchronously: the spooler threads hand them over to
+ * the processor, and the queue items are acknowledged by the threads completing
+ * their processing. A mail waiting on an asynchronous mailet does not hold a
+ * spooler thread, so the number of mails being processed is bounded separately,
+ * by <code>maxInFlightMails</code> (four times the number of spooler threads by
+ * default).
  */
 public class JamesMailSpooler implements Runnable, Disposable, Configurable, MailSpoolerMBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(JamesMailSpooler.class);
 
     public static final String SPOOL_PROCESSING = "spoolProcessing";
+    private static final int DEFAULT_IN_FLIGHT_MAILS_PER_THREAD = 4;
     private MailQueue queue;
 
     /**
-     * The number of threads used to move mail through the spool.
+     * The number of threads used to move mail through the spool
      */
     private int numThreads;
 
     /**
-     * Number of active threads
+     * The maximum number of mails being processed
+     */
+    private int maxInFlightMails;
+
+    /**
+     * Number of mails being processed
      */
     private final AtomicInteger numActive = new AtomicInteger(0);
 
@@ -82,6 +99,8 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
 
     private ExecutorService workerService;
 
+    private Semaphore processingSlots;
+
     /**
      * The mail processor
      */
@@ -111,6 +130,11 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         numDequeueThreads = config.getInt("dequeueThreads", 2);
 
         numThreads = config.getInt("threads", 100);
+
+        maxInFlightMails = config.getInt("maxInFlightMails", numThreads * DEFAULT_IN_FLIGHT_MAILS_PER_THREAD);
+        if (maxInFlightMails < numThreads) {
+            throw new ConfigurationException("maxInFlightMails (" + maxInFlightMails + ") can not be lower than the thread count (" + numThreads + ")");
+        }
     }
 
     /**
@@ -122,9 +146,10 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
 
         queue = queueFactory.createQueue(MailQueueFactory.SPOOL);
 
-        LOGGER.info("{} uses {} Thread(s)", getClass().getName(), numThreads);
+        LOGGER.info("{} uses {} Thread(s) and processes at most {} mails at once", getClass().getName(), numThreads, maxInFlightMails);
 
         active.set(true);
+        processingSlots = new Semaphore(maxInFlightMails);
         workerService = JMXEnabledThreadPoolExecutor.newFixedThreadPool("org.apache.james:type=component,component=mailetcontainer,name=mailspooler,sub-type=threadpool", "spooler", numThreads);
         dequeueService = JMXEnabledThreadPoolExecutor.newFixedThreadPool("org.apache.james:type=component,component=mailetcontainer,name=mailspooler,sub-type=threadpool", "dequeuer", numDequeueThreads);
 
@@ -146,55 +171,107 @@ public class JamesMailSpooler implements Runnable, Disposable, Configurable, Mai
         while (active.get()) {
 
             final MailQueueItem queueItem;
+            try {
+                processingSlots.acquire();
+            } catch (InterruptedException interrupted) {
+                //MailSpooler is stopping
+                continue;
+            }
             try {
                 queueItem = queue.deQueue();
-                workerService.execute(() -> {
-                    TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
-                    try {
-                        numActive.incrementAndGet();
-
-                        // increase count
-                        processingActive.incrementAndGet();
-
-                        Mail mail = queueItem.getMail();
-                        LOGGER.debug("==== Begin processing mail {} ====", mail.getName());
-
-                        try {
-                            mailProcessor.service(mail);
-                            queueItem.done(true);
-                        } catch (Exception e) {
-                            if (active.get()) {
-                                LOGGER.error("Exception processing mail while spooling", e);
-                            }
-                            queueItem.done(false);
-
-                        } finally {
-                            LifecycleUtil.dispose(mail);
-                            mail = null;
-                        }
-                    } catch (Throwable e) {
-                        if (active.get()) {
-                            LOGGER.error("Exception processing mail while spooling", e);
-
-                        }
-                    } finally {
-                        processingActive.decrementAndGet();
-                        numActive.decrementAndGet();
-                        timeMetric.stopAndPublish();
-                    }
-
-                });
             } catch (MailQueueException e1) {
+                processingSlots.release();
                 if (active.get()) {
                     LOGGER.error("Exception dequeue mail", e1);
                 }
+                continue;
             } catch (InterruptedException interrupted) {
+                processingSlots.release();
                 //MailSpooler is stopping
+                continue;
+            }
+            try {
+                workerService.execute(() -> process(queueItem));
+            } catch (RejectedExecutionException e) {
+                processingSlots.release();
+                fail(queueItem, e);
             }
         }
         LOGGER.info("Stop {} : {}", getClass().getName(), Thread.currentThread().getName());
     }
 
+    private void process(MailQueueItem queueItem) {
+        TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
+        numActive.incrementAndGet();
+
+        // increase count
+        processingActive.incrementAndGet();
+
+        Mail mail;
+        try {
+            mail = queueItem.getMail();
+        } catch (RuntimeException e) {
+            try {
+                fail(queueItem, e);
+            } finally {
+                endProcessing(timeMetric);
+            }
+            return;
+        }
+        LOGGER.debug("==== Begin processing mail {} ====", mail.getName());
+
+        serviceAsync(mail).whenComplete((result, error) -> {
+            try {
+                complete(queueItem, error);
+            } finally {
+                LifecycleUtil.dispose(mail);
+                endProcessing(timeMetric);
+            }
+        });
+    }
+
+    private void endProcessing(TimeMetric timeMetric) {
+        processingActive.decrementAndGet();
+        numActive.decrementAndGet();
+        timeMetric.stopAndPublish();
+        processingSlots.release();
+    }
+
+    private CompletionStage<Void> serviceAsync(Mail mail) {
+        try {
+            return mailProcessor.serviceAsync(mail);
+        } catch (RuntimeException e) {
+            CompletableFuture<Void> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            return failure;
+        }
+    }
+
+    private void complete(MailQueueItem queueItem, Throwable error) {
+        if (error != null) {
+            fail(queueItem, error);
+            return;
+        }
+        try {
+            queueItem.done(true);
+        } catch (Exception e) {
+            fail(queueItem, e);
+        }
+    }
+
+    private void fail(MailQueueItem queueItem, Throwable error) {
+        if (active.get()) {
+            LOGGER.error("Exception processing mail while spooling", error);
+        }
+        try {
+            queueItem.done(false);
+        } catch (Exception e) {
+            if (active.get()) {
+                LOGGER.error("Exception processing mail while spooling", e);
+            }
+        }
+    }
+
     /**
      * The dispose operation is called at the end of a components lifecycle.
      * Instances of this class use this method to release and destroy any
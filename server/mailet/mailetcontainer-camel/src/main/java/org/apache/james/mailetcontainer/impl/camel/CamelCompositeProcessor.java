@@ -44,6 +44,7 @@ import org.apache.mailet.MailetContext;
 public class CamelCompositeProcessor extends AbstractStateCompositeProcessor implements CamelContextAware {
 
     private final MetricFactory metricFactory;
+    private final MatcherResultCache matcherResultCache = new MatcherResultCache();
     private CamelContext camelContext;
     private MailetContext mailetContext;
     private MatcherLoader matcherLoader;
@@ -107,6 +108,7 @@ public class CamelCompositeProcessor extends AbstractStateCompositeProcessor imp
             processor.setMailetContext(mailetContext);
             processor.setMailetLoader(mailetLoader);
             processor.setMatcherLoader(matcherLoader);
+            processor.setMatcherResultCache(matcherResultCache);
             processor.configure(config);
             processor.setRootMailProcessor(this);
             processor.init();
@@ -19,20 +19,28 @@
 package org.apache.james.mailetcontainer.impl.camel;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.PostConstruct;
 import javax.mail.MessagingException;
 
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
 import org.apache.camel.CamelContext;
 import org.apache.camel.CamelContextAware;
 import org.apache.camel.CamelExecutionException;
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.Processor;
+import org.apache.camel.Producer;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.processor.aggregate.UseLatestAggregationStrategy;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.apache.camel.util.AsyncProcessorHelper;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.metrics.api.MetricFactory;
@@ -48,6 +56,9 @@ import com.google.common.collect.ImmutableList;
 /**
  * {@link org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor} implementation which use Camel DSL for
  * the {@link Matcher} / {@link Mailet} routing
+ *
+ * {@link #serviceAsync(Mail)} enters the route without waiting for its completion: the route is resumed by the
+ * threads completing the {@link org.apache.mailet.AsyncMailet}s it contains.
  */
 public class CamelMailetProcessor extends AbstractStateMailetProcessor implements CamelContextAware {
     private static final Logger LOGGER = LoggerFactory.getLogger(CamelMailetProcessor.class);
@@ -56,9 +67,14 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
 
     private ProducerTemplate producerTemplate;
 
+    private Producer producer;
+
+    private AsyncProcessor asyncProducer;
+
     private final UseLatestAggregationStrategy aggr = new UseLatestAggregationStrategy();
     private final MetricFactory metricFactory;
     private List<MatcherMailetPair> pairs;
+    private MatcherResultCache matcherResultCache = new MatcherResultCache();
 
     public CamelMailetProcessor(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
@@ -74,6 +90,21 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
         }
     }
 
+    @Override
+    public CompletionStage<Void> serviceAsync(Mail mail) {
+        CompletableFuture<Void> processing = new CompletableFuture<>();
+        Exchange exchange = producer.createExchange(ExchangePattern.InOnly);
+        exchange.getIn().setBody(mail);
+        asyncProducer.process(exchange, doneSync -> {
+            if (exchange.getException() != null) {
+                processing.completeExceptionally(new MessagingException("Unable to process mail " + mail.getName(), exchange.getException()));
+            } else {
+                processing.complete(null);
+            }
+        });
+        return processing;
+    }
+
     @Override
     public CamelContext getCamelContext() {
         return context;
@@ -84,6 +115,13 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
         this.context = context;
     }
 
+    /**
+     * Share the results of the matchers with other processors. Needs to be called before {@link #init()}.
+     */
+    public void setMatcherResultCache(MatcherResultCache matcherResultCache) {
+        this.matcherResultCache = matcherResultCache;
+    }
+
     public List<MatcherMailetPair> getPairs() {
         return ImmutableList.copyOf(pairs);
     }
@@ -103,6 +141,9 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
     @PostConstruct
     public void init() throws Exception {
         producerTemplate = context.createProducerTemplate();
+        producer = context.getEndpoint(getEndpoint()).createProducer();
+        asyncProducer = AsyncProcessorConverterHelper.convert(producer);
+        context.addService(producer);
 
         if (context.getStatus().isStopped()) {
             context.start();
@@ -144,7 +185,8 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
             RouteDefinition processorDef = from(getEndpoint()).routeId(state).setExchangePattern(ExchangePattern.InOnly)
                     // store the logger in properties
                     .setProperty(MatcherSplitter.LOGGER_PROPERTY, constant(LOGGER))
-                    .setProperty(MatcherSplitter.METRIC_FACTORY, constant(metricFactory));
+                    .setProperty(MatcherSplitter.METRIC_FACTORY, constant(metricFactory))
+                    .setProperty(MatcherSplitter.MATCHER_RESULT_CACHE_PROPERTY, constant(matcherResultCache));
 
             for (MatcherMailetPair pair : pairs) {
                 Matcher matcher = pair.getMatcher();
@@ -204,13 +246,29 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
             }
         }
 
-        private final class StateChangedProcessor implements Processor {
+        /**
+         * Hands the mail over without waiting, so that a thread completing an asynchronous mailet of the other
+         * processor never blocks on its own completion.
+         */
+        private final class StateChangedProcessor implements AsyncProcessor {
 
             @Override
-            public void process(Exchange arg0) throws Exception {
-                Mail mail = arg0.getIn().getBody(Mail.class);
-                toProcessor(mail);
+            public void process(Exchange exchange) throws Exception {
+                AsyncProcessorHelper.process(this, exchange);
+            }
 
+            @Override
+            public boolean process(Exchange exchange, AsyncCallback callback) {
+                Mail mail = exchange.getIn().getBody(Mail.class);
+                CompletableFuture<Void> processing = toProcessorAsync(mail).toCompletableFuture();
+                boolean doneSync = processing.isDone();
+                processing.whenComplete((result, error) -> {
+                    if (error != null) {
+                        exchange.setException(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                    callback.done(doneSync);
+                });
+                return doneSync;
             }
 
         }
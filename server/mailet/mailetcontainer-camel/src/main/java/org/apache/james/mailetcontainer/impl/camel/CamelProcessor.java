@@ -19,17 +19,27 @@
 package org.apache.james.mailetcontainer.impl.camel;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
+import javax.mail.MessagingException;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
 import org.apache.camel.Exchange;
-import org.apache.camel.Processor;
+import org.apache.camel.util.AsyncProcessorHelper;
 import org.apache.james.mailetcontainer.impl.MailetConfigImpl;
 import org.apache.james.mailetcontainer.impl.ProcessorUtil;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
+import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
 import org.apache.james.util.MDCBuilder;
+import org.apache.mailet.AsyncMailet;
 import org.apache.mailet.Mail;
 import org.apache.mailet.Mailet;
 import org.apache.mailet.MailetConfig;
@@ -41,13 +51,18 @@ import com.google.common.collect.ImmutableList;
 
 /**
  * Mailet wrapper which execute a Mailet in a Processor
+ *
+ * {@link AsyncMailet}s are executed asynchronously: the route is resumed by the thread completing the mailet
+ * processing. Other mailets are executed synchronously.
  */
-public class CamelProcessor implements Processor {
+public class CamelProcessor implements AsyncProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(CamelProcessor.class);
+    private static final String CONCURRENCY_METRIC_SUFFIX = "-concurrency";
 
     private final MetricFactory metricFactory;
     private final Mailet mailet;
     private final CamelMailetProcessor processor;
+    private final Metric concurrencyMetric;
 
     /**
      * Mailet to call on process
@@ -59,6 +74,7 @@ public class CamelProcessor implements Processor {
         this.metricFactory = metricFactory;
         this.mailet = mailet;
         this.processor = processor;
+        this.concurrencyMetric = metricFactory.generate(mailet.getClass().getSimpleName() + CONCURRENCY_METRIC_SUFFIX);
     }
 
     /**
@@ -66,25 +82,119 @@ public class CamelProcessor implements Processor {
      */
     @Override
     public void process(Exchange exchange) throws Exception {
+        AsyncProcessorHelper.process(this, exchange);
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
         Mail mail = exchange.getIn().getBody(Mail.class);
-        long start = System.currentTimeMillis();
-        TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
-        Exception ex = null;
-        try (Closeable closeable =
-                 MDCBuilder.create()
-                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
-                     .addContext(MDCBuilder.ACTION, "MAILET")
-                     .addContext(MDCBuilder.HOST, mail.getRemoteHost())
-                     .addContext("state", mail.getState())
-                     .addContext("mailet", mailet.getClass().getSimpleName())
-                     .addContext("mail", mail.getName())
-                     .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
-                     .addContext("sender", mail.getSender())
-                     .build()) {
+        MailetExecution execution = new MailetExecution(mail);
+        if (mailet instanceof AsyncMailet) {
+            serviceAsync((AsyncMailet) mailet, mail)
+                .whenComplete((result, error) -> {
+                    try (Closeable closeable = mdc(mail)) {
+                        execution.complete(unwrap(error));
+                    } catch (Exception e) {
+                        exchange.setException(e);
+                    } finally {
+                        callback.done(false);
+                    }
+                });
+            return false;
+        }
+
+        try (Closeable closeable = mdc(mail)) {
+            Exception ex = null;
+            try {
+                MailetPipelineLogging.logBeginOfMailetProcess(mailet, mail);
+                mailet.service(mail);
+            } catch (Exception me) {
+                ex = me;
+            }
+            execution.complete(ex);
+        } catch (Exception e) {
+            exchange.setException(e);
+        }
+        callback.done(true);
+        return true;
+    }
+
+    private CompletionStage<Void> serviceAsync(AsyncMailet asyncMailet, Mail mail) {
+        try (Closeable closeable = mdc(mail)) {
             MailetPipelineLogging.logBeginOfMailetProcess(mailet, mail);
-            mailet.service(mail);
-        } catch (Exception me) {
-            ex = me;
+            return asyncMailet.serviceAsync(mail);
+        } catch (Exception e) {
+            CompletableFuture<Void> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            return failure;
+        }
+    }
+
+    private Exception unwrap(Throwable error) {
+        Throwable cause = error;
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause == null || cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new MessagingException("Unexpected error while executing mailet " + mailet, new Exception(cause));
+    }
+
+    private Closeable mdc(Mail mail) throws IOException {
+        return MDCBuilder.create()
+            .addContext(MDCBuilder.PROTOCOL, "MAILET")
+            .addContext(MDCBuilder.ACTION, "MAILET")
+            .addContext(MDCBuilder.HOST, mail.getRemoteHost())
+            .addContext("state", mail.getState())
+            .addContext("mailet", mailet.getClass().getSimpleName())
+            .addContext("mail", mail.getName())
+            .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
+            .addContext("sender", mail.getSender())
+            .build();
+    }
+
+    /**
+     * Tracks the execution of the mailet on a mail, from its start to its completion.
+     */
+    private class MailetExecution {
+        private final Mail mail;
+        private final long start;
+        private final TimeMetric timeMetric;
+
+        MailetExecution(Mail mail) {
+            this.mail = mail;
+            this.start = System.currentTimeMillis();
+            this.timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
+            concurrencyMetric.increment();
+        }
+
+        /**
+         * Handles the outcome of the mailet execution, notifying the listeners.
+         *
+         * @param ex the exception the mailet failed with, null on success
+         */
+        void complete(Exception ex) throws MessagingException {
+            try {
+                if (ex != null) {
+                    handleException(ex);
+                }
+            } finally {
+                concurrencyMetric.decrement();
+                timeMetric.stopAndPublish();
+                MailetPipelineLogging.logEndOfMailetProcess(mailet, mail);
+                List<MailetProcessorListener> listeners = processor.getListeners();
+                long complete = System.currentTimeMillis() - start;
+                if (mail.getRecipients().isEmpty()) {
+                    mail.setState(Mail.GHOST);
+                }
+                for (MailetProcessorListener listener : listeners) {
+                    listener.afterMailet(mailet, mail.getName(), mail.getState(), complete, ex);
+                }
+            }
+        }
+
+        private void handleException(Exception me) throws MessagingException {
             String onMailetException = null;
 
             MailetConfig mailetConfig = mailet.getMailetConfig();
@@ -100,23 +210,11 @@ public class CamelProcessor implements Processor {
                 // ignore the exception and continue
                 // this option should not be used if the mail object can be
                 // changed by the mailet
-                LOGGER.warn("Encountered error while executing mailet {}. Ignoring it.", mailet, ex);
+                LOGGER.warn("Encountered error while executing mailet {}. Ignoring it.", mailet, me);
                 ProcessorUtil.verifyMailAddresses(mail.getRecipients());
             } else {
                 ProcessorUtil.handleException(me, mail, mailet.getMailetConfig().getMailetName(), onMailetException, LOGGER);
             }
-
-        } finally {
-            timeMetric.stopAndPublish();
-            MailetPipelineLogging.logEndOfMailetProcess(mailet, mail);
-            List<MailetProcessorListener> listeners = processor.getListeners();
-            long complete = System.currentTimeMillis() - start;
-            if (mail.getRecipients().isEmpty()) {
-                mail.setState(Mail.GHOST);
-            }
-            for (MailetProcessorListener listener : listeners) {
-                listener.afterMailet(mailet, mail.getName(), mail.getState(), complete, ex);
-            }
         }
     }
 
@@ -0,0 +1,98 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailetcontainer.impl.camel;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.ConnectionMatcher;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Matcher;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Per mail cache of the results of {@link ConnectionMatcher}s.
+ *
+ * Results are keyed by the matcher class and condition, so that identically configured matchers evaluate once per
+ * mail, whatever the processor they are part of. Mails are held through weak references: their results are
+ * discarded once they are no longer processed.
+ */
+public class MatcherResultCache {
+
+    static boolean isCacheable(Matcher matcher) {
+        return matcher.getClass().isAnnotationPresent(ConnectionMatcher.class);
+    }
+
+    private static String key(Matcher matcher) {
+        return matcher.getClass().getName() + "=" + matcher.getMatcherConfig().getCondition();
+    }
+
+    private final Cache<Mail, Map<String, Boolean>> results = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build();
+
+    /**
+     * Returns the recipients matched by a previous evaluation of an identical matcher on this mail, if any.
+     */
+    public Optional<Collection<MailAddress>> get(Matcher matcher, Mail mail) {
+        if (!isCacheable(matcher)) {
+            return Optional.empty();
+        }
+        Map<String, Boolean> mailResults = results.getIfPresent(mail);
+        if (mailResults == null) {
+            return Optional.empty();
+        }
+        Boolean matched = mailResults.get(key(matcher));
+        if (matched == null) {
+            return Optional.empty();
+        }
+        return Optional.of(matched ? mail.getRecipients() : ImmutableList.<MailAddress>of());
+    }
+
+    /**
+     * Records the recipients matched by the given matcher. Partial matches are not recorded.
+     */
+    public void put(Matcher matcher, Mail mail, Collection<MailAddress> matchedRecipients) {
+        if (!isCacheable(matcher)) {
+            return;
+        }
+        boolean matchesNone = matchedRecipients == null || matchedRecipients.isEmpty();
+        boolean matchesAll = !matchesNone && matchedRecipients.containsAll(mail.getRecipients());
+        if (matchesNone || matchesAll) {
+            mailResults(mail).put(key(matcher), matchesAll);
+        }
+    }
+
+    private Map<String, Boolean> mailResults(Mail mail) {
+        try {
+            return results.get(mail, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
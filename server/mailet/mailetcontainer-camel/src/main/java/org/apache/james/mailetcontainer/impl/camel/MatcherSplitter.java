@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 
 import javax.mail.MessagingException;
 
@@ -67,6 +68,8 @@ public class MatcherSplitter {
 
     public static final String METRIC_FACTORY = "metricFactory";
 
+    public static final String MATCHER_RESULT_CACHE_PROPERTY = "matcherResultCache";
+
     /**
      * Generate a List of MailMessage instances for the give @Body. This is done
      * by using the given Matcher to see if we need more then one instance of
@@ -74,6 +77,8 @@ public class MatcherSplitter {
      * 
      * @param matcher
      *            Matcher to use for splitting
+     * @param matcherResultCache
+     *            Cache of the results of the matchers already evaluated
      * @param mail
      *            Mail which is stored in the @Body of the MailMessage
      * @return mailMessageList
@@ -85,6 +90,7 @@ public class MatcherSplitter {
                             @ExchangeProperty(LOGGER_PROPERTY) Logger logger,
                             @ExchangeProperty(MAILETCONTAINER_PROPERTY) CamelMailetProcessor container,
                             @ExchangeProperty(METRIC_FACTORY) MetricFactory metricFactory,
+                            @ExchangeProperty(MATCHER_RESULT_CACHE_PROPERTY) MatcherResultCache matcherResultCache,
                             @Body Mail mail) throws MessagingException {
         Collection<MailAddress> matchedRcpts = null;
         Collection<MailAddress> origRcpts = new ArrayList<>(mail.getRecipients());
@@ -108,8 +114,14 @@ public class MatcherSplitter {
                          .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
                          .addContext("sender", mail.getSender())
                          .build()) {
-                // call the matcher
-                matchedRcpts = matcher.match(mail);
+                // call the matcher, unless an identical one was already evaluated for this mail
+                Optional<Collection<MailAddress>> cachedRcpts = matcherResultCache.get(matcher, mail);
+                if (cachedRcpts.isPresent()) {
+                    matchedRcpts = cachedRcpts.get();
+                } else {
+                    matchedRcpts = matcher.match(mail);
+                    matcherResultCache.put(matcher, mail, matchedRcpts);
+                }
 
                 if (matchedRcpts == null) {
                     // In case the matcher returned null, create an empty
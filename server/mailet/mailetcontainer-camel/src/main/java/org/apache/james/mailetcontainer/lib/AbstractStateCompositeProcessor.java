@@ -23,6 +23,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -105,6 +108,41 @@ public abstract class AbstractStateCompositeProcessor implements MailProcessor,
         }
     }
 
+    @Override
+    public CompletionStage<Void> serviceAsync(Mail mail) {
+        long start = System.currentTimeMillis();
+        MailProcessor processor = getProcessor(mail.getState());
+
+        if (processor == null) {
+            CompletableFuture<Void> failure = new CompletableFuture<>();
+            failure.completeExceptionally(new MessagingException("No processor found for mail " + mail.getName() + " with state " + mail.getState()));
+            return failure;
+        }
+        LOGGER.debug("Call MailProcessor {}", mail.getState());
+        return processor.serviceAsync(mail)
+            .whenComplete((result, error) -> {
+                if (error == null && Mail.GHOST.equals(mail.getState())) {
+                    LifecycleUtil.dispose(mail);
+                }
+                long end = System.currentTimeMillis() - start;
+                MessagingException ex = asMessagingException(error);
+                for (CompositeProcessorListener listener : listeners) {
+                    listener.afterProcessor(processor, mail.getName(), end, ex);
+                }
+            });
+    }
+
+    private static MessagingException asMessagingException(Throwable error) {
+        Throwable cause = error;
+        if (cause instanceof CompletionException) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof MessagingException) {
+            return (MessagingException) cause;
+        }
+        return null;
+    }
+
     /**
      * Return a {@link MailProcessor} for a given state
      * 
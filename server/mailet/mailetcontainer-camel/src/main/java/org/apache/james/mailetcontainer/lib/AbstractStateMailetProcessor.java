@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -156,6 +157,17 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         rootMailProcessor.service(mail);
     }
 
+    /**
+     * Hand the mail over to another processor, without waiting for its
+     * processing
+     * 
+     * @param mail
+     * @return a stage completing once the other processor is done with the mail
+     */
+    protected CompletionStage<Void> toProcessorAsync(Mail mail) {
+        return rootMailProcessor.serviceAsync(mail);
+    }
+
     protected String getState() {
         return state;
     }
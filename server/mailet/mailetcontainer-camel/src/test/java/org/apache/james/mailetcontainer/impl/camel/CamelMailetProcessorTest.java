@@ -19,11 +19,8 @@
 
 package org.apache.james.mailetcontainer.impl.camel;
 
-import static org.mockito.Mockito.mock;
-
 import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.commons.configuration.HierarchicalConfiguration;
-import org.apache.james.mailetcontainer.api.MailProcessor;
 import org.apache.james.mailetcontainer.api.mock.MockMailetLoader;
 import org.apache.james.mailetcontainer.api.mock.MockMatcherLoader;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
@@ -42,7 +39,7 @@ public class CamelMailetProcessorTest extends AbstractStateMailetProcessorTest {
             processor.setMailetContext(FakeMailContext.defaultContext());
             processor.setMailetLoader(new MockMailetLoader());
             processor.setMatcherLoader(new MockMatcherLoader());
-            processor.setRootMailProcessor(mock(MailProcessor.class));
+            processor.setRootMailProcessor(mail -> { });
             processor.configure(configuration);
             processor.init();
             return processor;
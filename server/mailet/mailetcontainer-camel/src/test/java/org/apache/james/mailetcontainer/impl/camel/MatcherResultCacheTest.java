@@ -0,0 +1,144 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.mailetcontainer.impl.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.ConnectionMatcher;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.GenericMatcher;
+import org.apache.mailet.base.test.FakeMail;
+import org.apache.mailet.base.test.FakeMatcherConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class MatcherResultCacheTest {
+
+    @ConnectionMatcher
+    public static class CacheableMatcher extends GenericMatcher {
+        @Override
+        public Collection<MailAddress> match(Mail mail) {
+            return mail.getRecipients();
+        }
+    }
+
+    @ConnectionMatcher
+    public static class OtherCacheableMatcher extends CacheableMatcher {
+    }
+
+    public static class NotCacheableMatcher extends GenericMatcher {
+        @Override
+        public Collection<MailAddress> match(Mail mail) {
+            return mail.getRecipients();
+        }
+    }
+
+    private MatcherResultCache testee;
+    private MailAddress recipient1;
+    private MailAddress recipient2;
+    private Mail mail;
+
+    @Before
+    public void setUp() throws Exception {
+        testee = new MatcherResultCache();
+        recipient1 = new MailAddress("rcpt1@domain.com");
+        recipient2 = new MailAddress("rcpt2@domain.com");
+        mail = FakeMail.builder().recipients(recipient1, recipient2).build();
+    }
+
+    @Test
+    public void getShouldReturnEmptyWhenNoResult() throws Exception {
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), mail)).isEmpty();
+    }
+
+    @Test
+    public void getShouldReturnAllRecipientsWhenCachedFullMatch() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, mail.getRecipients());
+
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), mail).get()).containsOnly(recipient1, recipient2);
+    }
+
+    @Test
+    public void getShouldReturnNoRecipientWhenCachedNoMatch() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, null);
+
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), mail).get()).isEmpty();
+    }
+
+    @Test
+    public void getShouldReturnCurrentRecipientsWhenCachedFullMatch() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, mail.getRecipients());
+        mail.setRecipients(ImmutableList.of(recipient2));
+
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), mail).get()).containsOnly(recipient2);
+    }
+
+    @Test
+    public void putShouldNotRecordPartialMatches() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, ImmutableList.of(recipient1));
+
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), mail)).isEmpty();
+    }
+
+    @Test
+    public void putShouldNotRecordNotCacheableMatchers() throws Exception {
+        testee.put(matcher(new NotCacheableMatcher(), "a"), mail, mail.getRecipients());
+
+        assertThat(testee.get(matcher(new NotCacheableMatcher(), "a"), mail)).isEmpty();
+    }
+
+    @Test
+    public void getShouldNotReturnResultOfMatcherWithOtherCondition() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, mail.getRecipients());
+
+        assertThat(testee.get(matcher(new CacheableMatcher(), "b"), mail)).isEmpty();
+    }
+
+    @Test
+    public void getShouldNotReturnResultOfOtherMatcherClass() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, mail.getRecipients());
+
+        assertThat(testee.get(matcher(new OtherCacheableMatcher(), "a"), mail)).isEmpty();
+    }
+
+    @Test
+    public void getShouldNotReturnResultOfOtherMail() throws Exception {
+        testee.put(matcher(new CacheableMatcher(), "a"), mail, mail.getRecipients());
+
+        Mail otherMail = FakeMail.builder().recipients(recipient1, recipient2).build();
+        assertThat(testee.get(matcher(new CacheableMatcher(), "a"), otherMail)).isEmpty();
+    }
+
+    private GenericMatcher matcher(GenericMatcher matcher, String condition) throws MessagingException {
+        matcher.init(FakeMatcherConfig.builder()
+            .matcherName(matcher.getClass().getSimpleName())
+            .condition(condition)
+            .build());
+        return matcher;
+    }
+}
@@ -18,12 +18,14 @@
  ****************************************************************/
 package org.apache.james.mailetcontainer.lib;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.mail.MessagingException;
 
@@ -89,6 +91,43 @@ public abstract class AbstractStateCompositeProcessorTest {
 
     }
 
+    @Test
+    public void serviceAsyncShouldChooseRightProcessor() throws Exception {
+        AbstractStateCompositeProcessor processor = new AbstractStateCompositeProcessor() {
+
+            @Override
+            protected MailProcessor createMailProcessor(final String state, HierarchicalConfiguration config) throws
+                Exception {
+                return new MockMailProcessor("") {
+
+                    @Override
+                    public void service(Mail mail) throws MessagingException {
+                        assertEquals(state, mail.getState());
+                        super.service(mail);
+                    }
+                };
+            }
+        };
+        processor.configure(createConfig(Arrays.asList("root", "error", "test")));
+        processor.init();
+
+        try {
+            Mail mail = new MailImpl();
+            mail.setState("test");
+            processor.serviceAsync(mail).toCompletableFuture().get();
+
+            Mail invalidMail = new MailImpl();
+            invalidMail.setState("invalid");
+
+            expectedException.expect(ExecutionException.class);
+            expectedException.expectCause(instanceOf(MessagingException.class));
+
+            processor.serviceAsync(invalidMail).toCompletableFuture().get();
+        } finally {
+            processor.dispose();
+        }
+    }
+
     protected abstract AbstractStateCompositeProcessor createProcessor(HierarchicalConfiguration config) throws
             Exception;
 
@@ -27,6 +27,7 @@ import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.mail.MessagingException;
 
@@ -34,8 +35,10 @@ import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.DefaultConfigurationBuilder;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.james.core.MailAddress;
+import org.apache.james.mailetcontainer.api.mock.ExceptionThrowingAsyncMailet;
 import org.apache.james.mailetcontainer.api.mock.ExceptionThrowingMailet;
 import org.apache.james.mailetcontainer.api.mock.ExceptionThrowingMatcher;
+import org.apache.james.mailetcontainer.api.mock.MockAsyncMailet;
 import org.apache.james.mailetcontainer.api.mock.MockMailet;
 import org.apache.james.mailetcontainer.api.mock.MockMatcher;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
@@ -286,4 +289,89 @@ public abstract class AbstractStateMailetProcessorTest {
         processor.destroy();
 
     }
+
+    @Test
+    public void asyncMailetShouldCompleteBeforeRoutingContinues() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final MailImpl mail = new MailImpl();
+        mail.setName(MailImpl.getId());
+        mail.setSender(new MailAddress("test@localhost"));
+        mail.setRecipients(Arrays.asList(new MailAddress("test@localhost"), new MailAddress("test2@localhost")));
+
+        AbstractStateMailetProcessor processor = createProcessor(createConfig(MockMatcher.class, MockAsyncMailet.class, 2));
+        processor.addListener(new MailetProcessorListener() {
+
+            @Override
+            public void afterMatcher(Matcher m, String mailName, Collection<MailAddress> recipients,
+                                     Collection<MailAddress> matches, long processTime, Exception e) {
+            }
+
+            @Override
+            public void afterMailet(Mailet m, String mailName, String state, long processTime, Exception e) {
+                if (MockAsyncMailet.class.equals(m.getClass())) {
+                    assertEquals(mail.getName(), mailName);
+                    assertEquals("test", state);
+                    assertNull(e);
+                    latch.countDown();
+                }
+            }
+        });
+
+        processor.service(mail);
+
+        // the state set by the async mailet should be seen by the end of the processor
+        assertEquals("test", mail.getState());
+        latch.await();
+        processor.destroy();
+    }
+
+    @Test
+    public void serviceAsyncShouldCompleteOnceAsyncMailetsCompleted() throws Exception {
+        final MailImpl mail = new MailImpl();
+        mail.setName(MailImpl.getId());
+        mail.setSender(new MailAddress("test@localhost"));
+        mail.setRecipients(Arrays.asList(new MailAddress("test@localhost"), new MailAddress("test2@localhost")));
+
+        AbstractStateMailetProcessor processor = createProcessor(createConfig(MockMatcher.class, MockAsyncMailet.class, 2));
+
+        processor.serviceAsync(mail).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals("test", mail.getState());
+        processor.destroy();
+    }
+
+    @Test
+    public void asyncMailetFailureShouldBeHandledAsMailetException() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final MailImpl mail = new MailImpl();
+        mail.setName(MailImpl.getId());
+        mail.setSender(new MailAddress("test@localhost"));
+        mail.setRecipients(Arrays.asList(new MailAddress("test@localhost"), new MailAddress("test2@localhost")));
+
+        AbstractStateMailetProcessor processor = createProcessor(createConfig(MockMatcher.class,
+                ExceptionThrowingAsyncMailet.class, 2));
+        processor.addListener(new MailetProcessorListener() {
+
+            @Override
+            public void afterMatcher(Matcher m, String mailName, Collection<MailAddress> recipients,
+                                     Collection<MailAddress> matches, long processTime, Exception e) {
+            }
+
+            @Override
+            public void afterMailet(Mailet m, String mailName, String state, long processTime, Exception e) {
+                if (ExceptionThrowingAsyncMailet.class.equals(m.getClass())) {
+                    assertEquals(MessagingException.class, e.getClass());
+                    assertEquals(Mail.ERROR, state);
+                    latch.countDown();
+                }
+            }
+        });
+
+        processor.service(mail);
+
+        assertEquals(Mail.ERROR, mail.getState());
+        assertEquals(MessagingException.class, mail.getAttribute(Mail.MAILET_ERROR_ATTRIBUTE_NAME).getClass());
+        latch.await();
+        processor.destroy();
+    }
 }
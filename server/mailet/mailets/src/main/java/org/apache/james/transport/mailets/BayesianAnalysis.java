@@ -65,9 +65,11 @@ import com.google.common.base.Joiner;
  * The analysis capabilities are based on token frequencies (the <i>Corpus</i>)
  * learned through a training process (see {@link BayesianAnalysisFeeder}) and
  * stored in a JDBC database. After a training session, the Corpus must be
- * rebuilt from the database in order to acquire the new frequencies. Every 10
- * minutes a special thread in this mailet will check if any change was made to
- * the database by the feeder, and rebuild the corpus if necessary.
+ * updated in order to acquire the new frequencies. Every 10 minutes a special
+ * thread in this mailet will check if any change was made to the database by
+ * the feeder, and apply the trainings of the feeders running in the same
+ * server to the corpus. The corpus is rebuilt from the database when these
+ * trainings are not all available anymore.
  * </p>
  * 
  * <p>
@@ -353,10 +355,7 @@ public class BayesianAnalysis extends GenericMailet {
         try {
             // this is synchronized to avoid concurrent update of the corpus
             synchronized (JDBCBayesianAnalyzer.DATABASE_LOCK) {
-                analyzer.tokenCountsClear();
-                analyzer.loadHamNSpam(conn);
-                analyzer.buildCorpus();
-                analyzer.tokenCountsClear();
+                analyzer.loadCorpus(conn);
             }
 
             LOGGER.error("BayesianAnalysis Corpus loaded");
@@ -371,6 +370,22 @@ public class BayesianAnalysis extends GenericMailet {
 
     }
 
+    /**
+     * Applies the trainings committed since the last load to the corpus.
+     *
+     * @return false if the corpus needs to be reloaded instead
+     */
+    private boolean updateData() {
+        synchronized (JDBCBayesianAnalyzer.DATABASE_LOCK) {
+            if (!analyzer.updateCorpus()) {
+                return false;
+            }
+        }
+
+        touchLastCorpusLoadTime();
+        return true;
+    }
+
     private String getAddressesString(Collection<MailAddress> addresses) {
         if (addresses == null) {
             return "null";
@@ -429,14 +444,17 @@ public class BayesianAnalysis extends GenericMailet {
 
                 while (true) {
                     if (analysis.getLastCorpusLoadTime() < JDBCBayesianAnalyzer.getLastDatabaseUpdateTime()) {
-                        LOGGER.info("Reloading Corpus ...");
-                        try {
-                            analysis.loadData(analysis.datasource.getConnection());
-                            LOGGER.info("Corpus reloaded");
-                        } catch (java.sql.SQLException se) {
-                            LOGGER.error("SQLException: ", se);
+                        if (analysis.updateData()) {
+                            LOGGER.info("Corpus updated");
+                        } else {
+                            LOGGER.info("Reloading Corpus ...");
+                            try {
+                                analysis.loadData(analysis.datasource.getConnection());
+                                LOGGER.info("Corpus reloaded");
+                            } catch (java.sql.SQLException se) {
+                                LOGGER.error("SQLException: ", se);
+                            }
                         }
-
                     }
 
                     if (Thread.interrupted()) {
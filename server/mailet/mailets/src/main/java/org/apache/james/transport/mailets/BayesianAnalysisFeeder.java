@@ -113,10 +113,10 @@ import org.slf4j.LoggerFactory;
  * 
  * <p>
  * After a training session, the frequency <i>Corpus</i> used by
- * <code>BayesianAnalysis</code> must be rebuilt from the database, in order to
- * take advantage of the new token frequencies. Every 10 minutes a special
- * thread in the <code>BayesianAnalysis</code> mailet will check if any change
- * was made to the database, and rebuild the corpus if necessary.
+ * <code>BayesianAnalysis</code> must be updated, in order to take advantage of
+ * the new token frequencies. Every 10 minutes a special thread in the
+ * <code>BayesianAnalysis</code> mailet will check if any change was made to the
+ * database, and apply the new token frequencies to the corpus.
  * </p>
  * 
  * <p>
@@ -295,7 +295,7 @@ public class BayesianAnalysisFeeder extends GenericMailet {
                     conn.commit();
                     dbUpdated = false;
                     LOGGER.debug("{} Training ended successfully", messageId);
-                    JDBCBayesianAnalyzer.touchLastDatabaseUpdateTime();
+                    analyzer.publishTokenCounts();
                 }
 
             }
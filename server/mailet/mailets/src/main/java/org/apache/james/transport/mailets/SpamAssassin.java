@@ -20,6 +20,10 @@
 package org.apache.james.transport.mailets;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
 import javax.mail.MessagingException;
@@ -30,8 +34,10 @@ import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.api.UsersRepositoryException;
 import org.apache.james.util.Port;
+import org.apache.james.util.concurrent.NamedThreadFactory;
 import org.apache.james.util.scanner.SpamAssassinInvoker;
 import org.apache.james.util.scanner.SpamAssassinResult;
+import org.apache.mailet.AsyncMailet;
 import org.apache.mailet.Mail;
 import org.apache.mailet.PerRecipientHeaders;
 import org.apache.mailet.base.GenericMailet;
@@ -50,6 +56,10 @@ import com.google.common.base.Strings;
  * value of YES. The default host for spamd is localhost and the default port is
  * 783.
  * 
+ * spamd is queried asynchronously, by at most <code>spamdThreads</code> threads (20
+ * by default), so that the mailet container threads do not wait on it. Use at
+ * least as many threads as the spooler, otherwise mails queue up in front of spamd.
+ * 
  * <pre>
  * <code>
  *  org.apache.james.spamassassin.status - Holds the status
@@ -63,19 +73,23 @@ import com.google.common.base.Strings;
  * &lt;mailet notmatch="SenderHostIsLocal" class="SpamAssassin"&gt;
  * &lt;spamdHost&gt;localhost&lt;/spamdHost&gt;
  * &lt;spamdPort&gt;783&lt;/spamdPort&gt;
+ * &lt;spamdThreads&gt;20&lt;/spamdThreads&gt;
  * </pre>
  */
-public class SpamAssassin extends GenericMailet {
+public class SpamAssassin extends GenericMailet implements AsyncMailet {
     public static final String SPAMD_HOST = "spamdHost";
     public static final String SPAMD_PORT = "spamdPort";
+    public static final String SPAMD_THREADS = "spamdThreads";
     public static final String DEFAULT_HOST = "127.0.0.1";
     public static final int DEFAULT_PORT = 783;
+    public static final int DEFAULT_THREADS = 20;
 
     private final MetricFactory metricFactory;
     private final UsersRepository usersRepository;
 
     private String spamdHost;
     private int spamdPort;
+    private ExecutorService spamdExecutor;
 
     @Inject
     public SpamAssassin(MetricFactory metricFactory, UsersRepository usersRepository) {
@@ -91,10 +105,31 @@ public class SpamAssassin extends GenericMailet {
 
         spamdPort = MailetUtil.getInitParameterAsStrictlyPositiveInteger(getInitParameter(SPAMD_PORT), DEFAULT_PORT);
         Port.assertValid(spamdPort);
+
+        int spamdThreads = MailetUtil.getInitParameterAsStrictlyPositiveInteger(getInitParameter(SPAMD_THREADS), DEFAULT_THREADS);
+        spamdExecutor = Executors.newFixedThreadPool(spamdThreads, new NamedThreadFactory("SpamAssassin"));
     }
 
     @Override
     public void service(Mail mail) throws MessagingException {
+        AsyncMailet.super.service(mail);
+    }
+
+    @Override
+    public CompletionStage<Void> serviceAsync(Mail mail) {
+        return CompletableFuture.runAsync(
+            Throwing.runnable(() -> querySpamAssassin(mail)).sneakyThrow(),
+            spamdExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        if (spamdExecutor != null) {
+            spamdExecutor.shutdown();
+        }
+    }
+
+    private void querySpamAssassin(Mail mail) throws MessagingException {
         MimeMessage message = mail.getMessage();
 
         // Invoke SpamAssassin connection and scan the message
@@ -22,21 +22,32 @@ import java.io.InputStream;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.sieverepository.api.SieveRepository;
+import org.apache.james.sieverepository.api.exception.ScriptNotFoundException;
+import org.apache.james.sieverepository.api.exception.StorageException;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.user.api.UsersRepositoryException;
 import org.joda.time.DateTime;
 
 public class ResourceLocator {
 
+    @FunctionalInterface
+    public interface ScriptContentLoader {
+        InputStream load() throws ScriptNotFoundException, StorageException;
+    }
+
     public static class UserSieveInformation {
         private DateTime scriptActivationDate;
         private DateTime scriptInterpretationDate;
-        private InputStream scriptContent;
+        private ScriptContentLoader scriptContentLoader;
 
         public UserSieveInformation(DateTime scriptActivationDate, DateTime scriptInterpretationDate, InputStream scriptContent) {
+            this(scriptActivationDate, scriptInterpretationDate, () -> scriptContent);
+        }
+
+        public UserSieveInformation(DateTime scriptActivationDate, DateTime scriptInterpretationDate, ScriptContentLoader scriptContentLoader) {
             this.scriptActivationDate = scriptActivationDate;
             this.scriptInterpretationDate = scriptInterpretationDate;
-            this.scriptContent = scriptContent;
+            this.scriptContentLoader = scriptContentLoader;
         }
 
         public DateTime getScriptActivationDate() {
@@ -47,8 +58,11 @@ public class ResourceLocator {
             return scriptInterpretationDate;
         }
 
-        public InputStream getScriptContent() {
-            return scriptContent;
+        /**
+         * Reads the script from the repository, so that it is only read when it is not already parsed.
+         */
+        public InputStream getScriptContent() throws ScriptNotFoundException, StorageException {
+            return scriptContentLoader.load();
         }
     }
 
@@ -62,7 +76,7 @@ public class ResourceLocator {
 
     public UserSieveInformation get(MailAddress mailAddress) throws Exception {
         String username = retrieveUsername(mailAddress);
-        return new UserSieveInformation(sieveRepository.getActivationDateForActiveScript(username), DateTime.now(), sieveRepository.getActive(username));
+        return new UserSieveInformation(sieveRepository.getActivationDateForActiveScript(username), DateTime.now(), () -> sieveRepository.getActive(username));
     }
 
     private String retrieveUsername(MailAddress mailAddress) {
@@ -27,6 +27,7 @@ import javax.mail.MessagingException;
 import org.apache.commons.logging.Log;
 import org.apache.james.core.MailAddress;
 import org.apache.james.sieverepository.api.exception.ScriptNotFoundException;
+import org.apache.james.sieverepository.api.exception.StorageException;
 import org.apache.james.transport.mailets.jsieve.ActionDispatcher;
 import org.apache.james.transport.mailets.jsieve.ResourceLocator;
 import org.apache.james.transport.mailets.jsieve.SieveMailAdapter;
@@ -55,6 +56,7 @@ public class SieveExecutor {
         private MailetContext mailetContext;
         private SievePoster sievePoster;
         private ResourceLocator resourceLocator;
+        private SieveScriptCache scriptCache;
         private Log log;
 
         public Builder sievePoster(SievePoster sievePoster) {
@@ -72,6 +74,11 @@ public class SieveExecutor {
             return this;
         }
 
+        public Builder scriptCache(SieveScriptCache scriptCache) {
+            this.scriptCache = scriptCache;
+            return this;
+        }
+
         public Builder log(Log log) {
             this.log = log;
             return this;
@@ -82,21 +89,24 @@ public class SieveExecutor {
             Preconditions.checkNotNull(resourceLocator);
             Preconditions.checkNotNull(log);
             Preconditions.checkNotNull(sievePoster);
-            return new SieveExecutor(mailetContext, sievePoster, resourceLocator, log);
+            Preconditions.checkNotNull(scriptCache);
+            return new SieveExecutor(mailetContext, sievePoster, resourceLocator, scriptCache, log);
         }
     }
 
     private final MailetContext mailetContext;
     private final SievePoster sievePoster;
     private final ResourceLocator resourceLocator;
+    private final SieveScriptCache scriptCache;
     private final SieveFactory factory;
     private final ActionDispatcher actionDispatcher;
 
     public SieveExecutor(MailetContext mailetContext, SievePoster sievePoster,
-                         ResourceLocator resourceLocator, Log log) throws MessagingException {
+                         ResourceLocator resourceLocator, SieveScriptCache scriptCache, Log log) throws MessagingException {
         this.mailetContext = mailetContext;
         this.sievePoster = sievePoster;
         this.resourceLocator = resourceLocator;
+        this.scriptCache = scriptCache;
         factory = createFactory(log);
         this.actionDispatcher = new ActionDispatcher();
     }
@@ -132,7 +142,8 @@ public class SieveExecutor {
         }
     }
 
-    private void sieveMessageEvaluate(MailAddress recipient, Mail aMail, ResourceLocator.UserSieveInformation userSieveInformation) throws MessagingException, IOException {
+    private void sieveMessageEvaluate(MailAddress recipient, Mail aMail, ResourceLocator.UserSieveInformation userSieveInformation)
+            throws MessagingException, IOException, ScriptNotFoundException, StorageException {
         try {
             SieveMailAdapter aMailAdapter = new SieveMailAdapter(aMail,
                 mailetContext, actionDispatcher, sievePoster, userSieveInformation.getScriptActivationDate(),
@@ -141,7 +152,10 @@ public class SieveExecutor {
                 // This logging operation is potentially costly
                 LOGGER.debug("Evaluating " + aMailAdapter.toString() + " against \"" + recipient.asPrettyString() + "\"");
             }
-            factory.evaluate(aMailAdapter, factory.parse(userSieveInformation.getScriptContent()));
+            factory.evaluate(aMailAdapter, scriptCache.getScript(recipient.asString(),
+                userSieveInformation.getScriptActivationDate(),
+                userSieveInformation::getScriptContent,
+                factory::parse));
         } catch (SieveException | ParseException ex) {
             handleFailure(recipient, aMail, ex);
         } catch (TokenMgrError ex) {
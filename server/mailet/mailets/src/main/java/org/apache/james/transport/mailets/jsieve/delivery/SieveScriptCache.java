@@ -0,0 +1,125 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.jsieve.delivery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.sieverepository.api.exception.ScriptNotFoundException;
+import org.apache.james.sieverepository.api.exception.StorageException;
+import org.apache.jsieve.parser.generated.Node;
+import org.apache.jsieve.parser.generated.ParseException;
+import org.joda.time.DateTime;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Keeps the parsed Sieve script of the recipients, so that a script is only read and parsed again once it was changed.
+ *
+ * A cached script is reused as long as its activation date is unchanged. Activating a script, or storing the active
+ * one, updates this date on every node, and the new script replaces the previous entry of the user.
+ *
+ * Parsed scripts are shared by the threads evaluating them: jSieve only reads the nodes of the script.
+ */
+@Singleton
+public class SieveScriptCache {
+
+    @FunctionalInterface
+    public interface ScriptParser {
+        Node parse(InputStream scriptContent) throws ParseException;
+    }
+
+    @FunctionalInterface
+    public interface ScriptLoader {
+        InputStream load() throws ScriptNotFoundException, StorageException;
+    }
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+    public static final String HIT_METRIC_NAME = "sieveScriptCacheHit";
+    public static final String MISS_METRIC_NAME = "sieveScriptCacheMiss";
+
+    private static class CompiledScript {
+        private final DateTime activationDate;
+        private final Node script;
+
+        private CompiledScript(DateTime activationDate, Node script) {
+            this.activationDate = activationDate;
+            this.script = script;
+        }
+
+        private boolean matches(DateTime activationDate) {
+            return Objects.equals(this.activationDate, activationDate);
+        }
+    }
+
+    private final Cache<String, CompiledScript> compiledScripts;
+    private final Metric hitMetric;
+    private final Metric missMetric;
+
+    @Inject
+    public SieveScriptCache(MetricFactory metricFactory) {
+        this(metricFactory, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public SieveScriptCache(MetricFactory metricFactory, long maximumSize) {
+        this.compiledScripts = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .build();
+        this.hitMetric = metricFactory.generate(HIT_METRIC_NAME);
+        this.missMetric = metricFactory.generate(MISS_METRIC_NAME);
+    }
+
+    /**
+     * Returns the parsed script of a user, reading and parsing it only if it is not cached yet or was changed.
+     *
+     * @param user the key of the script owner
+     * @param activationDate the activation date of the script
+     * @param loader reads the content of the script when needed. The returned stream is closed.
+     * @param parser parses the script when needed
+     */
+    public Node getScript(String user, DateTime activationDate, ScriptLoader loader, ScriptParser parser)
+            throws ParseException, IOException, ScriptNotFoundException, StorageException {
+        CompiledScript compiledScript = compiledScripts.getIfPresent(user);
+        if (compiledScript != null && compiledScript.matches(activationDate)) {
+            hitMetric.increment();
+            return compiledScript.script;
+        }
+        missMetric.increment();
+        Node script;
+        try (InputStream scriptContent = loader.load()) {
+            script = parser.parse(scriptContent);
+        }
+        compiledScripts.put(user, new CompiledScript(activationDate, script));
+        return script;
+    }
+
+    @VisibleForTesting
+    long size() {
+        return compiledScripts.size();
+    }
+}
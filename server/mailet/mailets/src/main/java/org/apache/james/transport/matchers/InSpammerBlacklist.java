@@ -28,6 +28,7 @@ import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.dnsservice.api.DNSService;
+import org.apache.mailet.ConnectionMatcher;
 import org.apache.mailet.Experimental;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.GenericMatcher;
@@ -53,6 +54,7 @@ import org.apache.mailet.base.GenericMatcher;
  * </pre>
  */
 @Experimental
+@ConnectionMatcher
 public class InSpammerBlacklist extends GenericMatcher {
     private String network = null;
 
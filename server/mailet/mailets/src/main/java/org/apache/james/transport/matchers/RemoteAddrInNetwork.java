@@ -22,6 +22,7 @@ package org.apache.james.transport.matchers;
 import java.util.Collection;
 
 import org.apache.james.core.MailAddress;
+import org.apache.mailet.ConnectionMatcher;
 import org.apache.mailet.Mail;
 
 /**
@@ -33,6 +34,7 @@ import org.apache.mailet.Mail;
  * See AbstractNetworkMatcher for details on how to specify entries.
  * </p>
  */
+@ConnectionMatcher
 public class RemoteAddrInNetwork extends AbstractNetworkMatcher {
     @Override
     public Collection<MailAddress> match(Mail mail) {
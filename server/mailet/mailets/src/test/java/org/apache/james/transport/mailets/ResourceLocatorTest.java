@@ -21,6 +21,8 @@ package org.apache.james.transport.mailets;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
@@ -52,12 +54,21 @@ public class ResourceLocatorTest {
 
     @Test(expected = ScriptNotFoundException.class)
     public void resourceLocatorImplShouldPropagateScriptNotFound() throws Exception {
-        when(sieveRepository.getActive(RECEIVER_LOCALHOST)).thenThrow(new ScriptNotFoundException());
+        when(sieveRepository.getActivationDateForActiveScript(RECEIVER_LOCALHOST)).thenThrow(new ScriptNotFoundException());
         when(usersRepository.getUser(mailAddress)).thenReturn(RECEIVER_LOCALHOST);
 
         resourceLocator.get(mailAddress);
     }
 
+    @Test
+    public void resourceLocatorImplShouldNotReadTheScriptContent() throws Exception {
+        when(usersRepository.getUser(mailAddress)).thenReturn(RECEIVER_LOCALHOST);
+
+        resourceLocator.get(mailAddress);
+
+        verify(sieveRepository, never()).getActive(RECEIVER_LOCALHOST);
+    }
+
     @Test
     public void resourceLocatorImplShouldWork() throws Exception {
         InputStream inputStream = new ByteArrayInputStream(new byte[0]);
@@ -22,6 +22,8 @@ package org.apache.james.transport.mailets;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
@@ -243,6 +245,46 @@ public class SpamAssassinTest {
                     new MailAddress("user1@exemple.com")));
     }
 
+    @Test
+    public void serviceAsyncShouldWriteSpamAttributeOnMailOnceCompleted() throws Exception {
+        FakeMailetConfig mailetConfiguration = FakeMailetConfig.builder()
+            .mailetName("SpamAssassin")
+            .setProperty(SpamAssassin.SPAMD_HOST, "localhost")
+            .setProperty(SpamAssassin.SPAMD_PORT, String.valueOf(spamd.getPort()))
+            .setProperty(SpamAssassin.SPAMD_THREADS, "1")
+            .build();
+        mailet.init(mailetConfiguration);
+
+        Mail mail = FakeMail.builder()
+            .recipient("user1@exemple.com")
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .addToRecipient("user1@exemple.com")
+                .addFrom("sender@exemple.com")
+                .setSubject("testing")
+                .setText("Please!")
+                .build())
+            .build();
+
+        mailet.serviceAsync(mail).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(
+            mail.getPerRecipientSpecificHeaders()
+                .getHeadersByRecipient()
+                .get(new MailAddress("user1@exemple.com"))
+                .stream()
+                .map(PerRecipientHeaders.Header::getName)
+                .collect(Guavate.toImmutableList()))
+            .contains(SpamAssassinResult.FLAG_MAIL_ATTRIBUTE_NAME, SpamAssassinResult.STATUS_MAIL_ATTRIBUTE_NAME);
+    }
+
+    @Test
+    public void initShouldThrowWhenSpamdThreadsIsZero() {
+        assertThatThrownBy(() -> mailet.init(FakeMailetConfig.builder()
+            .mailetName("SpamAssassin")
+            .setProperty(SpamAssassin.SPAMD_THREADS, "0")
+            .build())).isInstanceOf(MessagingException.class);
+    }
+
     @Test
     public void getMailetInfoShouldReturnSpamAssasinMailetInformation() {
         assertThat(mailet.getMailetInfo()).isEqualTo("Checks message against SpamAssassin");
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeBodyPart;
@@ -37,6 +38,7 @@ import org.apache.james.transport.mailets.Sieve;
 import org.apache.james.transport.mailets.jsieve.ResourceLocator;
 import org.apache.james.user.api.UsersRepository;
 import org.apache.james.util.MimeMessageUtil;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.test.FakeMail;
 import org.apache.mailet.base.test.FakeMailContext;
@@ -292,6 +294,29 @@ public class SieveIntegrationTest {
         assertThat(mail.getAttribute(MailStore.DELIVERY_PATH_PREFIX + LOCAL_PART)).isEqualTo(expressMailboxNameWithSlash(SELECTED_MAILBOX.getName()));
     }
 
+    @Test
+    public void cachedScriptShouldBeEvaluatedConcurrently() throws Exception {
+        when(usersRepository.supportVirtualHosting()).thenReturn(false);
+        when(usersRepository.getUser(new MailAddress(LOCAL_PART + "@localhost"))).thenReturn(LOCAL_PART);
+        when(usersRepository.getUser(new MailAddress(LOCAL_PART + "@domain.com"))).thenReturn(LOCAL_PART);
+        when(resourceLocator.get(new MailAddress(RECEIVER_DOMAIN_COM))).thenAnswer(invocation -> new ResourceLocator.UserSieveInformation(DATE_DEFAULT,
+            DATE_DEFAULT,
+            ClassLoader.getSystemResourceAsStream("org/apache/james/transport/mailets/delivery/header.script")));
+
+        new ConcurrentTestRunner(8, 50, (threadNumber, step) -> {
+            boolean selected = (threadNumber + step) % 2 == 0;
+            FakeMail mail = createMailWithSubject(selected ? "JAMES-1620 revolution" : "Other subject");
+
+            testee.service(mail);
+
+            MailboxPath expectedMailbox = selected ? SELECTED_MAILBOX : NOT_SELECTED_MAILBOX;
+            assertThat(mail.getAttribute(MailStore.DELIVERY_PATH_PREFIX + LOCAL_PART)).isEqualTo(expressMailboxNameWithSlash(expectedMailbox.getName()));
+        })
+            .run()
+            .assertNoException()
+            .awaitTermination(1, TimeUnit.MINUTES);
+    }
+
     @Test
     public void sizeOverScriptShouldWorkIfUnderLimit() throws Exception {
         prepareTestUsingScript("org/apache/james/transport/mailets/delivery/sizeOver.script");
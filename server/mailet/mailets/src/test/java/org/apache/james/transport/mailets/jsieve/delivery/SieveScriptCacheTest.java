@@ -0,0 +1,169 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.jsieve.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.jsieve.parser.generated.Node;
+import org.apache.jsieve.parser.generated.ParseException;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class SieveScriptCacheTest {
+
+    private static final String USER = "user@james.org";
+    private static final String OTHER_USER = "other@james.org";
+    private static final String SCRIPT = "require \"fileinto\";\r\nfileinto \"INBOX.any\";";
+    private static final String OTHER_SCRIPT = "keep;";
+    private static final DateTime ACTIVATION_DATE = DateTime.parse("2017-06-01T10:00:00Z");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private SieveScriptCache.ScriptParser parser;
+    private SieveScriptCache testee;
+
+    @Before
+    public void setUp() throws Exception {
+        parser = mock(SieveScriptCache.ScriptParser.class);
+        when(parser.parse(any(InputStream.class))).thenAnswer(invocation -> mock(Node.class));
+        testee = new SieveScriptCache(new NoopMetricFactory());
+    }
+
+    @Test
+    public void getScriptShouldReturnParsedScript() throws Exception {
+        Node script = mock(Node.class);
+        when(parser.parse(any(InputStream.class))).thenReturn(script);
+
+        assertThat(testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser)).isSameAs(script);
+    }
+
+    @Test
+    public void getScriptShouldParseUnchangedScriptOnce() throws Exception {
+        Node script = testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+
+        assertThat(testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser)).isSameAs(script);
+        verify(parser, times(1)).parse(any(InputStream.class));
+    }
+
+    @Test
+    public void getScriptShouldNotLoadTheContentOfAnUnchangedScript() throws Exception {
+        SieveScriptCache.ScriptLoader loader = mock(SieveScriptCache.ScriptLoader.class);
+        when(loader.load()).thenAnswer(invocation -> new ByteArrayInputStream(SCRIPT.getBytes(StandardCharsets.UTF_8)));
+        testee.getScript(USER, ACTIVATION_DATE, loader, parser);
+
+        testee.getScript(USER, ACTIVATION_DATE, loader, parser);
+
+        verify(loader, times(1)).load();
+    }
+
+    @Test
+    public void getScriptShouldParseAgainWhenActivationDateChanged() throws Exception {
+        Node script = testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+
+        assertThat(testee.getScript(USER, ACTIVATION_DATE.plusMinutes(1), content(SCRIPT), parser)).isNotSameAs(script);
+        verify(parser, times(2)).parse(any(InputStream.class));
+    }
+
+    @Test
+    public void getScriptShouldReplaceThePreviousScriptOfTheUser() throws Exception {
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        testee.getScript(USER, ACTIVATION_DATE.plusMinutes(1), content(OTHER_SCRIPT), parser);
+
+        assertThat(testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void getScriptShouldNotShareScriptsBetweenUsers() throws Exception {
+        Node script = testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+
+        assertThat(testee.getScript(OTHER_USER, ACTIVATION_DATE, content(SCRIPT), parser)).isNotSameAs(script);
+    }
+
+    @Test
+    public void getScriptShouldNotCacheParsingFailures() throws Exception {
+        when(parser.parse(any(InputStream.class))).thenThrow(new ParseException());
+        try {
+            testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        } catch (ParseException e) {
+            // expected
+        }
+
+        assertThat(testee.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void getScriptShouldPropagateParsingFailures() throws Exception {
+        when(parser.parse(any(InputStream.class))).thenThrow(new ParseException());
+
+        expectedException.expect(ParseException.class);
+
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+    }
+
+    @Test
+    public void cacheShouldBeBounded() throws Exception {
+        testee = new SieveScriptCache(new NoopMetricFactory(), 2);
+
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        testee.getScript(OTHER_USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        testee.getScript("third@james.org", ACTIVATION_DATE, content(SCRIPT), parser);
+
+        assertThat(testee.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void getScriptShouldRecordHitsAndMisses() throws Exception {
+        MetricFactory metricFactory = mock(MetricFactory.class);
+        Metric hitMetric = mock(Metric.class);
+        Metric missMetric = mock(Metric.class);
+        when(metricFactory.generate(anyString())).thenReturn(mock(Metric.class));
+        when(metricFactory.generate(SieveScriptCache.HIT_METRIC_NAME)).thenReturn(hitMetric);
+        when(metricFactory.generate(SieveScriptCache.MISS_METRIC_NAME)).thenReturn(missMetric);
+        testee = new SieveScriptCache(metricFactory);
+
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+        testee.getScript(USER, ACTIVATION_DATE, content(SCRIPT), parser);
+
+        verify(missMetric, times(1)).increment();
+        verify(hitMetric, times(2)).increment();
+    }
+
+    private SieveScriptCache.ScriptLoader content(String script) {
+        return () -> new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -49,8 +49,8 @@ public class CassandraMailRepositoryCountDAO {
     private final PreparedStatement select;
 
     @Inject
-    public CassandraMailRepositoryCountDAO(Session session) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraMailRepositoryCountDAO(Session session, CassandraAsyncExecutor executor) {
+        this.executor = executor;
 
         this.increment = prepareIncrement(session);
         this.decrement = prepareDecrement(session);
@@ -50,8 +50,8 @@ public class CassandraMailRepositoryKeysDAO {
     private final PreparedStatement listKeys;
 
     @Inject
-    public CassandraMailRepositoryKeysDAO(Session session, CassandraUtils cassandraUtils) {
-        this.executor = new CassandraAsyncExecutor(session);
+    public CassandraMailRepositoryKeysDAO(Session session, CassandraAsyncExecutor executor, CassandraUtils cassandraUtils) {
+        this.executor = executor;
         this.cassandraUtils = cassandraUtils;
 
         this.insertKey = prepareInsert(session);
@@ -94,9 +94,9 @@ public class CassandraMailRepositoryMailDAO {
     private final CassandraTypesProvider cassandraTypesProvider;
 
     @Inject
-    public CassandraMailRepositoryMailDAO(Session session, BlobId.Factory blobIdFactory,
+    public CassandraMailRepositoryMailDAO(Session session, CassandraAsyncExecutor executor, BlobId.Factory blobIdFactory,
                                           CassandraTypesProvider cassandraTypesProvider) {
-        this.executor = new CassandraAsyncExecutor(session);
+        this.executor = executor;
 
         this.insertMail = prepareInsert(session);
         this.deleteMail = prepareDelete(session);
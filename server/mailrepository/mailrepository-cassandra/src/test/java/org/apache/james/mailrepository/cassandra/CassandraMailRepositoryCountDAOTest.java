@@ -42,7 +42,7 @@ public class CassandraMailRepositoryCountDAOTest {
         cassandra = CassandraCluster.create(
             new CassandraMailRepositoryModule(), dockerCassandra.getIp(), dockerCassandra.getBindingPort());
 
-        testee = new CassandraMailRepositoryCountDAO(cassandra.getConf());
+        testee = new CassandraMailRepositoryCountDAO(cassandra.getConf(), cassandra.getExecutor());
     }
 
     @AfterEach
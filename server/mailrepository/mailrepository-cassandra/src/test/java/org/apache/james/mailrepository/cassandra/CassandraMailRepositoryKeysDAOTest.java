@@ -48,7 +48,7 @@ public class CassandraMailRepositoryKeysDAOTest {
         cassandra = CassandraCluster.create(
             new CassandraMailRepositoryModule(), dockerCassandra.getIp(), dockerCassandra.getBindingPort());
 
-        testee = new CassandraMailRepositoryKeysDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        testee = new CassandraMailRepositoryKeysDAO(cassandra.getConf(), cassandra.getExecutor(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
     }
 
     @AfterEach
@@ -53,7 +53,7 @@ public class CassandraMailRepositoryMailDAOTest {
         cassandra = CassandraCluster.create(
             new CassandraMailRepositoryModule(), dockerCassandra.getIp(), dockerCassandra.getBindingPort());
 
-        testee = new CassandraMailRepositoryMailDAO(cassandra.getConf(), BLOB_ID_FACTORY, cassandra.getTypesProvider());
+        testee = new CassandraMailRepositoryMailDAO(cassandra.getConf(), cassandra.getExecutor(), BLOB_ID_FACTORY, cassandra.getTypesProvider());
     }
 
     @AfterEach
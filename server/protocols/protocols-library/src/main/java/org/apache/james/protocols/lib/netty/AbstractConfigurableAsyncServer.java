@@ -542,6 +542,15 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
     protected ExecutionHandler getExecutionHandler() {
         return executionHandler;
     }
+
+    /**
+     * Return the configured maximum count of threads running the IO-Bound handlers
+     * 
+     * @return maxExecutorThreads
+     */
+    protected int getMaxExecutorThreads() {
+        return maxExecutorThreads;
+    }
     
     protected ChannelHandlerFactory getFrameHandlerFactory() {
         return frameHandlerFactory;
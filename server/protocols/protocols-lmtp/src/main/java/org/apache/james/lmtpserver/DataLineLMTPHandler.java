@@ -18,12 +18,25 @@
  ****************************************************************/
 package org.apache.james.lmtpserver;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationException;
 import org.apache.james.core.MailAddress;
 import org.apache.james.protocols.api.Response;
 import org.apache.james.protocols.api.handler.WiringException;
@@ -35,35 +48,71 @@ import org.apache.james.protocols.smtp.SMTPSession;
 import org.apache.james.protocols.smtp.core.AbstractHookableCmdHandler;
 import org.apache.james.protocols.smtp.dsn.DSNStatus;
 import org.apache.james.smtpserver.DataLineJamesMessageHookHandler;
+import org.apache.james.util.concurrent.NamedThreadFactory;
 import org.apache.mailet.Mail;
+import org.slf4j.MDC;
+
+import com.google.common.io.ByteStreams;
 
 /**
  * Handler which takes care of deliver the mail to the recipients INBOX
  */
 public class DataLineLMTPHandler extends DataLineJamesMessageHookHandler {
+    private static final int DEFAULT_DELIVERY_THREADS = 8;
+    private static final int DEFAULT_DELIVERY_QUEUE_SIZE = 64;
+    private static final long MAX_SHARED_CONTENT_SIZE = 10 * 1024 * 1024;
 
     private final List<DeliverToRecipientHook> handlers = new ArrayList<>();
+    private volatile ExecutorService deliveryExecutor = createDeliveryExecutor(DEFAULT_DELIVERY_THREADS, DEFAULT_DELIVERY_QUEUE_SIZE);
 
+    @Override
+    public void init(Configuration config) throws ConfigurationException {
+        super.init(config);
+        int deliveryThreads = config.getInt("deliveryThreads", DEFAULT_DELIVERY_THREADS);
+        if (deliveryThreads < 1) {
+            throw new ConfigurationException("deliveryThreads should be strictly positive");
+        }
+        int deliveryQueueSize = config.getInt("deliveryQueueSize", DEFAULT_DELIVERY_QUEUE_SIZE);
+        if (deliveryQueueSize < 1) {
+            throw new ConfigurationException("deliveryQueueSize should be strictly positive");
+        }
+        ExecutorService defaultDeliveryExecutor = deliveryExecutor;
+        deliveryExecutor = createDeliveryExecutor(deliveryThreads, deliveryQueueSize);
+        defaultDeliveryExecutor.shutdown();
+    }
+
+    private static ExecutorService createDeliveryExecutor(int deliveryThreads, int deliveryQueueSize) {
+        // When all the threads are busy and the queue is full, the session thread delivers the recipient itself
+        return new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(deliveryQueueSize),
+            new NamedThreadFactory("LMTP-delivery"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 
     @Override
-    protected Response processExtensions(SMTPSession session, Mail mail) {
-        LMTPMultiResponse mResponse = null;
+    public void destroy() {
+        deliveryExecutor.shutdownNow();
+        super.destroy();
+    }
 
+    /**
+     * Recipients are delivered concurrently, the responses are returned in the order of the recipients.
+     *
+     * Each recipient is delivered with its own read-only copy of the session.
+     */
+    @Override
+    protected Response processExtensions(SMTPSession session, Mail mail) {
         // build a wrapper around the Mail
         final ReadOnlyMailEnvelope env = new ReadOnlyMailEnvelope(mail);
 
-        for (MailAddress recipient : mail.getRecipients()) {
-            Response response = null;
-            for (DeliverToRecipientHook handler : handlers) {
-                response = AbstractHookableCmdHandler.calcDefaultSMTPResponse(handler.deliver(session, recipient, env));
-                if (response != null) {
-                    break;
-                }
-            }
-            if (response == null) {
-                // Add some default response for not handled responses
-                response = new SMTPResponse(SMTPRetCode.LOCAL_ERROR, DSNStatus.getStatus(DSNStatus.TRANSIENT, DSNStatus.UNDEFINED_STATUS) + "Temporary error deliver message to " + recipient);
-            }
+        List<CompletableFuture<Response>> responses = mail.getRecipients()
+            .stream()
+            .map(recipient -> deliver(RecipientDeliverySession.copyOf(session), recipient, env, mail.getRecipients().size() > 1))
+            .collect(Collectors.toList());
+
+        LMTPMultiResponse mResponse = null;
+        for (CompletableFuture<Response> futureResponse : responses) {
+            Response response = join(futureResponse);
             if (mResponse == null) {
                 mResponse = new LMTPMultiResponse(response);
             } else {
@@ -73,6 +122,57 @@ public class DataLineLMTPHandler extends DataLineJamesMessageHookHandler {
         return mResponse;
     }
 
+    private CompletableFuture<Response> deliver(RecipientDeliverySession session, MailAddress recipient, ReadOnlyMailEnvelope env, boolean concurrently) {
+        if (concurrently) {
+            return CompletableFuture.supplyAsync(() -> deliverWithMDC(session, recipient, env), deliveryExecutor);
+        }
+        return CompletableFuture.completedFuture(deliver(session, recipient, env));
+    }
+
+    private Response deliverWithMDC(RecipientDeliverySession session, MailAddress recipient, ReadOnlyMailEnvelope env) {
+        Map<String, String> previousMDC = MDC.getCopyOfContextMap();
+        setMDC(session.getMDC());
+        try {
+            return deliver(session, recipient, env);
+        } finally {
+            setMDC(Optional.ofNullable(previousMDC));
+        }
+    }
+
+    private void setMDC(Optional<Map<String, String>> mdc) {
+        if (mdc.isPresent()) {
+            MDC.setContextMap(mdc.get());
+        } else {
+            MDC.clear();
+        }
+    }
+
+    private Response deliver(SMTPSession session, MailAddress recipient, ReadOnlyMailEnvelope env) {
+        Response response = null;
+        for (DeliverToRecipientHook handler : handlers) {
+            response = AbstractHookableCmdHandler.calcDefaultSMTPResponse(handler.deliver(session, recipient, env));
+            if (response != null) {
+                break;
+            }
+        }
+        if (response == null) {
+            // Add some default response for not handled responses
+            response = new SMTPResponse(SMTPRetCode.LOCAL_ERROR, DSNStatus.getStatus(DSNStatus.TRANSIENT, DSNStatus.UNDEFINED_STATUS) + "Temporary error deliver message to " + recipient);
+        }
+        return response;
+    }
+
+    private Response join(CompletableFuture<Response> futureResponse) {
+        try {
+            return futureResponse.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public List<Class<?>> getMarkerInterfaces() {
         List<Class<?>> markers = new ArrayList<>();
@@ -90,10 +190,29 @@ public class DataLineLMTPHandler extends DataLineJamesMessageHookHandler {
 
     private final class ReadOnlyMailEnvelope extends MailToMailEnvelopeWrapper {
 
+        private byte[] content;
+
         public ReadOnlyMailEnvelope(Mail mail) {
             super(mail, null);
         }
 
+        /**
+         * The content is read once and shared by all the recipients, unless it is too big to be held in memory.
+         */
+        @Override
+        public synchronized InputStream getMessageInputStream() throws IOException {
+            if (content == null) {
+                long size = getSize();
+                if (size < 0 || size > MAX_SHARED_CONTENT_SIZE) {
+                    return super.getMessageInputStream();
+                }
+                try (InputStream messageInputStream = super.getMessageInputStream()) {
+                    content = ByteStreams.toByteArray(messageInputStream);
+                }
+            }
+            return new ByteArrayInputStream(content);
+        }
+
         @Override
         public OutputStream getMessageOutputStream() throws IOException {
             throw new IOException("Read-only envelope");
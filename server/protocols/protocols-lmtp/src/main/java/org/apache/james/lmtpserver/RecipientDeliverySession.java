@@ -0,0 +1,243 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.lmtpserver;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.james.protocols.api.ProtocolSession;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.api.handler.LineHandler;
+import org.apache.james.protocols.smtp.SMTPConfiguration;
+import org.apache.james.protocols.smtp.SMTPSession;
+import org.slf4j.MDC;
+
+/**
+ * Read-only copy of a {@link SMTPSession}, taken on the session thread, and given to the
+ * {@link org.apache.james.protocols.lmtp.hook.DeliverToRecipientHook}s delivering one recipient. The session is not
+ * thread safe, and is reset for the next transaction while recipients may still be delivered.
+ *
+ * The logging context of the session thread is copied too, so that it can be restored on the delivery thread.
+ */
+final class RecipientDeliverySession implements SMTPSession {
+
+    static RecipientDeliverySession copyOf(SMTPSession session) {
+        return new RecipientDeliverySession(session);
+    }
+
+    private final String user;
+    private final String sessionId;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final boolean startTLSSupported;
+    private final boolean tlsStarted;
+    private final boolean relayingAllowed;
+    private final boolean authSupported;
+    private final boolean commandInjectionDetection;
+    private final int rcptCount;
+    private final int pushedLineHandlerCount;
+    private final SMTPConfiguration configuration;
+    private final Charset charset;
+    private final String lineDelimiter;
+    private final Response lineTooLongResponse;
+    private final Response fatalErrorResponse;
+    private final Map<String, Object> state;
+    private final Map<String, Object> connectionState;
+    private final Optional<Map<String, String>> mdc;
+
+    private RecipientDeliverySession(SMTPSession session) {
+        this.user = session.getUser();
+        this.sessionId = session.getSessionID();
+        this.remoteAddress = session.getRemoteAddress();
+        this.localAddress = session.getLocalAddress();
+        this.startTLSSupported = session.isStartTLSSupported();
+        this.tlsStarted = session.isTLSStarted();
+        this.relayingAllowed = session.isRelayingAllowed();
+        this.authSupported = session.isAuthSupported();
+        this.commandInjectionDetection = session.needsCommandInjectionDetection();
+        this.rcptCount = session.getRcptCount();
+        this.pushedLineHandlerCount = session.getPushedLineHandlerCount();
+        this.configuration = session.getConfiguration();
+        this.charset = session.getCharset();
+        this.lineDelimiter = session.getLineDelimiter();
+        this.lineTooLongResponse = session.newLineTooLongResponse();
+        this.fatalErrorResponse = session.newFatalErrorResponse();
+        this.state = copy(session.getState());
+        this.connectionState = copy(session.getConnectionState());
+        this.mdc = Optional.ofNullable(MDC.getCopyOfContextMap());
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> map) {
+        if (map == null) {
+            return Collections.emptyMap();
+        }
+        // Attachments may be null, which immutable collections reject
+        return Collections.unmodifiableMap(new HashMap<>(map));
+    }
+
+    /**
+     * Logging context of the session thread when this copy was taken
+     */
+    Optional<Map<String, String>> getMDC() {
+        return mdc;
+    }
+
+    @Override
+    public Object setAttachment(String key, Object value, State state) {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public Object getAttachment(String key, State state) {
+        if (state == State.Connection) {
+            return connectionState.get(key);
+        }
+        return this.state.get(key);
+    }
+
+    @Override
+    public Map<String, Object> getState() {
+        return state;
+    }
+
+    @Override
+    public Map<String, Object> getConnectionState() {
+        return connectionState;
+    }
+
+    @Override
+    public void resetState() {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public String getSessionID() {
+        return sessionId;
+    }
+
+    @Override
+    public Response newLineTooLongResponse() {
+        return lineTooLongResponse;
+    }
+
+    @Override
+    public Response newFatalErrorResponse() {
+        return fatalErrorResponse;
+    }
+
+    @Override
+    public String getUser() {
+        return user;
+    }
+
+    @Override
+    public void setUser(String user) {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public boolean isStartTLSSupported() {
+        return startTLSSupported;
+    }
+
+    @Override
+    public boolean isTLSStarted() {
+        return tlsStarted;
+    }
+
+    @Override
+    public SMTPConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public String getLineDelimiter() {
+        return lineDelimiter;
+    }
+
+    @Override
+    public <T extends ProtocolSession> void pushLineHandler(LineHandler<T> overrideCommandHandler) {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public void popLineHandler() {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public int getPushedLineHandlerCount() {
+        return pushedLineHandlerCount;
+    }
+
+    @Override
+    public boolean isRelayingAllowed() {
+        return relayingAllowed;
+    }
+
+    @Override
+    public boolean needsCommandInjectionDetection() {
+        return commandInjectionDetection;
+    }
+
+    @Override
+    public void startDetectingCommadInjection() {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public void stopDetectingCommandInjection() {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public void setRelayingAllowed(boolean relayingAllowed) {
+        throw new UnsupportedOperationException("Read-only session");
+    }
+
+    @Override
+    public boolean isAuthSupported() {
+        return authSupported;
+    }
+
+    @Override
+    public int getRcptCount() {
+        return rcptCount;
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.exception.MailboxExistsException;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.protocols.lmtp.hook.DeliverToRecipientHook;
@@ -79,8 +80,7 @@ public class MailboxDeliverToRecipientHandler implements DeliverToRecipientHook
 
             // create inbox if not exist
             if (!mailboxManager.mailboxExists(inbox, mailboxSession)) {
-                Optional<MailboxId> mailboxId = mailboxManager.createMailbox(inbox, mailboxSession);
-                LOGGER.info("Provisioning INBOX. {} created.", mailboxId);
+                provisionInbox(inbox, mailboxSession);
             }
             mailboxManager.getMailbox(MailboxPath.inbox(mailboxSession), mailboxSession)
                 .appendMessage(MessageManager.AppendCommand.builder()
@@ -102,6 +102,19 @@ public class MailboxDeliverToRecipientHandler implements DeliverToRecipientHook
         }
     }
 
+    /**
+     * Recipients of a transaction are delivered concurrently: another recipient resolving to the same user
+     * may create the INBOX first.
+     */
+    private void provisionInbox(MailboxPath inbox, MailboxSession mailboxSession) throws MailboxException {
+        try {
+            Optional<MailboxId> mailboxId = mailboxManager.createMailbox(inbox, mailboxSession);
+            LOGGER.info("Provisioning INBOX. {} created.", mailboxId);
+        } catch (MailboxExistsException e) {
+            LOGGER.debug("INBOX {} was concurrently provisioned", inbox);
+        }
+    }
+
     @Override
     public void init(Configuration config) throws ConfigurationException {
 
@@ -18,6 +18,11 @@
  ****************************************************************/
 package org.apache.james.lmtpserver.netty;
 
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalConfiguration;
 import org.apache.james.lmtpserver.CoreCmdHandlerLoader;
@@ -28,15 +33,27 @@ import org.apache.james.protocols.lmtp.LMTPConfiguration;
 import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.LineDelimiterBasedChannelHandlerFactory;
+import org.apache.james.protocols.netty4.EventLoopGroups;
+import org.apache.james.protocols.netty4.Netty4Server;
 import org.apache.james.protocols.smtp.SMTPProtocol;
+import org.apache.james.smtpserver.netty.SMTPChannelInboundHandler;
 import org.apache.james.smtpserver.netty.SMTPChannelUpstreamHandler;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
+import org.jboss.netty.handler.execution.ExecutionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServerMBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(LMTPServer.class);
 
+    /**
+     * The network layers the LMTP server can run on
+     */
+    public enum Transport {
+        NETTY3,
+        NETTY4
+    }
+
     /**
      * The maximum message size allowed by this SMTP server. The default value,
      * 0, means no limit.
@@ -45,6 +62,10 @@ public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServe
     private final LMTPConfigurationImpl lmtpConfig = new LMTPConfigurationImpl();
     private final LMTPMetricsImpl lmtpMetrics;
     private String lmtpGreeting;
+    private Transport transport = Transport.NETTY3;
+    private InetSocketAddress[] listenAddresses = new InetSocketAddress[0];
+    private EventLoopGroups eventLoopGroups;
+    private Netty4Server netty4Server;
 
     public LMTPServer(LMTPMetricsImpl lmtpMetrics) {
         this.lmtpMetrics = lmtpMetrics;
@@ -77,7 +98,101 @@ public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServe
             // get the lmtpGreeting
             lmtpGreeting = configuration.getString("lmtpGreeting", null);
 
+            transport = parseTransport(configuration.getString("transport", "netty3"));
+            LOGGER.info("The LMTP server runs on the {} transport", transport.name().toLowerCase(Locale.US));
+        }
+    }
+
+    private Transport parseTransport(String value) throws ConfigurationException {
+        try {
+            return Transport.valueOf(value.trim().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Unknown transport '" + value + "', expecting netty3 or netty4", e);
+        }
+    }
+
+    @Override
+    public synchronized void setListenAddresses(InetSocketAddress... addresses) {
+        super.setListenAddresses(addresses);
+        this.listenAddresses = addresses;
+    }
+
+    @Override
+    public synchronized void bind() throws Exception {
+        if (transport == Transport.NETTY3) {
+            super.bind();
+            return;
+        }
+        if (netty4Server != null) {
+            throw new IllegalStateException("Server running already");
+        }
+
+        SMTPProtocol protocol = createProtocol();
+        EventLoopGroups groups = EventLoopGroups.create(EventLoopGroups.DEFAULT_BOSS_COUNT, getIoWorkerCount());
+        Netty4Server server = new Netty4Server.Factory(groups)
+            .protocol(protocol)
+            .secure(getEncryption())
+            .coreHandler(new SMTPChannelInboundHandler(protocol, lmtpMetrics))
+            .build();
+        server.setListenAddresses(listenAddresses);
+        server.setTimeout(getTimeout());
+        server.setBacklog(getBacklog());
+        server.setMaxConcurrentConnections(connectionLimit);
+        server.setMaxConcurrentConnectionsPerIP(connPerIP);
+        // Deliveries write to the mailboxes, keep them off the event loops
+        server.setUseExecutionHandler(true, getMaxExecutorThreads());
+
+        try {
+            server.bind();
+        } catch (Exception e) {
+            groups.shutdown();
+            throw e;
         }
+        eventLoopGroups = groups;
+        netty4Server = server;
+    }
+
+    @Override
+    public synchronized void unbind() {
+        if (transport == Transport.NETTY3) {
+            super.unbind();
+            return;
+        }
+        if (netty4Server != null) {
+            netty4Server.unbind();
+            eventLoopGroups.shutdown();
+            netty4Server = null;
+            eventLoopGroups = null;
+        }
+    }
+
+    @Override
+    public synchronized List<InetSocketAddress> getListenAddresses() {
+        if (transport == Transport.NETTY3) {
+            return super.getListenAddresses();
+        }
+        if (netty4Server == null) {
+            return Collections.emptyList();
+        }
+        return netty4Server.getListenAddresses();
+    }
+
+    @Override
+    public boolean isBound() {
+        if (transport == Transport.NETTY3) {
+            return super.isBound();
+        }
+        Netty4Server server = netty4Server;
+        return server != null && server.isBound();
+    }
+
+    @Override
+    protected ExecutionHandler createExecutionHander() {
+        if (transport == Transport.NETTY4) {
+            // Netty4Server runs its handlers on its own executor group
+            return null;
+        }
+        return super.createExecutionHander();
     }
 
     /**
@@ -123,8 +238,11 @@ public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServe
 
     @Override
     protected ChannelUpstreamHandler createCoreHandler() {
-        SMTPProtocol protocol = new SMTPProtocol(getProtocolHandlerChain(), lmtpConfig);
-        return new SMTPChannelUpstreamHandler(protocol, lmtpMetrics);
+        return new SMTPChannelUpstreamHandler(createProtocol(), lmtpMetrics);
+    }
+
+    private SMTPProtocol createProtocol() {
+        return new SMTPProtocol(getProtocolHandlerChain(), lmtpConfig);
     }
 
     @Override
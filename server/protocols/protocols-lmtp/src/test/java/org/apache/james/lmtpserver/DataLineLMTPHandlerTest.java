@@ -0,0 +1,301 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.lmtpserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.james.core.MailAddress;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.lmtp.hook.DeliverToRecipientHook;
+import org.apache.james.protocols.smtp.MailEnvelope;
+import org.apache.james.protocols.smtp.SMTPRetCode;
+import org.apache.james.protocols.smtp.SMTPSession;
+import org.apache.james.protocols.smtp.hook.HookResult;
+import org.apache.james.protocols.smtp.hook.HookReturnCode;
+import org.apache.mailet.Mail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+public class DataLineLMTPHandlerTest {
+
+    private static final String CONTENT = "Subject: test\r\n\r\nbody\r\n";
+    private static final String MDC_KEY = "test";
+
+    private MailAddress recipient1;
+    private MailAddress recipient2;
+    private MailAddress recipient3;
+    private SMTPSession session;
+    private DataLineLMTPHandler testee;
+
+    @Before
+    public void setUp() throws Exception {
+        recipient1 = new MailAddress("recipient1@domain.tld");
+        recipient2 = new MailAddress("recipient2@domain.tld");
+        recipient3 = new MailAddress("recipient3@domain.tld");
+        session = mock(SMTPSession.class);
+        testee = new DataLineLMTPHandler();
+        testee.init(new BaseConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        testee.destroy();
+    }
+
+    @Test
+    public void responsesShouldBeInRecipientOrder() throws Exception {
+        wire((recipient, envelope) -> {
+            if (recipient.equals(recipient1)) {
+                // The first recipient is delivered last
+                sleep(200);
+            }
+            return ok(recipient);
+        });
+
+        Response response = testee.processExtensions(session, mail(recipient1, recipient2, recipient3));
+
+        assertThat(response.getLines()).containsExactly(
+            "250 delivered to recipient1@domain.tld",
+            "250 delivered to recipient2@domain.tld",
+            "250 delivered to recipient3@domain.tld");
+    }
+
+    @Test
+    public void recipientsShouldBeDeliveredConcurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        wire((recipient, envelope) -> {
+            allStarted.countDown();
+            if (await(allStarted)) {
+                return ok(recipient);
+            }
+            return HookResult.builder()
+                .hookReturnCode(HookReturnCode.denySoft())
+                .smtpDescription("deliveries were sequential")
+                .build();
+        });
+
+        Response response = testee.processExtensions(session, mail(recipient1, recipient2, recipient3));
+
+        assertThat(response.getLines()).containsExactly(
+            "250 delivered to recipient1@domain.tld",
+            "250 delivered to recipient2@domain.tld",
+            "250 delivered to recipient3@domain.tld");
+    }
+
+    @Test
+    public void failureOfOneRecipientShouldNotAffectOtherRecipients() throws Exception {
+        wire((recipient, envelope) -> {
+            if (recipient.equals(recipient2)) {
+                return HookResult.builder()
+                    .hookReturnCode(HookReturnCode.denySoft())
+                    .smtpDescription("failed for " + recipient)
+                    .build();
+            }
+            return ok(recipient);
+        });
+
+        Response response = testee.processExtensions(session, mail(recipient1, recipient2, recipient3));
+
+        assertThat(response.getLines()).containsExactly(
+            "250 delivered to recipient1@domain.tld",
+            "451 failed for recipient2@domain.tld",
+            "250 delivered to recipient3@domain.tld");
+    }
+
+    @Test
+    public void contentShouldBeReadOnceForAllRecipients() throws Exception {
+        Map<MailAddress, String> contents = new ConcurrentHashMap<>();
+        wire((recipient, envelope) -> {
+            contents.put(recipient, read(envelope));
+            return ok(recipient);
+        });
+        Mail mail = mail(recipient1, recipient2, recipient3);
+
+        testee.processExtensions(session, mail);
+
+        assertThat(contents).containsOnlyKeys(recipient1, recipient2, recipient3);
+        assertThat(contents.values()).containsOnly(CONTENT);
+        verify(mail, times(1)).getMessage();
+    }
+
+    @Test
+    public void recipientsShouldBeDeliveredConcurrentlyWhenNotInitialized() throws Exception {
+        DataLineLMTPHandler notInitialized = new DataLineLMTPHandler();
+        CountDownLatch allStarted = new CountDownLatch(3);
+        try {
+            wire(notInitialized, (recipientSession, recipient, envelope) -> {
+                allStarted.countDown();
+                if (await(allStarted)) {
+                    return ok(recipient);
+                }
+                return HookResult.builder()
+                    .hookReturnCode(HookReturnCode.denySoft())
+                    .smtpDescription("deliveries were sequential")
+                    .build();
+            });
+
+            Response response = notInitialized.processExtensions(session, mail(recipient1, recipient2, recipient3));
+
+            assertThat(response.getLines()).containsExactly(
+                "250 delivered to recipient1@domain.tld",
+                "250 delivered to recipient2@domain.tld",
+                "250 delivered to recipient3@domain.tld");
+        } finally {
+            notInitialized.destroy();
+        }
+    }
+
+    @Test
+    public void hooksShouldReceiveAReadOnlyCopyOfTheSession() throws Exception {
+        when(session.getUser()).thenReturn("user");
+        Map<MailAddress, SMTPSession> sessions = new ConcurrentHashMap<>();
+        wire(testee, (recipientSession, recipient, envelope) -> {
+            sessions.put(recipient, recipientSession);
+            return ok(recipient);
+        });
+
+        testee.processExtensions(session, mail(recipient1, recipient2));
+
+        assertThat(sessions.values())
+            .hasSize(2)
+            .allSatisfy(recipientSession -> {
+                assertThat(recipientSession).isNotSameAs(session);
+                assertThat(recipientSession.getUser()).isEqualTo("user");
+                assertThatThrownBy(() -> recipientSession.setUser("other"))
+                    .isInstanceOf(UnsupportedOperationException.class);
+            });
+    }
+
+    @Test
+    public void recipientsShouldBeDeliveredWithTheLoggingContextOfTheSession() throws Exception {
+        Map<MailAddress, String> loggingContexts = new ConcurrentHashMap<>();
+        wire((recipient, envelope) -> {
+            loggingContexts.put(recipient, MDC.get(MDC_KEY));
+            return ok(recipient);
+        });
+
+        MDC.put(MDC_KEY, "value");
+        try {
+            testee.processExtensions(session, mail(recipient1, recipient2, recipient3));
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+
+        assertThat(loggingContexts).containsOnlyKeys(recipient1, recipient2, recipient3);
+        assertThat(loggingContexts.values()).containsOnly("value");
+    }
+
+    private void wire(Delivery delivery) throws Exception {
+        wire(testee, (recipientSession, recipient, envelope) -> delivery.deliver(recipient, envelope));
+    }
+
+    private void wire(DataLineLMTPHandler handler, SessionDelivery delivery) throws Exception {
+        handler.wireExtensions(DeliverToRecipientHook.class, ImmutableList.of(new DeliverToRecipientHook() {
+            @Override
+            public HookResult deliver(SMTPSession session, MailAddress recipient, MailEnvelope envelope) {
+                return delivery.deliver(session, recipient, envelope);
+            }
+
+            @Override
+            public void init(Configuration config) {
+
+            }
+
+            @Override
+            public void destroy() {
+
+            }
+        }));
+    }
+
+    private Mail mail(MailAddress... recipients) throws MessagingException {
+        Mail mail = mock(Mail.class);
+        when(mail.getRecipients()).thenReturn(ImmutableList.copyOf(recipients));
+        when(mail.getMessageSize()).thenReturn((long) CONTENT.length());
+        when(mail.getMessage()).thenReturn(new MimeMessage(null, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.US_ASCII))));
+        return mail;
+    }
+
+    private HookResult ok(MailAddress recipient) {
+        return HookResult.builder()
+            .hookReturnCode(HookReturnCode.ok())
+            .smtpReturnCode(SMTPRetCode.MAIL_OK)
+            .smtpDescription("delivered to " + recipient)
+            .build();
+    }
+
+    private String read(MailEnvelope envelope) {
+        try (InputStream inputStream = envelope.getMessageInputStream()) {
+            return new String(ByteStreams.toByteArray(inputStream), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Delivery {
+        HookResult deliver(MailAddress recipient, MailEnvelope envelope);
+    }
+
+    @FunctionalInterface
+    private interface SessionDelivery {
+        HookResult deliver(SMTPSession session, MailAddress recipient, MailEnvelope envelope);
+    }
+}
@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.lmtpserver.hook;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.exception.MailboxExistsException;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.protocols.smtp.MailEnvelope;
+import org.apache.james.protocols.smtp.SMTPSession;
+import org.apache.james.protocols.smtp.hook.HookResult;
+import org.apache.james.protocols.smtp.hook.HookReturnCode;
+import org.apache.james.user.api.UsersRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MailboxDeliverToRecipientHandlerTest {
+
+    private static final String USER = "user@domain.tld";
+
+    private MailAddress recipient;
+    private MailboxManager mailboxManager;
+    private MailboxSession mailboxSession;
+    private MessageManager messageManager;
+    private MailEnvelope envelope;
+    private MailboxDeliverToRecipientHandler testee;
+
+    @Before
+    public void setUp() throws Exception {
+        recipient = new MailAddress(USER);
+
+        UsersRepository usersRepository = mock(UsersRepository.class);
+        when(usersRepository.getUser(recipient)).thenReturn(USER);
+
+        MailboxSession.User user = mock(MailboxSession.User.class);
+        when(user.getUserName()).thenReturn(USER);
+        mailboxSession = mock(MailboxSession.class);
+        when(mailboxSession.getUser()).thenReturn(user);
+
+        mailboxManager = mock(MailboxManager.class);
+        messageManager = mock(MessageManager.class);
+        when(mailboxManager.createSystemSession(USER)).thenReturn(mailboxSession);
+        when(mailboxManager.getMailbox(MailboxPath.inbox(mailboxSession), mailboxSession)).thenReturn(messageManager);
+
+        envelope = mock(MailEnvelope.class);
+        when(envelope.getMessageInputStream()).thenReturn(new ByteArrayInputStream("Subject: test\r\n\r\nbody\r\n".getBytes(StandardCharsets.US_ASCII)));
+
+        testee = new MailboxDeliverToRecipientHandler();
+        testee.setUsersRepository(usersRepository);
+        testee.setMailboxManager(mailboxManager);
+    }
+
+    @Test
+    public void deliverShouldProvisionMissingInbox() throws Exception {
+        when(mailboxManager.mailboxExists(MailboxPath.inbox(mailboxSession), mailboxSession)).thenReturn(false);
+
+        HookResult result = testee.deliver(mock(SMTPSession.class), recipient, envelope);
+
+        assertThat(result.getResult()).isEqualTo(HookReturnCode.ok());
+        verify(mailboxManager).createMailbox(MailboxPath.inbox(mailboxSession), mailboxSession);
+        verify(messageManager).appendMessage(any(MessageManager.AppendCommand.class), eq(mailboxSession));
+    }
+
+    @Test
+    public void deliverShouldSucceedWhenInboxIsConcurrentlyProvisioned() throws Exception {
+        MailboxPath inbox = MailboxPath.inbox(mailboxSession);
+        when(mailboxManager.mailboxExists(inbox, mailboxSession)).thenReturn(false);
+        when(mailboxManager.createMailbox(inbox, mailboxSession)).thenThrow(new MailboxExistsException(inbox.asString()));
+
+        HookResult result = testee.deliver(mock(SMTPSession.class), recipient, envelope);
+
+        assertThat(result.getResult()).isEqualTo(HookReturnCode.ok());
+        verify(messageManager).appendMessage(any(MessageManager.AppendCommand.class), eq(mailboxSession));
+    }
+}
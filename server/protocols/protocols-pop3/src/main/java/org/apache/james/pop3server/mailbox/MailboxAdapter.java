@@ -20,11 +20,12 @@ package org.apache.james.pop3server.mailbox;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.mail.Flags;
@@ -41,7 +42,6 @@ import org.apache.james.protocols.pop3.mailbox.Mailbox;
 import org.apache.james.protocols.pop3.mailbox.MessageMetaData;
 
 import com.github.steveash.guavate.Guavate;
-import com.google.common.collect.ImmutableList;
 
 public class MailboxAdapter implements Mailbox {
 
@@ -86,15 +86,25 @@ public class MailboxAdapter implements Mailbox {
         }
     };
 
+    private static final int PREFETCH_COUNT = 10;
+    private static final long PREFETCH_MAX_BYTES = 1024 * 1024;
+
     private final MessageManager manager;
     private final MailboxSession session;
 
     private final MailboxManager mailboxManager;
 
+    private MessageMetaDataSnapshot snapshot;
+    private final Map<MessageUid, InputStream> prefetchedMessages;
+    private int lastRetrievedIndex;
+
     public MailboxAdapter(MailboxManager mailboxManager, MessageManager manager, MailboxSession session) {
         this.manager = manager;
         this.session = session;
         this.mailboxManager = mailboxManager;
+        this.snapshot = MessageMetaDataSnapshot.builder().build();
+        this.prefetchedMessages = new HashMap<>();
+        this.lastRetrievedIndex = -1;
     }
 
     @Override
@@ -134,14 +144,26 @@ public class MailboxAdapter implements Mailbox {
 
     @Override
     public InputStream getMessage(String uid) throws IOException {
+        MessageUid messageUid = MessageUid.of(Long.valueOf(uid));
+        InputStream prefetched = prefetchedMessages.remove(messageUid);
+        if (prefetched != null) {
+            lastRetrievedIndex = snapshot.indexOf(messageUid, lastRetrievedIndex + 1);
+            return prefetched;
+        }
         try {
             mailboxManager.startProcessingRequest(session);
-            Iterator<MessageResult> results = manager.getMessages(MessageUid.of(Long.valueOf(uid)).toRange(), FULL_GROUP, session);
-            if (results.hasNext()) {
-                return results.next().getFullContent().getInputStream();
-            } else {
-                return null;
+            Iterator<MessageResult> results = manager.getMessages(retrievalRange(messageUid), FULL_GROUP, session);
+            InputStream message = null;
+            while (results.hasNext()) {
+                MessageResult result = results.next();
+                InputStream content = result.getFullContent().getInputStream();
+                if (result.getUid().equals(messageUid)) {
+                    message = content;
+                } else {
+                    prefetchedMessages.put(result.getUid(), content);
+                }
             }
+            return message;
         } catch (MailboxException e) {
             throw new IOException("Unable to retrieve message for uid " + uid, e);
         } finally {
@@ -149,18 +171,58 @@ public class MailboxAdapter implements Mailbox {
         }
     }
 
+    /**
+     * When messages are retrieved in sequence, which is what most POP3 clients do, the next
+     * messages of the snapshot are fetched along with the requested one.
+     */
+    private MessageRange retrievalRange(MessageUid uid) {
+        int index = snapshot.indexOf(uid, lastRetrievedIndex + 1);
+        boolean sequential = index >= 0 && index == lastRetrievedIndex + 1;
+        lastRetrievedIndex = index;
+        discardPrefetchedMessages();
+        if (!sequential) {
+            return uid.toRange();
+        }
+
+        int last = index;
+        long prefetchedBytes = snapshot.sizeAt(index);
+        while (last + 1 < snapshot.size()
+                && last + 1 - index < PREFETCH_COUNT
+                && prefetchedBytes + snapshot.sizeAt(last + 1) <= PREFETCH_MAX_BYTES) {
+            last++;
+            prefetchedBytes += snapshot.sizeAt(last);
+        }
+        return MessageRange.range(uid, snapshot.uidAt(last));
+    }
+
+    /**
+     * Closes the contents fetched ahead which will not be retrieved
+     */
+    private void discardPrefetchedMessages() {
+        for (InputStream prefetched : prefetchedMessages.values()) {
+            try {
+                prefetched.close();
+            } catch (IOException e) {
+                // Nothing more can be done with an unused content
+            }
+        }
+        prefetchedMessages.clear();
+    }
+
     @Override
     public List<MessageMetaData> getMessages() throws IOException {
         try {
             mailboxManager.startProcessingRequest(session);
             Iterator<MessageResult> results = manager.getMessages(MessageRange.all(), METADATA_GROUP, session);
-            List<MessageMetaData> mList = new ArrayList<>();
+            MessageMetaDataSnapshot.Builder builder = MessageMetaDataSnapshot.builder();
             while (results.hasNext()) {
                 MessageResult result = results.next();
-                MessageMetaData metaData = new MessageMetaData(String.valueOf(result.getUid().asLong()), result.getSize());
-                mList.add(metaData);
+                builder.add(result.getUid(), result.getSize());
             }
-            return ImmutableList.copyOf(mList);
+            snapshot = builder.build();
+            discardPrefetchedMessages();
+            lastRetrievedIndex = -1;
+            return snapshot;
         } catch (MailboxException e) {
             throw new IOException("Unable to retrieve messages", e);
         } finally {
@@ -204,6 +266,7 @@ public class MailboxAdapter implements Mailbox {
 
     @Override
     public void close() throws IOException {
+        discardPrefetchedMessages();
         try {
             mailboxManager.logout(session, true);
         } catch (MailboxException e) {
@@ -0,0 +1,107 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.pop3server.mailbox;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.protocols.pop3.mailbox.MessageMetaData;
+
+/**
+ * Immutable list of the (uid, size) of the messages of a maildrop, stored in primitive arrays.
+ *
+ * {@link MessageMetaData} are only created when accessed, which keeps the snapshot of large
+ * maildrops small for the whole POP3 session.
+ */
+class MessageMetaDataSnapshot extends AbstractList<MessageMetaData> implements RandomAccess {
+
+    static class Builder {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] uids = new long[INITIAL_CAPACITY];
+        private long[] sizes = new long[INITIAL_CAPACITY];
+        private int count;
+
+        Builder add(MessageUid uid, long size) {
+            if (count == uids.length) {
+                uids = Arrays.copyOf(uids, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            uids[count] = uid.asLong();
+            sizes[count] = size;
+            count++;
+            return this;
+        }
+
+        MessageMetaDataSnapshot build() {
+            return new MessageMetaDataSnapshot(Arrays.copyOf(uids, count), Arrays.copyOf(sizes, count));
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    private final long[] uids;
+    private final long[] sizes;
+
+    private MessageMetaDataSnapshot(long[] uids, long[] sizes) {
+        this.uids = uids;
+        this.sizes = sizes;
+    }
+
+    @Override
+    public MessageMetaData get(int index) {
+        return new MessageMetaData(String.valueOf(uids[index]), sizes[index]);
+    }
+
+    @Override
+    public int size() {
+        return uids.length;
+    }
+
+    MessageUid uidAt(int index) {
+        return MessageUid.of(uids[index]);
+    }
+
+    long sizeAt(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Returns the position of the given uid, or -1 if it is not part of the snapshot.
+     *
+     * The search starts at <code>hint</code>, as messages are mostly accessed in sequence.
+     */
+    int indexOf(MessageUid uid, int hint) {
+        long value = uid.asLong();
+        if (hint >= 0 && hint < uids.length && uids[hint] == value) {
+            return hint;
+        }
+        for (int i = 0; i < uids.length; i++) {
+            if (uids[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
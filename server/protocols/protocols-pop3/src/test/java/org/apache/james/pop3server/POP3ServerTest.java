@@ -25,6 +25,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Reader;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
@@ -370,6 +371,44 @@ public class POP3ServerTest {
         mailboxManager.deleteMailbox(mailboxPath, session);
     }
 
+    @Test
+    public void retrShouldReturnEachMessageWhenRetrievingAllMessagesInSequence() throws Exception {
+        finishSetUp(pop3Configuration);
+
+        pop3Client = new POP3Client();
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(pop3Server).retrieveBindedAddress();
+        pop3Client.connect(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort());
+
+        usersRepository.addUser("foo2", "bar2");
+
+        MailboxPath mailboxPath = MailboxPath.forUser("foo2", "INBOX");
+        MailboxSession session = mailboxManager.login("foo2", "bar2");
+        mailboxManager.createMailbox(mailboxPath, session);
+        int messageCount = 25;
+        for (int i = 0; i < messageCount; i++) {
+            mailboxManager.getMailbox(mailboxPath, session).appendMessage(MessageManager.AppendCommand.builder()
+                .build(("Subject: message " + i + "\r\n\r\nbody " + i + "\r\n").getBytes(StandardCharsets.UTF_8)), session);
+        }
+
+        pop3Client.login("foo2", "bar2");
+        POP3MessageInfo[] entries = pop3Client.listMessages();
+        assertEquals(messageCount, entries.length);
+
+        for (int i = 0; i < messageCount; i++) {
+            Reader reader = pop3Client.retrieveMessage(entries[i].number);
+            assertNotNull(reader);
+            assertTrue(read(reader).contains("Subject: message " + i + "\r\n"));
+            reader.close();
+        }
+
+        // out of order retrieval
+        Reader reader = pop3Client.retrieveMessage(entries[3].number);
+        assertTrue(read(reader).contains("Subject: message 3\r\n"));
+        reader.close();
+
+        mailboxManager.deleteMailbox(mailboxPath, session);
+    }
+
     /**
      * Test for JAMES-1202 -  Which shows that UIDL,STAT and LIST all show the same message numbers.
      */
@@ -736,6 +775,16 @@ public class POP3ServerTest {
     
     }
 
+    private String read(Reader reader) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[1024];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            result.append(buffer, 0, read);
+        }
+        return result.toString();
+    }
+
     private void setupTestMails(MailboxSession session, MessageManager mailbox) throws MailboxException {
         mailbox.appendMessage(MessageManager.AppendCommand.builder()
             .build(content), session);
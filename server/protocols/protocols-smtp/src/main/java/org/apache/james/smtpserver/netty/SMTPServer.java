@@ -68,9 +68,10 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
 
     /**
      * This is a Network Matcher that should be configured to contain authorized
-     * networks that bypass SMTP AUTH requirements.
+     * networks that bypass SMTP AUTH requirements. Reloaded by
+     * {@link #setAuthorizedAddresses(String)}.
      */
-    private NetMatcher authorizedNetworks = null;
+    private volatile NetMatcher authorizedNetworks = null;
 
     /**
      * The maximum message size allowed by this SMTP server. The default value,
@@ -106,13 +107,7 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
     protected void preInit() throws Exception {
         super.preInit();
         if (authorizedAddresses != null) {
-            java.util.StringTokenizer st = new java.util.StringTokenizer(authorizedAddresses, ", ", false);
-            java.util.Collection<String> networks = new java.util.ArrayList<>();
-            while (st.hasMoreTokens()) {
-                String addr = st.nextToken();
-                networks.add(addr);
-            }
-            authorizedNetworks = new NetMatcher(networks, dns);
+            authorizedNetworks = new NetMatcher(parseNetworks(authorizedAddresses), dns);
         }
         SMTPProtocol transport = new SMTPProtocol(getProtocolHandlerChain(), theConfigData) {
 
@@ -225,8 +220,9 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
         @Override
         public boolean isRelayingAllowed(String remoteIP) {
             boolean relayingAllowed = false;
-            if (authorizedNetworks != null) {
-                relayingAllowed = SMTPServer.this.authorizedNetworks.matchInetNetwork(remoteIP);
+            NetMatcher networks = SMTPServer.this.authorizedNetworks;
+            if (networks != null) {
+                relayingAllowed = networks.matchInetNetwork(remoteIP);
             }
             return relayingAllowed;
         }
@@ -251,8 +247,9 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
                 return true;
             }
             boolean authRequired = SMTPServer.this.authRequired != AUTH_DISABLED;
-            if (authorizedNetworks != null) {
-                authRequired = authRequired && !SMTPServer.this.authorizedNetworks.matchInetNetwork(remoteIP);
+            NetMatcher networks = SMTPServer.this.authorizedNetworks;
+            if (networks != null) {
+                authRequired = authRequired && !networks.matchInetNetwork(remoteIP);
             }
             return authRequired;
         }
@@ -314,6 +311,34 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
         this.heloEhloEnforcement = enforceHeloEHlo;
     }
 
+    @Override
+    public String getAuthorizedAddresses() {
+        return authorizedAddresses;
+    }
+
+    @Override
+    public synchronized void setAuthorizedAddresses(String authorizedAddresses) {
+        this.authorizedAddresses = authorizedAddresses;
+        if (authorizedAddresses == null) {
+            authorizedNetworks = null;
+        } else if (authorizedNetworks == null) {
+            authorizedNetworks = new NetMatcher(parseNetworks(authorizedAddresses), dns);
+        } else {
+            authorizedNetworks.reload(parseNetworks(authorizedAddresses));
+        }
+        LOGGER.info("Authorized addresses: {}", authorizedNetworks);
+    }
+
+    private static java.util.Collection<String> parseNetworks(String addresses) {
+        java.util.StringTokenizer st = new java.util.StringTokenizer(addresses, ", ", false);
+        java.util.Collection<String> networks = new java.util.ArrayList<>();
+        while (st.hasMoreTokens()) {
+            String addr = st.nextToken();
+            networks.add(addr);
+        }
+        return networks;
+    }
+
     @Override
     public String getHeloName() {
         return theConfigData.getHelloName();
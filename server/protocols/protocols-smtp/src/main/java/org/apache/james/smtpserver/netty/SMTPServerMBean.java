@@ -70,6 +70,22 @@ public interface SMTPServerMBean extends org.apache.james.protocols.smtp.SMTPSer
      */
     void setHeloEhloEnforcement(boolean enforceHeloEHlo);
 
+    /**
+     * Return the networks allowed to relay without authentication
+     * 
+     * @return authorizedAddresses
+     */
+    String getAuthorizedAddresses();
+
+    /**
+     * Replace the networks allowed to relay without authentication. They
+     * apply to the sessions opened from then on.
+     * 
+     * @param authorizedAddresses
+     *            comma separated networks, or null to authorize none
+     */
+    void setAuthorizedAddresses(String authorizedAddresses);
+
     /**
      * Return the hello name
      * 
@@ -1396,6 +1396,27 @@ public class SMTPServerTest {
             .isEqualTo(550);
     }
 
+    @Test
+    public void relayingShouldBeAllowedWhenAuthorizedAddressesAreReloaded() throws Exception {
+        smtpConfiguration.setAuthorizedAddresses("128.0.0.1/8");
+        init(smtpConfiguration);
+
+        smtpServer.setAuthorizedAddresses("127.0.0.1/8");
+
+        SMTPClient smtpProtocol = new SMTPClient();
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+        smtpProtocol.connect(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort());
+
+        smtpProtocol.sendCommand("ehlo " + InetAddress.getLocalHost());
+
+        smtpProtocol.setSender("mail@sample.com");
+
+        smtpProtocol.addRecipient("maila@sample.com");
+        assertThat(smtpProtocol.getReplyCode())
+            .as("expected relaying to be allowed")
+            .isEqualTo(250);
+    }
+
     @Test
     public void testHandleAnnouncedMessageSizeLimitExceeded() throws Exception {
         smtpConfiguration.setMaxMessageSize(1); // set message limit to 1kb
@@ -0,0 +1,83 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import javax.inject.Inject;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.mailbox.indexer.ReIndexerImpl;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.dto.TaskIdDto;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Response;
+import spark.Service;
+
+@Api(tags = "ReIndexing")
+@Path("/reIndexing")
+@Produces("application/json")
+public class ReIndexingRoutes implements Routes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReIndexingRoutes.class);
+
+    public static final String BASE = "/reIndexing";
+
+    private final ReIndexerImpl reIndexer;
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    public ReIndexingRoutes(ReIndexerImpl reIndexer, TaskManager taskManager, JsonTransformer jsonTransformer) {
+        this.reIndexer = reIndexer;
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.post(BASE, (request, response) -> reIndexAll(response), jsonTransformer);
+    }
+
+    @POST
+    @ApiOperation("Triggers a full re-indexation of all mailboxes. A previously failed full re-indexation is resumed.")
+    @ApiResponses({
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task", response = TaskIdDto.class,
+            responseHeaders = {
+                @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+            })
+    })
+    public Object reIndexAll(Response response) {
+        LOGGER.info("Full re-indexation launched");
+        TaskId taskId = taskManager.submit(reIndexer.fullReindexingTask());
+        return TaskIdDto.respond(response, taskId);
+    }
+}
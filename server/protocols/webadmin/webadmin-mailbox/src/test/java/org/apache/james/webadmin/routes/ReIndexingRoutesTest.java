@@ -0,0 +1,105 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static com.jayway.restassured.RestAssured.when;
+import static org.apache.james.webadmin.WebAdminServer.NO_CONFIGURATION;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.james.mailbox.indexer.FullReindexingTask;
+import org.apache.james.mailbox.indexer.ReIndexerImpl;
+import org.apache.james.metrics.logger.DefaultMetricFactory;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.task.Task;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jayway.restassured.RestAssured;
+
+class ReIndexingRoutesTest {
+
+    private WebAdminServer webAdminServer;
+    private MemoryTaskManager taskManager;
+    private ReIndexerImpl reIndexer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reIndexer = mock(ReIndexerImpl.class);
+        when(reIndexer.fullReindexingTask()).thenReturn(new Task() {
+            @Override
+            public Result run() {
+                return Result.COMPLETED;
+            }
+
+            @Override
+            public String type() {
+                return FullReindexingTask.FULL_RE_INDEXING;
+            }
+        });
+
+        taskManager = new MemoryTaskManager();
+        JsonTransformer jsonTransformer = new JsonTransformer();
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+            new DefaultMetricFactory(),
+            new ReIndexingRoutes(reIndexer, taskManager, jsonTransformer),
+            new TasksRoutes(taskManager, jsonTransformer));
+        webAdminServer.configure(NO_CONFIGURATION);
+        webAdminServer.await();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+        taskManager.stop();
+    }
+
+    @Test
+    void postShouldScheduleAFullReIndexingTask() {
+        String taskId = when()
+            .post(ReIndexingRoutes.BASE)
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .header("Location", notNullValue())
+            .body("taskId", notNullValue())
+            .extract()
+            .jsonPath()
+            .get("taskId");
+
+        when()
+            .get(TasksRoutes.BASE + "/" + taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("type", is(FullReindexingTask.FULL_RE_INDEXING));
+
+        verify(reIndexer).fullReindexingTask();
+    }
+}
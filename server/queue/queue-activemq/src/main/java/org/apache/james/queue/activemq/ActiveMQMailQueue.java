@@ -43,6 +43,7 @@ import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.jms.JMSMailQueue;
+import org.apache.james.server.core.MailEnvelopeCodec;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageInputStream;
 import org.apache.james.server.core.MimeMessageSource;
@@ -105,7 +106,11 @@ public class ActiveMQMailQueue extends JMSMailQueue implements ActiveMQSupport {
      * @param useBlob
      */
     public ActiveMQMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queuename, boolean useBlob, MetricFactory metricFactory) {
-        super(connectionFactory, mailQueueItemDecoratorFactory, queuename, metricFactory);
+        this(connectionFactory, mailQueueItemDecoratorFactory, queuename, useBlob, metricFactory, new MailEnvelopeCodec());
+    }
+
+    public ActiveMQMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queuename, boolean useBlob, MetricFactory metricFactory, MailEnvelopeCodec codec) {
+        super(connectionFactory, mailQueueItemDecoratorFactory, queuename, metricFactory, codec);
         this.useBlob = useBlob;
     }
 
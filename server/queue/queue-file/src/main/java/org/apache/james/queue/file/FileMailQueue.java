@@ -18,13 +18,14 @@
  ****************************************************************/
 package org.apache.james.queue.file;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -51,6 +52,7 @@ import org.apache.james.lifecycle.api.Disposable;
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MailEnvelopeCodec;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageSource;
 import org.apache.mailet.Mail;
@@ -81,9 +83,15 @@ public class FileMailQueue implements ManageableMailQueue {
     private static final int SPLITCOUNT = 10;
     private static final SecureRandom RANDOM = new SecureRandom();
     private final String queueName;
+    private final MailEnvelopeCodec codec;
 
     public FileMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queuename, boolean sync) throws IOException {
+        this(mailQueueItemDecoratorFactory, parentDir, queuename, sync, new MailEnvelopeCodec());
+    }
+
+    public FileMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queuename, boolean sync, MailEnvelopeCodec codec) throws IOException {
         this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
+        this.codec = codec;
         this.sync = sync;
         this.queueName = queuename;
         this.queueDir = new File(parentDir, queueName);
@@ -107,16 +115,13 @@ public class FileMailQueue implements ManageableMailQueue {
 
             for (String name : files) {
 
-                ObjectInputStream oin = null;
-
                 try {
 
                     final String msgFileName = name.substring(0, name.length() - OBJECT_EXTENSION.length()) + MSG_EXTENSION;
 
                     FileItem item = new FileItem(qDir.getAbsolutePath() + File.separator + name, qDir.getAbsolutePath() + File.separator + msgFileName);
 
-                    oin = new ObjectInputStream(new FileInputStream(item.getObjectFile()));
-                    Mail mail = (Mail) oin.readObject();
+                    Mail mail = readMail(item.getObjectFile());
                     Optional<ZonedDateTime> next = getNextDelivery(mail);
 
                     final String key = mail.getName();
@@ -145,20 +150,26 @@ public class FileMailQueue implements ManageableMailQueue {
                     }
                 } catch (ClassNotFoundException | IOException e) {
                     LOGGER.error("Unable to load Mail", e);
-                } finally {
-                    if (oin != null) {
-                        try {
-                            oin.close();
-                        } catch (Exception e) {
-                            // ignore on close
-                        }
-                    }
                 }
 
             }
         }
     }
 
+    /**
+     * Reads the envelope of a queued mail, whether it was written by the {@link MailEnvelopeCodec} or, by previous
+     * versions, using Java serialization.
+     */
+    private Mail readMail(String objectFile) throws IOException, ClassNotFoundException {
+        byte[] bytes = Files.readAllBytes(Paths.get(objectFile));
+        if (MailEnvelopeCodec.isEncoded(bytes)) {
+            return codec.decode(bytes);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Mail) in.readObject();
+        }
+    }
+
     private Optional<ZonedDateTime> getNextDelivery(Mail mail) {
         Long next = (Long) mail.getAttribute(NEXT_DELIVERY);
         if (next == null) {
@@ -172,7 +183,6 @@ public class FileMailQueue implements ManageableMailQueue {
         final String key = mail.getName() + "-" + COUNTER.incrementAndGet();
         FileOutputStream out = null;
         FileOutputStream foout = null;
-        ObjectOutputStream oout = null;
         try {
             int i = RANDOM.nextInt(SPLITCOUNT) + 1;
 
@@ -183,9 +193,7 @@ public class FileMailQueue implements ManageableMailQueue {
                 mail.setAttribute(NEXT_DELIVERY, System.currentTimeMillis() + unit.toMillis(delay));
             }
             foout = new FileOutputStream(item.getObjectFile());
-            oout = new ObjectOutputStream(foout);
-            oout.writeObject(mail);
-            oout.flush();
+            codec.encode(mail, foout);
             if (sync) {
                 foout.getFD().sync();
             }
@@ -226,13 +234,6 @@ public class FileMailQueue implements ManageableMailQueue {
                     // ignore on close
                 }
             }
-            if (oout != null) {
-                try {
-                    oout.close();
-                } catch (IOException e) {
-                    // ignore on close
-                }
-            }
             if (foout != null) {
                 try {
                     foout.close();
@@ -262,12 +263,9 @@ public class FileMailQueue implements ManageableMailQueue {
             }
             final String key = k;
             final FileItem fitem = item;
-            ObjectInputStream oin = null;
             try {
-                final File objectFile = new File(fitem.getObjectFile());
                 final File msgFile = new File(fitem.getMessageFile());
-                oin = new ObjectInputStream(new FileInputStream(objectFile));
-                final Mail mail = (Mail) oin.readObject();
+                final Mail mail = readMail(fitem.getObjectFile());
                 mail.setMessage(new MimeMessageCopyOnWriteProxy(new FileMimeMessageSource(msgFile)));
                 MailQueueItem fileMailQueueItem = new MailQueueItem() {
 
@@ -298,14 +296,6 @@ public class FileMailQueue implements ManageableMailQueue {
                 // TODO: Think about exception handling in detail
             } catch (IOException | ClassNotFoundException | MessagingException e) {
                 throw new MailQueueException("Unable to dequeue", e);
-            } finally {
-                if (oin != null) {
-                    try {
-                        oin.close();
-                    } catch (IOException e) {
-                        // ignore on close
-                    }
-                }
             }
 
         } catch (InterruptedException e) {
@@ -472,22 +462,12 @@ public class FileMailQueue implements ManageableMailQueue {
             public boolean hasNext() {
                 if (item == null) {
                     while (items.hasNext()) {
-                        ObjectInputStream in = null;
                         try {
-                            in = new ObjectInputStream(new FileInputStream(items.next().getObjectFile()));
-                            final Mail mail = (Mail) in.readObject();
+                            final Mail mail = readMail(items.next().getObjectFile());
                             item = new MailQueueItemView(mail, getNextDelivery(mail));
                             return true;
                         } catch (IOException | ClassNotFoundException e) {
                             LOGGER.info("Unable to load mail", e);
-                        } finally {
-                            if (in != null) {
-                                try {
-                                    in.close();
-                                } catch (IOException e) {
-                                    // ignore on close
-                                }
-                            }
                         }
                     }
                     return false;
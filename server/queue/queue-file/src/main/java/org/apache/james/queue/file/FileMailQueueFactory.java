@@ -30,6 +30,7 @@ import org.apache.james.filesystem.api.FileSystem;
 import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MailEnvelopeCodec;
 
 import com.google.common.collect.ImmutableSet;
 
@@ -42,6 +43,7 @@ public class FileMailQueueFactory implements MailQueueFactory<ManageableMailQueu
     private MailQueueItemDecoratorFactory mailQueueActionItemDecoratorFactory;
     private FileSystem fs;
     private boolean sync = true;
+    private MailEnvelopeCodec mailEnvelopeCodec = new MailEnvelopeCodec();
 
     @Inject
     public FileMailQueueFactory(FileSystem fs, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory) {
@@ -66,6 +68,16 @@ public class FileMailQueueFactory implements MailQueueFactory<ManageableMailQueu
         this.sync = sync;
     }
 
+    /**
+     * Set the {@link MailEnvelopeCodec} the later created {@link FileMailQueue} will use to store the envelope of the mails,
+     * for example to plug in a custom serializer of the attribute values.
+     *
+     * @param mailEnvelopeCodec
+     */
+    public void setMailEnvelopeCodec(MailEnvelopeCodec mailEnvelopeCodec) {
+        this.mailEnvelopeCodec = mailEnvelopeCodec;
+    }
+
     @Override
     public Optional<ManageableMailQueue> getQueue(String name) {
         return Optional.ofNullable(queues.get(name));
@@ -79,7 +91,7 @@ public class FileMailQueueFactory implements MailQueueFactory<ManageableMailQueu
     private ManageableMailQueue createAndRegisterQueue(String name) {
         synchronized (queues) {
             try {
-                FileMailQueue queue = new FileMailQueue(mailQueueActionItemDecoratorFactory, fs.getFile("file://var/store/queue"), name, sync);
+                FileMailQueue queue = new FileMailQueue(mailQueueActionItemDecoratorFactory, fs.getFile("file://var/store/queue"), name, sync, mailEnvelopeCodec);
                 queues.put(name, queue);
                 return queue;
             } catch (IOException e) {
@@ -25,13 +25,16 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.TimeUnit;
 
@@ -60,6 +63,7 @@ import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MailEnvelopeCodec;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.mailet.Mail;
@@ -142,12 +146,17 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
     protected final Metric enqueuedMailsMetric;
     protected final Metric mailQueueSize;
     protected final MetricFactory metricFactory;
+    protected final MailEnvelopeCodec codec;
 
     protected final Session session;
     protected final Queue queue;
     protected final MessageProducer producer;
 
     public JMSMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queueName, MetricFactory metricFactory) {
+        this(connectionFactory, mailQueueItemDecoratorFactory, queueName, metricFactory, new MailEnvelopeCodec());
+    }
+
+    public JMSMailQueue(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, String queueName, MetricFactory metricFactory, MailEnvelopeCodec codec) {
         try {
             connection = connectionFactory.createConnection();
             connection.start();
@@ -157,6 +166,7 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
         this.queueName = queueName;
         this.metricFactory = metricFactory;
+        this.codec = codec;
         this.enqueuedMailsMetric = metricFactory.generate("enqueuedMail:" + queueName);
         this.mailQueueSize = metricFactory.generate("mailQueueSize:" + queueName);
 
@@ -320,19 +330,29 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         }
 
         StringBuilder attrsBuilder = new StringBuilder();
+        StringBuilder encodedAttrsBuilder = new StringBuilder();
         Iterator<String> attrs = mail.getAttributeNames();
         while (attrs.hasNext()) {
             String attrName = attrs.next();
             attrsBuilder.append(attrName);
 
-            Object value = convertAttributeValue(mail.getAttribute(attrName));
-            props.put(attrName, value);
+            Serializable value = mail.getAttribute(attrName);
+            if (value == null || isPropertyType(value)) {
+                props.put(attrName, convertAttributeValue(value));
+            } else {
+                props.put(attrName, encodeAttributeValue(value));
+                if (encodedAttrsBuilder.length() > 0) {
+                    encodedAttrsBuilder.append(JAMES_MAIL_SEPARATOR);
+                }
+                encodedAttrsBuilder.append(attrName);
+            }
 
             if (attrs.hasNext()) {
                 attrsBuilder.append(JAMES_MAIL_SEPARATOR);
             }
         }
         props.put(JAMES_MAIL_ATTRIBUTE_NAMES, attrsBuilder.toString());
+        props.put(JAMES_MAIL_ENCODED_ATTRIBUTE_NAMES, encodedAttrsBuilder.toString());
         props.put(JAMES_MAIL_SENDER, sender);
         props.put(JAMES_MAIL_STATE, mail.getState());
         return props;
@@ -404,6 +424,16 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
         mail.setRemoteAddr(message.getStringProperty(JAMES_MAIL_REMOTEADDR));
         mail.setRemoteHost(message.getStringProperty(JAMES_MAIL_REMOTEHOST));
 
+        // Messages enqueued by previous versions do not have encoded attributes
+        Set<String> encodedAttributeNames = new HashSet<>();
+        String encodedNames = message.getStringProperty(JAMES_MAIL_ENCODED_ATTRIBUTE_NAMES);
+        if (encodedNames != null) {
+            StringTokenizer encodedNamesTokenizer = new StringTokenizer(encodedNames, JAMES_MAIL_SEPARATOR);
+            while (encodedNamesTokenizer.hasMoreTokens()) {
+                encodedAttributeNames.add(encodedNamesTokenizer.nextToken());
+            }
+        }
+
         String attributeNames = message.getStringProperty(JAMES_MAIL_ATTRIBUTE_NAMES);
         StringTokenizer namesTokenizer = new StringTokenizer(attributeNames, JAMES_MAIL_SEPARATOR);
         while (namesTokenizer.hasMoreTokens()) {
@@ -415,7 +445,13 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
 
             // ignore null values. See JAMES-1294
             if (attrValue != null) {
-                if (attrValue instanceof Serializable) {
+                if (encodedAttributeNames.contains(name)) {
+                    try {
+                        mail.setAttribute(name, decodeAttributeValue((String) attrValue));
+                    } catch (IOException | IllegalArgumentException e) {
+                        LOGGER.error("Unable to decode mail attribute {} for mail {}", name, mail.getName(), e);
+                    }
+                } else if (attrValue instanceof Serializable) {
                     mail.setAttribute(name, (Serializable) attrValue);
                 } else {
                     LOGGER.error("Not supported mail attribute {} of type {} for mail {}", name, attrValue, mail.getName());
@@ -448,12 +484,32 @@ public class JMSMailQueue implements ManageableMailQueue, JMSSupport, MailPriori
      * @return convertedValue
      */
     protected Object convertAttributeValue(Object value) {
-        if (value == null || value instanceof String || value instanceof Byte || value instanceof Long || value instanceof Double || value instanceof Boolean || value instanceof Integer || value instanceof Short || value instanceof Float) {
+        if (value == null || isPropertyType(value)) {
             return value;
         }
         return value.toString();
     }
 
+    private boolean isPropertyType(Object value) {
+        return value instanceof String || value instanceof Byte || value instanceof Long || value instanceof Double || value instanceof Boolean || value instanceof Integer || value instanceof Short || value instanceof Float;
+    }
+
+    /**
+     * Encode an attribute value which can not be carried as a JMS property as is, so that it can be read back
+     * without loss by {@link #populateMail(Message, MailImpl)}.
+     */
+    private String encodeAttributeValue(Serializable value) throws MessagingException {
+        try {
+            return Base64.getEncoder().encodeToString(codec.encodeAttributeValue(value));
+        } catch (IOException e) {
+            throw new MessagingException("Unable to encode attribute value " + value, e);
+        }
+    }
+
+    private Serializable decodeAttributeValue(String value) throws IOException {
+        return codec.decodeAttributeValue(Base64.getDecoder().decode(value));
+    }
+
     @Override
     public String toString() {
         return "MailQueue:" + queueName;
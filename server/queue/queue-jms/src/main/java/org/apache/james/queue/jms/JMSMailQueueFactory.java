@@ -26,6 +26,7 @@ import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.library.AbstractMailQueueFactory;
+import org.apache.james.server.core.MailEnvelopeCodec;
 
 /**
  * {@link MailQueueFactory} implementation which use JMS
@@ -35,6 +36,7 @@ public class JMSMailQueueFactory extends AbstractMailQueueFactory<ManageableMail
     protected final ConnectionFactory connectionFactory;
     protected final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
     protected final MetricFactory metricFactory;
+    protected MailEnvelopeCodec mailEnvelopeCodec = new MailEnvelopeCodec();
     
     @Inject
     public JMSMailQueueFactory(ConnectionFactory connectionFactory, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, MetricFactory metricFactory) {
@@ -43,9 +45,19 @@ public class JMSMailQueueFactory extends AbstractMailQueueFactory<ManageableMail
         this.metricFactory = metricFactory;
     }
 
+    /**
+     * Set the {@link MailEnvelopeCodec} the later created queues will use to carry the mail attributes which are not
+     * JMS properties, for example to plug in a custom serializer of the attribute values.
+     *
+     * @param mailEnvelopeCodec
+     */
+    public void setMailEnvelopeCodec(MailEnvelopeCodec mailEnvelopeCodec) {
+        this.mailEnvelopeCodec = mailEnvelopeCodec;
+    }
+
     @Override
     protected ManageableMailQueue createMailQueue(String name) {
-        return new JMSMailQueue(connectionFactory, mailQueueItemDecoratorFactory, name, metricFactory);
+        return new JMSMailQueue(connectionFactory, mailQueueItemDecoratorFactory, name, metricFactory, mailEnvelopeCodec);
     }
     
 }
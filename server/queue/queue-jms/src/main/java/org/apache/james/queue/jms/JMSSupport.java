@@ -59,6 +59,9 @@ public interface JMSSupport {
     /** JMS Property which holds the mail attribute names as String */
     String JAMES_MAIL_ATTRIBUTE_NAMES = "JAMES_MAIL_ATTRIBUTE_NAMES";
 
+    /** JMS Property which holds the names of the attributes whose value is encoded as a Base64 String */
+    String JAMES_MAIL_ENCODED_ATTRIBUTE_NAMES = "JAMES_MAIL_ENCODED_ATTRIBUTE_NAMES";
+
     /** JMS Property which holds next delivery time as long (ms) */
     String JAMES_NEXT_DELIVERY = "JAMES_NEXT_DELIVERY";
 